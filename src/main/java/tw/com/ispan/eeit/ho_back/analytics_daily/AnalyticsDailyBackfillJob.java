@@ -0,0 +1,258 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+/**
+ * analytics_daily 歷史資料補齊
+ *
+ * 1. 一次查詢找出區間內已有資料的日期，其餘為缺少的日期
+ * 2. 缺少的日期依連續區段切成最多 chunk-days 天一段
+ * 3. 各段在固定數量的 virtual thread 上平行計算：
+ *    - 一次查詢區段開始前的累積用戶 / 飯店數
+ *    - 一次 GROUP BY 查詢區段內每天的新增與訂單，依日期累加出每天的累積數
+ *    - 以 JDBC batch 寫入該段所有日期
+ * 同一時間只允許一個補資料作業，進度由 status() 提供
+ */
+@Component
+public class AnalyticsDailyBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsDailyBackfillJob.class);
+
+    static final String INSERT_SQL = "INSERT INTO analytics_daily (dt, total_users, total_hotels, total_orders, gmv_amount) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    record Chunk(LocalDate start, LocalDate end) {
+        int days() {
+            return (int) (end.toEpochDay() - start.toEpochDay());
+        }
+    }
+
+    private final AnalyticsDailyRepository dailyRepository;
+    private final AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsRollupCache rollupCache;
+    private final AnalyticsProperties.Backfill properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder completedDays = new LongAdder();
+    private final LongAdder failedChunks = new LongAdder();
+    private volatile LocalDate startDate;
+    private volatile LocalDate endDate;
+    private volatile int missingDays;
+    private volatile int chunks;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    public AnalyticsDailyBackfillJob(AnalyticsDailyRepository dailyRepository,
+            AnalyticsDailyRawQueryRepository rawQueryRepository, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, AnalyticsRollupCache rollupCache,
+            AnalyticsProperties properties) {
+        this.dailyRepository = dailyRepository;
+        this.rawQueryRepository = rawQueryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupCache = rollupCache;
+        this.properties = properties.getBackfill();
+    }
+
+    /**
+     * 在背景開始補資料
+     *
+     * @return 已有補資料作業在執行時回傳 false
+     */
+    public boolean start(LocalDate from, LocalDate to) {
+        validate(from, to);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("analytics-backfill").start(() -> {
+            try {
+                run(from, to);
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                logger.error("❌ analytics_daily 補資料失敗: {}", e.getMessage(), e);
+            } finally {
+                finishedAt = LocalDateTime.now();
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 同步補資料（start 在背景呼叫；測試也直接使用）
+     *
+     * @return 寫入的天數
+     */
+    int run(LocalDate from, LocalDate to) {
+        startDate = from;
+        endDate = to;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        completedDays.reset();
+        failedChunks.reset();
+
+        List<Chunk> plan = plan(from, to, existingDates(from, to), Math.max(properties.getChunkDays(), 1));
+        missingDays = plan.stream().mapToInt(Chunk::days).sum();
+        chunks = plan.size();
+        logger.info("analytics_daily 補資料 {} ~ {}：缺少 {} 天，分 {} 段", from, to, missingDays, chunks);
+
+        // 固定數量的 virtual thread，同時佔用的資料庫連線不超過 parallelism
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(properties.getParallelism(), 1),
+                Thread.ofVirtual().name("analytics-backfill-", 0).factory())) {
+            for (Chunk chunk : plan) {
+                executor.submit(() -> {
+                    try {
+                        completedDays.add(fill(chunk));
+                    } catch (Exception e) {
+                        failedChunks.increment();
+                        lastError = chunk.start() + " ~ " + chunk.end().minusDays(1) + ": " + e.getMessage();
+                        logger.error("❌ analytics_daily 補資料區段 {} ~ {} 失敗: {}", chunk.start(),
+                                chunk.end().minusDays(1), e.getMessage(), e);
+                    }
+                });
+            }
+        }
+        logger.info("✅ analytics_daily 補資料完成：寫入 {} 天，失敗 {} 段", completedDays.sum(), failedChunks.sum());
+        return (int) completedDays.sum();
+    }
+
+    private void validate(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("補資料的起訖日期不可為空");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("開始日期不可晚於結束日期");
+        }
+        if (to.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("結束日期不可晚於今天");
+        }
+        if (to.toEpochDay() - from.toEpochDay() + 1 > properties.getMaxDays()) {
+            throw new IllegalArgumentException("補資料區間過長，最多 " + properties.getMaxDays() + " 天");
+        }
+    }
+
+    private Set<LocalDate> existingDates(LocalDate from, LocalDate to) {
+        Set<LocalDate> existing = new HashSet<>();
+        for (Object value : dailyRepository.findExistingDates(from, to.plusDays(1))) {
+            existing.add(toLocalDate(value));
+        }
+        return existing;
+    }
+
+    /**
+     * 將 [from, to] 中缺少的日期切成連續、最多 chunkDays 天的區段
+     */
+    static List<Chunk> plan(LocalDate from, LocalDate to, Set<LocalDate> existing, int chunkDays) {
+        List<Chunk> plan = new ArrayList<>();
+        LocalDate chunkStart = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (existing.contains(date)) {
+                if (chunkStart != null) {
+                    plan.add(new Chunk(chunkStart, date));
+                    chunkStart = null;
+                }
+                continue;
+            }
+            if (chunkStart == null) {
+                chunkStart = date;
+            } else if (date.toEpochDay() - chunkStart.toEpochDay() >= chunkDays) {
+                plan.add(new Chunk(chunkStart, date));
+                chunkStart = date;
+            }
+        }
+        if (chunkStart != null) {
+            plan.add(new Chunk(chunkStart, to.plusDays(1)));
+        }
+        return plan;
+    }
+
+    /**
+     * 計算並寫入一個區段
+     *
+     * @return 寫入的天數
+     */
+    int fill(Chunk chunk) {
+        LocalDateTime start = chunk.start().atStartOfDay();
+        LocalDateTime end = chunk.end().atStartOfDay();
+
+        List<Object[]> base = rawQueryRepository.countCumulativeBefore(start);
+        long totalUsers = base.isEmpty() ? 0 : toLong(base.get(0)[0]);
+        long totalHotels = base.isEmpty() ? 0 : toLong(base.get(0)[1]);
+
+        Map<LocalDate, Object[]> deltas = new HashMap<>();
+        for (Object[] row : rawQueryRepository.collectDailyDeltasBetween(start, end)) {
+            deltas.put(toLocalDate(row[0]), row);
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDate date = chunk.start(); date.isBefore(chunk.end()); date = date.plusDays(1)) {
+            Object[] delta = deltas.get(date);
+            long orders = 0;
+            BigDecimal gmv = BigDecimal.ZERO;
+            if (delta != null) {
+                totalUsers += toLong(delta[1]);
+                totalHotels += toLong(delta[2]);
+                orders = toLong(delta[3]);
+                gmv = delta[4] instanceof BigDecimal amount ? amount
+                        : delta[4] != null ? new BigDecimal(delta[4].toString()) : BigDecimal.ZERO;
+            }
+            rows.add(new Object[] { Date.valueOf(date), totalUsers, totalHotels, orders, gmv });
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+        for (LocalDate date = chunk.start(); date.isBefore(chunk.end()); date = date.plusDays(1)) {
+            rollupCache.evict(date);
+        }
+        return rows.size();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", running.get());
+        result.put("startDate", startDate);
+        result.put("endDate", endDate);
+        result.put("missingDays", missingDays);
+        result.put("completedDays", completedDays.sum());
+        result.put("chunks", chunks);
+        result.put("failedChunks", failedChunks.sum());
+        result.put("progress", missingDays == 0 ? (running.get() ? 0.0 : 100.0)
+                : Math.round(completedDays.sum() * 1000.0 / missingDays) / 10.0);
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", finishedAt);
+        result.put("lastError", lastError);
+        return result;
+    }
+}
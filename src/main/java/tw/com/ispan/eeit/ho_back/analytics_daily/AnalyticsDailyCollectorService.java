@@ -5,112 +5,124 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * 每日營運數據收集服務
  * 負責從各個資料來源統計數據
- * 
+ *
  * 使用原生 SQL 查詢，不依賴其他模組的 Entity
+ * - 當日的新增用戶、新增飯店、訂單數、成交額一次查詢，日期條件為 >= 當日 AND < 隔天
+ * - 累積用戶 / 飯店 = 前一日快照 + 當日新增，只有前一日沒有快照時才整表計算
  */
 @Service
 @Transactional(readOnly = true)
 public class AnalyticsDailyCollectorService {
 
     private final AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private final AnalyticsDailyRepository dailyRepository;
 
-    public AnalyticsDailyCollectorService(AnalyticsDailyRawQueryRepository rawQueryRepository) {
+    public AnalyticsDailyCollectorService(AnalyticsDailyRawQueryRepository rawQueryRepository,
+            AnalyticsDailyRepository dailyRepository) {
         this.rawQueryRepository = rawQueryRepository;
+        this.dailyRepository = dailyRepository;
     }
 
     /**
      * 收集指定日期的所有營運數據
-     * 
+     *
      * @param date 統計日期
      * @return 統計結果
      */
     public AnalyticsDaily collectDataForDate(LocalDate date) {
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
 
-        // 統計各項數據
-        Integer totalUsers = countTotalUsers(date);
-        Integer totalHotels = countTotalHotels(date);
-        Integer totalOrders = countTotalOrders(date);
-        BigDecimal gmvAmount = calculateGMV(date);
+        // 當日新增與訂單（一次查詢）
+        Object[] delta = collectDelta(start, end);
+        int newUsers = toInt(delta[0]);
+        int newHotels = toInt(delta[1]);
+
+        // 累積總數：前一日快照 + 當日新增
+        // 注意：以快照累加時，之後才停業的飯店不會從過去的累積數中扣除（與原本依目前狀態整表重算的數字可能略有差異）
+        int totalUsers;
+        int totalHotels;
+        Optional<AnalyticsDaily> previous = findPreviousSnapshot(date);
+        if (previous.isPresent()) {
+            totalUsers = previous.get().getTotalUsers() + newUsers;
+            totalHotels = previous.get().getTotalHotels() + newHotels;
+        } else {
+            Object[] cumulative = countCumulative(end);
+            totalUsers = toInt(cumulative[0]);
+            totalHotels = toInt(cumulative[1]);
+        }
 
         return AnalyticsDaily.builder()
                 .date(date)
                 .totalUsers(totalUsers)
                 .totalHotels(totalHotels)
-                .totalOrders(totalOrders)
-                .gmvAmount(gmvAmount)
+                .totalOrders(toInt(delta[2]))
+                .gmvAmount(toBigDecimal(delta[3]))
                 .build();
     }
 
     /**
-     * 統計累積用戶總數
-     * 使用原生 SQL 查詢截至指定日期的累積用戶總數
-     * 
-     * @param date 統計日期（包含當日）
-     * @return 累積用戶總數
+     * 統計當日新增用戶、新增飯店、訂單數與成交額
+     *
+     * @return new_users, new_hotels, orders, gmv；查詢失敗時皆為 0
      */
-    private Integer countTotalUsers(LocalDate date) {
+    private Object[] collectDelta(LocalDateTime start, LocalDateTime end) {
         try {
-            Integer count = rawQueryRepository.countTotalUsersByDate(date);
-            return count != null ? count : 0;
+            List<Object[]> rows = rawQueryRepository.collectDailyDelta(start, end);
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
         } catch (Exception e) {
-            System.err.println("統計累積用戶總數失敗: " + e.getMessage());
-            return 0;
+            System.err.println("統計當日營運數據失敗: " + e.getMessage());
         }
+        return new Object[] { 0, 0, 0, BigDecimal.ZERO };
     }
 
     /**
-     * 統計累積飯店總數
-     * 使用原生 SQL 查詢截至指定日期且 business_status = 1 的累積飯店總數
-     * 
-     * @param date 統計日期（包含當日）
-     * @return 累積飯店總數
+     * 前一日的快照，累積數為空時視為沒有快照
      */
-    private Integer countTotalHotels(LocalDate date) {
+    private Optional<AnalyticsDaily> findPreviousSnapshot(LocalDate date) {
         try {
-            Integer count = rawQueryRepository.countTotalHotelsByDate(date);
-            return count != null ? count : 0;
+            return dailyRepository.findByDate(date.minusDays(1))
+                    .filter(p -> p.getTotalUsers() != null && p.getTotalHotels() != null);
         } catch (Exception e) {
-            System.err.println("統計累積飯店總數失敗: " + e.getMessage());
-            return 0;
+            System.err.println("查詢前一日快照失敗: " + e.getMessage());
+            return Optional.empty();
         }
     }
 
     /**
-     * 統計當日訂單數
-     * 使用原生 SQL 查詢指定日期當天的訂單數
-     * 
-     * @param date 統計日期
-     * @return 訂單數
+     * 統計截至 end（不包含）的累積用戶總數與累積飯店總數（business_status = 1）
+     *
+     * @return total_users, total_hotels；查詢失敗時皆為 0
      */
-    private Integer countTotalOrders(LocalDate date) {
+    private Object[] countCumulative(LocalDateTime end) {
         try {
-            Integer count = rawQueryRepository.countOrdersByDate(date);
-            return count != null ? count : 0;
+            List<Object[]> rows = rawQueryRepository.countCumulativeBefore(end);
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
         } catch (Exception e) {
-            System.err.println("統計訂單數失敗: " + e.getMessage());
-            return 0;
+            System.err.println("統計累積用戶與飯店總數失敗: " + e.getMessage());
         }
+        return new Object[] { 0, 0 };
     }
 
-    /**
-     * 計算當日平台成交額（GMV）
-     * 使用原生 SQL 計算指定日期當天已完成訂單的成交額
-     * 
-     * @param date 統計日期
-     * @return 成交額
-     */
-    private BigDecimal calculateGMV(LocalDate date) {
-        try {
-            BigDecimal amount = rawQueryRepository.sumGmvByDate(date);
-            return amount != null ? amount : BigDecimal.ZERO;
-        } catch (Exception e) {
-            System.err.println("統計平台成交額失敗: " + e.getMessage());
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
             return BigDecimal.ZERO;
         }
+        return value instanceof BigDecimal amount ? amount : new BigDecimal(value.toString());
     }
-
 }
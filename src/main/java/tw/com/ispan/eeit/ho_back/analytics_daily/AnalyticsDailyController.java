@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 每日營運分析 API 控制器
@@ -24,12 +25,17 @@ public class AnalyticsDailyController {
     private final AnalyticsDailyService service;
     private final ModelMapper modelMapper;
     private final AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private final AnalyticsRollupCache rollupCache;
+    private final AnalyticsTodayCounters todayCounters;
 
     public AnalyticsDailyController(AnalyticsDailyService service, ModelMapper modelMapper,
-            AnalyticsDailyRawQueryRepository rawQueryRepository) {
+            AnalyticsDailyRawQueryRepository rawQueryRepository, AnalyticsRollupCache rollupCache,
+            AnalyticsTodayCounters todayCounters) {
         this.service = service;
         this.modelMapper = modelMapper;
         this.rawQueryRepository = rawQueryRepository;
+        this.rollupCache = rollupCache;
+        this.todayCounters = todayCounters;
     }
 
     /**
@@ -205,16 +211,7 @@ public class AnalyticsDailyController {
      */
     @GetMapping("/new-users/today")
     public ResponseEntity<Map<String, Object>> getTodayNewUsers() {
-        LocalDate today = LocalDate.now();
-        Integer count = rawQueryRepository.countNewUsersByDate(today);
-        if (count == null) {
-            count = 0;
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", count);
-        response.put("date", today.toString());
-        return ResponseEntity.ok(response);
+        return todayCount(AnalyticsTodayCounters.Metric.NEW_USERS, rawQueryRepository::countNewUsersByDate);
     }
 
     /**
@@ -223,16 +220,7 @@ public class AnalyticsDailyController {
      */
     @GetMapping("/new-reviews/today")
     public ResponseEntity<Map<String, Object>> getTodayNewReviews() {
-        LocalDate today = LocalDate.now();
-        Integer count = rawQueryRepository.countNewReviewsByDate(today);
-        if (count == null) {
-            count = 0;
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", count);
-        response.put("date", today.toString());
-        return ResponseEntity.ok(response);
+        return todayCount(AnalyticsTodayCounters.Metric.NEW_REVIEWS, rawQueryRepository::countNewReviewsByDate);
     }
 
     /**
@@ -241,16 +229,7 @@ public class AnalyticsDailyController {
      */
     @GetMapping("/new-hotels/today")
     public ResponseEntity<Map<String, Object>> getTodayNewHotels() {
-        LocalDate today = LocalDate.now();
-        Integer count = rawQueryRepository.countNewHotelsByDate(today);
-        if (count == null) {
-            count = 0;
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", count);
-        response.put("date", today.toString());
-        return ResponseEntity.ok(response);
+        return todayCount(AnalyticsTodayCounters.Metric.NEW_HOTELS, rawQueryRepository::countNewHotelsByDate);
     }
 
     /**
@@ -259,10 +238,26 @@ public class AnalyticsDailyController {
      */
     @GetMapping("/support-cases/today")
     public ResponseEntity<Map<String, Object>> getTodaySupportCases() {
-        LocalDate today = LocalDate.now();
-        Integer count = rawQueryRepository.countSupportCasesByDate(today);
+        return todayCount(AnalyticsTodayCounters.Metric.SUPPORT_CASES, rawQueryRepository::countSupportCasesByDate);
+    }
+
+    /**
+     * 今日計數狀態
+     * GET /api/analytics/daily/today-counters
+     */
+    @GetMapping("/today-counters")
+    public ResponseEntity<Map<String, Object>> getTodayCounters() {
+        return ResponseEntity.ok(todayCounters.status());
+    }
+
+    // 優先讀記憶體計數，尚未與資料庫對齊時才查詢
+    private ResponseEntity<Map<String, Object>> todayCount(AnalyticsTodayCounters.Metric metric,
+            Function<LocalDate, Integer> query) {
+        LocalDate today = todayCounters.date();
+        Long count = todayCounters.today(metric);
         if (count == null) {
-            count = 0;
+            Integer queried = query.apply(today);
+            count = queried != null ? queried.longValue() : 0L;
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -271,6 +266,34 @@ public class AnalyticsDailyController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 依期間彙總統計數據（一次查詢，已結束的期間直接取快取）
+     * GET /api/analytics/daily/rollup?period=MONTH&startDate=2025-01-01&endDate=2025-12-31
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<?> getRollups(
+            @RequestParam(required = false, defaultValue = "DAY") String period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(service.getRollups(AnalyticsPeriod.parse(period), startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 彙總快取狀態
+     * GET /api/analytics/daily/rollup/cache
+     */
+    @GetMapping("/rollup/cache")
+    public ResponseEntity<Map<String, Object>> getRollupCacheStatus() {
+        return ResponseEntity.ok(rollupCache.status());
+    }
+
     /**
      * 獲取日期範圍內的訂單與成交額數據
      * 從 analytics_daily 表查詢 total_orders 和 gmv_amount
@@ -281,32 +304,18 @@ public class AnalyticsDailyController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         try {
-            System.out.println("查詢訂單與成交額數據 - startDate: " + startDate + ", endDate: " + endDate);
-            
-            // 從 analytics_daily 表查詢指定日期範圍的數據
-            // 使用 Service 的 getAll 然後過濾日期範圍
-            List<AnalyticsDailyDTO> allData = service.getAll();
-            List<AnalyticsDailyDTO> filteredData = allData.stream()
-                    .filter(dto -> dto.getDate() != null && 
-                            !dto.getDate().isBefore(startDate) && 
-                            !dto.getDate().isAfter(endDate))
-                    .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
-                    .collect(java.util.stream.Collectors.toList());
-            
-            System.out.println("從 analytics_daily 表查詢到 " + filteredData.size() + " 筆記錄");
-            
+            // 以日為期間彙總，只回傳有資料的日期
             List<Map<String, Object>> response = new ArrayList<>();
-            
-            for (AnalyticsDailyDTO dto : filteredData) {
+            for (AnalyticsDailyRollup day : service.getRollups(AnalyticsPeriod.DAY, startDate, endDate)) {
+                if (day.isEmpty()) {
+                    continue;
+                }
                 Map<String, Object> item = new HashMap<>();
-                item.put("date", dto.getDate().toString()); // date
-                item.put("orders", dto.getTotalOrders() != null ? dto.getTotalOrders() : 0); // total_orders
-                item.put("gmv", dto.getGmvAmount() != null ? dto.getGmvAmount().doubleValue() : 0.0); // gmv_amount
+                item.put("date", day.periodStart().toString()); // date
+                item.put("orders", day.totalOrders()); // total_orders
+                item.put("gmv", day.gmvAmount().doubleValue()); // gmv_amount
                 response.add(item);
-                System.out.println("訂單數據: date=" + item.get("date") + ", orders=" + item.get("orders") + ", gmv=" + item.get("gmv"));
             }
-            
-            System.out.println("返回 " + response.size() + " 筆訂單與成交額數據");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.err.println("獲取訂單與成交額數據時發生錯誤: " + e.getMessage());
@@ -326,39 +335,12 @@ public class AnalyticsDailyController {
             @RequestParam Integer year,
             @RequestParam Integer month) {
         YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
-        int daysInMonth = yearMonth.lengthOfMonth();
-        
-        // 獲取該月份所有日期的數據
-        List<AnalyticsDailyDTO> monthlyData = new ArrayList<>();
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            AnalyticsDailyDTO dailyData = service.getByDate(date);
-            if (dailyData != null) {
-                monthlyData.add(dailyData);
-            }
-        }
-        
-        if (monthlyData.isEmpty()) {
+        AnalyticsDailyRollup monthly = service
+                .getRollups(AnalyticsPeriod.MONTH, yearMonth.atDay(1), yearMonth.atEndOfMonth()).get(0);
+        if (monthly.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        
-        // 計算平均值（總和 / 天數）
-        long totalUsers = monthlyData.stream().mapToLong(d -> d.getTotalUsers() != null ? d.getTotalUsers() : 0).sum();
-        long totalHotels = monthlyData.stream().mapToLong(d -> d.getTotalHotels() != null ? d.getTotalHotels() : 0).sum();
-        long totalOrders = monthlyData.stream().mapToLong(d -> d.getTotalOrders() != null ? d.getTotalOrders() : 0).sum();
-        BigDecimal totalGmv = monthlyData.stream()
-                .map(d -> d.getGmvAmount() != null ? d.getGmvAmount() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        AnalyticsDailyDTO aggregate = new AnalyticsDailyDTO();
-        aggregate.setTotalUsers((int) (totalUsers / daysInMonth));
-        aggregate.setTotalHotels((int) (totalHotels / daysInMonth));
-        aggregate.setTotalOrders((int) (totalOrders / daysInMonth));
-        aggregate.setGmvAmount(totalGmv.divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP));
-        aggregate.setDate(yearMonth.atDay(1)); // 使用月份第一天作為日期標識
-        
-        return ResponseEntity.ok(aggregate);
+        return ResponseEntity.ok(monthly.toDailyAverage());
     }
 
     /**
@@ -372,44 +354,16 @@ public class AnalyticsDailyController {
             @RequestParam Integer quarter) {
         // 計算該季度的月份範圍
         int startMonth = (quarter - 1) * 3 + 1;
-        int endMonth = quarter * 3;
-        
-        List<AnalyticsDailyDTO> quarterlyData = new ArrayList<>();
-        
-        // 獲取該季度每個月的聚合數據
-        for (int month = startMonth; month <= endMonth; month++) {
-            YearMonth yearMonth = YearMonth.of(year, month);
-            LocalDate startDate = yearMonth.atDay(1);
-            LocalDate endDate = yearMonth.atEndOfMonth();
-            int daysInMonth = yearMonth.lengthOfMonth();
-            
-            // 獲取該月份所有日期的數據
-            List<AnalyticsDailyDTO> monthlyData = new ArrayList<>();
-            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-                AnalyticsDailyDTO dailyData = service.getByDate(date);
-                if (dailyData != null) {
-                    monthlyData.add(dailyData);
-                }
-            }
-            
-            if (!monthlyData.isEmpty()) {
-                // 計算該月的平均值
-                long totalUsers = monthlyData.stream().mapToLong(d -> d.getTotalUsers() != null ? d.getTotalUsers() : 0).sum();
-                long totalHotels = monthlyData.stream().mapToLong(d -> d.getTotalHotels() != null ? d.getTotalHotels() : 0).sum();
-                long totalOrders = monthlyData.stream().mapToLong(d -> d.getTotalOrders() != null ? d.getTotalOrders() : 0).sum();
-                BigDecimal totalGmv = monthlyData.stream()
-                        .map(d -> d.getGmvAmount() != null ? d.getGmvAmount() : BigDecimal.ZERO)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-                AnalyticsDailyDTO monthlyAggregate = new AnalyticsDailyDTO();
-                monthlyAggregate.setTotalUsers((int) (totalUsers / daysInMonth));
-                monthlyAggregate.setTotalHotels((int) (totalHotels / daysInMonth));
-                monthlyAggregate.setTotalOrders((int) (totalOrders / daysInMonth));
-                monthlyAggregate.setGmvAmount(totalGmv.divide(BigDecimal.valueOf(daysInMonth), 2, RoundingMode.HALF_UP));
-                quarterlyData.add(monthlyAggregate);
-            }
-        }
-        
+        LocalDate startDate = YearMonth.of(year, startMonth).atDay(1);
+        LocalDate endDate = YearMonth.of(year, quarter * 3).atEndOfMonth();
+
+        // 一次查出三個月的彙總，換算各月平均值
+        List<AnalyticsDailyDTO> quarterlyData = service.getRollups(AnalyticsPeriod.MONTH, startDate, endDate)
+                .stream()
+                .filter(m -> !m.isEmpty())
+                .map(AnalyticsDailyRollup::toDailyAverage)
+                .toList();
+
         if (quarterlyData.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -428,7 +382,7 @@ public class AnalyticsDailyController {
         aggregate.setTotalHotels((int) (totalHotels / monthCount));
         aggregate.setTotalOrders((int) (totalOrders / monthCount));
         aggregate.setGmvAmount(totalGmv.divide(BigDecimal.valueOf(monthCount), 2, RoundingMode.HALF_UP));
-        aggregate.setDate(YearMonth.of(year, startMonth).atDay(1)); // 使用季度第一個月第一天作為日期標識
+        aggregate.setDate(startDate); // 使用季度第一個月第一天作為日期標識
         
         return ResponseEntity.ok(aggregate);
     }
@@ -7,35 +7,38 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * 每日數據統計原生 SQL 查詢 Repository
  * 使用原生 SQL 直接查詢資料庫，不依賴其他模組的 Entity
+ *
+ * 日期條件一律寫成 column >= 當日 AND column < 隔天，不對欄位做 CAST，才能使用索引（db/analytics_daily_index.sql）
  */
 @Repository
 public interface AnalyticsDailyRawQueryRepository extends JpaRepository<AnalyticsDaily, Long> {
 
         /**
          * 統計截至指定日期的累積用戶總數
-         * 查詢 dbo.user 表中 created_time <= 指定日期的累積用戶數
+         * 查詢 dbo.user 表中 created_time 早於指定日期隔天的累積用戶數
          * 
          * @param date 統計日期（包含當日）
          * @return 累積用戶總數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[user] " +
-                        "WHERE CAST(created_time AS DATE) <= :date", nativeQuery = true)
+                        "WHERE created_time < DATEADD(day, 1, :date)", nativeQuery = true)
         Integer countTotalUsersByDate(@Param("date") LocalDate date);
 
         /**
          * 統計截至指定日期的累積飯店總數
-         * 查詢 dbo.hotel 表中 created_time <= 指定日期且 business_status = 1 的累積飯店數
+         * 查詢 dbo.hotel 表中 created_time 早於指定日期隔天且 business_status = 1 的累積飯店數
          * 
          * @param date 統計日期（包含當日）
          * @return 累積飯店總數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[hotel] " +
-                        "WHERE CAST(created_time AS DATE) <= :date " +
+                        "WHERE created_time < DATEADD(day, 1, :date) " +
                         "AND business_status = 1", nativeQuery = true)
         Integer countTotalHotelsByDate(@Param("date") LocalDate date);
 
@@ -48,7 +51,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[booking] " +
                         "WHERE status = 2 " +
-                        "AND CAST(updated_time AS DATE) = :date", nativeQuery = true)
+                        "AND updated_time >= :date AND updated_time < DATEADD(day, 1, :date)", nativeQuery = true)
         Integer countOrdersByDate(@Param("date") LocalDate date);
 
         /**
@@ -60,7 +63,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          */
         @Query(value = "SELECT ISNULL(SUM(total_price), 0) FROM dbo.[booking] " +
                         "WHERE status = 2 " +
-                        "AND CAST(updated_time AS DATE) = :date", nativeQuery = true)
+                        "AND updated_time >= :date AND updated_time < DATEADD(day, 1, :date)", nativeQuery = true)
         BigDecimal sumGmvByDate(@Param("date") LocalDate date);
 
         /**
@@ -71,7 +74,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          * @return 新增用戶數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[user] " +
-                        "WHERE CAST(created_time AS DATE) = :date", nativeQuery = true)
+                        "WHERE created_time >= :date AND created_time < DATEADD(day, 1, :date)", nativeQuery = true)
         Integer countNewUsersByDate(@Param("date") LocalDate date);
 
         /**
@@ -82,7 +85,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          * @return 新增評論數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[review] " +
-                        "WHERE CAST(created_date AS DATE) = :date", nativeQuery = true)
+                        "WHERE created_date >= :date AND created_date < DATEADD(day, 1, :date)", nativeQuery = true)
         Integer countNewReviewsByDate(@Param("date") LocalDate date);
 
         /**
@@ -93,7 +96,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          * @return 新增飯店數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[hotel] " +
-                        "WHERE CAST(created_time AS DATE) = :date " +
+                        "WHERE created_time >= :date AND created_time < DATEADD(day, 1, :date) " +
                         "AND business_status = 1", nativeQuery = true)
         Integer countNewHotelsByDate(@Param("date") LocalDate date);
 
@@ -105,7 +108,7 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
          * @return 新增客服案件數
          */
         @Query(value = "SELECT COUNT(*) FROM dbo.[support] " +
-                        "WHERE CAST(created_time AS DATE) = :date", nativeQuery = true)
+                        "WHERE created_time >= :date AND created_time < DATEADD(day, 1, :date)", nativeQuery = true)
         Integer countSupportCasesByDate(@Param("date") LocalDate date);
 
         /**
@@ -121,9 +124,64 @@ public interface AnalyticsDailyRawQueryRepository extends JpaRepository<Analytic
                         "ISNULL(SUM(total_price), 0) AS gmv " +
                         "FROM dbo.[booking] " +
                         "WHERE status = 2 " +
-                        "AND CAST(updated_time AS DATE) BETWEEN :startDate AND :endDate " +
+                        "AND updated_time >= :startDate AND updated_time < DATEADD(day, 1, :endDate) " +
                         "GROUP BY CAST(updated_time AS DATE) " +
                         "ORDER BY CAST(updated_time AS DATE)", nativeQuery = true)
         List<Object[]> getOrderRevenueByDateRange(@Param("startDate") LocalDate startDate, 
                                                    @Param("endDate") LocalDate endDate);
+
+        /**
+         * 一次查詢 [start, end) 區間的當日新增用戶、新增飯店、訂單數與成交額
+         * 回傳一列：new_users, new_hotels, orders, gmv
+         *
+         * @param start 統計日 00:00
+         * @param end   隔天 00:00（不包含）
+         */
+        @Query(value = "SELECT u.new_users, h.new_hotels, b.orders, b.gmv FROM " +
+                        "(SELECT COUNT(*) AS new_users FROM dbo.[user] " +
+                        "WHERE created_time >= :start AND created_time < :end) u CROSS JOIN " +
+                        "(SELECT COUNT(*) AS new_hotels FROM dbo.[hotel] " +
+                        "WHERE created_time >= :start AND created_time < :end AND business_status = 1) h CROSS JOIN " +
+                        "(SELECT COUNT(*) AS orders, ISNULL(SUM(total_price), 0) AS gmv FROM dbo.[booking] " +
+                        "WHERE status = 2 AND updated_time >= :start AND updated_time < :end) b", nativeQuery = true)
+        List<Object[]> collectDailyDelta(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+        /**
+         * 沒有前一日快照時，一次查詢截至 end（不包含）的累積用戶數與累積飯店數
+         * 回傳一列：total_users, total_hotels
+         */
+        @Query(value = "SELECT " +
+                        "(SELECT COUNT(*) FROM dbo.[user] WHERE created_time < :end) AS total_users, " +
+                        "(SELECT COUNT(*) FROM dbo.[hotel] WHERE created_time < :end AND business_status = 1) AS total_hotels",
+                        nativeQuery = true)
+        List<Object[]> countCumulativeBefore(@Param("end") LocalDateTime end);
+
+        /**
+         * 以 GROUP BY 一次查詢 [start, end) 區間內每一天的新增用戶、新增飯店、訂單數與成交額（補資料用）
+         * 沒有任何活動的日期不會出現在結果中
+         * 回傳每列：dt, new_users, new_hotels, orders, gmv
+         */
+        @Query(value = "SELECT x.dt, SUM(x.new_users) AS new_users, SUM(x.new_hotels) AS new_hotels, " +
+                        "SUM(x.orders) AS orders, SUM(x.gmv) AS gmv FROM (" +
+                        "SELECT CAST(created_time AS DATE) AS dt, COUNT(*) AS new_users, 0 AS new_hotels, " +
+                        "0 AS orders, CAST(0 AS DECIMAL(18, 2)) AS gmv FROM dbo.[user] " +
+                        "WHERE created_time >= :start AND created_time < :end GROUP BY CAST(created_time AS DATE) " +
+                        "UNION ALL " +
+                        "SELECT CAST(created_time AS DATE), 0, COUNT(*), 0, 0 FROM dbo.[hotel] " +
+                        "WHERE created_time >= :start AND created_time < :end AND business_status = 1 " +
+                        "GROUP BY CAST(created_time AS DATE) " +
+                        "UNION ALL " +
+                        "SELECT CAST(updated_time AS DATE), 0, 0, COUNT(*), ISNULL(SUM(total_price), 0) FROM dbo.[booking] " +
+                        "WHERE status = 2 AND updated_time >= :start AND updated_time < :end " +
+                        "GROUP BY CAST(updated_time AS DATE)" +
+                        ") x GROUP BY x.dt ORDER BY x.dt", nativeQuery = true)
+        List<Object[]> collectDailyDeltasBetween(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+        /**
+         * 統計 [startDate, endDate) 之間新增的評論數（本月評論數）
+         */
+        @Query(value = "SELECT COUNT(*) FROM dbo.[review] " +
+                        "WHERE created_date >= :startDate AND created_date < :endDate", nativeQuery = true)
+        Integer countReviewsBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
@@ -32,6 +32,42 @@ public interface AnalyticsDailyRepository extends JpaRepository<AnalyticsDaily,
     @Query("SELECT a FROM AnalyticsDaily a ORDER BY a.date DESC")
     List<AnalyticsDaily> findTopNByOrderByDateDesc();
 
+    /**
+     * 依期間彙總 [startDate, endDate) 的數據，一次查詢回傳每個期間的總和
+     * 同一天有多筆資料時只取最新的一筆（與 findByDate 相同）
+     * 回傳欄位：period_start, days, total_users, total_hotels, total_orders, gmv_amount
+     *
+     * @param period AnalyticsPeriod 名稱；WEEK 以星期一為起點（1900-01-01 為星期一）
+     */
+    @Query(value = "SELECT p.period_start, COUNT(*) AS days, " +
+            "SUM(CAST(p.total_users AS BIGINT)) AS total_users, " +
+            "SUM(CAST(p.total_hotels AS BIGINT)) AS total_hotels, " +
+            "SUM(CAST(p.total_orders AS BIGINT)) AS total_orders, " +
+            "SUM(p.gmv_amount) AS gmv_amount " +
+            "FROM (SELECT CASE :period " +
+            "WHEN 'WEEK' THEN DATEADD(day, DATEDIFF(day, '19000101', d.dt) / 7 * 7, CAST('19000101' AS DATE)) " +
+            "WHEN 'MONTH' THEN DATEFROMPARTS(YEAR(d.dt), MONTH(d.dt), 1) " +
+            "WHEN 'QUARTER' THEN DATEFROMPARTS(YEAR(d.dt), (DATEPART(quarter, d.dt) - 1) * 3 + 1, 1) " +
+            "WHEN 'YEAR' THEN DATEFROMPARTS(YEAR(d.dt), 1, 1) " +
+            "ELSE d.dt END AS period_start, " +
+            "d.total_users, d.total_hotels, d.total_orders, d.gmv_amount " +
+            "FROM (SELECT a.dt, a.total_users, a.total_hotels, a.total_orders, a.gmv_amount, " +
+            "ROW_NUMBER() OVER (PARTITION BY a.dt ORDER BY a.id DESC) AS rn " +
+            "FROM analytics_daily a WHERE a.dt >= :startDate AND a.dt < :endDate) d " +
+            "WHERE d.rn = 1) p " +
+            "GROUP BY p.period_start ORDER BY p.period_start", nativeQuery = true)
+    List<Object[]> sumByPeriod(@Param("period") String period,
+                               @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate);
+
+    /**
+     * [startDate, endDate) 之間已有數據的日期（補資料時找出缺少的日期）
+     */
+    @Query(value = "SELECT DISTINCT dt FROM analytics_daily WHERE dt >= :startDate AND dt < :endDate",
+            nativeQuery = true)
+    List<Object> findExistingDates(@Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
     /**
      * 檢查指定日期是否已有數據
      */
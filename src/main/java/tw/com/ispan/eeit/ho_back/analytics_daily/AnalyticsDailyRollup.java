@@ -0,0 +1,53 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 一個期間內 analytics_daily 的彙總（同一天多筆時只取最新一筆）
+ *
+ * @param periodEnd 期間最後一天（包含）
+ * @param days      期間內有資料的天數
+ */
+public record AnalyticsDailyRollup(
+        AnalyticsPeriod period,
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        int days,
+        long totalUsers,
+        long totalHotels,
+        long totalOrders,
+        BigDecimal gmvAmount) {
+
+    static AnalyticsDailyRollup empty(AnalyticsPeriod period, LocalDate periodStart) {
+        return new AnalyticsDailyRollup(period, periodStart, period.next(periodStart).minusDays(1),
+                0, 0, 0, 0, BigDecimal.ZERO);
+    }
+
+    public boolean isEmpty() {
+        return days == 0;
+    }
+
+    /**
+     * 期間的日曆天數（不論有沒有資料）
+     */
+    public int calendarDays() {
+        return (int) ChronoUnit.DAYS.between(periodStart, periodEnd) + 1;
+    }
+
+    /**
+     * 以「總和 / 期間天數」換算成日平均，用於月、季成長趨勢
+     */
+    public AnalyticsDailyDTO toDailyAverage() {
+        int calendarDays = calendarDays();
+        AnalyticsDailyDTO average = new AnalyticsDailyDTO();
+        average.setDate(periodStart);
+        average.setTotalUsers((int) (totalUsers / calendarDays));
+        average.setTotalHotels((int) (totalHotels / calendarDays));
+        average.setTotalOrders((int) (totalOrders / calendarDays));
+        average.setGmvAmount(gmvAmount.divide(BigDecimal.valueOf(calendarDays), 2, RoundingMode.HALF_UP));
+        return average;
+    }
+}
@@ -17,9 +17,12 @@ import java.util.Map;
 public class AnalyticsDailySchedulerController {
 
     private final AnalyticsDailyScheduler scheduler;
+    private final AnalyticsDailyBackfillJob backfillJob;
 
-    public AnalyticsDailySchedulerController(AnalyticsDailyScheduler scheduler) {
+    public AnalyticsDailySchedulerController(AnalyticsDailyScheduler scheduler,
+            AnalyticsDailyBackfillJob backfillJob) {
         this.scheduler = scheduler;
+        this.backfillJob = backfillJob;
     }
 
     /**
@@ -122,5 +125,42 @@ public class AnalyticsDailySchedulerController {
             return ResponseEntity.status(500).body(response);
         }
     }
-}
 
+    /**
+     * 背景平行補齊日期範圍內缺少的數據（已有資料的日期不覆蓋）
+     * POST /api/analytics/daily/scheduler/backfill?startDate=2025-01-01&endDate=2025-06-30
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (!backfillJob.start(startDate, endDate)) {
+                response.put("success", false);
+                response.put("message", "已有補資料作業執行中");
+                response.put("status", backfillJob.status());
+                return ResponseEntity.status(409).body(response);
+            }
+            response.put("success", true);
+            response.put("message", "補資料作業已開始，進度請查詢 GET /api/analytics/daily/scheduler/backfill");
+            response.put("startDate", startDate);
+            response.put("endDate", endDate);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 補資料進度
+     * GET /api/analytics/daily/scheduler/backfill
+     */
+    @GetMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfillStatus() {
+        return ResponseEntity.ok(backfillJob.status());
+    }
+}
@@ -14,6 +14,11 @@ public interface AnalyticsDailyService {
 
     void delete(Long id);
 
+    /**
+     * 依期間彙總，回傳與 [startDate, endDate] 有交集的每個期間（沒有資料的期間 days = 0）
+     */
+    List<AnalyticsDailyRollup> getRollups(AnalyticsPeriod period, LocalDate startDate, LocalDate endDate);
+
     // 排程相關
     AnalyticsDailyDTO collectAndSaveDailyData(LocalDate date);
 }
@@ -3,8 +3,16 @@ package tw.com.ispan.eeit.ho_back.analytics_daily;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -14,11 +22,17 @@ public class AnalyticsDailyServiceImpl implements AnalyticsDailyService {
 
     private final AnalyticsDailyRepository repository;
     private final AnalyticsDailyCollectorService collectorService;
+    private final AnalyticsRollupCache rollupCache;
+    private final AnalyticsProperties properties;
 
     public AnalyticsDailyServiceImpl(AnalyticsDailyRepository repository,
-                                     AnalyticsDailyCollectorService collectorService) {
+                                     AnalyticsDailyCollectorService collectorService,
+                                     AnalyticsRollupCache rollupCache,
+                                     AnalyticsProperties properties) {
         this.repository = repository;
         this.collectorService = collectorService;
+        this.rollupCache = rollupCache;
+        this.properties = properties;
     }
 
     @Override
@@ -72,15 +86,81 @@ public class AnalyticsDailyServiceImpl implements AnalyticsDailyService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<AnalyticsDailyRollup> getRollups(AnalyticsPeriod period, LocalDate startDate, LocalDate endDate) {
+        if (period == null || startDate == null || endDate == null) {
+            throw new IllegalArgumentException("統計期間與起訖日期不可為空");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("開始日期不可晚於結束日期");
+        }
+
+        // 先從快取取已結束的期間，其餘期間合併成一個連續區間只查一次
+        Map<LocalDate, AnalyticsDailyRollup> rollups = new LinkedHashMap<>();
+        LocalDate missingFrom = null;
+        LocalDate missingTo = null;
+        for (LocalDate start = period.start(startDate); !start.isAfter(endDate); start = period.next(start)) {
+            if (rollups.size() >= properties.getRollup().getMaxPeriods()) {
+                throw new IllegalArgumentException("查詢區間過長，最多 " + properties.getRollup().getMaxPeriods() + " 個期間");
+            }
+            AnalyticsDailyRollup cached = rollupCache.get(period, start);
+            rollups.put(start, cached);
+            if (cached == null) {
+                if (missingFrom == null) {
+                    missingFrom = start;
+                }
+                missingTo = period.next(start);
+            }
+        }
+        if (missingFrom == null) {
+            return new ArrayList<>(rollups.values());
+        }
+
+        Map<LocalDate, AnalyticsDailyRollup> loaded = new HashMap<>();
+        for (Object[] row : repository.sumByPeriod(period.name(), missingFrom, missingTo)) {
+            AnalyticsDailyRollup rollup = toRollup(period, row);
+            loaded.put(rollup.periodStart(), rollup);
+        }
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<LocalDate, AnalyticsDailyRollup> entry : rollups.entrySet()) {
+            if (entry.getValue() == null) {
+                AnalyticsDailyRollup rollup = loaded.getOrDefault(entry.getKey(),
+                        AnalyticsDailyRollup.empty(period, entry.getKey()));
+                rollupCache.put(rollup, today);
+                entry.setValue(rollup);
+            }
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    private static AnalyticsDailyRollup toRollup(AnalyticsPeriod period, Object[] row) {
+        LocalDate start = row[0] instanceof Date date ? date.toLocalDate() : (LocalDate) row[0];
+        BigDecimal gmv = row[5] instanceof BigDecimal value ? value
+                : row[5] != null ? new BigDecimal(row[5].toString()) : BigDecimal.ZERO;
+        return new AnalyticsDailyRollup(period, start, period.next(start).minusDays(1),
+                ((Number) row[1]).intValue(), toLong(row[2]), toLong(row[3]), toLong(row[4]), gmv);
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
     @Override
     public AnalyticsDailyDTO save(AnalyticsDailyDTO dto) {
+        // 修改日期時舊日期所屬的期間也要重算
+        if (dto.getId() != null) {
+            repository.findById(dto.getId()).ifPresent(old -> rollupCache.evict(old.getDate()));
+        }
         AnalyticsDaily entity = dto.toEntity();
         AnalyticsDaily saved = repository.save(entity);
+        rollupCache.evict(saved.getDate());
         return AnalyticsDailyDTO.from(saved);
     }
 
     @Override
     public void delete(Long id) {
+        repository.findById(id).ifPresent(old -> rollupCache.evict(old.getDate()));
         repository.deleteById(id);
     }
 
@@ -100,6 +180,7 @@ public class AnalyticsDailyServiceImpl implements AnalyticsDailyService {
         System.out.println("新增日期 " + date + " 的數據");
         AnalyticsDaily newData = collectorService.collectDataForDate(date);
         AnalyticsDaily saved = repository.save(newData);
+        rollupCache.evict(date);
         return AnalyticsDailyDTO.from(saved);
     }
 }
@@ -0,0 +1,51 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * 營運分析的彙總期間，週從星期一開始
+ * 與 AnalyticsDailyRepository.sumByPeriod 的 SQL 分組方式一致
+ */
+public enum AnalyticsPeriod {
+    DAY, WEEK, MONTH, QUARTER, YEAR;
+
+    /**
+     * 日期所屬期間的第一天
+     */
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * 下一個期間的第一天（即本期間不包含的結束日）
+     */
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case QUARTER -> start.plusMonths(3);
+            case YEAR -> start.plusYears(1);
+        };
+    }
+
+    public static AnalyticsPeriod parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DAY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支援的統計期間: " + value + "（可用 DAY、WEEK、MONTH、QUARTER、YEAR）");
+        }
+    }
+}
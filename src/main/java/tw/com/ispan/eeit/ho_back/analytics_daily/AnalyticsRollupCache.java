@@ -0,0 +1,85 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+/**
+ * 已結束期間的彙總快取
+ *
+ * 過去的月份不會再變動，只有補資料或手動修改 analytics_daily 時才需要重算，
+ * 這些寫入都會經過 AnalyticsDailyService 並呼叫 evict(date)
+ */
+@Component
+public class AnalyticsRollupCache {
+
+    private record Key(AnalyticsPeriod period, LocalDate periodStart) {
+    }
+
+    private final Map<Key, AnalyticsDailyRollup> cache = new ConcurrentHashMap<>();
+    private final AnalyticsProperties.Rollup properties;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AnalyticsRollupCache(AnalyticsProperties properties) {
+        this.properties = properties.getRollup();
+    }
+
+    public AnalyticsDailyRollup get(AnalyticsPeriod period, LocalDate periodStart) {
+        if (!properties.isCacheEnabled()) {
+            return null;
+        }
+        AnalyticsDailyRollup rollup = cache.get(new Key(period, periodStart));
+        (rollup != null ? hits : misses).increment();
+        return rollup;
+    }
+
+    /**
+     * 只快取在 today 之前就已結束的期間
+     */
+    public void put(AnalyticsDailyRollup rollup, LocalDate today) {
+        if (!properties.isCacheEnabled() || !rollup.periodEnd().isBefore(today)) {
+            return;
+        }
+        if (cache.size() >= properties.getMaxCacheEntries()) {
+            cache.clear();
+        }
+        cache.put(new Key(rollup.period(), rollup.periodStart()), rollup);
+    }
+
+    /**
+     * 移除包含指定日期的所有期間
+     */
+    public void evict(LocalDate date) {
+        if (date == null) {
+            return;
+        }
+        for (AnalyticsPeriod period : AnalyticsPeriod.values()) {
+            if (cache.remove(new Key(period, period.start(date))) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isCacheEnabled());
+        result.put("size", cache.size());
+        result.put("hits", hits.sum());
+        result.put("misses", misses.sum());
+        result.put("evictions", evictions.sum());
+        return result;
+    }
+}
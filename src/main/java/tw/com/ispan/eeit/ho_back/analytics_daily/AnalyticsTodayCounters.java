@@ -0,0 +1,229 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+/**
+ * 後台「今日」數字的記憶體計數
+ *
+ * - 新增用戶 / 評論 / 營業中飯店 / 客服案件的交易提交後由各 Service 呼叫 increment
+ * - 啟動完成後以資料庫數字對齊，之後每 reconcile-interval-ms 再對齊一次（修正停業、刪除等造成的差異）
+ * - 跨日時從 0 開始，跨月時本月評論數也從 0 開始
+ * 尚未與資料庫對齊時 today / monthReviews 回傳 null，呼叫端改查資料庫
+ *
+ * 限制（都會在下一次對齊時修正）：
+ * - 計數只在本 JVM 內，多台部署時每台只看得到自己的新增，兩次對齊之間各台數字不同
+ * - 對齊查詢期間提交的新增，若查詢沒讀到、但在查詢結束前已計入，會暫時少算
+ */
+@Component
+public class AnalyticsTodayCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsTodayCounters.class);
+
+    public enum Metric {
+        NEW_USERS, NEW_REVIEWS, NEW_HOTELS, SUPPORT_CASES
+    }
+
+    // 一天的計數，同一個月的每一天共用 monthReviews
+    private static final class Day {
+        final LocalDate date;
+        final AtomicLongArray counts = new AtomicLongArray(Metric.values().length);
+        final AtomicLong monthReviews;
+        volatile boolean seeded;
+
+        Day(LocalDate date, AtomicLong monthReviews, boolean seeded) {
+            this.date = date;
+            this.monthReviews = monthReviews;
+            this.seeded = seeded;
+        }
+    }
+
+    private final AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private final AnalyticsProperties.TodayCounters properties;
+    private final Clock clock;
+
+    private volatile Day current;
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile long lastDrift;
+    private volatile String lastError;
+
+    @Autowired
+    public AnalyticsTodayCounters(AnalyticsDailyRawQueryRepository rawQueryRepository,
+            AnalyticsProperties properties) {
+        this(rawQueryRepository, properties, Clock.systemDefaultZone());
+    }
+
+    AnalyticsTodayCounters(AnalyticsDailyRawQueryRepository rawQueryRepository, AnalyticsProperties properties,
+            Clock clock) {
+        this.rawQueryRepository = rawQueryRepository;
+        this.properties = properties.getTodayCounters();
+        this.clock = clock;
+        this.current = new Day(LocalDate.now(clock), new AtomicLong(), false);
+    }
+
+    /**
+     * 記錄一筆新增，在交易內呼叫時等提交後才計入
+     */
+    public void increment(Metric metric) {
+        afterCommit(() -> {
+            Day day = current();
+            day.counts.incrementAndGet(metric.ordinal());
+            if (metric == Metric.NEW_REVIEWS) {
+                day.monthReviews.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 今日計數，尚未與資料庫對齊時回傳 null
+     */
+    public Long today(Metric metric) {
+        Day day = current();
+        return properties.isEnabled() && day.seeded ? day.counts.get(metric.ordinal()) : null;
+    }
+
+    /**
+     * 本月新增評論數，尚未與資料庫對齊時回傳 null
+     */
+    public Long monthReviews() {
+        Day day = current();
+        return properties.isEnabled() && day.seeded ? day.monthReviews.get() : null;
+    }
+
+    public LocalDate date() {
+        return current().date;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        scheduledReconcile();
+    }
+
+    @Scheduled(initialDelayString = "${analytics.today-counters.reconcile-interval-ms:300000}",
+            fixedDelayString = "${analytics.today-counters.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            logger.error("❌ 今日計數與資料庫對齊失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 以資料庫數字校正計數
+     * 計數在查詢結束後才取快照：查詢期間提交並已計入的新增，資料庫數字通常也包含，
+     * 以查詢前的計數相減會重複計算。只把「資料庫 - 查詢後的計數」加到目前的計數上，保留快照之後的新增
+     */
+    public void reconcile() {
+        Day day = current();
+        YearMonth month = YearMonth.from(day.date);
+        long[] database = {
+                toLong(rawQueryRepository.countNewUsersByDate(day.date)),
+                toLong(rawQueryRepository.countNewReviewsByDate(day.date)),
+                toLong(rawQueryRepository.countNewHotelsByDate(day.date)),
+                toLong(rawQueryRepository.countSupportCasesByDate(day.date)),
+                toLong(rawQueryRepository.countReviewsBetween(month.atDay(1), month.plusMonths(1).atDay(1)))
+        };
+        long[] before = snapshot(day);
+        long drift = 0;
+        for (Metric metric : Metric.values()) {
+            long delta = database[metric.ordinal()] - before[metric.ordinal()];
+            day.counts.addAndGet(metric.ordinal(), delta);
+            drift += Math.abs(delta);
+        }
+        long monthDelta = database[database.length - 1] - before[before.length - 1];
+        day.monthReviews.addAndGet(monthDelta);
+        drift += Math.abs(monthDelta);
+
+        if (day.seeded && drift > 0) {
+            logger.info("今日計數與資料庫差異 {}，已校正", drift);
+        }
+        day.seeded = true;
+        lastDrift = drift;
+        lastReconciledAt = LocalDateTime.now(clock);
+        lastError = null;
+    }
+
+    private Day current() {
+        Day day = current;
+        LocalDate today = LocalDate.now(clock);
+        if (day.date.equals(today)) {
+            return day;
+        }
+        synchronized (this) {
+            day = current;
+            if (!day.date.equals(today)) {
+                boolean sameMonth = YearMonth.from(day.date).equals(YearMonth.from(today));
+                // 前一天已對齊時，新的一天從 0 開始也是準確的
+                day = new Day(today, sameMonth ? day.monthReviews : new AtomicLong(),
+                        day.seeded && today.isAfter(day.date));
+                current = day;
+            }
+            return day;
+        }
+    }
+
+    private static long[] snapshot(Day day) {
+        long[] values = new long[Metric.values().length + 1];
+        for (Metric metric : Metric.values()) {
+            values[metric.ordinal()] = day.counts.get(metric.ordinal());
+        }
+        values[values.length - 1] = day.monthReviews.get();
+        return values;
+    }
+
+    private static long toLong(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public Map<String, Object> status() {
+        Day day = current();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("date", day.date);
+        result.put("seeded", day.seeded);
+        for (Metric metric : Metric.values()) {
+            result.put(metric.name(), day.counts.get(metric.ordinal()));
+        }
+        result.put("MONTH_REVIEWS", day.monthReviews.get());
+        result.put("lastReconciledAt", lastReconciledAt);
+        result.put("lastDrift", lastDrift);
+        result.put("lastError", lastError);
+        return result;
+    }
+}
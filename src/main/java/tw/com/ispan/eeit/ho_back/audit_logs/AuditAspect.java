@@ -5,6 +5,7 @@ import jakarta.persistence.PersistenceContext;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.StreamSupport;
 
 import static tw.com.ispan.eeit.ho_back.audit_logs.AuditSupport.*;
@@ -26,8 +28,16 @@ public class AuditAspect {
 
     private final AuditLogService audit;
 
-    public AuditAspect(AuditLogService audit) {
+    // repository 代理 -> domainClass，每個 repository 只解析一次
+    private final Map<Object, Optional<Class<?>>> domainClassCache = new ConcurrentHashMap<>();
+
+    // SNAPSHOT：新增 / 修改由 AuditSnapshotListener 依 Hibernate 快照記錄；QUERY：儲存前重新查詢舊值比較
+    private final boolean snapshotCapture;
+
+    public AuditAspect(AuditLogService audit,
+            @Value("${audit.capture-mode:SNAPSHOT}") String captureMode) {
         this.audit = audit;
+        this.snapshotCapture = AuditSnapshotListener.MODE_SNAPSHOT.equalsIgnoreCase(captureMode);
     }
 
     @Pointcut("execution(* org.springframework.data.repository.CrudRepository.save(..)) || " +
@@ -50,8 +60,16 @@ public class AuditAspect {
 
     // 解析 repository 代理，取得 domainClass（讓 deleteById 能抓 old_value）
     private Class<?> resolveDomainClassFromRepository(ProceedingJoinPoint pjp) {
+        Object repository = pjp.getThis();
+        if (repository == null) {
+            return null;
+        }
+        return domainClassCache.computeIfAbsent(repository, AuditAspect::unwrapDomainClass).orElse(null);
+    }
+
+    private static Optional<Class<?>> unwrapDomainClass(Object repository) {
         try {
-            Object current = pjp.getThis();
+            Object current = repository;
 
             // 多層代理解包：繼續解包直到找到 SimpleJpaRepository
             while (current instanceof Advised advised) {
@@ -62,19 +80,22 @@ public class AuditAspect {
                     f.setAccessible(true);
                     Object entityInfo = f.get(simple);
                     if (entityInfo instanceof JpaEntityInformation<?, ?> info) {
-                        return info.getJavaType();
+                        return Optional.of(info.getJavaType());
                     }
                 }
             }
         } catch (Exception ignored) {
-            // 忽略錯誤，返回 null
+            // 忽略錯誤，返回 empty
         }
-        return null;
+        return Optional.empty();
     }
 
     // SAVE / SAVEALL - 自動記錄新增和編輯操作
     @Around("anySave()")
     public Object aroundSave(ProceedingJoinPoint pjp) throws Throwable {
+        if (snapshotCapture) {
+            return pjp.proceed();
+        }
         System.out.println("\n==========================================");
         System.out.println("=== AuditAspect.aroundSave 被觸發 ===");
         System.out.println("=== Repository: " + pjp.getTarget().getClass().getSimpleName() + " ===");
@@ -448,9 +469,7 @@ public class AuditAspect {
             return roleIds;
         }
         try {
-            Field rolesField = userEntity.getClass().getDeclaredField("roles");
-            rolesField.setAccessible(true);
-            Object rolesObj = rolesField.get(userEntity);
+            Object rolesObj = AuditEntityMetadata.of(userEntity.getClass()).association(userEntity, "roles");
             System.out.println("=== extractRoleIds: rolesObj 類型: " + (rolesObj != null ? rolesObj.getClass().getName() : "null") + " ===");
             if (rolesObj instanceof List<?> roles) {
                 System.out.println("=== extractRoleIds: roles 數量: " + roles.size() + " ===");
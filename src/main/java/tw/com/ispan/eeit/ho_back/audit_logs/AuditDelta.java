@@ -0,0 +1,211 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * 審計日誌的精簡欄位變更格式
+ *
+ * 寫入時先算好變更的欄位，存成 [["欄位", 舊值, 新值], ...]（changes 欄位）；
+ * 超過 compressMinBytes 時改以 gzip 存到 changes_gz。顯示差異時只需解析這一小段，
+ * 不必再解析整個實體的 old_value / new_value 來比較
+ */
+public final class AuditDelta {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AuditDelta() {
+    }
+
+    /**
+     * 一個欄位的變更，值保留原本的 JSON 型別
+     */
+    public record FieldChange(String field, JsonNode oldValue, JsonNode newValue) {
+    }
+
+    /**
+     * 依動作類型從完整 JSON 算出欄位變更
+     * insert：新值的所有欄位；delete：舊值的所有欄位；update：前後不同的欄位
+     *
+     * @return 無法解析為 JSON 物件時回傳 null（維持原本的 old_value / new_value）
+     */
+    public static List<FieldChange> diff(String actionType, String oldJson, String newJson) {
+        try {
+            JsonNode oldNode = isBlank(oldJson) ? null : MAPPER.readTree(oldJson);
+            JsonNode newNode = isBlank(newJson) ? null : MAPPER.readTree(newJson);
+            if ((oldNode != null && !oldNode.isObject()) || (newNode != null && !newNode.isObject())) {
+                return null;
+            }
+
+            String action = actionType != null ? actionType.toLowerCase() : "";
+            List<FieldChange> changes = new ArrayList<>();
+            if ("insert".equals(action) || "create".equals(action)) {
+                if (newNode == null) {
+                    return null;
+                }
+                newNode.properties().forEach(e -> changes.add(new FieldChange(e.getKey(), null, e.getValue())));
+            } else if ("delete".equals(action)) {
+                if (oldNode == null) {
+                    return null;
+                }
+                oldNode.properties().forEach(e -> changes.add(new FieldChange(e.getKey(), e.getValue(), null)));
+            } else if ("update".equals(action)) {
+                if (oldNode == null || newNode == null) {
+                    return null;
+                }
+                Set<String> fields = new LinkedHashSet<>();
+                oldNode.fieldNames().forEachRemaining(fields::add);
+                newNode.fieldNames().forEachRemaining(fields::add);
+                for (String field : fields) {
+                    JsonNode oldValue = oldNode.get(field);
+                    JsonNode newValue = newNode.get(field);
+                    if (oldValue == null ? newValue != null : !oldValue.equals(newValue)) {
+                        changes.add(new FieldChange(field, oldValue, newValue));
+                    }
+                }
+            } else {
+                return null;
+            }
+            return changes;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // [["欄位", 舊值, 新值], ...]
+    public static String encode(List<FieldChange> changes) {
+        ArrayNode array = MAPPER.createArrayNode();
+        for (FieldChange change : changes) {
+            ArrayNode item = array.addArray();
+            item.add(change.field());
+            item.add(change.oldValue() != null ? change.oldValue() : MAPPER.nullNode());
+            item.add(change.newValue() != null ? change.newValue() : MAPPER.nullNode());
+        }
+        return array.toString();
+    }
+
+    public static List<FieldChange> decode(String changes) {
+        try {
+            List<FieldChange> result = new ArrayList<>();
+            for (JsonNode item : MAPPER.readTree(changes)) {
+                result.add(new FieldChange(item.get(0).asText(), valueOf(item.get(1)), valueOf(item.get(2))));
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("審計日誌欄位變更格式錯誤", e);
+        }
+    }
+
+    /**
+     * 是否已存成精簡格式
+     */
+    public static boolean isCompact(AuditLog log) {
+        return log.getChanges() != null || log.getChangesGz() != null;
+    }
+
+    /**
+     * 讀出精簡格式的欄位變更，不是精簡格式時回傳 null
+     */
+    public static List<FieldChange> read(AuditLog log) {
+        if (log.getChanges() != null) {
+            return decode(log.getChanges());
+        }
+        if (log.getChangesGz() != null) {
+            return decode(decompress(log.getChangesGz()));
+        }
+        return null;
+    }
+
+    /**
+     * 把完整 JSON 轉成精簡格式，並清空 old_value / new_value
+     *
+     * @param compressMinBytes 精簡後超過這個位元組數時改存 gzip，0 表示不壓縮
+     * @return 是否轉換（JSON 無法解析時保留原樣）
+     */
+    public static boolean compact(AuditLog log, int compressMinBytes) {
+        if (isCompact(log)) {
+            return true;
+        }
+        List<FieldChange> changes = diff(log.getActionType(), log.getOldValue(), log.getNewValue());
+        if (changes == null) {
+            return false;
+        }
+        String encoded = encode(changes);
+        byte[] bytes = encoded.getBytes(StandardCharsets.UTF_8);
+        if (compressMinBytes > 0 && bytes.length >= compressMinBytes) {
+            log.setChangesGz(compress(bytes));
+        } else {
+            log.setChanges(encoded);
+        }
+        log.setOldValue(null);
+        log.setNewValue(null);
+        return true;
+    }
+
+    // 由欄位變更還原只含變更欄位的舊值 / 新值 JSON（給 /full 與列表使用）
+    public static String oldJson(AuditLog log) {
+        return toJson(log, true);
+    }
+
+    public static String newJson(AuditLog log) {
+        return toJson(log, false);
+    }
+
+    private static String toJson(AuditLog log, boolean old) {
+        List<FieldChange> changes = read(log);
+        if (changes == null) {
+            return old ? log.getOldValue() : log.getNewValue();
+        }
+        String action = log.getActionType() != null ? log.getActionType().toLowerCase() : "";
+        // insert 沒有舊值、delete 沒有新值
+        if (old ? "insert".equals(action) || "create".equals(action) : "delete".equals(action)) {
+            return null;
+        }
+        ObjectNode node = MAPPER.createObjectNode();
+        for (FieldChange change : changes) {
+            JsonNode value = old ? change.oldValue() : change.newValue();
+            node.set(change.field(), value != null ? value : MAPPER.nullNode());
+        }
+        return node.toString();
+    }
+
+    static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(bytes.length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String decompress(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("審計日誌欄位變更解壓縮失敗", e);
+        }
+    }
+
+    private static JsonNode valueOf(JsonNode node) {
+        return node == null || node.isNull() ? null : node;
+    }
+
+    private static boolean isBlank(String json) {
+        return json == null || json.isBlank() || "null".equals(json);
+    }
+}
@@ -0,0 +1,189 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.proxy.HibernateProxy;
+
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * 審計用的實體類別中繼資料（表名、主鍵存取、一般欄位與關聯欄位）
+ *
+ * 每個類別只解析一次，之後以 ConcurrentHashMap 查詢；欄位讀取使用 MethodHandle，
+ * 寫入路徑上不再呼叫 getDeclaredFields / setAccessible。啟動時由 AuditMetadataRegistry
+ * 依 JPA metamodel 預先建立，其他類別（例如 Hibernate 代理的子類別）第一次使用時才解析
+ */
+public final class AuditEntityMetadata {
+
+    private static final Map<Class<?>, AuditEntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<?> entityClass;
+    private final String tableName;
+    // 第一個 @Id / @EmbeddedId 欄位；@IdClass 複合主鍵沿用舊行為取第一個主鍵欄位
+    private final MethodHandle idGetter;
+    private final List<String> auditedFields;
+    private final Map<String, MethodHandle> associations;
+
+    private AuditEntityMetadata(Class<?> entityClass, String tableName, MethodHandle idGetter,
+            List<String> auditedFields, Map<String, MethodHandle> associations) {
+        this.entityClass = entityClass;
+        this.tableName = tableName;
+        this.idGetter = idGetter;
+        this.auditedFields = Collections.unmodifiableList(auditedFields);
+        this.associations = Collections.unmodifiableMap(associations);
+    }
+
+    /**
+     * 取得類別的中繼資料，代理類別會對應到實際的 @Entity 類別
+     */
+    public static AuditEntityMetadata of(Class<?> type) {
+        AuditEntityMetadata metadata = CACHE.get(type);
+        if (metadata != null) {
+            return metadata;
+        }
+        Class<?> entityClass = entityClassOf(type);
+        metadata = CACHE.computeIfAbsent(entityClass, c -> build(c, null));
+        if (entityClass != type) {
+            CACHE.putIfAbsent(type, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * 依 JPA metamodel 的關聯欄位建立中繼資料（啟動時呼叫）
+     */
+    static AuditEntityMetadata register(Class<?> entityClass, Set<String> associationNames) {
+        AuditEntityMetadata metadata = build(entityClass, associationNames);
+        CACHE.put(entityClass, metadata);
+        return metadata;
+    }
+
+    static int cachedClasses() {
+        return CACHE.size();
+    }
+
+    public Class<?> entityClass() {
+        return entityClass;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<String> auditedFields() {
+        return auditedFields;
+    }
+
+    public Set<String> associationFields() {
+        return associations.keySet();
+    }
+
+    public Optional<Object> id(Object entity) {
+        if (entity instanceof HibernateProxy proxy) {
+            // 尚未初始化的代理欄位都是 null，主鍵要從 LazyInitializer 取得
+            return Optional.ofNullable(proxy.getHibernateLazyInitializer().getIdentifier());
+        }
+        if (idGetter == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(invoke(idGetter, entity, "id"));
+    }
+
+    /**
+     * 讀取關聯欄位的值，不是關聯欄位時回傳 null
+     */
+    public Object association(Object entity, String name) {
+        MethodHandle getter = associations.get(name);
+        return getter != null ? invoke(getter, entity, name) : null;
+    }
+
+    private Object invoke(MethodHandle getter, Object entity, String name) {
+        try {
+            return (Object) getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw new IllegalStateException("無法讀取 " + entityClass.getSimpleName() + "." + name, e);
+        }
+    }
+
+    private static Class<?> entityClassOf(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (c.isAnnotationPresent(Entity.class)) {
+                return c;
+            }
+        }
+        return type;
+    }
+
+    private static AuditEntityMetadata build(Class<?> entityClass, Set<String> associationNames) {
+        Table table = entityClass.getAnnotation(Table.class);
+        String tableName = (table != null && !table.name().isBlank()) ? table.name() : entityClass.getSimpleName();
+
+        MethodHandle idGetter = null;
+        List<String> audited = new ArrayList<>();
+        Map<String, MethodHandle> associations = new LinkedHashMap<>();
+        // 子類別的欄位優先，與原本只看 getDeclaredFields 的結果一致
+        for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                        || field.isAnnotationPresent(Transient.class) || field.isSynthetic()) {
+                    continue;
+                }
+                if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
+                    if (idGetter == null) {
+                        idGetter = getter(field);
+                    }
+                    continue;
+                }
+                boolean association = associationNames != null ? associationNames.contains(field.getName())
+                        : isAssociation(field);
+                if (association) {
+                    associations.putIfAbsent(field.getName(), getter(field));
+                } else {
+                    audited.add(field.getName());
+                }
+            }
+        }
+        return new AuditEntityMetadata(entityClass, tableName, idGetter, audited, associations);
+    }
+
+    private static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToMany.class)
+                || field.isAnnotationPresent(ManyToMany.class) || field.isAnnotationPresent(OneToOne.class)
+                || field.isAnnotationPresent(ElementCollection.class);
+    }
+
+    private static MethodHandle getter(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectGetter(field)
+                    .asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("無法存取欄位 " + field.getDeclaringClass().getSimpleName()
+                    + "." + field.getName(), e);
+        }
+    }
+}
@@ -54,6 +54,14 @@ public class AuditLog {
     @Column(name = "new_value", columnDefinition = "NVARCHAR(MAX)")
     private String newValue;
 
+    // 精簡格式的欄位變更 [["欄位", 舊值, 新值], ...]，有值時 old_value / new_value 為 null（見 AuditDelta）
+    @Column(name = "changes", columnDefinition = "NVARCHAR(MAX)")
+    private String changes;
+
+    // 較大的欄位變更以 gzip 壓縮存放
+    @Column(name = "changes_gz", columnDefinition = "VARBINARY(MAX)")
+    private byte[] changesGz;
+
     // 來源 IP
     @Column(name = "ip_address", length = 45, nullable = false)
     private String ipAddress;
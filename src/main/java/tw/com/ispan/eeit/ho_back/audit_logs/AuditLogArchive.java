@@ -0,0 +1,288 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditRetentionProperties;
+
+/**
+ * 審計日誌歸檔檔案
+ *
+ * 目錄結構：{archive-dir}/yyyy-MM/chunk-{第一筆id}-{最後一筆id}.ndjson.gz，一行一筆 AuditLog
+ * 每個檔案先寫到暫存檔再改名，不會留下寫一半的檔案；重複歸檔的資料讀取時依 id 去除
+ *
+ * 查詢時月份由新到舊、檔案依 id 範圍由新到舊逐一讀取，湊滿一頁就停止，
+ * 同時在記憶體中的最多是 id 範圍重疊的幾個檔案（每個檔案最多一個歸檔批次）
+ */
+@Component
+public class AuditLogArchive {
+
+    private static final String CHUNK_SUFFIX = ".ndjson.gz";
+    private static final Pattern CHUNK_NAME = Pattern.compile("chunk-(\\d+)-(\\d+)\\.ndjson\\.gz");
+
+    /**
+     * 歸檔查詢結果
+     *
+     * @param logs    依 id 由新到舊
+     * @param skipped 實際略過的筆數
+     * @param hasMore logs 之後是否還有符合條件的資料
+     */
+    public record Slice(List<AuditLog> logs, long skipped, boolean hasMore) {
+    }
+
+    private record Chunk(Path file, long firstId, long lastId) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path root;
+
+    public AuditLogArchive(AuditRetentionProperties properties) {
+        this.root = Paths.get(properties.getArchiveDir());
+    }
+
+    /**
+     * 依 created_at 的月份寫入歸檔檔案
+     *
+     * @return 寫入的檔案數
+     */
+    public int write(List<AuditLog> logs) throws IOException {
+        Map<YearMonth, List<AuditLog>> byMonth = new LinkedHashMap<>();
+        for (AuditLog log : logs) {
+            byMonth.computeIfAbsent(YearMonth.from(log.getCreatedAt()), m -> new ArrayList<>()).add(log);
+        }
+        for (Map.Entry<YearMonth, List<AuditLog>> entry : byMonth.entrySet()) {
+            List<AuditLog> monthLogs = entry.getValue();
+            Path dir = root.resolve(entry.getKey().toString());
+            Files.createDirectories(dir);
+            Path target = dir.resolve("chunk-" + monthLogs.get(0).getId() + "-"
+                    + monthLogs.get(monthLogs.size() - 1).getId() + CHUNK_SUFFIX);
+            Path temp = dir.resolve(target.getFileName() + ".tmp");
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+                for (AuditLog log : monthLogs) {
+                    out.write(MAPPER.writeValueAsString(log));
+                    out.newLine();
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return byMonth.size();
+    }
+
+    /**
+     * 已歸檔的月份（由舊到新）
+     */
+    public List<YearMonth> months() {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                try {
+                    months.add(YearMonth.parse(dir.getFileName().toString()));
+                } catch (DateTimeParseException e) {
+                    // 不是月份目錄
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("審計日誌歸檔目錄讀取失敗", e);
+        }
+        return new ArrayList<>(months);
+    }
+
+    /**
+     * 查詢的時間區間是否需要讀取歸檔：from 或 to 至少指定一個，且區間內有歸檔的月份
+     * 只有 to 時從最舊的歸檔開始算；都沒指定（預設列表）只查資料庫
+     */
+    public boolean covers(AuditLogQuery query) {
+        return query != null && (query.getFrom() != null || query.getTo() != null)
+                && !monthsInRange(query).isEmpty();
+    }
+
+    /**
+     * 依 id 由新到舊讀取符合條件的歸檔資料，略過前 skip 筆後最多取 limit 筆
+     * 讀到 limit + 1 筆即停止（多的一筆只用來判斷 hasMore），不會讀完整個區間
+     */
+    public Slice search(AuditLogQuery query, long skip, int limit) {
+        List<AuditLog> result = new ArrayList<>();
+        long skipped = 0;
+        List<YearMonth> months = monthsInRange(query);
+        Collections.reverse(months);
+        for (YearMonth month : months) {
+            for (List<Chunk> group : chunkGroups(root.resolve(month.toString()))) {
+                for (AuditLog log : readGroup(group, query)) {
+                    if (skipped < skip) {
+                        skipped++;
+                    } else if (result.size() < limit) {
+                        result.add(log);
+                    } else {
+                        return new Slice(result, skipped, true);
+                    }
+                }
+            }
+        }
+        return new Slice(result, skipped, false);
+    }
+
+    private List<YearMonth> monthsInRange(AuditLogQuery query) {
+        YearMonth from = query.getFrom() != null ? YearMonth.from(query.getFrom()) : null;
+        // to 為不包含的上限，剛好是月初時不需要讀該月
+        YearMonth to = query.getTo() != null ? YearMonth.from(query.getTo().minusNanos(1)) : null;
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month : months()) {
+            if ((from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to))) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * 月份目錄中的檔案依最後一筆 id 由新到舊分組，id 範圍重疊（重複歸檔）的檔案放在同一組
+     */
+    private List<List<Chunk>> chunkGroups(Path dir) {
+        List<Chunk> chunks = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + CHUNK_SUFFIX)) {
+            for (Path file : stream) {
+                Matcher m = CHUNK_NAME.matcher(file.getFileName().toString());
+                // 無法從檔名得知範圍時與所有檔案同組
+                chunks.add(m.matches()
+                        ? new Chunk(file, Long.parseLong(m.group(1)), Long.parseLong(m.group(2)))
+                        : new Chunk(file, Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("審計日誌歸檔目錄讀取失敗: " + dir, e);
+        }
+        chunks.sort(Comparator.comparingLong(Chunk::lastId).reversed());
+
+        List<List<Chunk>> groups = new ArrayList<>();
+        List<Chunk> current = null;
+        long groupFirstId = Long.MAX_VALUE;
+        for (Chunk chunk : chunks) {
+            if (current == null || chunk.lastId() < groupFirstId) {
+                current = new ArrayList<>();
+                groups.add(current);
+                groupFirstId = chunk.firstId();
+            } else {
+                groupFirstId = Math.min(groupFirstId, chunk.firstId());
+            }
+            current.add(chunk);
+        }
+        return groups;
+    }
+
+    // 一組檔案中符合條件的資料，依 id 由新到舊並去除重複
+    private List<AuditLog> readGroup(List<Chunk> group, AuditLogQuery query) {
+        List<AuditLog> logs = new ArrayList<>();
+        for (Chunk chunk : group) {
+            readChunk(chunk.file(), log -> {
+                if (matches(log, query)) {
+                    logs.add(log);
+                }
+            });
+        }
+        logs.sort(Comparator.comparing(AuditLog::getId).reversed());
+        List<AuditLog> unique = new ArrayList<>(logs.size());
+        for (AuditLog log : logs) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).getId().equals(log.getId())) {
+                unique.add(log);
+            }
+        }
+        return unique;
+    }
+
+    private void readChunk(Path file, Consumer<AuditLog> consumer) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    consumer.accept(MAPPER.readValue(line, AuditLog.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("審計日誌歸檔檔案讀取失敗: " + file, e);
+        }
+    }
+
+    // 與 AuditLogSpecs 相同的條件，字串比對不分大小寫（同資料庫定序）
+    static boolean matches(AuditLog log, AuditLogQuery q) {
+        if (q == null) {
+            return true;
+        }
+        if (q.getActionType() != null && !q.getActionType().isBlank()) {
+            String actionType = q.getActionType().trim();
+            boolean insert = "insert".equalsIgnoreCase(actionType);
+            if (!actionType.equalsIgnoreCase(log.getActionType())
+                    && !(insert && "create".equalsIgnoreCase(log.getActionType()))) {
+                return false;
+            }
+        }
+        if (q.getTargetTable() != null && !q.getTargetTable().isBlank()
+                && !q.getTargetTable().trim().equalsIgnoreCase(log.getTargetTable())) {
+            return false;
+        }
+        if (q.getActorUserId() != null && !q.getActorUserId().equals(log.getActorUserId())) {
+            return false;
+        }
+        if (q.getTargetId() != null && !q.getTargetId().equals(log.getTargetId())) {
+            return false;
+        }
+        LocalDateTime createdAt = log.getCreatedAt();
+        if (q.getFrom() != null && (createdAt == null || createdAt.isBefore(q.getFrom()))) {
+            return false;
+        }
+        if (q.getTo() != null && (createdAt == null || !createdAt.isBefore(q.getTo()))) {
+            return false;
+        }
+        if (q.getKeyword() != null && !q.getKeyword().isBlank()) {
+            String keyword = q.getKeyword().toLowerCase(Locale.ROOT);
+            return contains(log.getOldValue(), keyword) || contains(log.getNewValue(), keyword)
+                    || contains(log.getChanges(), keyword)
+                    || (log.getChangesGz() != null && contains(AuditDelta.decompress(log.getChangesGz()), keyword));
+        }
+        return true;
+    }
+
+    private static boolean contains(String text, String keyword) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(keyword);
+    }
+}
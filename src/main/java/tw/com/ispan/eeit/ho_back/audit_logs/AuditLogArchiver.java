@@ -0,0 +1,144 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditRetentionProperties;
+
+/**
+ * 審計日誌歸檔排程
+ *
+ * audit_logs 只保留最近 hot-days 天，更早的資料依 created_at 順序分批：
+ * 1. 寫成月份目錄下的壓縮檔（AuditLogArchive，寫完才改名）
+ * 2. 同一個交易刪除 audit_logs 與 audit_log_token 中對應的資料
+ *
+ * 第 1 步之後中斷時，下次會重新歸檔同一批資料，讀取時依 id 去除重複，所以可以隨時中斷與續跑
+ */
+@Component
+public class AuditLogArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogArchiver.class);
+
+    // 走 ix_audit_logs_created_at
+    static final String SELECT_SQL = "SELECT TOP (:limit) " + AuditLogSearchService.COLUMNS +
+            " FROM audit_logs a WHERE a.created_at < :cutoff ORDER BY a.created_at, a.id";
+
+    static final String DELETE_TOKENS_SQL = "DELETE FROM audit_log_token WHERE audit_log_id IN (:ids)";
+
+    static final String DELETE_LOGS_SQL = "DELETE FROM audit_logs WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditLogArchive archive;
+    private final AuditRetentionProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile LocalDateTime lastCutoff;
+    private volatile String lastError;
+
+    public AuditLogArchiver(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            AuditLogArchive archive, AuditRetentionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archive = archive;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${audit.retention.cron:0 30 2 * * ?}")
+    public void scheduledArchive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            archive(properties.getMaxChunksPerRun());
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            logger.error("❌ 審計日誌歸檔失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 歸檔超過保留天數的資料
+     *
+     * @return 本次歸檔的筆數，已有其他歸檔在執行時回傳 0
+     */
+    public int archive(int maxChunks) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            lastRunAt = LocalDateTime.now();
+            lastCutoff = LocalDate.now().minusDays(properties.getHotDays()).atStartOfDay();
+            int chunkSize = Math.min(Math.max(properties.getChunkSize(), 1), 2000);
+            int total = 0;
+            for (int i = 0; i < maxChunks; i++) {
+                int count = archiveChunk(lastCutoff, chunkSize);
+                total += count;
+                if (count < chunkSize) {
+                    break;
+                }
+            }
+            lastError = null;
+            if (total > 0) {
+                logger.info("✅ 審計日誌已歸檔 {} 筆（{} 之前）", total, lastCutoff);
+            }
+            return total;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cutoff, int chunkSize) throws Exception {
+        List<AuditLog> logs = jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource()
+                .addValue("limit", chunkSize)
+                .addValue("cutoff", Timestamp.valueOf(cutoff)), AuditLogSearchService.ROW_MAPPER);
+        if (logs.isEmpty()) {
+            return 0;
+        }
+        // 先寫檔，成功後才刪除資料庫中的資料
+        files.add(archive.write(logs));
+
+        List<Long> ids = logs.stream().map(AuditLog::getId).toList();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_TOKENS_SQL, params);
+            jdbcTemplate.update(DELETE_LOGS_SQL, params);
+        });
+        archived.add(logs.size());
+        return logs.size();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("hotDays", properties.getHotDays());
+        result.put("running", running.get());
+        result.put("archived", archived.sum());
+        result.put("files", files.sum());
+        result.put("months", archive.months().stream().map(Object::toString).toList());
+        result.put("lastRunAt", lastRunAt);
+        result.put("lastCutoff", lastCutoff);
+        result.put("lastError", lastError);
+        return result;
+    }
+}
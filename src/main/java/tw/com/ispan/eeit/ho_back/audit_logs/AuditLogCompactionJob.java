@@ -0,0 +1,156 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditStorageProperties;
+
+/**
+ * 把舊的審計日誌（完整 old_value / new_value）分批轉成精簡的欄位變更
+ *
+ * - 依 id 游標每次讀 chunk-size 筆，一個區塊一個交易，以 JDBC batch 更新
+ * - 每輪最多 max-chunks-per-run 個區塊，全部轉完後排程不再掃描
+ * - JSON 無法解析的資料保留原樣並計入 skipped
+ */
+@Component
+public class AuditLogCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogCompactionJob.class);
+
+    static final String SELECT_SQL = "SELECT TOP (?) id, action_type, old_value, new_value FROM audit_logs " +
+            "WHERE id > ? AND changes IS NULL AND changes_gz IS NULL " +
+            "AND (old_value IS NOT NULL OR new_value IS NOT NULL) ORDER BY id";
+
+    // 條件再檢查一次，避免覆蓋同時寫入的資料
+    static final String UPDATE_SQL = "UPDATE audit_logs SET changes = ?, changes_gz = ?, old_value = NULL, " +
+            "new_value = NULL WHERE id = ? AND changes IS NULL AND changes_gz IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditStorageProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder converted = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private volatile long lastId;
+    private volatile boolean finished;
+    private volatile LocalDateTime lastRunAt;
+
+    public AuditLogCompactionJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            AuditStorageProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${audit.storage.migration.interval-ms:60000}",
+            fixedDelayString = "${audit.storage.migration.interval-ms:60000}")
+    public void scheduledRun() {
+        if (!properties.isCompact() || !properties.getMigration().isEnabled() || finished) {
+            return;
+        }
+        try {
+            run(properties.getMigration().getMaxChunksPerRun());
+        } catch (Exception e) {
+            logger.error("❌ 審計日誌精簡格式轉換失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 執行一輪轉換
+     *
+     * @return 本輪轉換的筆數，已有其他轉換在執行時回傳 0
+     */
+    public int run(int maxChunks) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            lastRunAt = LocalDateTime.now();
+            int total = 0;
+            for (int i = 0; i < maxChunks && !finished; i++) {
+                total += transactionTemplate.execute(status -> convertChunk());
+            }
+            if (total > 0) {
+                logger.info("✅ 審計日誌已轉換 {} 筆為精簡格式（游標 id={}）", total, lastId);
+            }
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int convertChunk() {
+        int chunkSize = Math.max(properties.getMigration().getChunkSize(), 1);
+        List<AuditLog> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            AuditLog log = new AuditLog();
+            log.setId(rs.getLong("id"));
+            log.setActionType(rs.getString("action_type"));
+            log.setOldValue(rs.getString("old_value"));
+            log.setNewValue(rs.getString("new_value"));
+            return log;
+        }, chunkSize, lastId);
+        if (rows.isEmpty()) {
+            finished = true;
+            return 0;
+        }
+
+        List<AuditLog> compacted = new ArrayList<>(rows.size());
+        for (AuditLog log : rows) {
+            if (AuditDelta.compact(log, properties.getCompressMinBytes())) {
+                compacted.add(log);
+            } else {
+                skipped.increment();
+            }
+        }
+        if (!compacted.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, compacted, compacted.size(), (ps, log) -> {
+                ps.setString(1, log.getChanges());
+                ps.setBytes(2, log.getChangesGz());
+                ps.setLong(3, log.getId());
+            });
+        }
+
+        lastId = rows.get(rows.size() - 1).getId();
+        converted.add(compacted.size());
+        chunks.increment();
+        if (rows.size() < chunkSize) {
+            finished = true;
+        }
+        return compacted.size();
+    }
+
+    /**
+     * 從頭重新掃描（例如調整壓縮門檻或補轉之前略過的資料）
+     */
+    public void restart() {
+        lastId = 0;
+        finished = false;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isCompact() && properties.getMigration().isEnabled());
+        result.put("running", running.get());
+        result.put("finished", finished);
+        result.put("lastId", lastId);
+        result.put("converted", converted.sum());
+        result.put("skipped", skipped.sum());
+        result.put("chunks", chunks.sum());
+        result.put("lastRunAt", lastRunAt);
+        return result;
+    }
+}
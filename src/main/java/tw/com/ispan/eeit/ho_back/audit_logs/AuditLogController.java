@@ -9,7 +9,9 @@ import org.springframework.web.bind.annotation.*;
 import tw.com.ispan.eeit.ho_back.common.PageResponse;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,9 +19,98 @@ import java.util.stream.Collectors;
 public class AuditLogController {
 
     private final AuditLogService service;
+    private final AuditLogWriter writer;
+    private final AuditLogCompactionJob compactionJob;
+    private final AuditLogSearchService searchService;
+    private final AuditLogTokenIndexer tokenIndexer;
+    private final AuditLogArchiver archiver;
 
-    public AuditLogController(AuditLogService service) {
+    public AuditLogController(AuditLogService service, AuditLogWriter writer, AuditLogCompactionJob compactionJob,
+            AuditLogSearchService searchService, AuditLogTokenIndexer tokenIndexer, AuditLogArchiver archiver) {
         this.service = service;
+        this.writer = writer;
+        this.compactionJob = compactionJob;
+        this.searchService = searchService;
+        this.tokenIndexer = tokenIndexer;
+        this.archiver = archiver;
+    }
+
+    /**
+     * 審計日誌背景寫入統計：佇列深度、寫入 / 丟棄 / 溢出筆數、批次寫入耗時
+     */
+    @GetMapping("/writer/metrics")
+    public Map<String, Object> writerMetrics() {
+        return writer.metrics();
+    }
+
+    /**
+     * 審計日誌搜尋（關鍵字索引 + 游標分頁）
+     * GET /api/audit-logs/search?keyword=台北&targetTable=hotel&size=20&cursor={nextCursor}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchIndexed(AuditLogRequest req, @RequestParam(required = false) String cursor) {
+        var query = new AuditLogQuery();
+        query.setActionType(req.getActionType());
+        query.setTargetTable(req.getTargetTable());
+        query.setActorUserId(req.getActorUserId());
+        query.setFrom(req.getFrom());
+        query.setTo(req.getTo());
+        query.setTargetId(req.getTargetId());
+        query.setKeyword(req.getKeyword());
+        try {
+            return ResponseEntity.ok(searchService.search(query, cursor, req.getSize()));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 關鍵字索引進度
+     */
+    @GetMapping("/search/index")
+    public Map<String, Object> searchIndexStatus() {
+        return tokenIndexer.status();
+    }
+
+    /**
+     * 歸檔狀態：已歸檔的月份、筆數與最近一次執行結果
+     */
+    @GetMapping("/archive")
+    public Map<String, Object> archiveStatus() {
+        return archiver.status();
+    }
+
+    /**
+     * 立即歸檔超過保留天數的資料（最多 chunks 個區塊）
+     */
+    @PostMapping("/archive")
+    public Map<String, Object> runArchive(@RequestParam(defaultValue = "10") int chunks) {
+        archiver.archive(Math.max(chunks, 1));
+        return archiver.status();
+    }
+
+    /**
+     * 舊審計日誌轉換為精簡格式的進度
+     */
+    @GetMapping("/storage/migration")
+    public Map<String, Object> migrationStatus() {
+        return compactionJob.status();
+    }
+
+    /**
+     * 立即執行一輪轉換，restart=true 時從頭重新掃描
+     */
+    @PostMapping("/storage/migration")
+    public Map<String, Object> runMigration(@RequestParam(defaultValue = "10") int chunks,
+            @RequestParam(defaultValue = "false") boolean restart) {
+        if (restart) {
+            compactionJob.restart();
+        }
+        compactionJob.run(Math.max(chunks, 1));
+        return compactionJob.status();
     }
 
     /**
@@ -27,6 +27,12 @@ public class AuditLogDiffUtil {
 
         try {
             String actionType = log.getActionType();
+
+            // 精簡格式：寫入時已算好變更的欄位，不必再比較完整 JSON
+            if (AuditDelta.isCompact(log)) {
+                extractCompactChanges(log, changes);
+                return changes;
+            }
             
             if ("insert".equalsIgnoreCase(actionType) || "create".equalsIgnoreCase(actionType)) {
                 // 新增：所有 newValue 的欄位都算是變更
@@ -55,6 +61,57 @@ public class AuditLogDiffUtil {
         return changes;
     }
 
+    /**
+     * 提取精簡格式（AuditDelta）的變更，顯示方式與完整 JSON 相同
+     */
+    private static void extractCompactChanges(AuditLog log, List<AuditLogFieldChangeResponse> changes) {
+        for (AuditDelta.FieldChange change : AuditDelta.read(log)) {
+            changes.add(AuditLogFieldChangeResponse.builder()
+                    .auditLogId(log.getId())
+                    .actorUserId(log.getActorUserId())
+                    .actionType(log.getActionType())
+                    .targetTable(log.getTargetTable())
+                    .targetId(log.getTargetId())
+                    .fieldName(change.field())
+                    .oldValue(formatValue(change.oldValue()))
+                    .newValue(formatValue(change.newValue()))
+                    .ipAddress(log.getIpAddress())
+                    .createdAt(log.getCreatedAt())
+                    .build());
+        }
+        if (!changes.isEmpty()) {
+            return;
+        }
+        String actionType = log.getActionType();
+        if ("update".equalsIgnoreCase(actionType)) {
+            changes.add(AuditLogFieldChangeResponse.builder()
+                    .auditLogId(log.getId())
+                    .actorUserId(log.getActorUserId())
+                    .actionType(actionType)
+                    .targetTable(log.getTargetTable())
+                    .targetId(log.getTargetId())
+                    .fieldName("(無變更)")
+                    .oldValue("所有欄位值保持不變")
+                    .newValue("所有欄位值保持不變")
+                    .ipAddress(log.getIpAddress())
+                    .createdAt(log.getCreatedAt())
+                    .build());
+        } else if ("insert".equalsIgnoreCase(actionType) || "create".equalsIgnoreCase(actionType)) {
+            changes.add(AuditLogFieldChangeResponse.builder()
+                    .auditLogId(log.getId())
+                    .actorUserId(log.getActorUserId())
+                    .actionType(actionType)
+                    .targetTable(log.getTargetTable())
+                    .targetId(log.getTargetId())
+                    .fieldName("(新增記錄)")
+                    .oldValue(null)
+                    .newValue("{}")
+                    .ipAddress(log.getIpAddress())
+                    .createdAt(log.getCreatedAt())
+                    .build());
+        }
+    }
+
     /**
      * 提取新增操作的變更（顯示所有欄位，包括 null 值）
      */
@@ -30,8 +30,9 @@ public class AuditLogResponse {
                 .actionType(log.getActionType())
                 .targetTable(log.getTargetTable())
                 .targetId(log.getTargetId())
-                .oldValue(log.getOldValue())
-                .newValue(log.getNewValue())
+                // 精簡格式時只還原有變更的欄位
+                .oldValue(AuditDelta.oldJson(log))
+                .newValue(AuditDelta.newJson(log))
                 .ipAddress(log.getIpAddress())
                 .createdAt(log.getCreatedAt())
                 .build();
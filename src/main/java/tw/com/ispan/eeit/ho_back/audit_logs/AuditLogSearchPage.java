@@ -0,0 +1,18 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.util.List;
+
+import lombok.Data;
+
+// 審計日誌搜尋結果（游標分頁，依 id 由新到舊）
+@Data
+public class AuditLogSearchPage {
+    // 欄位級別的變更，同一筆審計日誌的欄位相鄰
+    private List<AuditLogFieldChangeResponse> changes;
+    // 本頁的審計日誌筆數
+    private Integer count;
+    private Integer size;
+    // 下一頁的游標，沒有下一頁時為 null
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,193 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditSearchProperties;
+
+/**
+ * 審計日誌搜尋（關鍵字索引 + 游標分頁）
+ *
+ * - 關鍵字斷詞後每個詞以前綴比對 audit_log_token，多個詞必須同時符合
+ * - 還沒索引的資料（indexed = 0，通常只有最近幾秒）先以 LIKE 粗篩，再用同一個斷詞器在記憶體中
+ *   以相同的前綴規則比對，所以同一個關鍵字在索引前後的結果一致
+ * - 依 id 由新到舊排序，下一頁以 id < 游標查詢，不使用 OFFSET
+ */
+@Service
+public class AuditLogSearchService {
+
+    static final String COLUMNS = "a.id, a.actor_user_id, a.action_type, a.target_table, a.target_id, " +
+            "a.old_value, a.new_value, a.changes, a.changes_gz, a.ip_address, a.created_at";
+
+    static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> {
+        AuditLog log = new AuditLog();
+        log.setId(rs.getLong("id"));
+        log.setActorUserId(rs.getObject("actor_user_id", Long.class));
+        log.setActionType(rs.getString("action_type"));
+        log.setTargetTable(rs.getString("target_table"));
+        log.setTargetId(rs.getObject("target_id", Long.class));
+        log.setOldValue(rs.getString("old_value"));
+        log.setNewValue(rs.getString("new_value"));
+        log.setChanges(rs.getString("changes"));
+        log.setChangesGz(rs.getBytes("changes_gz"));
+        log.setIpAddress(rs.getString("ip_address"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        log.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        return log;
+    };
+
+    // 搜尋時需要知道這筆是否已建立關鍵字索引
+    record Row(AuditLog log, boolean indexed) {
+    }
+
+    static final RowMapper<Row> SEARCH_ROW_MAPPER = (rs, rowNum) -> new Row(ROW_MAPPER.mapRow(rs, rowNum),
+            rs.getBoolean("indexed"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AuditSearchProperties properties;
+
+    public AuditLogSearchService(NamedParameterJdbcTemplate jdbcTemplate, AuditSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * @param cursor 上一頁回傳的 nextCursor，第一頁為 null
+     */
+    public AuditLogSearchPage search(AuditLogQuery query, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? properties.getDefaultPageSize()
+                : Math.min(size, properties.getMaxPageSize());
+        Long cursorId = parseCursor(cursor);
+        List<String> keywordTokens = query != null && query.getKeyword() != null && !query.getKeyword().isBlank()
+                ? AuditLogTokenizer.queryTokens(query.getKeyword().trim())
+                : null;
+
+        // 未索引的資料在記憶體中篩掉後可能不足一頁，從最後讀到的 id 繼續往下讀
+        List<AuditLog> logs = new ArrayList<>();
+        Long scanCursor = cursorId;
+        while (true) {
+            MapSqlParameterSource params = new MapSqlParameterSource("limit", pageSize + 1);
+            List<Row> rows = jdbcTemplate.query(buildSql(query, scanCursor, params), params, SEARCH_ROW_MAPPER);
+            for (Row row : rows) {
+                if (keywordTokens == null || row.indexed()
+                        || AuditLogTokenizer.matches(row.log(), keywordTokens, properties.getMaxTokensPerLog())) {
+                    logs.add(row.log());
+                }
+            }
+            if (logs.size() > pageSize || rows.size() <= pageSize) {
+                break;
+            }
+            scanCursor = rows.get(rows.size() - 1).log().getId();
+        }
+
+        boolean hasNext = logs.size() > pageSize;
+        if (hasNext) {
+            logs = logs.subList(0, pageSize);
+        }
+        List<AuditLogFieldChangeResponse> changes = new ArrayList<>();
+        for (AuditLog log : logs) {
+            changes.addAll(AuditLogDiffUtil.extractFieldChanges(log));
+        }
+
+        AuditLogSearchPage page = new AuditLogSearchPage();
+        page.setChanges(changes);
+        page.setCount(logs.size());
+        page.setSize(pageSize);
+        page.setHasNext(hasNext);
+        page.setNextCursor(hasNext ? String.valueOf(logs.get(logs.size() - 1).getId()) : null);
+        return page;
+    }
+
+    String buildSql(AuditLogQuery q, Long cursorId, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder("SELECT TOP (:limit) ").append(COLUMNS)
+                .append(", a.indexed FROM audit_logs a WHERE 1 = 1");
+
+        if (q != null && q.getKeyword() != null && !q.getKeyword().isBlank()) {
+            List<String> tokens = AuditLogTokenizer.queryTokens(q.getKeyword().trim());
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("關鍵字至少需要包含一個文字或數字");
+            }
+            sql.append(" AND a.id IN (").append(tokenSubquery(tokens, params))
+                    .append(" UNION ALL ").append(unindexedSubquery(tokens, params)).append(")");
+        }
+        if (q != null && q.getActionType() != null && !q.getActionType().isBlank()) {
+            // 資料庫為不分大小寫的定序，不需要 LOWER()，可以使用索引
+            String actionType = q.getActionType().trim().toLowerCase();
+            params.addValue("actionTypes", "insert".equals(actionType) ? List.of("insert", "create") : List.of(actionType));
+            sql.append(" AND a.action_type IN (:actionTypes)");
+        }
+        if (q != null && q.getTargetTable() != null && !q.getTargetTable().isBlank()) {
+            params.addValue("targetTable", q.getTargetTable().trim());
+            sql.append(" AND a.target_table = :targetTable");
+        }
+        if (q != null && q.getActorUserId() != null) {
+            params.addValue("actorUserId", q.getActorUserId());
+            sql.append(" AND a.actor_user_id = :actorUserId");
+        }
+        if (q != null && q.getTargetId() != null) {
+            params.addValue("targetId", q.getTargetId());
+            sql.append(" AND a.target_id = :targetId");
+        }
+        if (q != null && q.getFrom() != null) {
+            params.addValue("from", Timestamp.valueOf(q.getFrom()));
+            sql.append(" AND a.created_at >= :from");
+        }
+        if (q != null && q.getTo() != null) {
+            params.addValue("to", Timestamp.valueOf(q.getTo()));
+            sql.append(" AND a.created_at < :to");
+        }
+        if (cursorId != null) {
+            params.addValue("cursorId", cursorId);
+            sql.append(" AND a.id < :cursorId");
+        }
+        return sql.append(" ORDER BY a.id DESC").toString();
+    }
+
+    // 第一個詞決定候選的審計日誌，其餘的詞以 EXISTS 檢查同一筆日誌
+    private String tokenSubquery(List<String> tokens, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder("SELECT t0.audit_log_id FROM audit_log_token t0 WHERE t0.token LIKE :token0");
+        params.addValue("token0", tokens.get(0) + "%");
+        for (int i = 1; i < tokens.size(); i++) {
+            sql.append(" AND EXISTS (SELECT 1 FROM audit_log_token t").append(i)
+                    .append(" WHERE t").append(i).append(".audit_log_id = t0.audit_log_id AND t").append(i)
+                    .append(".token LIKE :token").append(i).append(")");
+            params.addValue("token" + i, tokens.get(i) + "%");
+        }
+        return sql.toString();
+    }
+
+    // 未索引資料的粗篩：每個詞都必須出現在某個欄位中（壓縮過的 changes_gz 無法比對，一律交給記憶體篩選）
+    private String unindexedSubquery(List<String> tokens, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder("SELECT u.id FROM audit_logs u WHERE u.indexed = 0");
+        for (int i = 0; i < tokens.size(); i++) {
+            String name = ":like" + i;
+            sql.append(" AND (u.changes_gz IS NOT NULL OR COALESCE(u.target_table, '') LIKE ").append(name)
+                    .append(" OR COALESCE(u.changes, '') LIKE ").append(name)
+                    .append(" OR COALESCE(u.old_value, '') LIKE ").append(name)
+                    .append(" OR COALESCE(u.new_value, '') LIKE ").append(name).append(")");
+            params.addValue("like" + i, "%" + escapeLike(tokens.get(i)) + "%");
+        }
+        return sql.toString();
+    }
+
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("審計日誌分頁游標格式錯誤: " + cursor);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("[", "[[]").replace("%", "[%]").replace("_", "[_]");
+    }
+}
@@ -2,6 +2,7 @@ package tw.com.ispan.eeit.ho_back.audit_logs;
 
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -11,6 +12,10 @@ import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditStorageProperties;
 
 @Service
 public class AuditLogServiceImpl implements AuditLogService {
@@ -18,13 +23,22 @@ public class AuditLogServiceImpl implements AuditLogService {
     private final AuditLogRepository repository;
     private final RequestContext requestContext;
     private final ApplicationContext applicationContext;
+    private final AuditLogWriter writer;
+    private final AuditStorageProperties storage;
+    private final AuditLogArchive archive;
 
     public AuditLogServiceImpl(AuditLogRepository repository,
             RequestContext requestContext,
-            ApplicationContext applicationContext) {
+            ApplicationContext applicationContext,
+            AuditLogWriter writer,
+            AuditStorageProperties storage,
+            AuditLogArchive archive) {
         this.repository = repository;
         this.requestContext = requestContext;
         this.applicationContext = applicationContext;
+        this.writer = writer;
+        this.storage = storage;
+        this.archive = archive;
     }
 
     @Override
@@ -40,20 +54,37 @@ public class AuditLogServiceImpl implements AuditLogService {
             TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
                 @Override
                 public void afterCommit() {
+                    compact(log);
+                    // 背景批次寫入：只放進佇列，不另開交易
+                    if (writer.isAsync()) {
+                        writer.enqueue(log);
+                        return;
+                    }
                     System.out.println("\n>>> 事務已提交，開始保存審計日誌 <<<");
                     // 通過 ApplicationContext 獲取代理，確保 @Transactional 生效
                     AuditLogServiceImpl proxy = applicationContext.getBean(AuditLogServiceImpl.class);
                     proxy.saveInNewTransaction(log);
                 }
             });
+        } else if (writer.isAsync()) {
+            compact(log);
+            writer.enqueue(log);
         } else {
             System.out.println("⚠️ 事務同步未啟用，直接在新事務中保存");
+            compact(log);
             AuditLogServiceImpl proxy = applicationContext.getBean(AuditLogServiceImpl.class);
             proxy.saveInNewTransaction(log);
         }
         System.out.println("---------- logAfterCommit 完成 ----------\n");
     }
 
+    // 寫入前轉成精簡的欄位變更，交易提交後才做，不佔用業務交易的時間
+    private void compact(AuditLog log) {
+        if (storage.isCompact()) {
+            AuditDelta.compact(log, storage.getCompressMinBytes());
+        }
+    }
+
     /**
      * 在新事務中保存審計日誌
      * 使用 REQUIRES_NEW 確保即使在事務同步回調中也能成功保存
@@ -133,7 +164,29 @@ public class AuditLogServiceImpl implements AuditLogService {
         System.out.println("AuditLogServiceImpl.search: Specification created");
         Page<AuditLog> result = repository.findAll(spec, pageable);
         System.out.println("AuditLogServiceImpl.search: Result size=" + result.getContent().size());
-        return result;
+        if (pageable.isUnpaged() || !archive.covers(query)) {
+            return result;
+        }
+        int remaining = pageable.getPageSize() - result.getContent().size();
+        long skip = Math.max(0, pageable.getOffset() - result.getTotalElements());
+        return appendArchived(result, archive.search(query, skip, remaining), pageable);
+    }
+
+    /**
+     * 歸檔的資料都比 audit_logs 中的舊，接在資料庫結果之後分頁：
+     * 資料庫這頁不足 pageSize 時由歸檔補滿
+     * 歸檔只讀到這頁加一筆為止，總筆數是「至少」的數字：已讀到的筆數，還有下一頁時再加一，
+     * 所以 hasNext 正確，但最後一頁的頁碼要翻到才知道
+     */
+    static Page<AuditLog> appendArchived(Page<AuditLog> hot, AuditLogArchive.Slice archived, Pageable pageable) {
+        if (archived.logs().isEmpty() && !archived.hasMore()) {
+            return hot;
+        }
+        List<AuditLog> content = new ArrayList<>(hot.getContent());
+        content.addAll(archived.logs());
+        long total = hot.getTotalElements() + archived.skipped() + archived.logs().size()
+                + (archived.hasMore() ? 1 : 0);
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Override
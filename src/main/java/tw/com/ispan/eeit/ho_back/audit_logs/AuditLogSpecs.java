@@ -20,16 +20,12 @@ public class AuditLogSpecs {
                 String actionTypeValue = q.getActionType().toLowerCase();
                 
                 // 處理映射：insert 應該匹配 insert 和 create
+                // 資料庫為不分大小寫的定序，直接比對欄位（不包 LOWER）才能使用索引
                 if ("insert".equals(actionTypeValue)) {
-                    // 使用 OR 條件匹配 insert 或 create（不區分大小寫）
-                    predicates.add(cb.or(
-                        cb.equal(cb.lower(root.get("actionType")), "insert"),
-                        cb.equal(cb.lower(root.get("actionType")), "create")
-                    ));
+                    predicates.add(root.get("actionType").in("insert", "create"));
                     System.out.println("AuditLogSpecs: ActionType condition added for insert/create");
                 } else {
-                    // 其他類型直接匹配（不區分大小寫）
-                    predicates.add(cb.equal(cb.lower(root.get("actionType")), actionTypeValue));
+                    predicates.add(cb.equal(root.get("actionType"), actionTypeValue));
                     System.out.println("AuditLogSpecs: ActionType condition added with value: " + actionTypeValue);
                 }
             } else {
@@ -55,7 +51,9 @@ public class AuditLogSpecs {
                 predicates.add(
                         cb.or(
                                 cb.like(cb.coalesce(root.get("oldValue"), ""), like),
-                                cb.like(cb.coalesce(root.get("newValue"), ""), like)));
+                                cb.like(cb.coalesce(root.get("newValue"), ""), like),
+                                // 精簡格式未壓縮的欄位變更（changes_gz 無法以 LIKE 比對）
+                                cb.like(cb.coalesce(root.get("changes"), ""), like)));
             }
             
             System.out.println("AuditLogSpecs: Total predicates count: " + predicates.size());
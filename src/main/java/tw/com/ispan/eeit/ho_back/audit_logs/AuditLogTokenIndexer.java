@@ -0,0 +1,183 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditSearchProperties;
+
+/**
+ * 維護審計日誌的關鍵字索引（audit_log_token）
+ *
+ * 新寫入的審計日誌 indexed = 0，背景每 index-interval-ms 取出一批斷詞寫入 audit_log_token，
+ * 同一個交易內標記 indexed = 1。舊資料加上欄位後也是 0，會由同一個流程補建索引
+ *
+ * - 以 UPDLOCK + READPAST 取出資料，多台機器同時執行時各自取得不同的列
+ * - 詞已存在時不重複寫入（資料庫定序不分大小寫 / 全半形時，Java 中不同的詞可能視為相同）
+ * - 整批失敗時改為逐筆處理，仍然失敗的那一筆標記為已索引但沒有詞，不會卡住後面的資料
+ */
+@Component
+public class AuditLogTokenIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogTokenIndexer.class);
+
+    // 走 ix_audit_logs_unindexed 篩選索引；鎖到交易結束，其他機器跳過被鎖住的列
+    static final String SELECT_SQL = "SELECT TOP (?) id, action_type, target_table, old_value, new_value, " +
+            "changes, changes_gz FROM audit_logs WITH (UPDLOCK, READPAST, ROWLOCK) WHERE indexed = 0 ORDER BY id";
+
+    static final String SELECT_ONE_SQL = "SELECT id, action_type, target_table, old_value, new_value, " +
+            "changes, changes_gz FROM audit_logs WITH (UPDLOCK, READPAST, ROWLOCK) WHERE id = ? AND indexed = 0";
+
+    // 以資料庫定序判斷是否已存在，同一批內大小寫不同的詞也只寫入一次
+    static final String INSERT_TOKEN_SQL = "INSERT INTO audit_log_token (token, audit_log_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM audit_log_token WHERE token = ? AND audit_log_id = ?)";
+
+    static final String MARK_SQL = "UPDATE audit_logs SET indexed = 1 WHERE id = ?";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> {
+        AuditLog log = new AuditLog();
+        log.setId(rs.getLong("id"));
+        log.setActionType(rs.getString("action_type"));
+        log.setTargetTable(rs.getString("target_table"));
+        log.setOldValue(rs.getString("old_value"));
+        log.setNewValue(rs.getString("new_value"));
+        log.setChanges(rs.getString("changes"));
+        log.setChangesGz(rs.getBytes("changes_gz"));
+        return log;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditSearchProperties properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder indexedLogs = new LongAdder();
+    private final LongAdder indexedTokens = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder skippedLogs = new LongAdder();
+    private volatile long lastIndexedId;
+
+    public AuditLogTokenIndexer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            AuditSearchProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${audit.search.index-interval-ms:2000}",
+            fixedDelayString = "${audit.search.index-interval-ms:2000}")
+    public void scheduledIndex() {
+        if (!properties.isIndexEnabled()) {
+            return;
+        }
+        try {
+            indexPending();
+        } catch (Exception e) {
+            logger.error("❌ 審計日誌關鍵字索引失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 索引所有尚未索引的審計日誌
+     *
+     * @return 本次處理的筆數，已有其他索引在執行時回傳 0
+     */
+    public int indexPending() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int batchSize = Math.max(properties.getIndexBatchSize(), 1);
+            int total = 0;
+            while (true) {
+                List<Long> claimed = new ArrayList<>();
+                int indexed;
+                try {
+                    indexed = transactionTemplate.execute(status -> {
+                        List<AuditLog> logs = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, batchSize);
+                        logs.forEach(log -> claimed.add(log.getId()));
+                        return index(logs);
+                    });
+                } catch (DataAccessException e) {
+                    failedBatches.increment();
+                    logger.warn("⚠️ 審計日誌關鍵字索引批次失敗，改為逐筆處理: {}", e.getMessage());
+                    indexed = indexOneByOne(claimed);
+                }
+                total += indexed;
+                if (claimed.size() < batchSize) {
+                    break;
+                }
+            }
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // 每筆一個交易；仍然失敗的標記為已索引並計入 skippedLogs
+    private int indexOneByOne(List<Long> ids) {
+        int processed = 0;
+        for (Long id : ids) {
+            try {
+                transactionTemplate.execute(status -> index(jdbcTemplate.query(SELECT_ONE_SQL, ROW_MAPPER, id)));
+            } catch (DataAccessException e) {
+                skippedLogs.increment();
+                logger.error("❌ 審計日誌 {} 無法建立關鍵字索引，略過: {}", id, e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(MARK_SQL, id));
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    private int index(List<AuditLog> logs) {
+        if (logs.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> tokens = new ArrayList<>();
+        for (AuditLog log : logs) {
+            try {
+                for (String token : AuditLogTokenizer.tokenize(log, properties.getMaxTokensPerLog())) {
+                    tokens.add(new Object[] { token, log.getId(), token, log.getId() });
+                }
+            } catch (RuntimeException e) {
+                // 內容無法解析時只標記為已索引，不影響其他資料
+                logger.warn("⚠️ 審計日誌 {} 無法斷詞: {}", log.getId(), e.getMessage());
+            }
+        }
+        if (!tokens.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN_SQL, tokens);
+        }
+        jdbcTemplate.batchUpdate(MARK_SQL, logs, logs.size(), (ps, log) -> ps.setLong(1, log.getId()));
+
+        indexedLogs.add(logs.size());
+        indexedTokens.add(tokens.size());
+        lastIndexedId = logs.get(logs.size() - 1).getId();
+        return logs.size();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isIndexEnabled());
+        result.put("running", running.get());
+        result.put("indexedLogs", indexedLogs.sum());
+        result.put("indexedTokens", indexedTokens.sum());
+        result.put("lastIndexedId", lastIndexedId);
+        result.put("failedBatches", failedBatches.sum());
+        result.put("skippedLogs", skippedLogs.sum());
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 審計日誌關鍵字索引的斷詞
+ *
+ * - 英數字以連續的字母 / 數字為一個詞，轉小寫，長度 1 的英文字母不索引
+ * - 中日韓文字沒有空白分隔，以相鄰兩字（bigram）為詞，每段最後一個字另外索引單字
+ * - 查詢時每個詞以前綴比對，所以 "alph" 可以找到 "alpha"，單一中文字也找得到
+ *   （索引表以 LIKE 'token%' 比對，尚未索引的資料以 matches 在記憶體中套用同樣的規則）
+ */
+public final class AuditLogTokenizer {
+
+    // 與 audit_log_token.token 欄位長度相同
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AuditLogTokenizer() {
+    }
+
+    /**
+     * 一筆審計日誌的所有詞：表名、欄位名稱與欄位值
+     */
+    public static Set<String> tokenize(AuditLog log, int maxTokens) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addText(tokens, log.getTargetTable());
+        List<AuditDelta.FieldChange> changes = AuditDelta.read(log);
+        if (changes != null) {
+            for (AuditDelta.FieldChange change : changes) {
+                addText(tokens, change.field());
+                addNode(tokens, change.oldValue());
+                addNode(tokens, change.newValue());
+            }
+        } else {
+            addJson(tokens, log.getOldValue());
+            addJson(tokens, log.getNewValue());
+        }
+        if (tokens.size() <= maxTokens) {
+            return tokens;
+        }
+        Set<String> limited = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (limited.size() >= maxTokens) {
+                break;
+            }
+            limited.add(token);
+        }
+        return limited;
+    }
+
+    /**
+     * 查詢關鍵字斷詞，保留長度 1 的詞（以前綴比對）
+     */
+    public static List<String> queryTokens(String keyword) {
+        Set<String> tokens = new LinkedHashSet<>();
+        split(tokens, keyword, true);
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * 每個查詢詞都是這筆日誌某個詞的前綴（與 audit_log_token 的 LIKE 'token%' 相同）
+     */
+    public static boolean matches(AuditLog log, List<String> queryTokens, int maxTokens) {
+        Set<String> tokens = tokenize(log, maxTokens);
+        for (String queryToken : queryTokens) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(queryToken)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addText(tokens, text);
+        return tokens;
+    }
+
+    private static void addJson(Set<String> tokens, String json) {
+        if (json == null || json.isBlank()) {
+            return;
+        }
+        try {
+            addNode(tokens, MAPPER.readTree(json));
+        } catch (IOException e) {
+            // 不是 JSON 就當成一般文字
+            addText(tokens, json);
+        }
+    }
+
+    private static void addNode(Set<String> tokens, JsonNode node) {
+        if (node == null || node.isNull()) {
+            return;
+        }
+        if (node.isObject()) {
+            node.properties().forEach(e -> {
+                addText(tokens, e.getKey());
+                addNode(tokens, e.getValue());
+            });
+        } else if (node.isArray()) {
+            node.forEach(item -> addNode(tokens, item));
+        } else {
+            addText(tokens, node.asText());
+        }
+    }
+
+    private static void addText(Set<String> tokens, String text) {
+        split(tokens, text, false);
+    }
+
+    private static void split(Set<String> tokens, String text, boolean query) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String value = text.toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        for (int i = 0; i < value.length();) {
+            int cp = value.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isCjk(cp)) {
+                flushWord(tokens, word, query);
+                cjk.appendCodePoint(cp);
+            } else if (Character.isLetterOrDigit(cp)) {
+                flushCjk(tokens, cjk);
+                word.appendCodePoint(cp);
+            } else {
+                flushWord(tokens, word, query);
+                flushCjk(tokens, cjk);
+            }
+        }
+        flushWord(tokens, word, query);
+        flushCjk(tokens, cjk);
+    }
+
+    private static void flushWord(Set<String> tokens, StringBuilder word, boolean query) {
+        if (word.isEmpty()) {
+            return;
+        }
+        boolean singleLetter = word.length() == 1 && !Character.isDigit(word.charAt(0));
+        if (query || !singleLetter) {
+            tokens.add(truncate(word.toString()));
+        }
+        word.setLength(0);
+    }
+
+    // 相鄰兩字一組，最後一個字另外加入，讓單字查詢以前綴找到任何位置
+    private static void flushCjk(Set<String> tokens, StringBuilder cjk) {
+        if (cjk.isEmpty()) {
+            return;
+        }
+        int[] cps = cjk.codePoints().toArray();
+        for (int i = 0; i + 1 < cps.length; i++) {
+            tokens.add(new String(cps, i, 2));
+        }
+        tokens.add(new String(cps, cps.length - 1, 1));
+        cjk.setLength(0);
+    }
+
+    private static String truncate(String token) {
+        return token.length() <= MAX_TOKEN_LENGTH ? token : token.substring(0, MAX_TOKEN_LENGTH);
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
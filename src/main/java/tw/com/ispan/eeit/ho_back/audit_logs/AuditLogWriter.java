@@ -0,0 +1,333 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tw.com.ispan.eeit.ho_back.properties.AuditWriterProperties;
+import tw.com.ispan.eeit.ho_back.properties.AuditWriterProperties.OverflowPolicy;
+
+/**
+ * 審計日誌背景批次寫入
+ * 交易提交後把 AuditLog 放進有上限的佇列，由單一背景執行緒以 JDBC batch 寫入
+ *
+ * 佇列滿時依 audit.writer.overflow-policy 等待、丟棄或寫到溢出檔；
+ * 寫入失敗的批次也寫到溢出檔，佇列空閒時再補寫回資料庫
+ *
+ * 補寫時溢出檔先改名為 .replay，整個檔案處理完才刪除；
+ * 無法解析的行移到 .bad 隔離檔，不影響同檔案其他資料
+ */
+@Component
+public class AuditLogWriter {
+
+    static final String INSERT_SQL = "INSERT INTO audit_logs " +
+            "(actor_user_id, action_type, target_table, target_id, old_value, new_value, changes, changes_gz, " +
+            "ip_address, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditWriterProperties properties;
+    private final BlockingQueue<AuditLog> queue;
+    private final Path spillPath;
+    private final Path replayPath;
+    private final Path quarantinePath;
+    private final Object spillLock = new Object();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder quarantined = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            AuditWriterProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+        this.spillPath = Paths.get(properties.getSpillFile());
+        this.replayPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay");
+        this.quarantinePath = spillPath.resolveSibling(spillPath.getFileName() + ".bad");
+    }
+
+    public boolean isAsync() {
+        return properties.isAsync();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isAsync() || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // 關閉前把佇列剩下的寫完
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * 放進寫入佇列，佇列滿時依 overflow-policy 處理
+     *
+     * @return 是否進入佇列（寫到溢出檔或丟棄時為 false）
+     */
+    public boolean enqueue(AuditLog log) {
+        if (queue.offer(log)) {
+            enqueued.increment();
+            return true;
+        }
+        OverflowPolicy policy = properties.getOverflowPolicy();
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                if (queue.offer(log, properties.getBlockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    enqueued.increment();
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (policy == OverflowPolicy.DROP) {
+            dropped.increment();
+            System.err.println("=== 審計日誌佇列已滿，丟棄: action=" + log.getActionType() + ", table="
+                    + log.getTargetTable() + ", targetId=" + log.getTargetId() + " ===");
+            return false;
+        }
+        spill(List.of(log));
+        return false;
+    }
+
+    private void runLoop() {
+        List<AuditLog> batch = new ArrayList<>(properties.getBatchSize());
+        while (running) {
+            try {
+                AuditLog first = queue.poll(properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // 空閒時補寫溢出檔
+                    replaySpill();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stop() 會再把剩下的寫完
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.err.println("=== 審計日誌背景寫入發生錯誤: " + e.getMessage() + " ===");
+                e.printStackTrace();
+                batch.clear();
+            }
+        }
+    }
+
+    // 同步寫完佇列中的資料（關閉時、測試時使用）
+    void drain() {
+        List<AuditLog> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 一個批次一個交易，失敗時整批寫到溢出檔
+     *
+     * @return 是否寫入資料庫
+     */
+    boolean flush(List<AuditLog> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch,
+                    batch.size(), (ps, log) -> {
+                        ps.setObject(1, log.getActorUserId(), Types.BIGINT);
+                        ps.setString(2, log.getActionType());
+                        ps.setString(3, log.getTargetTable());
+                        ps.setObject(4, log.getTargetId(), Types.BIGINT);
+                        ps.setString(5, log.getOldValue());
+                        ps.setString(6, log.getNewValue());
+                        ps.setString(7, log.getChanges());
+                        ps.setBytes(8, log.getChangesGz());
+                        ps.setString(9, log.getIpAddress());
+                        ps.setTimestamp(10, log.getCreatedAt() != null ? Timestamp.valueOf(log.getCreatedAt()) : null);
+                    }));
+            written.add(batch.size());
+            return true;
+        } catch (Exception e) {
+            failedBatches.increment();
+            System.err.println("=== 審計日誌批次寫入失敗（" + batch.size() + " 筆），寫到溢出檔: " + e.getMessage() + " ===");
+            spill(batch);
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            batches.increment();
+            flushNanos.add(elapsed);
+            lastFlushNanos = elapsed;
+            maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private void spill(List<AuditLog> logs) {
+        synchronized (spillLock) {
+            try {
+                if (spillPath.getParent() != null) {
+                    Files.createDirectories(spillPath.getParent());
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditLog log : logs) {
+                        out.write(MAPPER.writeValueAsString(log));
+                        out.newLine();
+                    }
+                }
+                spilled.add(logs.size());
+            } catch (IOException e) {
+                dropped.add(logs.size());
+                System.err.println("=== 審計日誌溢出檔寫入失敗，丟棄 " + logs.size() + " 筆: " + e.getMessage() + " ===");
+            }
+        }
+    }
+
+    /**
+     * 溢出檔改名為 .replay 後逐批補寫，補寫失敗的批次由 flush 寫回新的溢出檔
+     *
+     * 上次的 .replay 還在（讀取中斷）時先把它補寫完，不會用新的溢出檔覆蓋；
+     * 重新補寫整個檔案時，已寫入的資料可能重複，但不會遺失
+     */
+    void replaySpill() {
+        synchronized (spillLock) {
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(spillPath)) {
+                    return;
+                }
+                try {
+                    Files.move(spillPath, replayPath);
+                } catch (IOException e) {
+                    System.err.println("=== 無法讀取審計日誌溢出檔: " + e.getMessage() + " ===");
+                    return;
+                }
+            }
+        }
+        List<AuditLog> batch = new ArrayList<>(properties.getBatchSize());
+        try (BufferedReader in = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                AuditLog log;
+                try {
+                    log = MAPPER.readValue(line, AuditLog.class);
+                } catch (JsonProcessingException e) {
+                    quarantine(line);
+                    continue;
+                }
+                batch.add(log);
+                if (batch.size() >= properties.getBatchSize()) {
+                    replayBatch(batch);
+                }
+            }
+            replayBatch(batch);
+            Files.deleteIfExists(replayPath);
+        } catch (IOException e) {
+            // .replay 留著，下次空閒時從頭補寫
+            System.err.println("=== 審計日誌溢出檔補寫失敗: " + e.getMessage() + " ===");
+        }
+    }
+
+    private void replayBatch(List<AuditLog> batch) {
+        if (!batch.isEmpty() && flush(batch)) {
+            replayed.add(batch.size());
+        }
+        batch.clear();
+    }
+
+    // 無法解析的行另存，寫不進隔離檔時中止補寫，保留 .replay
+    private void quarantine(String line) throws IOException {
+        Files.writeString(quarantinePath, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        quarantined.increment();
+        System.err.println("=== 審計日誌溢出檔有無法解析的資料，已移到 " + quarantinePath + " ===");
+    }
+
+    public Map<String, Object> metrics() {
+        long batchCount = batches.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("async", properties.isAsync());
+        result.put("overflowPolicy", properties.getOverflowPolicy());
+        result.put("queueDepth", queue.size());
+        result.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        result.put("enqueued", enqueued.sum());
+        result.put("written", written.sum());
+        result.put("dropped", dropped.sum());
+        result.put("spilled", spilled.sum());
+        result.put("replayed", replayed.sum());
+        result.put("quarantined", quarantined.sum());
+        result.put("batches", batchCount);
+        result.put("failedBatches", failedBatches.sum());
+        result.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        result.put("avgFlushMs", batchCount == 0 ? 0.0 : flushNanos.sum() / 1_000_000.0 / batchCount);
+        result.put("maxFlushMs", maxFlushNanos.get() / 1_000_000.0);
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * 啟動時依 JPA metamodel 建立所有實體的 AuditEntityMetadata，
+ * 第一次寫入時不需要再解析註解
+ */
+@Component
+public class AuditMetadataRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditMetadataRegistry.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public AuditMetadataRegistry(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void init() {
+        int count = 0;
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> javaType = entityType.getJavaType();
+            if (javaType == null || Map.class.isAssignableFrom(javaType)) {
+                continue;
+            }
+            Set<String> associations = new HashSet<>();
+            for (Attribute<?, ?> attribute : entityType.getAttributes()) {
+                if (attribute.isAssociation() || attribute.isCollection()) {
+                    associations.add(attribute.getName());
+                }
+            }
+            AuditEntityMetadata.register(javaType, associations);
+            count++;
+        }
+        logger.info("✅ 審計實體中繼資料已建立 {} 個", count);
+    }
+
+    public AuditEntityMetadata get(Class<?> type) {
+        return AuditEntityMetadata.of(type);
+    }
+}
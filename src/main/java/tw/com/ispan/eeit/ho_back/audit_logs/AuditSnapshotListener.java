@@ -0,0 +1,260 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 以 Hibernate 的載入快照記錄審計日誌（audit.capture-mode=SNAPSHOT）
+ *
+ * UPDATE 直接用 PostUpdateEvent 的 oldState / state 比較有變更的欄位，不需要再查一次舊值；
+ * 欄位名稱與值的格式跟 Jackson 序列化整個實體時一致，AuditLogDiffUtil 拆出來的欄位變更相同
+ * User.roles 的變更由集合快照比較，記錄為 user_role 的 insert / delete
+ */
+@Component
+public class AuditSnapshotListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostCollectionUpdateEventListener {
+
+    public static final String MODE_SNAPSHOT = "SNAPSHOT";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLogService audit;
+    private final boolean enabled;
+
+    // 實體類別 → (Java 屬性名稱 → JSON 欄位名稱)，只包含 Jackson 會序列化的屬性
+    private final Map<Class<?>, Map<String, String>> jsonNames = new ConcurrentHashMap<>();
+
+    public AuditSnapshotListener(EntityManagerFactory entityManagerFactory, AuditLogService audit,
+            @Value("${audit.capture-mode:SNAPSHOT}") String captureMode) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.audit = audit;
+        this.enabled = MODE_SNAPSHOT.equalsIgnoreCase(captureMode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (isAuditLog(entity)) {
+            return;
+        }
+        try {
+            // INSERT：與原本相同，序列化新實體後移除 null 值和時間戳欄位
+            String newJson = AuditDiffHelper.simplifyInsertJson(AuditSupport.toJson(entity));
+            audit.logAfterCommit(audit.buildLog("insert", AuditSupport.resolveTableName(entity.getClass()),
+                    toLong(event.getId()), null, newJson));
+        } catch (Exception e) {
+            System.err.println("=== Failed to create snapshot audit log for insert: " + e.getMessage() + " ===");
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (isAuditLog(entity)) {
+            return;
+        }
+        try {
+            String[] json = diff(entity.getClass(), event.getPersister(), event.getOldState(), event.getState(),
+                    event.getDirtyProperties());
+            if (json == null) {
+                // 只有關聯集合變更，由 onPostUpdateCollection 處理
+                return;
+            }
+            audit.logAfterCommit(audit.buildLog("update", AuditSupport.resolveTableName(entity.getClass()),
+                    toLong(event.getId()), json[0], json[1]));
+        } catch (Exception e) {
+            System.err.println("=== Failed to create snapshot audit log for update: " + e.getMessage() + " ===");
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        Object owner = event.getAffectedOwnerOrNull();
+        PersistentCollection<?> collection = event.getCollection();
+        if (owner == null || !"User".equals(owner.getClass().getSimpleName())
+                || collection.getRole() == null || !collection.getRole().endsWith(".roles")) {
+            return;
+        }
+        try {
+            Long userId = toLong(event.getAffectedOwnerIdOrNull());
+            Set<Object> oldRoleIds = ids(collection.getStoredSnapshot());
+            Set<Object> newRoleIds = ids(collection);
+
+            Set<Object> added = new HashSet<>(newRoleIds);
+            added.removeAll(oldRoleIds);
+            Set<Object> removed = new HashSet<>(oldRoleIds);
+            removed.removeAll(newRoleIds);
+
+            for (Object roleId : added) {
+                String json = String.format("{\"user_id\":%d,\"role_id\":%s}", userId, roleId);
+                audit.logAfterCommit(audit.buildLog("insert", "user_role", null, null, json));
+            }
+            for (Object roleId : removed) {
+                String json = String.format("{\"user_id\":%d,\"role_id\":%s}", userId, roleId);
+                audit.logAfterCommit(audit.buildLog("delete", "user_role", null, json, null));
+            }
+        } catch (Exception e) {
+            System.err.println("=== Failed to create snapshot audit log for user_role: " + e.getMessage() + " ===");
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 依 Hibernate 的舊狀態 / 新狀態產生只含變更欄位的 JSON
+     *
+     * @return [oldJson, newJson]，沒有一般欄位變更時為 null
+     */
+    String[] diff(Class<?> entityClass, EntityPersister persister, Object[] oldState, Object[] state,
+            int[] dirtyProperties) {
+        String[] propertyNames = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Map<String, String> names = jsonNames(entityClass);
+
+        ObjectNode oldNode = MAPPER.createObjectNode();
+        ObjectNode newNode = MAPPER.createObjectNode();
+        for (int i = 0; i < propertyNames.length; i++) {
+            String name = names.get(propertyNames[i]);
+            if (name == null || types[i].isCollectionType()) {
+                continue;
+            }
+            if (oldState != null && dirtyProperties != null && !contains(dirtyProperties, i)) {
+                continue;
+            }
+            JsonNode newValue = toNode(state[i]);
+            JsonNode oldValue = oldState != null ? toNode(oldState[i]) : null;
+            // Hibernate 判定為 dirty，但序列化後相同（例如 BigDecimal 精度）時不記錄
+            if (oldState != null && newValue.equals(oldValue)) {
+                continue;
+            }
+            oldNode.set(name, oldValue != null ? oldValue : MAPPER.nullNode());
+            newNode.set(name, newValue);
+        }
+        if (newNode.isEmpty()) {
+            return null;
+        }
+        return new String[] { oldState != null ? oldNode.toString() : null, newNode.toString() };
+    }
+
+    // Java 屬性名稱 → Jackson 輸出的欄位名稱（排除 @JsonIgnore 等不序列化的屬性）
+    private Map<String, String> jsonNames(Class<?> entityClass) {
+        return jsonNames.computeIfAbsent(entityClass, cls -> {
+            Map<String, String> result = new LinkedHashMap<>();
+            for (BeanPropertyDefinition property : MAPPER.getSerializationConfig()
+                    .introspect(MAPPER.constructType(cls)).findProperties()) {
+                if (property.couldSerialize()) {
+                    result.put(property.getInternalName(), property.getName());
+                }
+            }
+            return result;
+        });
+    }
+
+    // 關聯實體若尚未載入，只記錄 id，避免在 flush 中觸發查詢
+    private JsonNode toNode(Object value) {
+        if (value == null) {
+            return MAPPER.nullNode();
+        }
+        if (value instanceof HibernateProxy proxy && !Hibernate.isInitialized(proxy)) {
+            return idNode(proxy.getHibernateLazyInitializer().getInternalIdentifier());
+        }
+        try {
+            return MAPPER.valueToTree(value);
+        } catch (IllegalArgumentException e) {
+            return idNode(AuditSupport.extractId(value).orElse(null));
+        }
+    }
+
+    private JsonNode idNode(Object id) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.set("id", MAPPER.valueToTree(id));
+        return node;
+    }
+
+    private Set<Object> ids(Object collection) {
+        Set<Object> ids = new HashSet<>();
+        Collection<?> elements = collection instanceof Map<?, ?> map ? map.values()
+                : collection instanceof Collection<?> list ? list : null;
+        if (elements != null) {
+            for (Object element : elements) {
+                if (element instanceof HibernateProxy proxy) {
+                    ids.add(proxy.getHibernateLazyInitializer().getInternalIdentifier());
+                } else if (element != null) {
+                    AuditSupport.extractId(element).ifPresent(ids::add);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAuditLog(Object entity) {
+        return entity instanceof AuditLog;
+    }
+
+    private static Long toLong(Object id) {
+        return id instanceof Number number ? number.longValue() : null;
+    }
+}
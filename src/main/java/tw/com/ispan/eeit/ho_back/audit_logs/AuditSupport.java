@@ -3,11 +3,7 @@ package tw.com.ispan.eeit.ho_back.audit_logs;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import jakarta.persistence.EmbeddedId;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
 
-import java.lang.reflect.Field;
 import java.util.Optional;
 
 public class AuditSupport {
@@ -15,22 +11,16 @@ public class AuditSupport {
             .registerModule(new JavaTimeModule())  // 支援 Java 8 日期時間類型
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);  // 使用 ISO-8601 格式
 
+    // 主鍵與表名都從快取的 AuditEntityMetadata 取得，不在每次寫入時反射
     public static Optional<Object> extractId(Object entity) {
-        for (Field f : entity.getClass().getDeclaredFields()) {
-            if (f.isAnnotationPresent(Id.class) || f.isAnnotationPresent(EmbeddedId.class)) {
-                f.setAccessible(true);
-                try {
-                    return Optional.ofNullable(f.get(entity));
-                } catch (IllegalAccessException ignored) {
-                }
-            }
+        if (entity == null) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return AuditEntityMetadata.of(entity.getClass()).id(entity);
     }
 
     public static String resolveTableName(Class<?> entityClass) {
-        Table t = entityClass.getAnnotation(Table.class);
-        return (t != null && !t.name().isBlank()) ? t.name() : entityClass.getSimpleName();
+        return AuditEntityMetadata.of(entityClass).tableName();
     }
 
     public static String toJson(Object obj) {
@@ -31,6 +31,10 @@ import tw.com.ispan.eeit.ho_back.user.User;
 @Entity
 @Table(name = "booking")
 public class Booking {
+    // 取消原因：逾期未付款由排程取消的訂單付款時可以重新扣庫存，使用者取消的不行
+    public static final String CANCEL_REASON_HOLD_EXPIRED = "HOLD_EXPIRED";
+    public static final String CANCEL_REASON_USER = "USER";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -76,6 +80,9 @@ public class Booking {
     @Column(name = "total_price")
     private Integer totalPrice;
 
+    @Column(name = "cancel_reason")
+    private String cancelReason;
+
     private String ecpayTradeNo;
     private String ecpayMerchantTradeNo;
     private String ecpayPaymentType;
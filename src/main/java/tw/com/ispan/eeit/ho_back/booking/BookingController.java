@@ -1,5 +1,6 @@
 package tw.com.ispan.eeit.ho_back.booking;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventoryDto;
 import tw.com.ispan.eeit.ho_back.bookingInventory.BookingResponseDTO;
 import tw.com.ispan.eeit.ho_back.properties.BookingStatusProperties;
 
@@ -29,13 +31,32 @@ public class BookingController {
     @Autowired
     EcpayService ecpayService;
 
+    @Autowired
+    BookingReservationRetry reservationRetry;
+
+    @Autowired
+    RoomNightLocks roomNightLocks;
+
     // ------------------------
     // 1. 建立訂單 + 取得綠界參數
     // ------------------------
     @PostMapping("api/user/booking")
     public ResponseEntity<?> createBooking(@RequestBody BookingDto bookingDto) {
         try {
-            Booking booking = bookingService.createBooking(bookingDto);
+            // 同房晚的請求先在 JVM 內排隊，鎖衝突時依設定重試整筆交易
+            List<Integer> inventoryIds = new ArrayList<>();
+            if (bookingDto.getBookingInventoriesDto() != null) {
+                for (BookingInventoryDto dto : bookingDto.getBookingInventoriesDto()) {
+                    // 缺少 inventoryId 在取鎖前就擋下，不進交易
+                    if (dto == null || dto.getInventoryId() == null) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                .body("error: 訂房項目缺少 inventoryId");
+                    }
+                    inventoryIds.add(dto.getInventoryId());
+                }
+            }
+            Booking booking = roomNightLocks.callWithLocks(inventoryIds,
+                    () -> reservationRetry.execute(() -> bookingService.createBooking(bookingDto)));
 
             List<String> roomNames = bookingDto.getRoomName();
             String itemName = String.join("#", roomNames);
@@ -0,0 +1,53 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 未付款保留的統計與手動清理
+ */
+@RestController
+@RequestMapping("/api/booking/holds")
+public class BookingHoldController {
+
+    private final BookingHoldService bookingHoldService;
+
+    public BookingHoldController(BookingHoldService bookingHoldService) {
+        this.bookingHoldService = bookingHoldService;
+    }
+
+    /**
+     * 保留、逾期、歸還的房晚統計
+     * GET /api/booking/holds/metrics
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> metrics() {
+        return ResponseEntity.ok(bookingHoldService.getMetrics());
+    }
+
+    /**
+     * 立即清理逾期未付款訂單
+     * POST /api/booking/holds/sweep
+     */
+    @PostMapping("/sweep")
+    public ResponseEntity<Map<String, Object>> sweep() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            int expired = bookingHoldService.sweepExpiredHolds();
+            response.put("success", true);
+            response.put("expired", expired);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "清理逾期訂單失敗: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 未付款保留的統計（自應用程式啟動後累計）
+ * 在交易內記錄時，等交易提交後才計入，回滾的不算
+ */
+@Component
+public class BookingHoldMetrics {
+
+    private final LongAdder expiredBookings = new LongAdder();
+    private final LongAdder expiredRoomNights = new LongAdder();
+    private final LongAdder cancelledBookings = new LongAdder();
+    private final LongAdder restoredRoomNights = new LongAdder();
+    private volatile LocalDateTime lastSweepTime;
+    private volatile int lastSweepExpired;
+
+    // 逾期未付款，由排程取消並歸還庫存
+    public void recordExpired(int bookings, int roomNights) {
+        afterCommit(() -> {
+            expiredBookings.add(bookings);
+            expiredRoomNights.add(roomNights);
+            restoredRoomNights.add(roomNights);
+        });
+    }
+
+    // 使用者取消訂單並歸還庫存
+    public void recordCancelled(int roomNights) {
+        afterCommit(() -> {
+            cancelledBookings.increment();
+            restoredRoomNights.add(roomNights);
+        });
+    }
+
+    public void recordSweep(int expired) {
+        lastSweepTime = LocalDateTime.now();
+        lastSweepExpired = expired;
+    }
+
+    /**
+     * @param heldBookings   目前未付款的訂單數
+     * @param heldRoomNights 目前未付款訂單占用的房晚數
+     */
+    public Map<String, Object> snapshot(long heldBookings, long heldRoomNights) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("heldBookings", heldBookings);
+        result.put("heldRoomNights", heldRoomNights);
+        result.put("expiredBookings", expiredBookings.sum());
+        result.put("expiredRoomNights", expiredRoomNights.sum());
+        result.put("cancelledBookings", cancelledBookings.sum());
+        result.put("restoredRoomNights", restoredRoomNights.sum());
+        result.put("lastSweepTime", lastSweepTime);
+        result.put("lastSweepExpired", lastSweepExpired);
+        return result;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
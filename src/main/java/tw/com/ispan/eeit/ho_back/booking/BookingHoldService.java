@@ -0,0 +1,104 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.inventory.InventoryReservationEngine;
+import tw.com.ispan.eeit.ho_back.properties.BookingStatusProperties;
+
+/**
+ * 未付款訂單的庫存保留
+ * 建立訂單時即扣庫存並保留 ttl-minutes 分鐘，逾期未付款由排程取消並歸還庫存
+ *
+ * - 每批鎖定 batch-size 筆逾期訂單，一個 UPDATE 歸還所有庫存、一個 UPDATE 變更狀態
+ * - 每批各自一個交易，大量逾期時不會長時間鎖住 inventory
+ */
+@Service
+public class BookingHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingHoldService.class);
+
+    private final BookingRepository bookingRepository;
+    private final InventoryReservationEngine reservationEngine;
+    private final BookingStatusProperties bookingStatusProperties;
+    private final BookingHoldMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMinutes;
+    private final int batchSize;
+
+    public BookingHoldService(BookingRepository bookingRepository,
+            InventoryReservationEngine reservationEngine,
+            BookingStatusProperties bookingStatusProperties,
+            BookingHoldMetrics metrics,
+            TransactionTemplate transactionTemplate,
+            @Value("${booking.hold.ttl-minutes:30}") long ttlMinutes,
+            @Value("${booking.hold.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.reservationEngine = reservationEngine;
+        this.bookingStatusProperties = bookingStatusProperties;
+        this.metrics = metrics;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlMinutes = ttlMinutes;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms:60000}")
+    public void scheduledSweep() {
+        try {
+            sweepExpiredHolds();
+        } catch (Exception e) {
+            logger.error("❌ 清理逾期未付款訂單失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 取消所有逾期未付款的訂單並歸還庫存
+     *
+     * @return 取消的訂單數
+     */
+    public int sweepExpiredHolds() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ttlMinutes);
+        int total = 0;
+        while (true) {
+            Integer expired = transactionTemplate.execute(status -> expireBatch(cutoff));
+            total += expired;
+            if (expired < batchSize) {
+                break;
+            }
+        }
+        metrics.recordSweep(total);
+        if (total > 0) {
+            logger.info("✅ 已取消 {} 筆逾期未付款訂單並歸還庫存", total);
+        }
+        return total;
+    }
+
+    private int expireBatch(LocalDateTime cutoff) {
+        Integer unpaid = bookingStatusProperties.getUnpaid();
+        List<Integer> bookingIds = bookingRepository.lockExpiredHolds(unpaid, cutoff, batchSize);
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        int roomNights = reservationEngine.release(bookingIds);
+        bookingRepository.cancel(bookingIds, List.of(unpaid), bookingStatusProperties.getCancel(),
+                Booking.CANCEL_REASON_HOLD_EXPIRED, LocalDateTime.now());
+        metrics.recordExpired(bookingIds.size(), roomNights);
+        return bookingIds.size();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Integer unpaid = bookingStatusProperties.getUnpaid();
+        Map<String, Object> result = metrics.snapshot(bookingRepository.countByStatus(unpaid),
+                bookingRepository.sumRoomNightsByStatus(unpaid));
+        result.put("ttlMinutes", ttlMinutes);
+        return result;
+    }
+}
@@ -1,10 +1,12 @@
 package tw.com.ispan.eeit.ho_back.booking;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -41,6 +43,51 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
            "WHERE b.id = :id AND b.user.id = :userId")
     Optional<Booking> findByIdAndUser_Id(@Param("id") Integer id, @Param("userId") Integer userId);
 
+    // ========= 未付款訂單保留與逾期 =========
+
+    // 鎖定一批逾期未付款的訂單（READPAST：多台機器同時清理時跳過彼此已鎖定的訂單）
+    @Query(value = "SELECT TOP (:limit) id FROM booking WITH (UPDLOCK, ROWLOCK, READPAST) " +
+           "WHERE status = :unpaid AND booking_date < :cutoff " +
+           "ORDER BY booking_date", nativeQuery = true)
+    List<Integer> lockExpiredHolds(@Param("unpaid") Integer unpaid, @Param("cutoff") LocalDateTime cutoff,
+            @Param("limit") int limit);
+
+    // 以目前狀態為條件變更狀態，回傳實際變更的筆數
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :toStatus, b.updatedTime = :now " +
+           "WHERE b.id IN :bookingIds AND b.status IN :fromStatuses")
+    int transitionStatus(@Param("bookingIds") List<Integer> bookingIds,
+            @Param("fromStatuses") List<Integer> fromStatuses,
+            @Param("toStatus") Integer toStatus,
+            @Param("now") LocalDateTime now);
+
+    // 以目前狀態為條件取消並記錄取消原因，回傳實際變更的筆數
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :cancelStatus, b.cancelReason = :reason, b.updatedTime = :now " +
+           "WHERE b.id IN :bookingIds AND b.status IN :fromStatuses")
+    int cancel(@Param("bookingIds") List<Integer> bookingIds,
+            @Param("fromStatuses") List<Integer> fromStatuses,
+            @Param("cancelStatus") Integer cancelStatus,
+            @Param("reason") String reason,
+            @Param("now") LocalDateTime now);
+
+    // 只有逾期取消的訂單可以在付款時恢復，回傳實際變更的筆數
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :toStatus, b.cancelReason = NULL, b.updatedTime = :now " +
+           "WHERE b.id = :bookingId AND b.status = :cancelStatus " +
+           "AND b.cancelReason = 'HOLD_EXPIRED'")
+    int reviveExpiredHold(@Param("bookingId") Integer bookingId,
+            @Param("cancelStatus") Integer cancelStatus,
+            @Param("toStatus") Integer toStatus,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.status = :status")
+    Long countByStatus(@Param("status") Integer status);
+
+    // 某狀態訂單占用的房晚數
+    @Query("SELECT COALESCE(SUM(bi.number), 0) FROM BookingInventory bi WHERE bi.booking.status = :status")
+    Long sumRoomNightsByStatus(@Param("status") Integer status);
+
     // ========= 飯店業者查詢訂單 =========
     // 這個要看你 Booking 裡有沒有對應欄位
 
@@ -0,0 +1,55 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import tw.com.ispan.eeit.ho_back.properties.ReservationRetryProperties;
+
+/**
+ * 建立訂單的重試
+ * 死結被選為犧牲者或鎖等待逾時時，整個交易已被資料庫回滾，只能在交易外重新執行一次
+ * 庫存不足(InsufficientStockException)不重試
+ */
+@Component
+public class BookingReservationRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingReservationRetry.class);
+
+    private final ReservationRetryProperties properties;
+
+    public BookingReservationRetry(ReservationRetryProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        long backoff = properties.getInitialBackoffMs();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+                // 加上隨機抖動，避免同時失敗的訂單又同時重試
+                long wait = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                logger.warn("⚠️ 建立訂單發生鎖衝突，第 {} 次重試，等待 {} ms: {}", attempt, wait, e.getMessage());
+                sleep(wait);
+                backoff = Math.min((long) (backoff * properties.getMultiplier()), properties.getMaxBackoffMs());
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("建立訂單重試被中斷", e);
+        }
+    }
+}
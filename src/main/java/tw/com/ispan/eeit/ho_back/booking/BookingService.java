@@ -5,7 +5,10 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
@@ -28,10 +31,13 @@ import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventory;
 import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventoryDto;
 import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventoryRepository;
 import tw.com.ispan.eeit.ho_back.bookingInventory.BookingResponseDTO;
+import tw.com.ispan.eeit.ho_back.common.exception.InsufficientStockException;
 import tw.com.ispan.eeit.ho_back.coupon.Coupon;
 import tw.com.ispan.eeit.ho_back.coupon.CouponService;
 import tw.com.ispan.eeit.ho_back.inventory.Inventory;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryAvailabilityIndex;
 import tw.com.ispan.eeit.ho_back.inventory.InventoryRepository;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryReservationEngine;
 import tw.com.ispan.eeit.ho_back.inventory.InventoryService;
 import tw.com.ispan.eeit.ho_back.properties.BookingStatusProperties;
 import tw.com.ispan.eeit.ho_back.user.User;
@@ -63,6 +69,12 @@ public class BookingService {
     BookingStatusProperties bookingStatusProperties;
     @Autowired
     InventoryService inventoryService;
+    @Autowired
+    InventoryAvailabilityIndex availabilityIndex;
+    @Autowired
+    InventoryReservationEngine reservationEngine;
+    @Autowired
+    BookingHoldMetrics holdMetrics;
 
     public Booking createBooking(BookingDto bookingDto) {
         // 檢查Booking參數
@@ -99,9 +111,24 @@ public class BookingService {
         List<BookingInventory> bookingInventories = booking.getBookingInventories();
 
         List<BookingInventoryDto> bookingInventoriesDto = bookingDto.getBookingInventoriesDto();
+        if (bookingInventoriesDto == null || bookingInventoriesDto.isEmpty()) {
+            throw new IllegalArgumentException("請選擇房間");
+        }
 
+        // 同一筆庫存合併數量
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
         for (BookingInventoryDto bookingInventoryDto : bookingInventoriesDto) {
-            BookingInventory bookingInventory = processOneBookingInventory(bookingInventoryDto, booking);
+            validateBookingInventoryDto(bookingInventoryDto);
+            quantities.merge(bookingInventoryDto.getInventoryId(), bookingInventoryDto.getNumber(), Integer::sum);
+        }
+        Map<Integer, Inventory> inventories = loadInventories(quantities);
+
+        // 所有晚數一次扣庫存，任何一晚不足就整筆訂單回滾
+        reservationEngine.reserve(quantities);
+
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            BookingInventory bookingInventory = processOneBookingInventory(inventories.get(entry.getKey()),
+                    entry.getValue(), booking);
             bookingInventories.add(bookingInventory);
             System.out.println("bookingInventories" + bookingInventories);
         }
@@ -146,6 +173,7 @@ public class BookingService {
         if (op.isPresent()) {
             Booking booking = op.get();
             Integer oldStatus = booking.getStatus();
+            reacquireIfReleased(booking, status);
             booking.setStatus(status);
             booking.setUpdatedTime(LocalDateTime.now());
             // 保存到資料庫
@@ -168,32 +196,38 @@ public class BookingService {
         }
     }
 
-    // 處理bookingInventory
-    private BookingInventory processOneBookingInventory(BookingInventoryDto dto, Booking booking) {
-        // 驗證參數
-        validateBookingInventoryDto(dto);
-
-        // 獲取庫存
-        Inventory inventory = inventoryRepository.findById(dto.getInventoryId())
-                .orElseThrow(
-                        () -> new RuntimeException("inventory" + dto.getInventoryId() + "不存在"));
-
-        // 檢查庫存數量
-        if (inventory.getStock() < dto.getNumber()) {
-            throw new RuntimeException("庫存不足，選擇的房間已售完");
+    // 一次載入訂單用到的庫存
+    private Map<Integer, Inventory> loadInventories(Map<Integer, Integer> quantities) {
+        Map<Integer, Inventory> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findAllById(quantities.keySet())) {
+            inventories.put(inventory.getId(), inventory);
+        }
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Inventory inventory = inventories.get(entry.getKey());
+            if (inventory == null) {
+                throw new RuntimeException("inventory" + entry.getKey() + "不存在");
+            }
+            // 先擋掉明顯不足的情況，實際是否扣得到以 reservationEngine 的 UPDATE 為準
+            if (inventory.getStock() < entry.getValue()) {
+                throw new InsufficientStockException();
+            }
         }
+        return inventories;
+    }
 
-        // 減少庫存
-        inventoryRepository.decrementStockByQuantity(inventory.getId(), dto.getNumber());
+    // 處理bookingInventory（庫存已由 reservationEngine 扣除）
+    private BookingInventory processOneBookingInventory(Inventory inventory, Integer number, Booking booking) {
+        availabilityIndex.onStockDecremented(inventory, number);
 
         // 創建並保存 BookingInventory
-        BookingInventory bookingInventory = modelMapper.map(dto, BookingInventory.class);
+        BookingInventory bookingInventory = new BookingInventory();
 
         Integer price = inventory.getPrice();
-        Integer partPrice = price * dto.getNumber();
+        Integer partPrice = price * number;
 
         bookingInventory.setBookingId(booking.getId());
         bookingInventory.setInventoryId(inventory.getId());
+        bookingInventory.setNumber(number);
         bookingInventory.setPartPrice(partPrice);
         bookingInventory.setBooking(booking);
         bookingInventory.setInventory(inventory);
@@ -203,6 +237,42 @@ public class BookingService {
         return bookingInventory;
     }
 
+    /**
+     * 付款（或完成）時確認庫存仍由這筆訂單持有
+     * 未付款訂單先以狀態條件更新搶在逾期排程之前；若訂單已被排程取消並歸還庫存，重新扣庫存，已售完則拋出例外
+     * 使用者自行取消的訂單不能再付款
+     */
+    private void reacquireIfReleased(Booking booking, Integer newStatus) {
+        if (!bookingStatusProperties.getPaid().equals(newStatus)
+                && !bookingStatusProperties.getComplete().equals(newStatus)) {
+            return;
+        }
+        Integer unpaidStatus = bookingStatusProperties.getUnpaid();
+        Integer cancelStatus = bookingStatusProperties.getCancel();
+        LocalDateTime now = LocalDateTime.now();
+        if (unpaidStatus.equals(booking.getStatus())) {
+            if (bookingRepository.transitionStatus(List.of(booking.getId()), List.of(unpaidStatus), newStatus,
+                    now) == 1) {
+                return;
+            }
+        } else if (!cancelStatus.equals(booking.getStatus())) {
+            return;
+        }
+        // 已被取消：只恢復逾期取消的訂單
+        if (bookingRepository.reviveExpiredHold(booking.getId(), cancelStatus, newStatus, now) == 0) {
+            throw new RuntimeException("此訂單已取消，無法付款");
+        }
+        booking.setCancelReason(null);
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (BookingInventory bookingInventory : booking.getBookingInventories()) {
+            quantities.merge(bookingInventory.getInventoryId(), bookingInventory.getNumber(), Integer::sum);
+        }
+        reservationEngine.reserve(quantities);
+        for (BookingInventory bookingInventory : booking.getBookingInventories()) {
+            availabilityIndex.onStockDecremented(bookingInventory.getInventory(), bookingInventory.getNumber());
+        }
+    }
+
     // 計算總價
     private Integer calculateTotalPrice(List<BookingInventory> bookingInventories) {
         Integer totalPrice = 0;
@@ -266,6 +336,7 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("訂單不存在，ID: " + bookingId));
 
         Integer oldStatus = booking.getStatus();
+        reacquireIfReleased(booking, newStatus);
         booking.setStatus(newStatus);
         booking.setUpdatedTime(LocalDateTime.now());
         bookingRepository.save(booking);
@@ -408,9 +479,22 @@ public class BookingService {
             throw new RuntimeException("已完成的訂單無法取消");
         }
 
+        // 以狀態條件更新，避免與逾期排程或重複取消同時歸還庫存
+        LocalDateTime now = LocalDateTime.now();
+        int changed = bookingRepository.cancel(List.of(bookingId), List.of(unpaidStatus, paidStatus),
+                cancelStatus, Booking.CANCEL_REASON_USER, now);
+        if (changed == 0) {
+            throw new RuntimeException("訂單狀態已變更，請重新整理後再試");
+        }
+
+        // 歸還庫存
+        int roomNights = reservationEngine.release(List.of(bookingId));
+        holdMetrics.recordCancelled(roomNights);
+
         // 設置訂單狀態為已取消
         booking.setStatus(cancelStatus);
-        booking.setUpdatedTime(LocalDateTime.now());
+        booking.setCancelReason(Booking.CANCEL_REASON_USER);
+        booking.setUpdatedTime(now);
 
         return bookingRepository.save(booking);
     }
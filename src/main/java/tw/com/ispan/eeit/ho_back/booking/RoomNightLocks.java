@@ -0,0 +1,84 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import tw.com.ispan.eeit.ho_back.common.exception.RoomNightBusyException;
+
+/**
+ * 同一台機器內，訂同一房晚的請求先在 JVM 內排隊，避免大量請求同時卡在資料庫鎖等待
+ *
+ * - 以 inventory id 為鍵（inventory 的 (room_id, date) 唯一，一個 id 就是一個房晚）
+ * - 固定數量的公平鎖分段，不同房晚大多落在不同分段，可完全平行
+ * - 多晚訂單依分段順序取鎖，不會互相死結；總等待時間超過 wait-ms 拋出 RoomNightBusyException
+ * - 必須在訂單交易之外取鎖，交易提交後才釋放
+ */
+@Component
+public class RoomNightLocks {
+
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final long waitNanos;
+
+    public RoomNightLocks(@Value("${booking.room-night-lock.enabled:true}") boolean enabled,
+            @Value("${booking.room-night-lock.stripes:1024}") int stripes,
+            @Value("${booking.room-night-lock.wait-ms:3000}") long waitMs) {
+        this.enabled = enabled;
+        // 分段數取 2 的次方，方便以位元運算取餘數
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+    }
+
+    /**
+     * 取得所有房晚的鎖後執行 action
+     *
+     * @param inventoryIds 訂單包含的庫存（房晚）
+     */
+    public <T> T callWithLocks(Collection<Integer> inventoryIds, Supplier<T> action) {
+        if (!enabled || inventoryIds == null || inventoryIds.isEmpty()) {
+            return action.get();
+        }
+        int[] indexes = inventoryIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.length);
+        long deadline = System.nanoTime() + waitNanos;
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw new RoomNightBusyException();
+                }
+                acquired.add(lock);
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomNightBusyException();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    // 目前在排隊等待某房晚的請求數
+    public int queueLength(Integer inventoryId) {
+        return stripes[stripeOf(inventoryId)].getQueueLength();
+    }
+
+    private int stripeOf(Integer inventoryId) {
+        // 相鄰日期的 id 通常連續，先打散再取分段
+        int h = inventoryId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,7 @@
+package tw.com.ispan.eeit.ho_back.common.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException() {
+        super("庫存不足，選擇的房間已售完");
+    }
+}
@@ -0,0 +1,7 @@
+package tw.com.ispan.eeit.ho_back.common.exception;
+
+public class RoomNightBusyException extends RuntimeException {
+    public RoomNightBusyException() {
+        super("目前訂購此房型的人數眾多，請稍後再試");
+    }
+}
@@ -0,0 +1,61 @@
+package tw.com.ispan.eeit.ho_back.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import tw.com.ispan.eeit.ho_back.geocoding.GeocodingCache;
+import tw.com.ispan.eeit.ho_back.geocoding.GeocodingClient;
+import tw.com.ispan.eeit.ho_back.geocoding.GeocodingHttpClients;
+import tw.com.ispan.eeit.ho_back.geocoding.GeocodingService;
+import tw.com.ispan.eeit.ho_back.geocoding.GeocodingServiceImpl;
+import tw.com.ispan.eeit.ho_back.geocoding.GoogleGeocodingServiceImpl;
+import tw.com.ispan.eeit.ho_back.geocoding.StubGeocodingService;
+import tw.com.ispan.eeit.ho_back.geocoding.TokenBucket;
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+/**
+ * 設定 geocoding.provider 時才建立 GeocodingService
+ * 實際的服務放在 GeocodingClient 後面（快取、去重、限流、非同步）
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "geocoding", name = "provider")
+public class GeocodingConfig {
+
+    // 同一個服務的外部請求共用一個權杖桶（每個 HTTP 請求取一個權杖）
+    @Bean
+    public TokenBucket geocodingRateLimiter(GeocodingProperties properties) {
+        return TokenBucket.forProvider(properties.getProvider(), properties.getClient());
+    }
+
+    @Bean("providerGeocodingService")
+    @ConditionalOnProperty(prefix = "geocoding", name = "provider", havingValue = "google")
+    public GeocodingService googleGeocodingService(GeocodingProperties properties, TokenBucket rateLimiter) {
+        GeocodingProperties.Client client = properties.getClient();
+        return new GoogleGeocodingServiceImpl(GeocodingHttpClients.restTemplate(client.getConnectTimeoutMs(),
+                client.getReadTimeoutMs(), rateLimiter));
+    }
+
+    @Bean("providerGeocodingService")
+    @ConditionalOnProperty(prefix = "geocoding", name = "provider", havingValue = "nominatim")
+    public GeocodingService nominatimGeocodingService(GeocodingProperties properties, TokenBucket rateLimiter) {
+        GeocodingProperties.Client client = properties.getClient();
+        return new GeocodingServiceImpl(GeocodingHttpClients.restTemplate(client.getConnectTimeoutMs(),
+                client.getReadTimeoutMs(), rateLimiter));
+    }
+
+    @Bean("providerGeocodingService")
+    @ConditionalOnProperty(prefix = "geocoding", name = "provider", havingValue = "stub")
+    public GeocodingService stubGeocodingService(TokenBucket rateLimiter) {
+        return new StubGeocodingService(0, rateLimiter);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Primary
+    public GeocodingClient geocodingClient(@Qualifier("providerGeocodingService") GeocodingService provider,
+            GeocodingCache cache, GeocodingProperties properties, TokenBucket rateLimiter) {
+        return new GeocodingClient(properties.getProvider(), provider, cache, properties.getClient(), rateLimiter);
+    }
+}
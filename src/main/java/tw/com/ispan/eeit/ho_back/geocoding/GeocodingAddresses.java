@@ -0,0 +1,49 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * 地址正規化（快取鍵與城市名稱比對共用）
+ */
+public final class GeocodingAddresses {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 開頭的郵遞區號、「台灣」/「Taiwan」，以及結尾的「, 台灣」/「, Taiwan」
+    private static final Pattern POSTAL_CODE_PREFIX = Pattern.compile("^\\d{3,6}");
+    private static final Pattern COUNTRY_PREFIX = Pattern.compile("^(台灣|taiwan),?");
+    private static final Pattern COUNTRY_SUFFIX = Pattern.compile(",?(台灣|taiwan)$");
+
+    private GeocodingAddresses() {
+    }
+
+    /**
+     * 標準化城市名稱（處理「台北」vs「臺北」）
+     */
+    public static String normalizeCityName(String cityName) {
+        if (cityName == null)
+            return "";
+        return cityName.replace("臺", "台");
+    }
+
+    /**
+     * 快取鍵：全形轉半形、「臺」轉「台」、移除空白、國名與郵遞區號
+     * city / district 會影響結果驗證，所以也放進鍵裡
+     */
+    public static String cacheKey(String address, String city, String district) {
+        return normalize(address) + "|" + normalize(city) + "|" + normalize(district);
+    }
+
+    static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFKC);
+        normalized = normalizeCityName(normalized).toLowerCase();
+        normalized = WHITESPACE.matcher(normalized).replaceAll("");
+        normalized = COUNTRY_SUFFIX.matcher(normalized).replaceFirst("");
+        normalized = COUNTRY_PREFIX.matcher(normalized).replaceFirst("");
+        normalized = POSTAL_CODE_PREFIX.matcher(normalized).replaceFirst("");
+        return normalized;
+    }
+}
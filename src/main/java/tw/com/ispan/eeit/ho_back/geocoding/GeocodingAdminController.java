@@ -0,0 +1,73 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 地理編碼快取與 client 狀態
+ */
+@RestController
+@RequestMapping("/api/geocode")
+public class GeocodingAdminController {
+
+    private final GeocodingCache cache;
+    private final ObjectProvider<GeocodingClient> client;
+
+    public GeocodingAdminController(GeocodingCache cache, ObjectProvider<GeocodingClient> client) {
+        this.cache = cache;
+        this.client = client;
+    }
+
+    /**
+     * 命中率、各層命中數與合併的重複查詢數
+     * GET /api/geocode/cache
+     */
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStatus() {
+        return cache.status();
+    }
+
+    /**
+     * 清除快取
+     * DELETE /api/geocode/cache?persistent=true 一併清除 geocode_cache 資料表
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> clearCache(@RequestParam(defaultValue = "false") boolean persistent) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            cache.clear(persistent);
+            response.put("success", true);
+            response.put("message", persistent ? "已清除記憶體與資料表快取" : "已清除記憶體快取");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "清除快取失敗：" + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 佇列長度、去重、限流次數
+     * GET /api/geocode/client
+     */
+    @GetMapping("/client")
+    public ResponseEntity<Map<String, Object>> clientStatus() {
+        GeocodingClient current = client.getIfAvailable();
+        if (current == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "未設定 geocoding.provider，地理編碼服務未啟用");
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok(current.status());
+    }
+}
@@ -0,0 +1,223 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+/**
+ * 地理編碼結果快取
+ *
+ * 1. 記憶體 LRU（最多 max-entries 筆，保留 ttl-minutes）
+ * 2. geocode_cache 資料表（保留 persistent-ttl-days 天，重啟後仍有效）
+ * 3. 都沒有時才呼叫外部 API；同一個鍵同時只查詢一次，其他請求等待同一個結果
+ * 查詢失敗或座標為 (0, 0) 時不快取
+ */
+@Component
+public class GeocodingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingCache.class);
+
+    private record Entry(BigDecimal[] coordinates, long expiresAt) {
+    }
+
+    private final GeocodingCacheStore store;
+    private final GeocodingProperties.Cache properties;
+    private final Clock clock;
+
+    private final Map<String, Entry> memory;
+    private final Map<String, CompletableFuture<BigDecimal[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loadErrors = new LongAdder();
+    private final LongAdder persistentErrors = new LongAdder();
+
+    @Autowired
+    public GeocodingCache(GeocodingCacheStore store, GeocodingProperties properties) {
+        this(store, properties, Clock.systemDefaultZone());
+    }
+
+    GeocodingCache(GeocodingCacheStore store, GeocodingProperties properties, Clock clock) {
+        this.store = store;
+        this.properties = properties.getCache();
+        this.clock = clock;
+        int maxEntries = Math.max(this.properties.getMaxEntries(), 1);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 依序查詢記憶體、資料表，都沒有時呼叫 loader 並寫回兩層快取
+     */
+    public BigDecimal[] get(String key, Supplier<BigDecimal[]> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        BigDecimal[] cached = fromMemory(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached.clone();
+        }
+
+        CompletableFuture<BigDecimal[]> mine = new CompletableFuture<>();
+        CompletableFuture<BigDecimal[]> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing).clone();
+        }
+        try {
+            BigDecimal[] coordinates = fromStore(key);
+            if (coordinates != null) {
+                persistentHits.increment();
+            } else {
+                misses.increment();
+                coordinates = loader.get();
+                if (isCacheable(coordinates)) {
+                    toStore(key, coordinates);
+                }
+            }
+            if (isCacheable(coordinates)) {
+                toMemory(key, coordinates);
+            }
+            mine.complete(coordinates);
+            return coordinates.clone();
+        } catch (RuntimeException e) {
+            loadErrors.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 只查記憶體（不查資料表、不呼叫外部 API），沒有時回傳 null
+     */
+    public BigDecimal[] peek(String key) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        BigDecimal[] cached = fromMemory(key);
+        if (cached == null) {
+            return null;
+        }
+        memoryHits.increment();
+        return cached.clone();
+    }
+
+    private BigDecimal[] fromMemory(String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                memory.remove(key);
+                return null;
+            }
+            return entry.coordinates();
+        }
+    }
+
+    private void toMemory(String key, BigDecimal[] coordinates) {
+        long expiresAt = clock.millis() + properties.getTtlMinutes() * 60_000L;
+        synchronized (memory) {
+            memory.put(key, new Entry(coordinates.clone(), expiresAt));
+        }
+    }
+
+    // 資料表無法使用時只記錄錯誤，不影響查詢
+    private BigDecimal[] fromStore(String key) {
+        if (!properties.isPersistentEnabled()) {
+            return null;
+        }
+        try {
+            BigDecimal[] coordinates = store.find(key,
+                    LocalDateTime.now(clock).minusDays(properties.getPersistentTtlDays()));
+            return isCacheable(coordinates) ? coordinates : null;
+        } catch (Exception e) {
+            persistentErrors.increment();
+            logger.warn("讀取 geocode_cache 失敗: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void toStore(String key, BigDecimal[] coordinates) {
+        if (!properties.isPersistentEnabled()) {
+            return;
+        }
+        try {
+            store.save(key, coordinates, LocalDateTime.now(clock));
+        } catch (Exception e) {
+            persistentErrors.increment();
+            logger.warn("寫入 geocode_cache 失敗: {}", e.getMessage());
+        }
+    }
+
+    private static BigDecimal[] await(CompletableFuture<BigDecimal[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static boolean isCacheable(BigDecimal[] coordinates) {
+        return coordinates != null && coordinates.length == 2 && coordinates[0] != null && coordinates[1] != null
+                && (coordinates[0].signum() != 0 || coordinates[1].signum() != 0);
+    }
+
+    /**
+     * 清除記憶體快取，includePersistent 為 true 時一併清除資料表
+     */
+    public void clear(boolean includePersistent) {
+        synchronized (memory) {
+            memory.clear();
+        }
+        if (includePersistent) {
+            store.deleteAll();
+        }
+    }
+
+    public Map<String, Object> status() {
+        long hits = memoryHits.sum() + persistentHits.sum();
+        long lookups = hits + misses.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        synchronized (memory) {
+            result.put("memorySize", memory.size());
+        }
+        result.put("memoryHits", memoryHits.sum());
+        result.put("persistentHits", persistentHits.sum());
+        result.put("misses", misses.sum());
+        result.put("hitRate", lookups == 0 ? 0.0 : Math.round(hits * 1000.0 / lookups) / 10.0);
+        result.put("coalesced", coalesced.sum());
+        result.put("inFlight", inFlight.size());
+        result.put("loadErrors", loadErrors.sum());
+        result.put("persistentErrors", persistentErrors.sum());
+        return result;
+    }
+}
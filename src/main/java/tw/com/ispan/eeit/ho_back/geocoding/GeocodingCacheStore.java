@@ -0,0 +1,59 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 地理編碼結果的持久層（geocode_cache 資料表，見 db/geocode_cache.sql），重啟後仍可使用
+ */
+@Repository
+public class GeocodingCacheStore {
+
+    // 主鍵長度上限，超過的地址只放在記憶體
+    static final int MAX_KEY_LENGTH = 400;
+
+    private static final String FIND_SQL = "SELECT latitude, longitude FROM geocode_cache "
+            + "WHERE address_key = ? AND updated_at >= ?";
+
+    private static final String UPSERT_SQL = "MERGE geocode_cache WITH (HOLDLOCK) AS t "
+            + "USING (SELECT ? AS address_key, ? AS latitude, ? AS longitude, ? AS updated_at) AS s "
+            + "ON t.address_key = s.address_key "
+            + "WHEN MATCHED THEN UPDATE SET latitude = s.latitude, longitude = s.longitude, updated_at = s.updated_at "
+            + "WHEN NOT MATCHED THEN INSERT (address_key, latitude, longitude, updated_at) "
+            + "VALUES (s.address_key, s.latitude, s.longitude, s.updated_at);";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GeocodingCacheStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return [緯度, 經度]；沒有資料或已過期時回傳 null
+     */
+    public BigDecimal[] find(String key, LocalDateTime notBefore) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            return null;
+        }
+        List<BigDecimal[]> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new BigDecimal[] { rs.getBigDecimal(1), rs.getBigDecimal(2) },
+                key, Timestamp.valueOf(notBefore));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public void save(String key, BigDecimal[] coordinates, LocalDateTime updatedAt) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_SQL, key, coordinates[0], coordinates[1], Timestamp.valueOf(updatedAt));
+    }
+
+    public int deleteAll() {
+        return jdbcTemplate.update("DELETE FROM geocode_cache");
+    }
+}
@@ -0,0 +1,248 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+/**
+ * 非同步、限流的地理編碼 client
+ *
+ * 1. geocodeAsync 先查記憶體快取，命中時直接回傳已完成的 CompletableFuture
+ * 2. 同一個正規化地址排隊中或查詢中時，回傳同一個結果，不重複排隊
+ * 3. 背景 dispatcher 每次從佇列取出最多 batch-size 筆，交給 virtual thread 處理，
+ *    同時進行中的外部請求不超過 max-concurrency
+ * 4. 限流以 HTTP 請求為單位：一次查詢可能送出多個請求（例如 Nominatim 搜尋後再反向查詢），
+ *    所以權杖由 GeocodingHttpClients 的 interceptor 在每個請求送出前取得（Nominatim 每秒 1 個），
+ *    這裡只共用同一個 TokenBucket 回報被限流的次數
+ * 5. 結果經 GeocodingCache 寫回記憶體與 geocode_cache 資料表
+ * 同步的 geocode 方法等待 CompletableFuture，在 virtual thread 上呼叫不會佔用平台執行緒
+ */
+public class GeocodingClient implements GeocodingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingClient.class);
+
+    private record Request(String key, String address, String city, String district, boolean withComponents,
+            CompletableFuture<BigDecimal[]> future) {
+    }
+
+    private final String provider;
+    private final GeocodingService delegate;
+    private final GeocodingCache cache;
+    private final TokenBucket rateLimiter;
+    private final GeocodingProperties.Client properties;
+
+    private final BlockingQueue<Request> queue;
+    private final Map<String, CompletableFuture<BigDecimal[]>> pending = new ConcurrentHashMap<>();
+    private final Semaphore concurrency;
+
+    private volatile boolean running;
+    private volatile Thread dispatcher;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public GeocodingClient(String provider, GeocodingService delegate, GeocodingCache cache,
+            GeocodingProperties.Client properties, TokenBucket rateLimiter) {
+        this.provider = provider;
+        this.delegate = delegate;
+        this.cache = cache;
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+        this.concurrency = new Semaphore(Math.max(properties.getMaxConcurrency(), 1));
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = Thread.ofVirtual().name("geocoding-dispatcher").start(this::dispatch);
+        logger.info("✅ 地理編碼 client 已啟動（{}，每秒 {} 個請求）", provider,
+                properties.getPermitsPerSecond().getOrDefault(provider, 1.0));
+    }
+
+    /**
+     * 停止 dispatcher，尚未處理的請求以失敗結束
+     */
+    public synchronized void stop() {
+        running = false;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        List<Request> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Request request : remaining) {
+            finish(request, null, new IllegalStateException("地理編碼服務已停止"));
+        }
+    }
+
+    public CompletableFuture<BigDecimal[]> geocodeAsync(String address) {
+        return submit(address, null, null, false);
+    }
+
+    public CompletableFuture<BigDecimal[]> geocodeAsync(String address, String city, String district) {
+        return submit(address, city, district, true);
+    }
+
+    @Override
+    public BigDecimal[] geocode(String address) {
+        return await(geocodeAsync(address));
+    }
+
+    @Override
+    public BigDecimal[] geocode(String address, String city, String district) {
+        return await(geocodeAsync(address, city, district));
+    }
+
+    private CompletableFuture<BigDecimal[]> submit(String address, String city, String district,
+            boolean withComponents) {
+        // 空地址交給原本的實作處理（回傳 0,0 或拋出例外），不排隊
+        if (address == null || address.isBlank()) {
+            try {
+                return CompletableFuture.completedFuture(call(address, city, district, withComponents));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        submitted.increment();
+        String key = GeocodingAddresses.cacheKey(address, city, district);
+        BigDecimal[] cached = cache.peek(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        // 停止後不再合併到排隊中的請求（stop 會讓它們以失敗結束）
+        if (!running) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException("地理編碼服務未啟動"));
+        }
+
+        CompletableFuture<BigDecimal[]> future = new CompletableFuture<>();
+        CompletableFuture<BigDecimal[]> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            deduplicated.increment();
+            return existing.thenApply(BigDecimal[]::clone);
+        }
+        if (!running || !queue.offer(new Request(key, address, city, district, withComponents, future))) {
+            rejected.increment();
+            pending.remove(key, future);
+            future.completeExceptionally(new IllegalStateException(running
+                    ? "地理編碼佇列已滿，請稍後再試"
+                    : "地理編碼服務未啟動"));
+            return future;
+        }
+        return future.thenApply(BigDecimal[]::clone);
+    }
+
+    private void dispatch() {
+        int batchSize = Math.max(properties.getBatchSize(), 1);
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                batches.increment();
+                while (!batch.isEmpty()) {
+                    concurrency.acquire();
+                    Request request = batch.remove(0);
+                    Thread.ofVirtual().name("geocoding-worker").start(() -> {
+                        try {
+                            process(request);
+                        } finally {
+                            concurrency.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                // 還沒交給 worker 的請求以失敗結束，並從 pending 移除
+                for (Request request : batch) {
+                    finish(request, null, new IllegalStateException("地理編碼服務已停止"));
+                }
+                batch.clear();
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void process(Request request) {
+        try {
+            BigDecimal[] coordinates = cache.get(request.key(),
+                    () -> call(request.address(), request.city(), request.district(), request.withComponents()));
+            finish(request, coordinates, null);
+        } catch (RuntimeException e) {
+            finish(request, null, e);
+        }
+    }
+
+    private void finish(Request request, BigDecimal[] coordinates, RuntimeException error) {
+        pending.remove(request.key(), request.future());
+        if (error == null) {
+            completed.increment();
+            request.future().complete(coordinates);
+        } else {
+            failed.increment();
+            request.future().completeExceptionally(error);
+        }
+    }
+
+    private BigDecimal[] call(String address, String city, String district, boolean withComponents) {
+        return withComponents ? delegate.geocode(address, city, district) : delegate.geocode(address);
+    }
+
+    private BigDecimal[] await(CompletableFuture<BigDecimal[]> future) {
+        try {
+            return future.get(properties.getRequestTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("地理編碼失敗：" + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("地理編碼逾時，請稍後再試", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("地理編碼被中斷", e);
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("provider", provider);
+        result.put("running", running);
+        result.put("queued", queue.size());
+        result.put("pending", pending.size());
+        result.put("submitted", submitted.sum());
+        result.put("cacheHits", cacheHits.sum());
+        result.put("deduplicated", deduplicated.sum());
+        result.put("rejected", rejected.sum());
+        result.put("batches", batches.sum());
+        result.put("completed", completed.sum());
+        result.put("failed", failed.sum());
+        result.put("rateLimited", rateLimiter.throttledCount());
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 地理編碼用的 RestTemplate
+ * 使用 JDK HttpClient：連線會保留並重複使用（HTTP/1.1 keep-alive 或 HTTP/2），
+ * 不像 SimpleClientHttpRequestFactory 每次請求都可能重新建立連線
+ */
+public final class GeocodingHttpClients {
+
+    private GeocodingHttpClients() {
+    }
+
+    public static RestTemplate restTemplate(long connectTimeoutMs, long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(factory);
+    }
+
+    /**
+     * 每個送出的 HTTP 請求都先向 rateLimiter 取得權杖
+     * 一次地理編碼可能送出多個請求，在這裡限流才能確實遵守服務的每秒請求數
+     */
+    public static RestTemplate restTemplate(long connectTimeoutMs, long readTimeoutMs, TokenBucket rateLimiter) {
+        RestTemplate restTemplate = restTemplate(connectTimeoutMs, readTimeoutMs);
+        restTemplate.getInterceptors().add(rateLimit(rateLimiter));
+        return restTemplate;
+    }
+
+    static ClientHttpRequestInterceptor rateLimit(TokenBucket rateLimiter) {
+        return (request, body, execution) -> {
+            try {
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("地理編碼被中斷");
+            }
+            return execution.execute(request, body);
+        };
+    }
+}
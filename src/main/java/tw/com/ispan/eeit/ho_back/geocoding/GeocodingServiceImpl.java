@@ -35,7 +35,11 @@ public class GeocodingServiceImpl implements GeocodingService {
     private final RestTemplate restTemplate;
 
     public GeocodingServiceImpl() {
-        this.restTemplate = new RestTemplate();
+        this(GeocodingHttpClients.restTemplate(5000, 10000));
+    }
+
+    public GeocodingServiceImpl(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
     }
 
     @Override
@@ -424,9 +428,7 @@ public class GeocodingServiceImpl implements GeocodingService {
      * 標準化城市名稱（處理「台北」vs「臺北」）
      */
     private String normalizeCityName(String cityName) {
-        if (cityName == null)
-            return "";
-        return cityName.replace("臺", "台").replace("台", "台");
+        return GeocodingAddresses.normalizeCityName(cityName);
     }
 
     /**
@@ -37,10 +37,12 @@ public class GoogleGeocodingServiceImpl implements GeocodingService {
     private String apiKey;
 
     public GoogleGeocodingServiceImpl() {
-        org.springframework.http.client.SimpleClientHttpRequestFactory factory = new org.springframework.http.client.SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000); // 增加連線超時時間
-        factory.setReadTimeout(10000); // 增加讀取超時時間
-        this.restTemplate = new RestTemplate(factory);
+        // 連線 5 秒、讀取 10 秒，使用可重複使用連線的 HTTP client
+        this(GeocodingHttpClients.restTemplate(5000, 10000));
+    }
+
+    public GoogleGeocodingServiceImpl(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
     }
 
     @Override
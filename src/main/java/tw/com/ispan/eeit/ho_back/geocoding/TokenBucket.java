@@ -0,0 +1,82 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+/**
+ * 權杖桶限流，每秒補充 permitsPerSecond 個，最多累積 burst 個
+ *
+ * reserve() 先預約一個權杖並回傳需要等待的時間，權杖不足時可以預約到未來，
+ * 所以同時等待的請求會依序錯開，不會在同一時間一起送出。
+ * acquire() 以 sleep 等待，在 virtual thread 上不會佔用平台執行緒
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long lastRefill;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * 依 geocoding.client 設定建立該服務的權杖桶，未列出的服務為每秒 1 個
+     */
+    public static TokenBucket forProvider(String provider, GeocodingProperties.Client properties) {
+        return new TokenBucket(properties.getPermitsPerSecond().getOrDefault(provider, 1.0), properties.getBurst());
+    }
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("每秒請求數必須大於 0");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(burst, 1);
+        this.nanoTime = nanoTime;
+        this.tokens = this.burst;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * 預約一個權杖
+     *
+     * @return 需要等待的奈秒數，0 表示可以立即送出
+     */
+    public synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+        tokens -= 1;
+        acquired.increment();
+        if (tokens >= 0) {
+            return 0;
+        }
+        throttled.increment();
+        return (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public long acquiredCount() {
+        return acquired.sum();
+    }
+
+    public long throttledCount() {
+        return throttled.sum();
+    }
+}
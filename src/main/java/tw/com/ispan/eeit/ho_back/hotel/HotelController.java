@@ -40,6 +40,8 @@ public class HotelController {
 
     @Autowired
     private OwnerAuthHelper ownerAuthHelper;
+    @Autowired
+    private HotelGeoIndex geoIndex;
 
     /**
      * 取得房東所有飯店ID + 房型ID
@@ -327,11 +329,37 @@ public class HotelController {
     }
 
     @GetMapping("/map")
-    public ResponseEntity<?> getMethodName(BigDecimal latitude, BigDecimal longitude, LocalDate checkInDate,
-            LocalDate checkOutDate, Integer guestNumber) {
-        List<GetNearbyHotelProjection> hotels = hotelService.findByLonLat(latitude, longitude, checkInDate,
-                checkOutDate, guestNumber);
-        return ResponseEntity.status(HttpStatus.OK).body(hotels);
+    public ResponseEntity<?> getMethodName(BigDecimal latitude, BigDecimal longitude, Double radiusKm,
+            LocalDate checkInDate, LocalDate checkOutDate, Integer guestNumber) {
+        try {
+            List<GetNearbyHotelProjection> hotels = hotelService.findByLonLat(latitude, longitude, radiusKm,
+                    checkInDate, checkOutDate, guestNumber);
+            return ResponseEntity.status(HttpStatus.OK).body(hotels);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * 地圖標記（記憶體座標索引，不查資料庫）
+     * 範圍：south/west/north/east，或 latitude/longitude 搭配 radiusKm 或 k
+     * 有 checkInDate/checkOutDate 時只回傳可訂房的飯店，可再加 guestNumber、minPrice、maxPrice
+     */
+    @GetMapping("/map/markers")
+    public ResponseEntity<?> mapMarkers(HotelMapQueryDto query) {
+        try {
+            return ResponseEntity.ok(hotelService.findMapMarkers(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/map/index-status")
+    public ResponseEntity<?> mapIndexStatus() {
+        return ResponseEntity.ok(geoIndex.status());
     }
 
     /**
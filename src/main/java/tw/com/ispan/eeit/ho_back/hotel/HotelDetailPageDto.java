@@ -5,6 +5,7 @@ import java.util.List;
 import lombok.Data;
 import tw.com.ispan.eeit.ho_back.hotelfacility.HotelFacilityDto;
 import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
+import tw.com.ispan.eeit.ho_back.review.HotelRatingSummary;
 import tw.com.ispan.eeit.ho_back.review.HotelReviewDto;
 
 //回傳飯店頁面資料
@@ -12,7 +13,10 @@ import tw.com.ispan.eeit.ho_back.review.HotelReviewDto;
 public class HotelDetailPageDto {
     private HotelDetailDto hotelDetail;
     private List<RoomPriceDto> roomInfo;
+    // 評論第一頁
     private List<HotelReviewDto> review;
+    private String reviewNextCursor;
+    private HotelRatingSummary ratingSummary;
     private List<String> photos;
     private List<HotelFacilityDto> facilities;
 }
@@ -0,0 +1,387 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 地圖用的飯店座標索引（存在 JVM 記憶體中）
+ * 營業中飯店依經緯度放進固定大小（cell-degrees 度）的網格，
+ * 範圍、半徑與最近 k 間查詢只需要看涵蓋到的格子，不用每次拖動地圖都查資料庫。
+ *
+ * - 應用程式啟動完成後從資料庫建立，每小時重建一次（修正未經 HotelServiceImpl 的異動）
+ * - HotelServiceImpl 新增 / 修改 / 停業飯店時，在交易提交後增量更新
+ * - 重建期間提交的增量更新會記下來，在替換前重新套用到新的網格，不會被重建蓋掉
+ * - hotel.geo-index.enabled=false 或索引尚未建立時 isReady() 為 false
+ */
+@Component
+public class HotelGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelGeoIndex.class);
+
+    // 平均地球半徑
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    record Point(int hotelId, String name, double latitude, double longitude) {
+    }
+
+    /**
+     * 查詢結果，distanceKm 為與查詢中心的距離
+     */
+    public record Hit(int hotelId, String name, double latitude, double longitude, double distanceKm) {
+    }
+
+    private final HotelRepository hotelRepository;
+    private final boolean enabled;
+    private final double cellDegrees;
+    private final double defaultRadiusKm;
+    private final double maxRadiusKm;
+    private final int maxResults;
+
+    private volatile Grid grid;
+    private volatile LocalDateTime lastBuiltAt;
+
+    // 增量更新與替換網格互斥；changesDuringRebuild 只在重建期間不為 null
+    private final Object changeLock = new Object();
+    private List<Consumer<Grid>> changesDuringRebuild;
+
+    public HotelGeoIndex(HotelRepository hotelRepository,
+            @Value("${hotel.geo-index.enabled:true}") boolean enabled,
+            @Value("${hotel.geo-index.cell-degrees:0.05}") double cellDegrees,
+            @Value("${hotel.geo-index.default-radius-km:3}") double defaultRadiusKm,
+            @Value("${hotel.geo-index.max-radius-km:50}") double maxRadiusKm,
+            @Value("${hotel.geo-index.max-results:500}") int maxResults) {
+        this.hotelRepository = hotelRepository;
+        this.enabled = enabled;
+        this.cellDegrees = cellDegrees;
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxRadiusKm = maxRadiusKm;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * 應用程式啟動完成後建立索引
+     * 建立失敗時索引維持空白，/map 仍走原本的預存程序
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            logger.info("飯店座標索引已停用");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("❌ 建立飯店座標索引失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 每小時 15 分重建一次
+     */
+    @Scheduled(cron = "0 15 * * * ?")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("❌ 重建飯店座標索引失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 從資料庫重新建立整個索引
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (changeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            Grid fresh = new Grid(cellDegrees);
+            for (Object[] row : hotelRepository.findOpenHotelLocations()) {
+                fresh.put(new Point(((Number) row[0]).intValue(), (String) row[1],
+                        ((BigDecimal) row[2]).doubleValue(), ((BigDecimal) row[3]).doubleValue()));
+            }
+            int replayed;
+            synchronized (changeLock) {
+                // 查詢期間提交的異動可能不在查詢結果裡，依序重新套用（put / remove 重複套用結果相同）
+                replayed = changesDuringRebuild.size();
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                grid = fresh;
+            }
+            lastBuiltAt = LocalDateTime.now();
+            logger.info("✅ 飯店座標索引建立完成：{} 間飯店，{} 個格子，重新套用 {} 筆異動，耗時 {} ms",
+                    fresh.points.size(), fresh.cells.size(), replayed, System.currentTimeMillis() - start);
+        } finally {
+            synchronized (changeLock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && grid != null;
+    }
+
+    public double defaultRadiusKm() {
+        return defaultRadiusKm;
+    }
+
+    public double maxRadiusKm() {
+        return maxRadiusKm;
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    // ===== 查詢 =====
+
+    /**
+     * 半徑內的飯店，依距離由近到遠
+     *
+     * @param filter 額外條件（例如可訂房），null 表示不篩選
+     */
+    public List<Hit> withinRadius(double latitude, double longitude, double radiusKm, int limit,
+            IntPredicate filter) {
+        Grid current = grid;
+        if (current == null) {
+            return List.of();
+        }
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double lngDelta = radiusKm / (KM_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        List<Hit> hits = new ArrayList<>();
+        current.forEachInBounds(latitude - latDelta, longitude - lngDelta, latitude + latDelta,
+                longitude + lngDelta, point -> {
+                    double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radiusKm && (filter == null || filter.test(point.hotelId()))) {
+                        hits.add(hit(point, distance));
+                    }
+                });
+        return sortAndLimit(hits, limit);
+    }
+
+    /**
+     * 地圖可視範圍內的飯店，依與範圍中心的距離由近到遠
+     */
+    public List<Hit> withinBounds(double south, double west, double north, double east, int limit,
+            IntPredicate filter) {
+        Grid current = grid;
+        if (current == null) {
+            return List.of();
+        }
+        double centerLat = (south + north) / 2;
+        double centerLng = (west + east) / 2;
+        List<Hit> hits = new ArrayList<>();
+        current.forEachInBounds(south, west, north, east, point -> {
+            if (filter == null || filter.test(point.hotelId())) {
+                hits.add(hit(point, distanceKm(centerLat, centerLng, point.latitude(), point.longitude())));
+            }
+        });
+        return sortAndLimit(hits, limit);
+    }
+
+    /**
+     * 最近的 k 間飯店（最遠到 maxRadiusKm）
+     * 從一個格子的寬度開始，找不到 k 間時半徑加倍；半徑外的飯店一定比半徑內的遠，所以結果正確
+     */
+    public List<Hit> nearest(double latitude, double longitude, int k, double maxRadiusKm, IntPredicate filter) {
+        double radiusKm = Math.min(cellDegrees * KM_PER_DEGREE_LAT, maxRadiusKm);
+        while (true) {
+            List<Hit> hits = withinRadius(latitude, longitude, radiusKm, Integer.MAX_VALUE, filter);
+            if (hits.size() >= k || radiusKm >= maxRadiusKm) {
+                return hits.size() > k ? hits.subList(0, k) : hits;
+            }
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+    }
+
+    private static Hit hit(Point point, double distanceKm) {
+        return new Hit(point.hotelId(), point.name(), point.latitude(), point.longitude(), distanceKm);
+    }
+
+    private static List<Hit> sortAndLimit(List<Hit> hits, int limit) {
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparingInt(Hit::hotelId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2)
+                        * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // ===== 增量更新：都在交易提交後才套用到索引 =====
+
+    // 新增或修改飯店；停業或沒有座標時從索引移除
+    public void onHotelSaved(Hotel hotel) {
+        int hotelId = hotel.getId();
+        boolean open = Boolean.TRUE.equals(hotel.getBusinessStatus())
+                && hotel.getLatitude() != null && hotel.getLongitude() != null;
+        Point point = open
+                ? new Point(hotelId, hotel.getName(), hotel.getLatitude().doubleValue(),
+                        hotel.getLongitude().doubleValue())
+                : null;
+        afterCommit(current -> {
+            if (point != null) {
+                current.put(point);
+            } else {
+                current.remove(hotelId);
+            }
+        });
+    }
+
+    public void onHotelRemoved(Integer hotelId) {
+        afterCommit(current -> current.remove(hotelId));
+    }
+
+    // 套用到目前的網格；重建中時另外記下，等新網格建好再套用一次
+    private void apply(Consumer<Grid> change) {
+        synchronized (changeLock) {
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+            Grid current = grid;
+            if (current != null) {
+                change.accept(current);
+            }
+        }
+    }
+
+    private void afterCommit(Consumer<Grid> change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    public Map<String, Object> status() {
+        Grid current = grid;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", current != null);
+        result.put("hotels", current != null ? current.points.size() : 0);
+        result.put("cells", current != null ? current.cells.size() : 0);
+        result.put("cellDegrees", cellDegrees);
+        result.put("lastBuiltAt", lastBuiltAt);
+        return result;
+    }
+
+    /**
+     * 經緯度網格，重建時整份替換
+     */
+    static final class Grid {
+        final double cellDegrees;
+        final Map<Integer, Point> points = new ConcurrentHashMap<>();
+        final Map<Long, Map<Integer, Point>> cells = new ConcurrentHashMap<>();
+
+        Grid(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        int row(double latitude) {
+            return (int) Math.floor((latitude + 90) / cellDegrees);
+        }
+
+        int column(double longitude) {
+            return (int) Math.floor((longitude + 180) / cellDegrees);
+        }
+
+        static long key(int row, int column) {
+            return ((long) row << 32) | (column & 0xFFFFFFFFL);
+        }
+
+        synchronized void put(Point point) {
+            remove(point.hotelId());
+            points.put(point.hotelId(), point);
+            cells.computeIfAbsent(key(row(point.latitude()), column(point.longitude())),
+                    k -> new ConcurrentHashMap<>()).put(point.hotelId(), point);
+        }
+
+        synchronized void remove(int hotelId) {
+            Point previous = points.remove(hotelId);
+            if (previous == null) {
+                return;
+            }
+            long key = key(row(previous.latitude()), column(previous.longitude()));
+            Map<Integer, Point> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(hotelId);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+
+        /**
+         * 走訪範圍內的飯店；範圍涵蓋的格子比飯店還多時直接掃過全部飯店
+         */
+        void forEachInBounds(double south, double west, double north, double east,
+                Consumer<Point> action) {
+            int fromRow = row(Math.max(south, -90));
+            int toRow = row(Math.min(north, 90));
+            int fromColumn = column(Math.max(west, -180));
+            int toColumn = column(Math.min(east, 180));
+            long cellCount = (long) (toRow - fromRow + 1) * (toColumn - fromColumn + 1);
+            if (cellCount > points.size()) {
+                for (Point point : points.values()) {
+                    if (inBounds(point, south, west, north, east)) {
+                        action.accept(point);
+                    }
+                }
+                return;
+            }
+            for (int row = fromRow; row <= toRow; row++) {
+                for (int column = fromColumn; column <= toColumn; column++) {
+                    Map<Integer, Point> cell = cells.get(key(row, column));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Point point : cell.values()) {
+                        if (inBounds(point, south, west, north, east)) {
+                            action.accept(point);
+                        }
+                    }
+                }
+            }
+        }
+
+        private static boolean inBounds(Point point, double south, double west, double north, double east) {
+            return point.latitude() >= south && point.latitude() <= north
+                    && point.longitude() >= west && point.longitude() <= east;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 地圖標記，minPriceForNight 只在有查詢日期時提供
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelMapMarkerDto {
+    private Integer id;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+    private Integer minPriceForNight;
+}
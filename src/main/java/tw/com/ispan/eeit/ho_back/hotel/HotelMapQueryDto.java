@@ -0,0 +1,43 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * 地圖標記查詢條件
+ * 三種範圍擇一：south/west/north/east（地圖可視範圍）、latitude/longitude + k（最近 k 間）、
+ * latitude/longitude + radiusKm（半徑，未填時用預設半徑）
+ * 有入住與退房日期時，只回傳可訂房的飯店並附上每晚最低價
+ */
+@Data
+public class HotelMapQueryDto {
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+    private Integer k;
+
+    private Double south;
+    private Double west;
+    private Double north;
+    private Double east;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkInDate;
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkOutDate;
+    private Integer guestNumber;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer limit;
+
+    public boolean hasBounds() {
+        return south != null || west != null || north != null || east != null;
+    }
+
+    public boolean hasDates() {
+        return checkInDate != null || checkOutDate != null;
+    }
+}
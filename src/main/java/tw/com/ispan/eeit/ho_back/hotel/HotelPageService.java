@@ -15,15 +15,15 @@ import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
 import tw.com.ispan.eeit.ho_back.inventory.dto.RoomStockDto;
 import tw.com.ispan.eeit.ho_back.photo.Photo;
 import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
-import tw.com.ispan.eeit.ho_back.review.HotelReviewDto;
-import tw.com.ispan.eeit.ho_back.review.ReviewRepository;
+import tw.com.ispan.eeit.ho_back.review.HotelReviewPageDto;
+import tw.com.ispan.eeit.ho_back.review.ReviewService;
 
 @Service
 public class HotelPageService {
     @Autowired
     InventoryRepository inventoryRepository;
     @Autowired
-    ReviewRepository reviewRepository;
+    ReviewService reviewService;
     @Autowired
     HotelFacilityRepository hotelFacilityRepository;
     @Autowired
@@ -51,16 +51,13 @@ public class HotelPageService {
 
         hotelInfo.setHotelId(hotel.getId());
 
-        // 飯店評論
-        List<HotelReviewDto> reviews = reviewRepository.findReviewsByHotelId(hotelId);
-        Double sum = 0.0;
-        for (HotelReviewDto review : reviews) {
-            sum += review.getRating();
-        }
-        Double avgRating = sum / reviews.size();
-        hotelInfo.setAvgRating(avgRating);
+        // 飯店評論：只帶第一頁，後續頁面由 /api/reviews/hotel/{hotelId} 以游標載入
+        HotelReviewPageDto reviewPage = reviewService.getHotelReviews(hotelId, null, null, null);
+        hotelInfo.setAvgRating(reviewPage.getRatingSummary().getAvgRating());
         result.setHotelDetail(hotelInfo);
-        result.setReview(reviews);
+        result.setReview(reviewPage.getReviews());
+        result.setReviewNextCursor(reviewPage.getNextCursor());
+        result.setRatingSummary(reviewPage.getRatingSummary());
         // 飯店設施
         List<HotelFacilityDto> facilities = hotelFacilityRepository.findFacilityByHotelId(hotelId);
         result.setFacilities(facilities);
@@ -7,6 +7,7 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
 import org.springframework.data.jpa.repository.query.Procedure;
@@ -17,7 +18,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface HotelRepository extends JpaRepository<Hotel, Integer> {
+public interface HotelRepository extends JpaRepository<Hotel, Integer>, JpaSpecificationExecutor<Hotel> {
 
         /**
          * 根據業者 ID 查詢他上架的所有飯店
@@ -113,6 +114,10 @@ public interface HotelRepository extends JpaRepository<Hotel, Integer> {
                         "WHERE h.id IN :hotelIds ")
         public List<HotelDetailDto> findHotelDetail(List<Integer> hotelIds);
 
+        // 搜尋依星級排序用，只取排序需要的欄位
+        @Query("SELECT h.id AS hotelId, h.starRating AS starRating FROM Hotel h WHERE h.id IN :hotelIds")
+        List<HotelStarRatingProjection> findStarRatings(List<Integer> hotelIds);
+
         // 取得一間飯店資訊
         @Query("SELECT new tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto(h.id, h.name,h.starRating, d.name, c.name, h.address,h.longitude, h.latitude, h.description, h.checkInTime, h.checkOutTime) "
                         +
@@ -122,23 +127,18 @@ public interface HotelRepository extends JpaRepository<Hotel, Integer> {
                         "WHERE h.id IN :hotelId ")
         public HotelDetailDto findHotelInfoByHotelId(Integer hotelId);
 
-        // 根據縣市查詢飯店平均分數並排序
+        // 根據縣市查詢飯店平均分數並排序（平均分數讀評分彙總表）
         @Query("SELECT new tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto(" +
-                        "h.id, h.name,h.starRating, d.name, c.name, h.address,h.longitude, h.latitude, h.description, AVG(re.rating)) "
+                        "h.id, h.name,h.starRating, d.name, c.name, h.address,h.longitude, h.latitude, h.description, "
                         +
+                        "CASE WHEN rs.reviewCount > 0 THEN rs.ratingSum * 1.0 / rs.reviewCount ELSE NULL END) " +
                         "FROM Hotel h " +
                         "JOIN h.district d " +
                         "JOIN d.city c " +
-                        "LEFT JOIN h.rooms r " +
-                        "LEFT JOIN r.inventories i " +
-                        "LEFT JOIN i.bookingInventories bi " +
-                        "LEFT JOIN bi.booking b " +
-                        "LEFT JOIN b.review re " +
+                        "LEFT JOIN HotelRatingSummary rs ON rs.hotelId = h.id " +
                         "WHERE c.name LIKE CONCAT('%', :cityName, '%') " +
                         // "AND h.status = true " +
-                        "GROUP BY h.id, h.name, d.name, c.name, h.address, h.longitude, h.latitude, h.description, h.starRating "
-                        +
-                        "ORDER BY AVG(re.rating) DESC")
+                        "ORDER BY CASE WHEN rs.reviewCount > 0 THEN rs.ratingSum * 1.0 / rs.reviewCount ELSE NULL END DESC")
         List<HotelDetailDto> findHotelByCity(@Param("cityName") String cityName, Pageable pageable);
 
         // 根據userId取得收藏
@@ -152,4 +152,9 @@ public interface HotelRepository extends JpaRepository<Hotel, Integer> {
                         @Param("checkInDate") LocalDate checkInDate,
                         @Param("checkOutDate") LocalDate checkOutDate,
                         @Param("guestNumber") Integer guestNumber);
+
+        // 地圖座標索引用：營業中且有座標的飯店 (id, name, latitude, longitude)
+        @Query("SELECT h.id, h.name, h.latitude, h.longitude FROM Hotel h "
+                        + "WHERE h.businessStatus = true AND h.latitude IS NOT NULL AND h.longitude IS NOT NULL")
+        List<Object[]> findOpenHotelLocations();
 }
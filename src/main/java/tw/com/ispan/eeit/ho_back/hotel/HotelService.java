@@ -50,8 +50,12 @@ public interface HotelService {
 
         public List<HotelDetailDto> findHotelByCity(String cityName);
 
+        // radiusKm 為 null 時使用預設半徑（hotel.geo-index.default-radius-km）
         public List<GetNearbyHotelProjection> findByLonLat(BigDecimal latitude, BigDecimal longitude,
-                        LocalDate checkInDate,
+                        Double radiusKm, LocalDate checkInDate,
                         LocalDate checkOutDate, Integer guestNumber);
 
+        // 地圖標記：由記憶體座標索引查詢，有日期時依可訂房索引篩選並附最低價
+        Map<String, Object> findMapMarkers(HotelMapQueryDto query);
+
 }
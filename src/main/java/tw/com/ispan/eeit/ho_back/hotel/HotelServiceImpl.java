@@ -2,23 +2,25 @@ package tw.com.ispan.eeit.ho_back.hotel;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters;
 import tw.com.ispan.eeit.ho_back.city.CityDTO;
 import tw.com.ispan.eeit.ho_back.common.exception.HotelNotFoundException;
 import tw.com.ispan.eeit.ho_back.district.DistrictDTO;
@@ -29,6 +31,8 @@ import tw.com.ispan.eeit.ho_back.hotelfacility.HotelFacility;
 import tw.com.ispan.eeit.ho_back.hotelfacility.HotelFacilityRepository;
 import tw.com.ispan.eeit.ho_back.hoteltype.HotelTypeDTO;
 import tw.com.ispan.eeit.ho_back.hoteltype.HotelTypeRepository;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryAvailabilityIndex;
+import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
 import tw.com.ispan.eeit.ho_back.photo.Photo;
 import tw.com.ispan.eeit.ho_back.photo.PhotoDTO;
 import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
@@ -56,6 +60,12 @@ public class HotelServiceImpl implements HotelService {
     private HotelFacilityRepository hotelFacilityRepository;
     @Autowired
     private RoomRepository roomRepository;
+    @Autowired
+    private AnalyticsTodayCounters todayCounters;
+    @Autowired
+    private HotelGeoIndex geoIndex;
+    @Autowired
+    private InventoryAvailabilityIndex availabilityIndex;
 
     private static final LocalTime DEFAULT_CHECK_IN_TIME = LocalTime.of(15, 0);
     private static final LocalTime DEFAULT_CHECK_OUT_TIME = LocalTime.of(11, 0);
@@ -373,6 +383,11 @@ public class HotelServiceImpl implements HotelService {
         }
 
         Hotel savedHotel = hotelRepository.save(hotel);
+        // 今日新增飯店只計營業中的飯店（與 countNewHotelsByDate 相同）
+        if (Boolean.TRUE.equals(savedHotel.getBusinessStatus())) {
+            todayCounters.increment(AnalyticsTodayCounters.Metric.NEW_HOTELS);
+        }
+        geoIndex.onHotelSaved(savedHotel);
 
         // 處理照片（如果提供）
         if (dto.getPhotos() != null && !dto.getPhotos().isEmpty()) {
@@ -532,6 +547,7 @@ public class HotelServiceImpl implements HotelService {
 
         // 3. 保存 Entity
         Hotel savedHotel = hotelRepository.save(exist);
+        geoIndex.onHotelSaved(savedHotel);
 
         // 4. 重新載入飯店以確保所有關聯都正確載入（特別是 district 和 city）
         Hotel reloadedHotel = hotelRepository.findByIdWithAssociations(savedHotel.getId())
@@ -564,6 +580,7 @@ public class HotelServiceImpl implements HotelService {
         exist.setUpdatedTime(java.time.LocalDateTime.now());
 
         hotelRepository.save(exist); // 保存變更
+        geoIndex.onHotelRemoved(hotelId);
     }
 
     // =========================================================================
@@ -594,306 +611,60 @@ public class HotelServiceImpl implements HotelService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getHotelsByOwner(Integer userId, int page, int size) {
-        // 使用 JOIN FETCH 載入所有基本關聯資料
-        List<Hotel> allHotels = hotelRepository.findByUserId(userId);
-
-        if (allHotels.isEmpty()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("content", new ArrayList<>());
-            result.put("totalElements", 0);
-            result.put("totalPages", 0);
-            result.put("currentPage", page);
-            result.put("size", size);
-            return result;
-        }
-
-        // 批量載入照片和設施（優化 N+1 問題）
-        List<Integer> hotelIds = allHotels.stream()
-                .map(Hotel::getId)
-                .collect(Collectors.toList());
-        BatchData batchData = loadPhotosAndFacilitiesBatch(hotelIds);
-
-        // 手動分頁處理
-        int totalElements = allHotels.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int start = (page - 1) * size;
-
-        List<HotelDTO> hotelDTOs = allHotels.stream()
-                .skip(start)
-                .limit(size)
-                .map(h -> toDto(h, batchData.photosByHotelId, batchData.facilityIdsByHotelId))
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", hotelDTOs);
-        result.put("totalElements", totalElements);
-        result.put("totalPages", totalPages);
-        result.put("currentPage", page);
-        result.put("size", size);
-
-        return result;
+        return findOwnerHotelPage(userId, page, size, null, null, null, null, null, null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getHotelsByOwner(Integer userId, int page, int size, Integer cityId,
             Integer districtId) {
-        // 使用地區篩選查詢
-        List<Hotel> allHotels;
-        if (cityId != null || districtId != null) {
-            allHotels = hotelRepository.findByUserIdAndLocation(userId, cityId, districtId);
-        } else {
-            allHotels = hotelRepository.findByUserId(userId);
-        }
-
-        if (allHotels.isEmpty()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("content", new ArrayList<>());
-            result.put("totalElements", 0);
-            result.put("totalPages", 0);
-            result.put("currentPage", page);
-            result.put("size", size);
-            return result;
-        }
-
-        // 批量載入照片和設施（優化 N+1 問題）
-        List<Integer> hotelIds = allHotels.stream()
-                .map(Hotel::getId)
-                .collect(Collectors.toList());
-        BatchData batchData = loadPhotosAndFacilitiesBatch(hotelIds);
-
-        // 手動分頁處理
-        int totalElements = allHotels.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int start = (page - 1) * size;
-
-        List<HotelDTO> hotelDTOs = allHotels.stream()
-                .skip(start)
-                .limit(size)
-                .map(h -> toDto(h, batchData.photosByHotelId, batchData.facilityIdsByHotelId))
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", hotelDTOs);
-        result.put("totalElements", totalElements);
-        result.put("totalPages", totalPages);
-        result.put("currentPage", page);
-        result.put("size", size);
-
-        return result;
+        return findOwnerHotelPage(userId, page, size, cityId, districtId, null, null, null, null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getHotelsByOwner(Integer userId, int page, int size, Integer cityId, Integer districtId,
             String sortBy, String sortOrder) {
-        // 使用地區篩選查詢
-        List<Hotel> allHotels;
-        if (cityId != null || districtId != null) {
-            allHotels = hotelRepository.findByUserIdAndLocation(userId, cityId, districtId);
-        } else {
-            allHotels = hotelRepository.findByUserId(userId);
-        }
-
-        if (allHotels.isEmpty()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("content", new ArrayList<>());
-            result.put("totalElements", 0);
-            result.put("totalPages", 0);
-            result.put("currentPage", page);
-            result.put("size", size);
-            return result;
-        }
-
-        // 排序處理
-        Comparator<Hotel> comparator = null;
-        if (sortBy != null && !sortBy.isEmpty()) {
-            switch (sortBy.toLowerCase()) {
-                case "name":
-                    comparator = Comparator.comparing(Hotel::getName,
-                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "created_time":
-                    comparator = Comparator.comparing(Hotel::getCreatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-                case "updated_time":
-                    comparator = Comparator.comparing(Hotel::getUpdatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-                case "location":
-                    // 按地區排序：城市 -> 行政區 -> 名稱
-                    comparator = Comparator
-                            .comparing((Hotel h) -> h.getDistrict() != null && h.getDistrict().getCity() != null
-                                    ? h.getDistrict().getCity().getName()
-                                    : "", Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
-                            .thenComparing(h -> h.getDistrict() != null ? h.getDistrict().getName() : "",
-                                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
-                            .thenComparing(Hotel::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "business_status":
-                    // 營業狀態排序：營業中優先
-                    comparator = Comparator
-                            .comparing((Hotel h) -> h.getBusinessStatus() != null && h.getBusinessStatus() ? 0 : 1)
-                            .thenComparing(Hotel::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                default:
-                    // 默認按建立時間排序
-                    comparator = Comparator.comparing(Hotel::getCreatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-            }
-
-            // 應用排序方向
-            if (comparator != null && "desc".equalsIgnoreCase(sortOrder)) {
-                comparator = comparator.reversed();
-            }
-
-            if (comparator != null) {
-                allHotels = allHotels.stream()
-                        .sorted(comparator)
-                        .collect(Collectors.toList());
-            }
-        } else {
-            // 默認按建立時間降序（最新的在前）
-            allHotels = allHotels.stream()
-                    .sorted(Comparator.comparing(Hotel::getCreatedTime, Comparator.nullsLast(LocalDateTime::compareTo))
-                            .reversed())
-                    .collect(Collectors.toList());
-        }
-
-        // 批量載入照片和設施（優化 N+1 問題）
-        List<Integer> hotelIds = allHotels.stream()
-                .map(Hotel::getId)
-                .collect(Collectors.toList());
-        BatchData batchData = loadPhotosAndFacilitiesBatch(hotelIds);
-
-        // 手動分頁處理
-        int totalElements = allHotels.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int start = (page - 1) * size;
-
-        List<HotelDTO> hotelDTOs = allHotels.stream()
-                .skip(start)
-                .limit(size)
-                .map(h -> toDto(h, batchData.photosByHotelId, batchData.facilityIdsByHotelId))
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", hotelDTOs);
-        result.put("totalElements", totalElements);
-        result.put("totalPages", totalPages);
-        result.put("currentPage", page);
-        result.put("size", size);
-
-        return result;
+        return findOwnerHotelPage(userId, page, size, cityId, districtId, null, null, sortBy, sortOrder);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getHotelsByOwner(Integer userId, int page, int size, Integer cityId, Integer districtId,
             Boolean businessStatus, Integer hotelTypeId, String sortBy, String sortOrder) {
-        // 使用多條件篩選查詢
-        List<Hotel> allHotels;
-
-        // 判斷是否需要使用篩選查詢
-        boolean needsFilter = (cityId != null || districtId != null || businessStatus != null || hotelTypeId != null);
-
-        if (needsFilter) {
-            allHotels = hotelRepository.findByUserIdWithFilters(userId, cityId, districtId, businessStatus,
-                    hotelTypeId);
-        } else {
-            allHotels = hotelRepository.findByUserId(userId);
-        }
-
-        if (allHotels.isEmpty()) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("content", new ArrayList<>());
-            result.put("totalElements", 0);
-            result.put("totalPages", 0);
-            result.put("currentPage", page);
-            result.put("size", size);
-            return result;
-        }
-
-        // 排序處理
-        Comparator<Hotel> comparator = null;
-        if (sortBy != null && !sortBy.isEmpty()) {
-            switch (sortBy.toLowerCase()) {
-                case "name":
-                    comparator = Comparator.comparing(Hotel::getName,
-                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "created_time":
-                    comparator = Comparator.comparing(Hotel::getCreatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-                case "updated_time":
-                    comparator = Comparator.comparing(Hotel::getUpdatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-                case "location":
-                    // 按地區排序：城市 -> 行政區 -> 名稱
-                    comparator = Comparator
-                            .comparing((Hotel h) -> h.getDistrict() != null && h.getDistrict().getCity() != null
-                                    ? h.getDistrict().getCity().getName()
-                                    : "", Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
-                            .thenComparing(h -> h.getDistrict() != null ? h.getDistrict().getName() : "",
-                                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
-                            .thenComparing(Hotel::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                case "business_status":
-                    // 營業狀態排序：營業中優先
-                    comparator = Comparator
-                            .comparing((Hotel h) -> h.getBusinessStatus() != null && h.getBusinessStatus() ? 0 : 1)
-                            .thenComparing(Hotel::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                    break;
-                default:
-                    // 默認按建立時間排序
-                    comparator = Comparator.comparing(Hotel::getCreatedTime,
-                            Comparator.nullsLast(LocalDateTime::compareTo));
-                    break;
-            }
-
-            // 應用排序方向
-            if (comparator != null && "desc".equalsIgnoreCase(sortOrder)) {
-                comparator = comparator.reversed();
-            }
+        return findOwnerHotelPage(userId, page, size, cityId, districtId, businessStatus, hotelTypeId, sortBy,
+                sortOrder);
+    }
 
-            if (comparator != null) {
-                allHotels = allHotels.stream()
-                        .sorted(comparator)
-                        .collect(Collectors.toList());
-            }
-        } else {
-            // 默認按建立時間降序（最新的在前）
-            allHotels = allHotels.stream()
-                    .sorted(Comparator.comparing(Hotel::getCreatedTime, Comparator.nullsLast(LocalDateTime::compareTo))
-                            .reversed())
+    /**
+     * 業者飯店分頁：篩選、排序、分頁由資料庫處理（另有一個 count 查詢），
+     * 照片與設施只載入當頁的飯店
+     *
+     * @param page 頁碼（從 1 開始）
+     */
+    private Map<String, Object> findOwnerHotelPage(Integer userId, int page, int size, Integer cityId,
+            Integer districtId, Boolean businessStatus, Integer hotelTypeId, String sortBy, String sortOrder) {
+        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.max(size, 1),
+                HotelSpecs.ownerSort(sortBy, sortOrder));
+        Page<Hotel> hotelPage = hotelRepository.findAll(
+                HotelSpecs.ownedWithFilters(userId, cityId, districtId, businessStatus, hotelTypeId), pageable);
+
+        List<HotelDTO> hotelDTOs = new ArrayList<>();
+        if (!hotelPage.getContent().isEmpty()) {
+            // 批量載入當頁的照片和設施（優化 N+1 問題）
+            List<Integer> hotelIds = hotelPage.getContent().stream()
+                    .map(Hotel::getId)
+                    .collect(Collectors.toList());
+            BatchData batchData = loadPhotosAndFacilitiesBatch(hotelIds);
+            hotelDTOs = hotelPage.getContent().stream()
+                    .map(h -> toDto(h, batchData.photosByHotelId, batchData.facilityIdsByHotelId))
                     .collect(Collectors.toList());
         }
 
-        // 批量載入照片和設施（優化 N+1 問題）
-        List<Integer> hotelIds = allHotels.stream()
-                .map(Hotel::getId)
-                .collect(Collectors.toList());
-        BatchData batchData = loadPhotosAndFacilitiesBatch(hotelIds);
-
-        // 手動分頁處理
-        int totalElements = allHotels.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int start = (page - 1) * size;
-
-        List<HotelDTO> hotelDTOs = allHotels.stream()
-                .skip(start)
-                .limit(size)
-                .map(h -> toDto(h, batchData.photosByHotelId, batchData.facilityIdsByHotelId))
-                .collect(Collectors.toList());
-
         Map<String, Object> result = new HashMap<>();
         result.put("content", hotelDTOs);
-        result.put("totalElements", totalElements);
-        result.put("totalPages", totalPages);
+        result.put("totalElements", (int) hotelPage.getTotalElements());
+        result.put("totalPages", hotelPage.getTotalPages());
         result.put("currentPage", page);
         result.put("size", size);
 
@@ -957,9 +728,107 @@ public class HotelServiceImpl implements HotelService {
 
     @Override
     @Transactional
-    public List<GetNearbyHotelProjection> findByLonLat(BigDecimal latitude, BigDecimal longitude, LocalDate checkInDate,
-            LocalDate checkOutDate, Integer guestNumber) {
-        return hotelRepository.findByLonLat(latitude, longitude, BigDecimal.valueOf(3), checkInDate, checkOutDate,
-                guestNumber);
+    public List<GetNearbyHotelProjection> findByLonLat(BigDecimal latitude, BigDecimal longitude, Double radiusKm,
+            LocalDate checkInDate, LocalDate checkOutDate, Integer guestNumber) {
+        double radius = resolveRadius(radiusKm);
+        // 座標索引顯示範圍內沒有營業中的飯店時，不必執行預存程序
+        if (geoIndex.isReady() && latitude != null && longitude != null
+                && geoIndex.withinRadius(latitude.doubleValue(), longitude.doubleValue(), radius, 1, null).isEmpty()) {
+            return List.of();
+        }
+        return hotelRepository.findByLonLat(latitude, longitude, BigDecimal.valueOf(radius), checkInDate,
+                checkOutDate, guestNumber);
+    }
+
+    @Override
+    public Map<String, Object> findMapMarkers(HotelMapQueryDto query) {
+        if (!geoIndex.isReady()) {
+            throw new IllegalStateException("地圖索引尚未建立，請稍後再試");
+        }
+        int limit = query.getLimit() != null ? query.getLimit() : geoIndex.maxResults();
+        if (limit < 1 || limit > geoIndex.maxResults()) {
+            throw new IllegalArgumentException("limit 必須介於 1 到 " + geoIndex.maxResults());
+        }
+
+        // 有日期時以可訂房索引篩選，並記下每間飯店的最低總價
+        HotelQueryDto availability = null;
+        Map<Integer, Long> lowestTotals = new HashMap<>();
+        IntPredicate filter = null;
+        if (query.hasDates()) {
+            availability = new HotelQueryDto();
+            availability.setCheckInDate(query.getCheckInDate());
+            availability.setCheckOutDate(query.getCheckOutDate());
+            availability.setGuestNumber(query.getGuestNumber());
+            availability.setMinPrice(query.getMinPrice());
+            availability.setMaxPrice(query.getMaxPrice());
+            if (query.getCheckInDate() == null || query.getCheckOutDate() == null
+                    || !query.getCheckOutDate().isAfter(query.getCheckInDate())) {
+                throw new IllegalArgumentException("請選擇正確的入住與退房日期");
+            }
+            if (!availabilityIndex.canServe(availability)) {
+                throw new IllegalArgumentException("查詢日期超出可訂房範圍");
+            }
+            HotelQueryDto condition = availability;
+            filter = hotelId -> {
+                long total = availabilityIndex.lowestTotalPrice(hotelId, condition);
+                if (total < 0) {
+                    return false;
+                }
+                lowestTotals.put(hotelId, total);
+                return true;
+            };
+        }
+
+        List<HotelGeoIndex.Hit> hits;
+        if (query.hasBounds()) {
+            if (query.getSouth() == null || query.getWest() == null || query.getNorth() == null
+                    || query.getEast() == null || query.getSouth() > query.getNorth()
+                    || query.getWest() > query.getEast()) {
+                throw new IllegalArgumentException("地圖範圍不正確");
+            }
+            hits = geoIndex.withinBounds(query.getSouth(), query.getWest(), query.getNorth(), query.getEast(), limit,
+                    filter);
+        } else {
+            if (query.getLatitude() == null || query.getLongitude() == null
+                    || Math.abs(query.getLatitude()) > 90 || Math.abs(query.getLongitude()) > 180) {
+                throw new IllegalArgumentException("請提供正確的經緯度或地圖範圍");
+            }
+            if (query.getK() != null) {
+                if (query.getK() < 1 || query.getK() > limit) {
+                    throw new IllegalArgumentException("k 必須介於 1 到 " + limit);
+                }
+                double maxRadius = query.getRadiusKm() != null ? resolveRadius(query.getRadiusKm())
+                        : geoIndex.maxRadiusKm();
+                hits = geoIndex.nearest(query.getLatitude(), query.getLongitude(), query.getK(), maxRadius, filter);
+            } else {
+                hits = geoIndex.withinRadius(query.getLatitude(), query.getLongitude(),
+                        resolveRadius(query.getRadiusKm()), limit, filter);
+            }
+        }
+
+        List<HotelMapMarkerDto> markers = new ArrayList<>(hits.size());
+        for (HotelGeoIndex.Hit hit : hits) {
+            Long total = lowestTotals.get(hit.hotelId());
+            Integer perNight = total != null ? (int) (total / availability.getNight()) : null;
+            markers.add(new HotelMapMarkerDto(hit.hotelId(), hit.name(), hit.latitude(), hit.longitude(),
+                    Math.round(hit.distanceKm() * 1000) / 1000.0, perNight));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("markers", markers);
+        result.put("count", markers.size());
+        result.put("availabilityChecked", availability != null);
+        return result;
+    }
+
+    // 未指定半徑時用預設值，超過上限時拒絕
+    private double resolveRadius(Double radiusKm) {
+        if (radiusKm == null) {
+            return geoIndex.defaultRadiusKm();
+        }
+        if (radiusKm <= 0 || radiusKm > geoIndex.maxRadiusKm()) {
+            throw new IllegalArgumentException("搜尋半徑必須大於 0 且不超過 " + geoIndex.maxRadiusKm() + " 公里");
+        }
+        return radiusKm;
     }
 }
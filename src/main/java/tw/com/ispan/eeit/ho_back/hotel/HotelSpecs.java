@@ -0,0 +1,94 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * 業者飯店列表的查詢條件與排序
+ * 篩選、排序、分頁都交給資料庫，count 查詢不載入關聯
+ */
+public class HotelSpecs {
+
+    /**
+     * 業者自己的飯店，其餘條件為 null 時不篩選
+     */
+    public static Specification<Hotel> ownedWithFilters(Integer userId, Integer cityId, Integer districtId,
+            Boolean businessStatus, Integer hotelTypeId) {
+        return (root, cq, cb) -> {
+            // 只有取資料時才 JOIN FETCH，count 查詢不需要
+            if (cq.getResultType() != Long.class && cq.getResultType() != long.class) {
+                Fetch<Hotel, ?> district = root.fetch("district", JoinType.LEFT);
+                district.fetch("city", JoinType.LEFT);
+                root.fetch("hotelType", JoinType.LEFT);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("userId"), userId));
+            if (cityId != null) {
+                predicates.add(cb.equal(root.get("district").get("city").get("id"), cityId));
+            }
+            if (districtId != null) {
+                predicates.add(cb.equal(root.get("district").get("id"), districtId));
+            }
+            if (businessStatus != null) {
+                predicates.add(cb.equal(root.get("businessStatus"), businessStatus));
+            }
+            if (hotelTypeId != null) {
+                predicates.add(cb.equal(root.get("hotelType").get("id"), hotelTypeId));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * 業者飯店列表排序，最後以 id 排序讓分頁結果穩定
+     * sortBy：name、created_time、updated_time、location、business_status，未指定時依建立時間由新到舊
+     */
+    public static Sort ownerSort(String sortBy, String sortOrder) {
+        if (sortBy == null || sortBy.isEmpty()) {
+            return Sort.by(Sort.Order.desc("createdTime"), Sort.Order.desc("id"));
+        }
+        boolean desc = "desc".equalsIgnoreCase(sortOrder);
+        Sort sort;
+        switch (sortBy.toLowerCase()) {
+            case "name":
+                sort = Sort.by("name");
+                break;
+            case "updated_time":
+                sort = Sort.by("updatedTime");
+                break;
+            case "location":
+                // 按地區排序：城市 -> 行政區 -> 名稱
+                sort = Sort.by("district.city.name", "district.name", "name");
+                break;
+            case "business_status":
+                // 營業狀態排序：營業中優先（true 排在前面）
+                sort = Sort.by(Sort.Order.desc("businessStatus"), Sort.Order.asc("name"));
+                break;
+            case "created_time":
+            default:
+                // 默認按建立時間排序
+                sort = Sort.by("createdTime");
+                break;
+        }
+        if (desc) {
+            sort = reverse(sort);
+        }
+        return sort.and(Sort.by(desc ? Sort.Direction.DESC : Sort.Direction.ASC, "id"));
+    }
+
+    private static Sort reverse(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.reverse());
+        }
+        return Sort.by(orders);
+    }
+}
@@ -0,0 +1,10 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+/**
+ * 搜尋排序用：只取飯店 ID 與星級
+ */
+public interface HotelStarRatingProjection {
+    Integer getHotelId();
+
+    Integer getStarRating();
+}
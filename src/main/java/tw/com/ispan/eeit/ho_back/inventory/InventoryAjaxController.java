@@ -1,6 +1,8 @@
 package tw.com.ispan.eeit.ho_back.inventory;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -15,11 +17,16 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import tw.com.ispan.eeit.ho_back.hotel.Hotel;
 import tw.com.ispan.eeit.ho_back.hotel.HotelDTO;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarResult;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarRule;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportReport;
 import tw.com.ispan.eeit.ho_back.room.Room;
 import tw.com.ispan.eeit.ho_back.room.RoomDTO;
 
@@ -29,6 +36,12 @@ public class InventoryAjaxController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryBulkImportService bulkImportService;
+
+    @Autowired
+    private InventoryCalendarService calendarService;
+
     @PostMapping("/query")
     public InventoryResponse queryInventory(
             @RequestHeader(value = "userid", required = false) Integer userId, // 從 header 拿房東 id
@@ -149,14 +162,14 @@ public class InventoryAjaxController {
             @RequestBody List<InventoryRequest> list // ✅ 改用 DTO 接收
     ) {
         try {
-            inventoryService.insertRange(list);
+            InventoryImportReport report = inventoryService.insertRange(list);
 
             // ✅ 使用統一的 InventoryResponse
             InventoryResponse response = new InventoryResponse(
                     "批次新增成功",
                     true,
                     null, // 或 Collections.emptyList()
-                    (long) list.size() // 回傳新增的筆數
+                    (long) report.getTotal() // 回傳新增或更新的筆數
             );
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -180,6 +193,70 @@ public class InventoryAjaxController {
         }
     }
 
+    // 匯入 CSV / Excel 庫存檔，(房型, 日期) 已存在時更新；回傳每一列的處理結果
+    @PostMapping("/import")
+    public ResponseEntity<?> importInventory(
+            @RequestHeader(value = "userid", required = false) Integer userId,
+            @RequestParam("file") MultipartFile file) {
+        Map<String, Object> response = new HashMap<>();
+        if (userId == null) {
+            response.put("success", false);
+            response.put("message", "缺少 userId");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        if (file == null || file.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "請選擇要匯入的檔案");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        try {
+            InventoryImportReport report = bulkImportService.importFile(userId, file);
+            response.put("success", report.getFailed() == 0);
+            response.put("message", "匯入完成：新增 " + report.getInserted() + " 筆、更新 " + report.getUpdated()
+                    + " 筆、失敗 " + report.getFailed() + " 筆");
+            response.put("data", report);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            response.put("success", false);
+            response.put("message", "匯入失敗: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // 日曆規則批次修改價格 / 庫存，例如「七月週末 4200 元、5 間」或「連假加價 10%」
+    @PostMapping("/calendar")
+    public ResponseEntity<?> applyCalendarRules(
+            @RequestHeader(value = "userid", required = false) Integer userId,
+            @RequestBody List<InventoryCalendarRule> rules) {
+        Map<String, Object> response = new HashMap<>();
+        if (userId == null) {
+            response.put("success", false);
+            response.put("message", "缺少 userId");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        try {
+            InventoryCalendarResult result = calendarService.apply(userId, rules);
+            response.put("success", true);
+            response.put("message", "修改完成：更新 " + result.getUpdated() + " 筆、新增 " + result.getInserted() + " 筆");
+            response.put("data", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            response.put("success", false);
+            response.put("message", "批次修改失敗: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public InventoryResponse remove(@PathVariable Integer id) {
         if (id == null) {
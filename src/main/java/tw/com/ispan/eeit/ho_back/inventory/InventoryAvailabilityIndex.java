@@ -0,0 +1,522 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
+import tw.com.ispan.eeit.ho_back.room.Room;
+
+/**
+ * 搜尋用的可訂房索引（存在 JVM 記憶體中）
+ * 每個房型保存從今天起 horizonDays 天的庫存與價格陣列，
+ * 讓 /api/searchHotel 的日期區間、人數、價格篩選不需要再對 inventory 表做 GROUP BY ... HAVING。
+ *
+ * - 應用程式啟動完成後從資料庫建立，每天凌晨重建一次以滾動日期區間
+ * - InventoryService、BookingService 異動庫存時，在交易提交後增量更新
+ * - 定期與資料庫比對，不一致時以資料庫為準重建（也用來修正重建期間遺漏的增量）
+ * - inventory.search-index.enabled=false、索引尚未建立或查詢日期超出區間時，呼叫端回到原本的 JPQL 查詢
+ *
+ * 注意：索引以「單一房型每晚都有庫存」判斷飯店是否可訂，
+ * 與 findRoomPriceByHotels 的條件一致（原 JPQL 是以整間飯店湊滿天數判斷）。
+ */
+@Component
+public class InventoryAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryAvailabilityIndex.class);
+
+    // 該日期沒有庫存資料
+    static final int NO_INVENTORY = -1;
+    // 價格為 null
+    static final int NO_PRICE = -1;
+
+    private final InventoryRepository inventoryRepository;
+    private final boolean enabled;
+    private final int horizonDays;
+
+    private volatile Snapshot snapshot;
+
+    public InventoryAvailabilityIndex(InventoryRepository inventoryRepository,
+            @Value("${inventory.search-index.enabled:true}") boolean enabled,
+            @Value("${inventory.search-index.horizon-days:365}") int horizonDays) {
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * 應用程式啟動完成後建立索引
+     * 建立失敗時索引維持空白，搜尋會走原本的 JPQL 查詢
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            logger.info("可訂房索引已停用，搜尋使用 JPQL 查詢");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("❌ 建立可訂房索引失敗，搜尋改用 JPQL 查詢: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 每天凌晨 0:05 重建索引，讓日期區間往後滾動一天
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void rollHorizon() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("❌ 重建可訂房索引失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 每小時 30 分與資料庫比對一次
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void scheduledConsistencyCheck() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            verifyAgainstDatabase();
+        } catch (Exception e) {
+            logger.error("❌ 可訂房索引一致性檢查失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 從資料庫重新建立整個索引
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Snapshot fresh = load(LocalDate.now());
+        snapshot = fresh;
+        logger.info("✅ 可訂房索引建立完成：{} 個房型，{} ~ {}，耗時 {} ms",
+                fresh.rooms.size(), fresh.baseDate, fresh.baseDate.plusDays(fresh.days - 1),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 與資料庫比對索引內容，不一致時以資料庫內容取代索引
+     *
+     * @return 不一致的房型晚數；索引尚未建立或日期區間已變動時回傳 -1
+     */
+    public synchronized int verifyAgainstDatabase() {
+        Snapshot current = snapshot;
+        Snapshot fresh = load(LocalDate.now());
+        if (current == null || !current.baseDate.equals(fresh.baseDate)) {
+            snapshot = fresh;
+            return -1;
+        }
+        int mismatches = fresh.countDifferences(current);
+        if (mismatches > 0) {
+            logger.warn("⚠️ 可訂房索引與資料庫有 {} 筆房晚不一致，已以資料庫為準重建", mismatches);
+            snapshot = fresh;
+        } else {
+            logger.info("✅ 可訂房索引與資料庫一致");
+        }
+        return mismatches;
+    }
+
+    /**
+     * 索引是否能回答這次查詢
+     */
+    public boolean canServe(HotelQueryDto query) {
+        Snapshot current = snapshot;
+        if (!enabled || current == null) {
+            return false;
+        }
+        if (query.getCheckInDate() == null || query.getCheckOutDate() == null
+                || query.getNight() == null || query.getNight() <= 0) {
+            return false;
+        }
+        return current.offset(query.getCheckInDate()) >= 0
+                && current.offset(query.getCheckOutDate().minusDays(1)) >= 0;
+    }
+
+    /**
+     * 在候選飯店中，找出至少有一個房型在每一晚都有庫存、符合人數與價格條件的飯店
+     *
+     * @param candidateHotelIds 已經過關鍵字、星級、飯店類型篩選的飯店
+     */
+    public List<Integer> findAvailableHotelIds(Collection<Integer> candidateHotelIds, HotelQueryDto query) {
+        Snapshot current = snapshot;
+        List<Integer> result = new ArrayList<>();
+        int from = current.offset(query.getCheckInDate());
+        for (Integer hotelId : candidateHotelIds) {
+            Set<Integer> roomIds = current.hotelRooms.get(hotelId);
+            if (roomIds == null) {
+                continue;
+            }
+            for (Integer roomId : roomIds) {
+                RoomCalendar calendar = current.rooms.get(roomId);
+                if (calendar != null && calendar.partPrice(from, query.getNight(), query.getGuestNumber(),
+                        query.getMinPrice(), query.getMaxPrice()) >= 0) {
+                    result.add(hotelId);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 飯店各房型中符合條件的最低總價（所有晚數加總），沒有可訂房型時回傳 -1
+     * 呼叫前須先以 canServe 確認索引能回答這次查詢
+     */
+    public long lowestTotalPrice(Integer hotelId, HotelQueryDto query) {
+        Snapshot current = snapshot;
+        Set<Integer> roomIds = current.hotelRooms.get(hotelId);
+        if (roomIds == null) {
+            return -1;
+        }
+        int from = current.offset(query.getCheckInDate());
+        long lowest = -1;
+        for (Integer roomId : roomIds) {
+            RoomCalendar calendar = current.rooms.get(roomId);
+            if (calendar == null) {
+                continue;
+            }
+            long total = calendar.partPrice(from, query.getNight(), query.getGuestNumber(),
+                    query.getMinPrice(), query.getMaxPrice());
+            if (total >= 0 && (lowest < 0 || total < lowest)) {
+                lowest = total;
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * 每間飯店符合條件、總價最低的房型，沒有可訂房型的飯店不會出現在結果中
+     * 只填入 hotelId、roomId、partPrice、maxOccupancy，供搜尋排序使用；房型名稱、床型等明細由呼叫端只對當頁查詢
+     * 呼叫前須先以 canServe 確認索引能回答這次查詢
+     */
+    public Map<Integer, RoomPriceDto> findCheapestRooms(Collection<Integer> hotelIds, HotelQueryDto query) {
+        Snapshot current = snapshot;
+        Map<Integer, RoomPriceDto> cheapestRooms = new HashMap<>();
+        int from = current.offset(query.getCheckInDate());
+        for (Integer hotelId : hotelIds) {
+            Set<Integer> roomIds = current.hotelRooms.get(hotelId);
+            if (roomIds == null) {
+                continue;
+            }
+            RoomPriceDto cheapest = null;
+            for (Integer roomId : roomIds) {
+                RoomCalendar calendar = current.rooms.get(roomId);
+                if (calendar == null) {
+                    continue;
+                }
+                long total = calendar.partPrice(from, query.getNight(), query.getGuestNumber(),
+                        query.getMinPrice(), query.getMaxPrice());
+                if (total >= 0 && (cheapest == null || total < cheapest.getPartPrice())) {
+                    cheapest = new RoomPriceDto(hotelId, roomId, total, null, null, null, null,
+                            calendar.maxOccupancy, null);
+                }
+            }
+            if (cheapest != null) {
+                cheapestRooms.put(hotelId, cheapest);
+            }
+        }
+        return cheapestRooms;
+    }
+
+    // ===== 增量更新：都在交易提交後才套用到索引 =====
+
+    // 新增或修改庫存
+    public void onInventorySaved(Inventory inventory) {
+        Room room = inventory.getRoom();
+        int roomId = room.getId();
+        int hotelId = room.getHotel().getId();
+        int maxOccupancy = room.getMaxOccupancy() != null ? room.getMaxOccupancy() : 0;
+        LocalDate date = inventory.getDate();
+        int stock = inventory.getStock() != null ? inventory.getStock() : 0;
+        int price = inventory.getPrice() != null ? inventory.getPrice() : NO_PRICE;
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            int offset = current != null ? current.offset(date) : -1;
+            if (offset >= 0) {
+                current.roomCalendar(roomId, hotelId, maxOccupancy).set(offset, stock, price);
+            }
+        });
+    }
+
+    // 批次匯入或批次修改庫存，整批在同一個交易提交後套用
+    public void onRoomNightsSaved(List<RoomNightDto> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<RoomNightDto> copy = List.copyOf(rows);
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            for (RoomNightDto row : copy) {
+                int offset = current.offset(row.getDate());
+                if (offset >= 0) {
+                    current.roomCalendar(row.getRoomId(), row.getHotelId(),
+                            row.getMaxOccupancy() != null ? row.getMaxOccupancy() : 0)
+                            .set(offset,
+                                    row.getStock() != null ? row.getStock() : 0,
+                                    row.getPrice() != null ? row.getPrice() : NO_PRICE);
+                }
+            }
+        });
+    }
+
+    // 刪除庫存
+    public void onInventoryRemoved(Inventory inventory) {
+        int roomId = inventory.getRoom().getId();
+        LocalDate date = inventory.getDate();
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            int offset = current != null ? current.offset(date) : -1;
+            RoomCalendar calendar = current != null ? current.rooms.get(roomId) : null;
+            if (offset >= 0 && calendar != null) {
+                calendar.clear(offset);
+            }
+        });
+    }
+
+    // 訂房扣庫存
+    public void onStockDecremented(Inventory inventory, int quantity) {
+        onStockAdjusted(inventory.getRoom().getId(), inventory.getDate(), -quantity);
+    }
+
+    // 取消或逾期未付款，庫存歸還
+    public void onStockRestored(Integer roomId, LocalDate date, int quantity) {
+        onStockAdjusted(roomId, date, quantity);
+    }
+
+    private void onStockAdjusted(int roomId, LocalDate date, int delta) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            int offset = current != null ? current.offset(date) : -1;
+            RoomCalendar calendar = current != null ? current.rooms.get(roomId) : null;
+            if (offset >= 0 && calendar != null) {
+                calendar.adjustStock(offset, delta);
+            }
+        });
+    }
+
+    // 房型的入住人數或所屬飯店變動
+    public void onRoomChanged(Room room) {
+        int roomId = room.getId();
+        int hotelId = room.getHotel().getId();
+        int maxOccupancy = room.getMaxOccupancy() != null ? room.getMaxOccupancy() : 0;
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current != null && current.rooms.containsKey(roomId)) {
+                current.roomCalendar(roomId, hotelId, maxOccupancy);
+            }
+        });
+    }
+
+    // 房型刪除
+    public void onRoomRemoved(Integer roomId) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current != null) {
+                current.removeRoom(roomId);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Snapshot load(LocalDate baseDate) {
+        Snapshot fresh = new Snapshot(baseDate, horizonDays);
+        List<RoomNightDto> rows = inventoryRepository.findRoomNightsBetween(baseDate, baseDate.plusDays(horizonDays));
+        for (RoomNightDto row : rows) {
+            int offset = fresh.offset(row.getDate());
+            if (offset < 0) {
+                continue;
+            }
+            fresh.roomCalendar(row.getRoomId(), row.getHotelId(),
+                    row.getMaxOccupancy() != null ? row.getMaxOccupancy() : 0)
+                    .set(offset,
+                            row.getStock() != null ? row.getStock() : 0,
+                            row.getPrice() != null ? row.getPrice() : NO_PRICE);
+        }
+        return fresh;
+    }
+
+    /**
+     * 某個日期區間的完整索引內容，重建時整份替換
+     */
+    static final class Snapshot {
+        final LocalDate baseDate;
+        final int days;
+        final Map<Integer, RoomCalendar> rooms = new ConcurrentHashMap<>();
+        final Map<Integer, Set<Integer>> hotelRooms = new ConcurrentHashMap<>();
+
+        Snapshot(LocalDate baseDate, int days) {
+            this.baseDate = baseDate;
+            this.days = days;
+        }
+
+        // 日期在陣列中的位置，超出區間回傳 -1
+        int offset(LocalDate date) {
+            long offset = ChronoUnit.DAYS.between(baseDate, date);
+            return offset >= 0 && offset < days ? (int) offset : -1;
+        }
+
+        RoomCalendar roomCalendar(int roomId, int hotelId, int maxOccupancy) {
+            RoomCalendar calendar = rooms.computeIfAbsent(roomId, id -> new RoomCalendar(hotelId, days));
+            synchronized (calendar) {
+                if (calendar.hotelId != hotelId) {
+                    Set<Integer> previous = hotelRooms.get(calendar.hotelId);
+                    if (previous != null) {
+                        previous.remove(roomId);
+                    }
+                    calendar.hotelId = hotelId;
+                }
+                calendar.maxOccupancy = maxOccupancy;
+            }
+            hotelRooms.computeIfAbsent(hotelId, id -> ConcurrentHashMap.newKeySet()).add(roomId);
+            return calendar;
+        }
+
+        void removeRoom(int roomId) {
+            RoomCalendar calendar = rooms.remove(roomId);
+            if (calendar != null) {
+                Set<Integer> roomIds = hotelRooms.get(calendar.hotelId);
+                if (roomIds != null) {
+                    roomIds.remove(roomId);
+                }
+            }
+        }
+
+        // 與另一份索引比較，回傳不一致的房晚數
+        int countDifferences(Snapshot other) {
+            int differences = 0;
+            for (Map.Entry<Integer, RoomCalendar> entry : rooms.entrySet()) {
+                differences += entry.getValue().countDifferences(other.rooms.get(entry.getKey()));
+            }
+            for (Map.Entry<Integer, RoomCalendar> entry : other.rooms.entrySet()) {
+                if (!rooms.containsKey(entry.getKey())) {
+                    differences += entry.getValue().countDifferences(null);
+                }
+            }
+            return differences;
+        }
+    }
+
+    /**
+     * 單一房型的每日庫存與價格
+     */
+    static final class RoomCalendar {
+        int hotelId;
+        int maxOccupancy;
+        final int[] stock;
+        final int[] price;
+
+        RoomCalendar(int hotelId, int days) {
+            this.hotelId = hotelId;
+            this.stock = new int[days];
+            this.price = new int[days];
+            Arrays.fill(stock, NO_INVENTORY);
+            Arrays.fill(price, NO_PRICE);
+        }
+
+        synchronized void set(int offset, int stock, int price) {
+            this.stock[offset] = stock;
+            this.price[offset] = price;
+        }
+
+        synchronized void clear(int offset) {
+            this.stock[offset] = NO_INVENTORY;
+            this.price[offset] = NO_PRICE;
+        }
+
+        synchronized void adjustStock(int offset, int delta) {
+            if (stock[offset] != NO_INVENTORY) {
+                stock[offset] = Math.max(0, stock[offset] + delta);
+            }
+        }
+
+        /**
+         * 連續 nights 晚都有庫存且符合條件時回傳總價，否則回傳 -1
+         */
+        synchronized long partPrice(int from, int nights, Integer guestNumber, Integer minPrice, Integer maxPrice) {
+            if (guestNumber != null && maxOccupancy < guestNumber) {
+                return -1;
+            }
+            if (from < 0 || from + nights > stock.length) {
+                return -1;
+            }
+            long sum = 0;
+            for (int i = from; i < from + nights; i++) {
+                if (stock[i] <= 0) {
+                    return -1;
+                }
+                if (price[i] == NO_PRICE) {
+                    if (minPrice != null || maxPrice != null) {
+                        return -1;
+                    }
+                    continue;
+                }
+                if ((minPrice != null && price[i] < minPrice) || (maxPrice != null && price[i] > maxPrice)) {
+                    return -1;
+                }
+                sum += price[i];
+            }
+            return sum;
+        }
+
+        synchronized int countDifferences(RoomCalendar other) {
+            int differences = 0;
+            for (int i = 0; i < stock.length; i++) {
+                int otherStock = other != null ? other.stock[i] : NO_INVENTORY;
+                int otherPrice = other != null ? other.price[i] : NO_PRICE;
+                if (stock[i] != otherStock || price[i] != otherPrice) {
+                    differences++;
+                }
+            }
+            if (other != null && (other.hotelId != hotelId || other.maxOccupancy != maxOccupancy)) {
+                differences++;
+            }
+            return differences;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.transaction.Transactional;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportReport;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportRow;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto;
+
+/**
+ * 庫存批次匯入
+ * 房型只查一次、以 JDBC batch 寫入，(room_id, date) 已存在時改為更新
+ * 每一列都會記錄在 InventoryImportReport，錯誤的列不寫入
+ */
+@Service
+public class InventoryBulkImportService {
+
+    // 以 (room_id, date) 唯一鍵 upsert，沒有 start_date 時與 Inventory @PrePersist 一樣用今天
+    static final String UPSERT_SQL = "MERGE inventory WITH (HOLDLOCK) AS t " +
+            "USING (SELECT ? AS room_id, ? AS date, ? AS stock, ? AS price, ? AS start_date) AS s " +
+            "ON t.room_id = s.room_id AND t.date = s.date " +
+            "WHEN MATCHED THEN UPDATE SET stock = s.stock, price = s.price " +
+            "WHEN NOT MATCHED THEN INSERT (room_id, date, stock, price, start_date) " +
+            "VALUES (s.room_id, s.date, s.stock, s.price, s.start_date);";
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryImportReader importReader;
+
+    @Autowired
+    private InventoryAvailabilityIndex availabilityIndex;
+
+    // 每次送出的 JDBC batch 筆數，也是每次查房型與既有庫存的區塊大小
+    @Value("${inventory.import.batch-size:500}")
+    private int batchSize = 500;
+
+    // 單次匯入的列數上限
+    @Value("${inventory.import.max-rows:50000}")
+    private int maxRows = 50000;
+
+    // 匯入 CSV / Excel 檔案
+    @Transactional
+    public InventoryImportReport importFile(Integer userId, MultipartFile file) throws IOException {
+        Importer importer = new Importer(userId);
+        importReader.read(file, importer::add);
+        return importer.finish();
+    }
+
+    // 匯入前端送來的庫存清單（insertRange）
+    @Transactional
+    public InventoryImportReport importRequests(Integer userId, List<InventoryRequest> requests) {
+        Importer importer = new Importer(userId);
+        int rowNumber = 0;
+        for (InventoryRequest request : requests) {
+            InventoryImportRow row = new InventoryImportRow();
+            row.setRowNumber(++rowNumber);
+            row.setRoomId(request.getRoomId());
+            row.setDate(request.getDate());
+            row.setPrice(request.getPrice());
+            row.setStock(request.getStock());
+            row.setStartDate(request.getStartDate());
+            importer.add(row);
+        }
+        return importer.finish();
+    }
+
+    // 一次匯入的狀態：累積一個區塊就寫入
+    private class Importer {
+        private final Integer userId;
+        private final InventoryImportReport report = new InventoryImportReport();
+        // 已查過的房型，不存在的房型記為 null
+        private final Map<Integer, ImportRoomDto> rooms = new HashMap<>();
+        // 檔案內已出現過的 (房型, 日期)
+        private final Set<RoomDate> seen = new HashSet<>();
+        private final List<InventoryImportRow> chunk = new ArrayList<>();
+        private int count;
+
+        Importer(Integer userId) {
+            this.userId = userId;
+        }
+
+        void add(InventoryImportRow row) {
+            if (++count > maxRows) {
+                throw new IllegalArgumentException("匯入資料超過 " + maxRows + " 列");
+            }
+            chunk.add(row);
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        InventoryImportReport finish() {
+            flush();
+            return report;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            resolveRooms();
+
+            List<InventoryImportRow> valid = new ArrayList<>();
+            for (InventoryImportRow row : chunk) {
+                String error = validate(row);
+                if (error != null) {
+                    report.add(row.getRowNumber(), row.getRoomId(), row.getDate(), InventoryImportReport.FAILED,
+                            error);
+                } else {
+                    valid.add(row);
+                }
+            }
+            if (!valid.isEmpty()) {
+                write(valid);
+            }
+            chunk.clear();
+        }
+
+        // 只查這個區塊中還沒查過的房型
+        private void resolveRooms() {
+            Set<Integer> missing = new HashSet<>();
+            for (InventoryImportRow row : chunk) {
+                if (row.getRoomId() != null && !rooms.containsKey(row.getRoomId())) {
+                    missing.add(row.getRoomId());
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            for (ImportRoomDto room : inventoryRepository.findImportRooms(missing)) {
+                rooms.put(room.getRoomId(), room);
+            }
+            for (Integer roomId : missing) {
+                rooms.putIfAbsent(roomId, null);
+            }
+        }
+
+        private String validate(InventoryImportRow row) {
+            if (row.getError() != null) {
+                return row.getError();
+            }
+            if (row.getRoomId() == null) {
+                return "缺少房型 ID";
+            }
+            ImportRoomDto room = rooms.get(row.getRoomId());
+            if (room == null) {
+                return "找不到房型 ID: " + row.getRoomId();
+            }
+            if (userId != null && !userId.equals(room.getOwnerId())) {
+                return "無權限修改房型 ID: " + row.getRoomId();
+            }
+            if (row.getDate() == null) {
+                return "缺少日期";
+            }
+            if (row.getStock() == null || row.getStock() < 0) {
+                return "庫存必須大於等於 0";
+            }
+            if (row.getPrice() == null || row.getPrice() < 0) {
+                return "價格必須大於等於 0";
+            }
+            if (!seen.add(new RoomDate(row.getRoomId(), row.getDate()))) {
+                return "同一房型同一日期重複";
+            }
+            return null;
+        }
+
+        private void write(List<InventoryImportRow> rows) {
+            // 先查出已存在的 (房型, 日期)，回報新增或更新
+            Set<Integer> roomIds = new HashSet<>();
+            LocalDate from = null;
+            LocalDate to = null;
+            for (InventoryImportRow row : rows) {
+                roomIds.add(row.getRoomId());
+                from = from == null || row.getDate().isBefore(from) ? row.getDate() : from;
+                to = to == null || row.getDate().isAfter(to) ? row.getDate() : to;
+            }
+            Set<RoomDate> existing = new HashSet<>();
+            for (Object[] roomDate : inventoryRepository.findExistingRoomDates(roomIds, from, to)) {
+                existing.add(new RoomDate((Integer) roomDate[0], (LocalDate) roomDate[1]));
+            }
+
+            LocalDate today = LocalDate.now();
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+                ps.setInt(1, row.getRoomId());
+                ps.setDate(2, Date.valueOf(row.getDate()));
+                ps.setInt(3, row.getStock());
+                ps.setInt(4, row.getPrice());
+                ps.setDate(5, Date.valueOf(row.getStartDate() != null ? row.getStartDate() : today));
+            });
+
+            List<RoomNightDto> roomNights = new ArrayList<>(rows.size());
+            for (InventoryImportRow row : rows) {
+                boolean updated = existing.contains(new RoomDate(row.getRoomId(), row.getDate()));
+                report.add(row.getRowNumber(), row.getRoomId(), row.getDate(),
+                        updated ? InventoryImportReport.UPDATED : InventoryImportReport.INSERTED, null);
+                ImportRoomDto room = rooms.get(row.getRoomId());
+                roomNights.add(new RoomNightDto(row.getRoomId(), room.getHotelId(), room.getMaxOccupancy(),
+                        row.getDate(), row.getStock(), row.getPrice()));
+            }
+            availabilityIndex.onRoomNightsSaved(roomNights);
+        }
+    }
+
+    private record RoomDate(Integer roomId, LocalDate date) {
+    }
+}
@@ -0,0 +1,217 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.transaction.Transactional;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarResult;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarRule;
+
+/**
+ * 庫存日曆規則批次修改
+ * 每條規則編成一句 UPDATE（需要時再加一句 INSERT ... SELECT），不逐筆查詢與儲存
+ * 全部規則在同一個交易內執行，可訂房索引在最後重新讀取一次受影響的區間
+ */
+@Service
+public class InventoryCalendarService {
+
+    // 單條規則的日期區間上限
+    static final int MAX_RULE_DAYS = 731;
+
+    // 星期幾：1900-01-01 是週一，不受 SET DATEFIRST 影響
+    private static final String DAY_OF_WEEK = "(DATEDIFF(day, '19000101', %s) %% 7) + 1";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryAvailabilityIndex availabilityIndex;
+
+    @Transactional
+    public InventoryCalendarResult apply(Integer userId, List<InventoryCalendarRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一條規則");
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            validate(i + 1, rules.get(i));
+        }
+
+        Set<Integer> roomIds = new LinkedHashSet<>();
+        LocalDate from = null;
+        LocalDate to = null;
+        for (InventoryCalendarRule rule : rules) {
+            roomIds.addAll(rule.getRoomIds());
+            from = from == null || startOf(rule).isBefore(from) ? startOf(rule) : from;
+            to = to == null || endOf(rule).isAfter(to) ? endOf(rule) : to;
+        }
+        checkRooms(userId, roomIds);
+
+        InventoryCalendarResult result = new InventoryCalendarResult();
+        for (InventoryCalendarRule rule : rules) {
+            int updated = jdbcTemplate.update(updateSql(rule), params(rule));
+            int inserted = rule.isCreateMissing() ? jdbcTemplate.update(insertSql(rule), params(rule)) : 0;
+            result.add(updated, inserted);
+        }
+
+        // 整批只通知一次索引
+        if (result.getUpdated() + result.getInserted() > 0) {
+            availabilityIndex.onRoomNightsSaved(inventoryRepository.findRoomNightsForRooms(roomIds, from, to));
+        }
+        return result;
+    }
+
+    private void validate(int index, InventoryCalendarRule rule) {
+        String prefix = "第 " + index + " 條規則";
+        if (rule.getRoomIds() == null || rule.getRoomIds().isEmpty()) {
+            throw new IllegalArgumentException(prefix + "缺少房型");
+        }
+        if (rule.getDates() != null && rule.getDates().contains(null)) {
+            throw new IllegalArgumentException(prefix + "指定日期不可為空");
+        }
+        if (startOf(rule) == null || endOf(rule) == null) {
+            throw new IllegalArgumentException(prefix + "缺少日期區間");
+        }
+        if (endOf(rule).isBefore(startOf(rule))) {
+            throw new IllegalArgumentException(prefix + "結束日期早於開始日期");
+        }
+        if (ChronoUnit.DAYS.between(startOf(rule), endOf(rule)) + 1 > MAX_RULE_DAYS) {
+            throw new IllegalArgumentException(prefix + "日期區間不可超過 " + MAX_RULE_DAYS + " 天");
+        }
+        if (rule.getDaysOfWeek() != null) {
+            for (Integer day : rule.getDaysOfWeek()) {
+                if (day == null || day < 1 || day > 7) {
+                    throw new IllegalArgumentException(prefix + "星期必須是 1 到 7");
+                }
+            }
+        }
+        if (rule.getPrice() != null && rule.getPricePercent() != null) {
+            throw new IllegalArgumentException(prefix + "價格與調整百分比只能擇一");
+        }
+        if (rule.getPrice() == null && rule.getPricePercent() == null && rule.getStock() == null) {
+            throw new IllegalArgumentException(prefix + "沒有要修改的價格或庫存");
+        }
+        if (rule.getPrice() != null && rule.getPrice() < 0) {
+            throw new IllegalArgumentException(prefix + "價格必須大於等於 0");
+        }
+        if (rule.getPricePercent() != null && rule.getPricePercent() <= -100) {
+            throw new IllegalArgumentException(prefix + "調整百分比必須大於 -100");
+        }
+        if (rule.getStock() != null && rule.getStock() < 0) {
+            throw new IllegalArgumentException(prefix + "庫存必須大於等於 0");
+        }
+        if (rule.isCreateMissing() && (rule.getPrice() == null || rule.getStock() == null)) {
+            throw new IllegalArgumentException(prefix + "新增缺少的日期需要同時指定價格與庫存");
+        }
+    }
+
+    // 房型必須存在，有 userId 時必須是該業主的房型
+    private void checkRooms(Integer userId, Set<Integer> roomIds) {
+        Map<Integer, ImportRoomDto> rooms = new HashMap<>();
+        for (ImportRoomDto room : inventoryRepository.findImportRooms(roomIds)) {
+            rooms.put(room.getRoomId(), room);
+        }
+        for (Integer roomId : roomIds) {
+            ImportRoomDto room = rooms.get(roomId);
+            if (room == null) {
+                throw new IllegalArgumentException("找不到房型 ID: " + roomId);
+            }
+            if (userId != null && !userId.equals(room.getOwnerId())) {
+                throw new IllegalArgumentException("無權限修改房型 ID: " + roomId);
+            }
+        }
+    }
+
+    String updateSql(InventoryCalendarRule rule) {
+        List<String> sets = new ArrayList<>();
+        if (rule.getPrice() != null) {
+            sets.add("price = :price");
+        } else if (rule.getPricePercent() != null) {
+            sets.add("price = CAST(ROUND(price * :priceFactor, 0) AS int)");
+        }
+        if (rule.getStock() != null) {
+            sets.add("stock = :stock");
+        }
+        return "UPDATE inventory SET " + String.join(", ", sets) + " " +
+                "WHERE room_id IN (:roomIds) " +
+                "AND date >= :from AND date <= :to" +
+                dateFilters(rule, "date");
+    }
+
+    // 區間內符合條件、還沒有庫存資料的 (房型, 日期)
+    String insertSql(InventoryCalendarRule rule) {
+        return "WITH days AS (" +
+                "SELECT TOP (:dayCount) DATEADD(day, CAST(ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) AS int) - 1, :from) AS date "
+                +
+                "FROM sys.all_objects a CROSS JOIN sys.all_objects b) " +
+                "INSERT INTO inventory (room_id, date, stock, price, start_date) " +
+                "SELECT r.id, d.date, :stock, :price, CAST(GETDATE() AS date) " +
+                "FROM room r CROSS JOIN days d " +
+                "WHERE r.id IN (:roomIds)" +
+                dateFilters(rule, "d.date") + " " +
+                "AND NOT EXISTS (SELECT 1 FROM inventory i WITH (UPDLOCK, HOLDLOCK) " +
+                "WHERE i.room_id = r.id AND i.date = d.date)";
+    }
+
+    private String dateFilters(InventoryCalendarRule rule, String column) {
+        StringBuilder sql = new StringBuilder();
+        if (rule.getDaysOfWeek() != null && !rule.getDaysOfWeek().isEmpty()) {
+            sql.append(" AND ").append(String.format(DAY_OF_WEEK, column)).append(" IN (:daysOfWeek)");
+        }
+        if (rule.getDates() != null && !rule.getDates().isEmpty()) {
+            sql.append(" AND ").append(column).append(" IN (:dates)");
+        }
+        return sql.toString();
+    }
+
+    MapSqlParameterSource params(InventoryCalendarRule rule) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("roomIds", rule.getRoomIds())
+                .addValue("from", Date.valueOf(startOf(rule)))
+                .addValue("to", Date.valueOf(endOf(rule)))
+                .addValue("dayCount", ChronoUnit.DAYS.between(startOf(rule), endOf(rule)) + 1)
+                .addValue("price", rule.getPrice())
+                .addValue("stock", rule.getStock());
+        if (rule.getPricePercent() != null) {
+            params.addValue("priceFactor", 1 + rule.getPricePercent() / 100);
+        }
+        if (rule.getDaysOfWeek() != null && !rule.getDaysOfWeek().isEmpty()) {
+            params.addValue("daysOfWeek", rule.getDaysOfWeek());
+        }
+        if (rule.getDates() != null && !rule.getDates().isEmpty()) {
+            params.addValue("dates", rule.getDates().stream().map(Date::valueOf).toList());
+        }
+        return params;
+    }
+
+    // 只給 dates 時，區間取 dates 的最早與最晚日期
+    private LocalDate startOf(InventoryCalendarRule rule) {
+        if (rule.getStartDate() == null && rule.getDates() != null && !rule.getDates().isEmpty()) {
+            return Collections.min(rule.getDates());
+        }
+        return rule.getStartDate();
+    }
+
+    private LocalDate endOf(InventoryCalendarRule rule) {
+        if (rule.getEndDate() == null && rule.getDates() != null && !rule.getDates().isEmpty()) {
+            return Collections.max(rule.getDates());
+        }
+        return rule.getEndDate();
+    }
+}
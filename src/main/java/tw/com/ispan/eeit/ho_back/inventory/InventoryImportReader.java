@@ -0,0 +1,293 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportRow;
+
+/**
+ * 庫存匯入檔讀取（CSV / Excel .xlsx）
+ * 逐列讀取交給 consumer 處理，不把整份檔案載入記憶體
+ *
+ * 欄位：roomId, date, price, stock, startDate(可省略)
+ * 第一列若是標題則依標題對應欄位（不分大小寫，也接受 room_id、房型ID、日期、價格、庫存），否則依上列順序
+ */
+@Component
+public class InventoryImportReader {
+
+    private static final String ROOM_ID = "roomid";
+    private static final String DATE = "date";
+    private static final String PRICE = "price";
+    private static final String STOCK = "stock";
+    private static final String START_DATE = "startdate";
+
+    private static final Map<String, String> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("roomid", ROOM_ID), Map.entry("room_id", ROOM_ID), Map.entry("房型id", ROOM_ID),
+            Map.entry("date", DATE), Map.entry("日期", DATE),
+            Map.entry("price", PRICE), Map.entry("價格", PRICE),
+            Map.entry("stock", STOCK), Map.entry("庫存", STOCK),
+            Map.entry("startdate", START_DATE), Map.entry("start_date", START_DATE));
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-M-d"),
+            DateTimeFormatter.ofPattern("yyyy/M/d"),
+            DateTimeFormatter.ofPattern("M/d/yy"));
+
+    public void read(MultipartFile file, Consumer<InventoryImportRow> consumer) throws IOException {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv")) {
+            try (InputStream in = file.getInputStream()) {
+                readCsv(in, consumer);
+            }
+        } else if (name.endsWith(".xlsx")) {
+            // OPCPackage 從檔案開啟才不會把整份 zip 讀進記憶體
+            File temp = Files.createTempFile("inventory-import-", ".xlsx").toFile();
+            try {
+                file.transferTo(temp);
+                readXlsx(temp, consumer);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } else {
+            throw new IllegalArgumentException("只支援 .csv 或 .xlsx 檔案");
+        }
+    }
+
+    /**
+     * CSV 依 RFC 4180 解析：引號內可以有逗號、換行，兩個引號代表一個引號
+     * 列號為該筆資料在檔案中開始的那一行
+     */
+    public void readCsv(InputStream in, Consumer<InventoryImportRow> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowParser parser = new RowParser(consumer);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int rowNumber = lineNumber;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                // Excel 另存的 UTF-8 CSV 帶有 BOM
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            StringBuilder record = new StringBuilder(line);
+            List<String> cells;
+            // 引號還沒結束時，下一行也屬於同一筆資料
+            while ((cells = splitCsv(record)) == null) {
+                String next = reader.readLine();
+                if (next == null) {
+                    throw new IOException("CSV 第 " + rowNumber + " 列的引號沒有結束");
+                }
+                lineNumber++;
+                record.append('\n').append(next);
+            }
+            parser.accept(rowNumber, cells);
+        }
+    }
+
+    public void readXlsx(File file, Consumer<InventoryImportRow> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xssfReader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            // 只讀第一個工作表
+            try (InputStream sheet = sheets.next()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                        new SheetRowHandler(new RowParser(consumer)), new DataFormatter(), false));
+                xmlReader.parse(new InputSource(sheet));
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Excel 檔案讀取失敗: " + e.getMessage(), e);
+        }
+    }
+
+    // 切出一筆 CSV 資料的欄位；引號沒有結束時回傳 null
+    // 沒有引號的欄位去掉前後空白，引號內的內容原樣保留
+    static List<String> splitCsv(CharSequence record) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (inQuotes) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == ',') {
+                cells.add(quoted ? cell.toString() : cell.toString().trim());
+                cell.setLength(0);
+                quoted = false;
+            } else if (c == '"' && !quoted && cell.toString().isBlank()) {
+                // 欄位開頭的引號（前面只有空白）
+                cell.setLength(0);
+                inQuotes = true;
+                quoted = true;
+            } else if (!quoted || !Character.isWhitespace(c)) {
+                // 結束引號後的空白略過，其他字元寬鬆接受
+                cell.append(c);
+            }
+        }
+        if (inQuotes) {
+            return null;
+        }
+        cells.add(quoted ? cell.toString() : cell.toString().trim());
+        return cells;
+    }
+
+    // Excel 逐列事件轉成欄位清單
+    private static final class SheetRowHandler implements SheetContentsHandler {
+        private final RowParser parser;
+        private final List<String> cells = new ArrayList<>();
+
+        SheetRowHandler(RowParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.stream().anyMatch(cell -> cell != null && !cell.isBlank())) {
+                parser.accept(rowNum + 1, cells);
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, formattedValue != null ? formattedValue.trim() : null);
+        }
+    }
+
+    // 第一列判斷是否為標題，之後每列轉成 InventoryImportRow
+    private static final class RowParser {
+        private final Consumer<InventoryImportRow> consumer;
+        private Map<String, Integer> columns;
+
+        RowParser(Consumer<InventoryImportRow> consumer) {
+            this.consumer = consumer;
+        }
+
+        void accept(int rowNumber, List<String> cells) {
+            if (columns == null) {
+                columns = headerColumns(cells);
+                if (columns != null) {
+                    return;
+                }
+                columns = Map.of(ROOM_ID, 0, DATE, 1, PRICE, 2, STOCK, 3, START_DATE, 4);
+            }
+            InventoryImportRow row = new InventoryImportRow();
+            row.setRowNumber(rowNumber);
+            try {
+                row.setRoomId(parseInt(cell(cells, ROOM_ID), "roomId"));
+                row.setDate(parseDate(cell(cells, DATE), "date"));
+                row.setPrice(parseInt(cell(cells, PRICE), "price"));
+                row.setStock(parseInt(cell(cells, STOCK), "stock"));
+                row.setStartDate(parseDate(cell(cells, START_DATE), "startDate"));
+            } catch (IllegalArgumentException e) {
+                row.setError(e.getMessage());
+            }
+            consumer.accept(row);
+        }
+
+        // 不是標題列時回傳 null
+        private Map<String, Integer> headerColumns(List<String> cells) {
+            Map<String, Integer> result = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                String cell = cells.get(i);
+                String key = cell != null ? HEADER_ALIASES.get(cell.trim().toLowerCase(Locale.ROOT)) : null;
+                if (key != null) {
+                    result.put(key, i);
+                }
+            }
+            return result.containsKey(ROOM_ID) && result.containsKey(DATE) ? result : null;
+        }
+
+        private String cell(List<String> cells, String key) {
+            Integer index = columns.get(key);
+            if (index == null || index >= cells.size()) {
+                return null;
+            }
+            String value = cells.get(index);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+
+        private Integer parseInt(String value, String field) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                // Excel 數字格式可能帶千分位或小數點
+                return new BigDecimal(value.replace(",", "")).intValueExact();
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException(field + " 不是整數: " + value);
+            }
+        }
+
+        private LocalDate parseDate(String value, String field) {
+            if (value == null) {
+                return null;
+            }
+            for (DateTimeFormatter format : DATE_FORMATS) {
+                try {
+                    return LocalDate.parse(value, format);
+                } catch (DateTimeParseException e) {
+                    // 試下一種格式
+                }
+            }
+            throw new IllegalArgumentException(field + " 日期格式錯誤: " + value);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package tw.com.ispan.eeit.ho_back.inventory;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ReservedRoomNightDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto;
 import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
 import tw.com.ispan.eeit.ho_back.inventory.dto.RoomStockDto;
 
@@ -42,6 +46,55 @@ public interface InventoryRepository extends JpaRepository<Inventory, Integer>,
                         "HAVING COUNT(DISTINCT i.date) = :#{#query.night}")
         List<Integer> findAvailableHotelIds(HotelQueryDto query);
 
+        // 只用飯店本身的條件(關鍵字、星級、飯店型態)篩選，庫存條件交給可訂房索引
+        @Query("SELECT h.id " +
+                        "FROM Hotel h " +
+                        "LEFT JOIN h.hotelType ht " +
+                        "LEFT JOIN h.district d " +
+                        "LEFT JOIN d.city c " +
+                        "WHERE (h.name LIKE %:#{#query.keyword}% OR " +
+                        "     c.name LIKE %:#{#query.keyword}% OR " +
+                        "     d.name LIKE %:#{#query.keyword}%) " +
+                        "AND (:#{#query.starRating} IS NULL OR h.starRating >= :#{#query.starRating})  " +
+                        "AND (:#{#query.hotelTypes} IS NULL OR ht.id IN :#{#query.hotelTypes})")
+        List<Integer> findCandidateHotelIds(HotelQueryDto query);
+
+        // 可訂房索引載入用：日期區間內所有房型每晚的庫存與價格
+        @Query("SELECT new tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto(r.id, h.id, r.maxOccupancy, i.date, i.stock, i.price) "
+                        +
+                        "FROM Inventory i " +
+                        "JOIN i.room r " +
+                        "JOIN r.hotel h " +
+                        "WHERE i.date >= :from " +
+                        "AND i.date < :to")
+        List<RoomNightDto> findRoomNightsBetween(LocalDate from, LocalDate to);
+
+        // 批次修改後重新讀取指定房型區間內的庫存，用來更新可訂房索引
+        @Query("SELECT new tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto(r.id, h.id, r.maxOccupancy, i.date, i.stock, i.price) "
+                        +
+                        "FROM Inventory i " +
+                        "JOIN i.room r " +
+                        "JOIN r.hotel h " +
+                        "WHERE r.id IN :roomIds " +
+                        "AND i.date >= :from " +
+                        "AND i.date <= :to")
+        List<RoomNightDto> findRoomNightsForRooms(Collection<Integer> roomIds, LocalDate from, LocalDate to);
+
+        // 庫存匯入：一次取得所有房型的飯店與業主
+        @Query("SELECT new tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto(r.id, h.id, h.userId, r.maxOccupancy) "
+                        +
+                        "FROM Room r " +
+                        "JOIN r.hotel h " +
+                        "WHERE r.id IN :roomIds")
+        List<ImportRoomDto> findImportRooms(Collection<Integer> roomIds);
+
+        // 庫存匯入：區間內已存在的 (房型, 日期)，用來區分新增或更新
+        @Query("SELECT i.room.id, i.date FROM Inventory i " +
+                        "WHERE i.room.id IN :roomIds " +
+                        "AND i.date >= :from " +
+                        "AND i.date <= :to")
+        List<Object[]> findExistingRoomDates(Collection<Integer> roomIds, LocalDate from, LocalDate to);
+
         // 設施篩選
         @Query("SELECT DISTINCT h.id " +
                         "FROM Hotel h " +
@@ -110,10 +163,34 @@ public interface InventoryRepository extends JpaRepository<Inventory, Integer>,
                         "AND i.date < :#{#query.checkOutDate} ")
         List<Integer> findByroomIdAndDate(Integer roomId, HotelQueryDto query);
 
-        // 減庫存
+        // 減庫存，回傳影響筆數（庫存不足時為 0）
         @Modifying
         @Query("UPDATE Inventory i SET i.stock = i.stock - :quantityToDecrement WHERE i.id = :inventoryId AND i.stock >= :quantityToDecrement")
-        void decrementStockByQuantity(Integer inventoryId, Integer quantityToDecrement);
+        int decrementStockByQuantity(Integer inventoryId, Integer quantityToDecrement);
+
+        // 訂房一次扣除多晚庫存，回傳影響筆數，少於 inventoryIds 數量代表有某晚庫存不足
+        @Modifying
+        @Query("UPDATE Inventory i SET i.stock = i.stock - :quantity WHERE i.id IN :inventoryIds AND i.stock >= :quantity")
+        int reserveStock(List<Integer> inventoryIds, Integer quantity);
+
+        // 訂單占用的房晚（同一筆庫存合併）
+        @Query("SELECT new tw.com.ispan.eeit.ho_back.inventory.dto.ReservedRoomNightDto(i.id, i.room.id, i.date, SUM(bi.number)) "
+                        +
+                        "FROM BookingInventory bi " +
+                        "JOIN bi.inventory i " +
+                        "WHERE bi.bookingId IN :bookingIds " +
+                        "GROUP BY i.id, i.room.id, i.date")
+        List<ReservedRoomNightDto> findReservedRoomNights(List<Integer> bookingIds);
+
+        // 歸還訂單占用的庫存，一個 UPDATE 處理所有訂單
+        @Modifying
+        @Query(value = "UPDATE i SET i.stock = i.stock + x.quantity " +
+                        "FROM inventory i " +
+                        "JOIN (SELECT inventory_id, SUM(number) AS quantity " +
+                        "      FROM booking_inventory " +
+                        "      WHERE booking_id IN (:bookingIds) " +
+                        "      GROUP BY inventory_id) x ON x.inventory_id = i.id", nativeQuery = true)
+        int restoreStockForBookings(List<Integer> bookingIds);
 
         // ✅ 改為 LocalDate
         Optional<Inventory> findByRoom_IdAndDate(Integer roomId, LocalDate date);
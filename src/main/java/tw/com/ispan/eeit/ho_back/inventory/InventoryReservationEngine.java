@@ -0,0 +1,86 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.transaction.Transactional;
+import tw.com.ispan.eeit.ho_back.common.exception.InsufficientStockException;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ReservedRoomNightDto;
+
+/**
+ * 訂房扣庫存與歸還
+ * 一筆訂單所有晚數的庫存以 set-based UPDATE 一次扣除，並核對影響筆數
+ *
+ * - UPDATE 條件含 stock >= 數量，資料庫逐列判斷，不依賴先前讀到的 stock
+ * - 影響筆數少於晚數代表有某一晚已被搶先訂走，拋出 InsufficientStockException 讓整筆訂單回滾
+ * - 同數量的晚數合併成一個 UPDATE，依 inventory id 排序，多筆訂單同時扣庫存時鎖定順序一致
+ * - 取消或逾期未付款時，多筆訂單的庫存以一個 UPDATE 歸還
+ */
+@Component
+public class InventoryReservationEngine {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryAvailabilityIndex availabilityIndex;
+
+    public InventoryReservationEngine(InventoryRepository inventoryRepository,
+            InventoryAvailabilityIndex availabilityIndex) {
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    /**
+     * 扣除庫存，必須在訂單交易內呼叫
+     *
+     * @param quantities inventory id → 扣除數量
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void reserve(Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, List<Integer>> group : groupByQuantity(quantities).entrySet()) {
+            List<Integer> inventoryIds = group.getValue();
+            int updated = inventoryRepository.reserveStock(inventoryIds, group.getKey());
+            if (updated != inventoryIds.size()) {
+                throw new InsufficientStockException();
+            }
+        }
+    }
+
+    /**
+     * 歸還訂單占用的庫存，必須在交易內呼叫，且呼叫端需確保這些訂單只會歸還一次
+     *
+     * @return 歸還的房晚數
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public int release(List<Integer> bookingIds) {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            return 0;
+        }
+        List<ReservedRoomNightDto> nights = inventoryRepository.findReservedRoomNights(bookingIds);
+        if (nights.isEmpty()) {
+            return 0;
+        }
+        inventoryRepository.restoreStockForBookings(bookingIds);
+        int roomNights = 0;
+        for (ReservedRoomNightDto night : nights) {
+            int quantity = night.getQuantity().intValue();
+            availabilityIndex.onStockRestored(night.getRoomId(), night.getDate(), quantity);
+            roomNights += quantity;
+        }
+        return roomNights;
+    }
+
+    // 數量 → 排序後的 inventory id
+    private Map<Integer, List<Integer>> groupByQuantity(Map<Integer, Integer> quantities) {
+        Map<Integer, List<Integer>> groups = new TreeMap<>();
+        new TreeMap<>(quantities).forEach((inventoryId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("房間數量必須大於0");
+            }
+            groups.computeIfAbsent(quantity, q -> new ArrayList<>()).add(inventoryId);
+        });
+        return groups;
+    }
+}
@@ -2,13 +2,14 @@ package tw.com.ispan.eeit.ho_back.inventory;
 
 import tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto;
 import tw.com.ispan.eeit.ho_back.hotel.HotelRepository;
+import tw.com.ispan.eeit.ho_back.hotel.HotelStarRatingProjection;
 import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportReport;
 import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
 import tw.com.ispan.eeit.ho_back.inventory.dto.SearchResultDto;
-import tw.com.ispan.eeit.ho_back.photo.Photo;
+import tw.com.ispan.eeit.ho_back.photo.HotelCoverPhotoDto;
 import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
-import tw.com.ispan.eeit.ho_back.review.HotelReviewDto;
-import tw.com.ispan.eeit.ho_back.review.ReviewRepository;
+import tw.com.ispan.eeit.ho_back.review.HotelRatingService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -21,7 +22,6 @@ import java.util.HashMap;
 
 import java.util.Map;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -43,14 +43,18 @@ public class InventoryService {
     private RoomRepository roomRepository;
 
     @Autowired
-    ReviewRepository reviewRepository;
+    HotelRatingService hotelRatingService;
 
     @Autowired
     HotelRepository hotelRepository;
     @Autowired
-    ModelMapper modelMapper;
+    SearchResultMapper searchResultMapper;
     @Autowired
     PhotoRepository photoRepository;
+    @Autowired
+    InventoryAvailabilityIndex availabilityIndex;
+    @Autowired
+    InventoryBulkImportService bulkImportService;
 
     public List<Inventory> findByQuery(Integer userId, InventoryFindDTO query) {
         // 1. 建立排序
@@ -128,7 +132,9 @@ public class InventoryService {
                 update.setStock(stock);
                 update.setPrice(price);
 
-                return this.inventoryRepository.save(update);
+                Inventory saved = this.inventoryRepository.save(update);
+                availabilityIndex.onInventorySaved(saved);
+                return saved;
             }
 
         } catch (Exception e) {
@@ -143,6 +149,7 @@ public class InventoryService {
                 Optional<Inventory> optional = this.inventoryRepository.findById(id);
                 if (optional != null && optional.isPresent()) {
                     this.inventoryRepository.deleteById(id);
+                    availabilityIndex.onInventoryRemoved(optional.get());
                     return true;
                 }
             } catch (Exception e) {
@@ -174,25 +181,19 @@ public class InventoryService {
                         "找不到 room id: " + request.getRoomId()));
         inventory.setRoom(room);
 
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        availabilityIndex.onInventorySaved(saved);
+        return saved;
     }
 
+    // 批次新增：(房型, 日期) 已存在時改為更新；任一列有誤則整批不寫入
     @Transactional
-    public void insertRange(List<InventoryRequest> list) {
-        for (InventoryRequest request : list) {
-            // ✅ 將 DTO 轉換成 Entity
-            Inventory bean = new Inventory();
-            bean.setStock(request.getStock());
-            bean.setPrice(request.getPrice());
-            bean.setDate(request.getDate()); // LocalDate
-
-            // ✅ 處理 Room 關聯
-            Room room = roomRepository.findById(request.getRoomId())
-                    .orElseThrow(() -> new RuntimeException("找不到房型 ID: " + request.getRoomId()));
-            bean.setRoom(room);
-
-            inventoryRepository.insert(bean);
+    public InventoryImportReport insertRange(List<InventoryRequest> list) {
+        InventoryImportReport report = bulkImportService.importRequests(null, list);
+        if (report.getFailed() > 0) {
+            throw new RuntimeException(report.firstError());
         }
+        return report;
     }
 
     public List<Inventory> findStockBetweenDates(LocalDate start, LocalDate end) {
@@ -204,12 +205,17 @@ public class InventoryService {
         return inventory;
     }
 
+    // 可訂房索引可用時只查飯店本身條件，庫存條件由索引判斷；否則走原本的 JPQL
     public List<Integer> findAvailableHotelIds(HotelQueryDto query) {
+        if (availabilityIndex.canServe(query)) {
+            List<Integer> candidateHotelIds = inventoryRepository.findCandidateHotelIds(query);
+            return availabilityIndex.findAvailableHotelIds(candidateHotelIds, query);
+        }
         return inventoryRepository.findAvailableHotelIds(query);
     }
 
     public List<Integer> filterHotelsByFacilities(HotelQueryDto query) {
-        List<Integer> hotelIds = inventoryRepository.findAvailableHotelIds(query);
+        List<Integer> hotelIds = findAvailableHotelIds(query);
         if (query.getFacilities() != null && !query.getFacilities().isEmpty()) {
             hotelIds = inventoryRepository.filterHotelsByFacilities(hotelIds, query);
         }
@@ -217,7 +223,7 @@ public class InventoryService {
     }
 
     List<RoomPriceDto> findRoomPriceByHotel(HotelQueryDto query) {
-        List<Integer> hotelIds = inventoryRepository.findAvailableHotelIds(query);
+        List<Integer> hotelIds = findAvailableHotelIds(query);
         if (query.getFacilities() != null && !query.getFacilities().isEmpty()) {
             hotelIds = inventoryRepository.filterHotelsByFacilities(hotelIds, query);
         }
@@ -225,10 +231,14 @@ public class InventoryService {
     }
 
     // 返回搜尋結果
+    // 先用排序鍵排序、分頁，只組當頁的飯店資訊、房型明細、封面照片與評分
+    // 索引能回答時，可訂判斷、最低價與排序鍵都來自索引，不對全部候選飯店執行 findRoomPriceByHotels
     public Map<String, Object> searchHotel(HotelQueryDto query) {
-        List<SearchResultDto> searchResults = new ArrayList<>();
         System.out.println("query" + query);
-        List<Integer> hotelIds = inventoryRepository.findAvailableHotelIds(query);
+        boolean fromIndex = availabilityIndex.canServe(query);
+        List<Integer> hotelIds = fromIndex
+                ? availabilityIndex.findAvailableHotelIds(inventoryRepository.findCandidateHotelIds(query), query)
+                : inventoryRepository.findAvailableHotelIds(query);
         System.out.println(hotelIds);
         if (hotelIds.isEmpty()) {
             return null;
@@ -236,121 +246,148 @@ public class InventoryService {
         if (query.getFacilities() != null && !query.getFacilities().isEmpty()) {
             hotelIds = inventoryRepository.filterHotelsByFacilities(hotelIds, query);
         }
-        List<HotelDetailDto> hotelDetails = hotelRepository.findHotelDetail(hotelIds);
-        List<RoomPriceDto> roomPrices = inventoryRepository.findRoomPriceByHotels(hotelIds, query);
-        List<HotelReviewDto> reviews = reviewRepository.findReviewsByHotelIds(hotelIds);
 
-        // 取得各個飯店所有房型的價格
-        Map<Integer, List<RoomPriceDto>> hotelsRoomsPrices = new HashMap<>();
-        for (RoomPriceDto roomPrice : roomPrices) {
-            Integer hotelId = roomPrice.getHotelId();
-            if (!hotelsRoomsPrices.containsKey(hotelId)) {
-                hotelsRoomsPrices.put(hotelId, new ArrayList<>());
+        // 取得各個飯店最便宜的房型，沒有單一房型住滿全程的飯店不列入結果
+        Map<Integer, RoomPriceDto> cheapestRooms = fromIndex
+                ? availabilityIndex.findCheapestRooms(hotelIds, query)
+                : findCheapestRooms(hotelIds, query);
+        List<Integer> resultIds = new ArrayList<>();
+        for (Integer hotelId : hotelIds) {
+            if (cheapestRooms.containsKey(hotelId)) {
+                resultIds.add(hotelId);
             }
-            hotelsRoomsPrices.get(hotelId).add(roomPrice);
         }
 
-        // 算平均分數
-        // <HotelId,[sum, count]>
-        Map<Integer, Integer[]> hotelRatingMap = new HashMap<>();
-        if (!reviews.isEmpty()) {
-            for (HotelReviewDto review : reviews) {
-                Integer hotelId = review.getHotelId();
-                Integer rating = review.getRating();
-                if (!hotelRatingMap.containsKey(hotelId)) {
-                    hotelRatingMap.put(hotelId, new Integer[] { rating, 1 });
-                } else {
-                    Integer[] arr = hotelRatingMap.get(hotelId);
-                    arr[0] += rating;
-                    arr[1]++;
-                }
-            }
+        // 排序
+        Map<Integer, Double> hotelAvgRating = null;
+        if ("rating".equalsIgnoreCase(query.getSortBy())) {
+            hotelAvgRating = findAvgRatings(resultIds);
         }
-        Map<Integer, Double> hotelAvgRating = new HashMap<>();
-        for (Map.Entry<Integer, Integer[]> entry : hotelRatingMap.entrySet()) {
-            Integer hotelId = entry.getKey();
-            Integer sumRating = entry.getValue()[0];
-            Integer ratingCount = entry.getValue()[1];
-            Double avgRating = (double) sumRating / ratingCount;
-            hotelAvgRating.put(hotelId, avgRating);
+        sortResults(resultIds, query, cheapestRooms, hotelAvgRating);
+
+        // 分頁
+        Integer totalElement = resultIds.size();
+        List<Integer> pageIds = paginateResults(resultIds, query.getPage(), query.getSize());
+        if (hotelAvgRating == null) {
+            hotelAvgRating = findAvgRatings(pageIds);
         }
 
-        // 把飯店資訊、房型、價格、平均分數加到搜尋結果
-        for (HotelDetailDto hotelDetail : hotelDetails) {
-            // 加照片到搜尋結果
-            Photo coverPhoto = photoRepository.findFirstByHotelIdAndIsCoverTrue(hotelDetail.getHotelId());
-            if (coverPhoto != null) {
-                hotelDetail.setPhotoUrl(coverPhoto.getUrl());
-            } else {
-                hotelDetail.setPhotoUrl("no-image.jpg");
+        // 只組當頁的搜尋結果
+        List<SearchResultDto> searchResults = new ArrayList<>();
+        if (!pageIds.isEmpty()) {
+            Map<Integer, RoomPriceDto> pageRooms = fromIndex
+                    ? findPageRooms(pageIds, query, cheapestRooms)
+                    : cheapestRooms;
+            Map<Integer, HotelDetailDto> hotelDetails = new HashMap<>();
+            for (HotelDetailDto hotelDetail : hotelRepository.findHotelDetail(pageIds)) {
+                hotelDetails.put(hotelDetail.getHotelId(), hotelDetail);
+            }
+            Map<Integer, String> coverPhotos = new HashMap<>();
+            for (HotelCoverPhotoDto coverPhoto : photoRepository.findCoverPhotosByHotelIds(pageIds)) {
+                coverPhotos.putIfAbsent(coverPhoto.getHotelId(), coverPhoto.getUrl());
             }
-            // 加入hotelDetail
-            SearchResultDto searchResult = modelMapper.map(hotelDetail, SearchResultDto.class);
-            List<RoomPriceDto> hotelRoomPrices = hotelsRoomsPrices.get(hotelDetail.getHotelId());
-            RoomPriceDto minRoomPrice = hotelRoomPrices.get(0);
-            for (RoomPriceDto hotelRoomPrice : hotelRoomPrices) {
-                if (hotelRoomPrice.getPartPrice() < minRoomPrice.getPartPrice()) {
-                    minRoomPrice = hotelRoomPrice;
+            for (Integer hotelId : pageIds) {
+                HotelDetailDto hotelDetail = hotelDetails.get(hotelId);
+                RoomPriceDto room = pageRooms.get(hotelId);
+                if (hotelDetail == null || room == null) {
+                    continue;
                 }
+                searchResults.add(searchResultMapper.toSearchResult(
+                        hotelDetail,
+                        room,
+                        coverPhotos.getOrDefault(hotelId, "no-image.jpg"),
+                        hotelAvgRating.getOrDefault(hotelId, 0.0),
+                        query.getNight()));
             }
-            modelMapper.map(minRoomPrice, searchResult);
-
-            Double avgRating = hotelAvgRating.getOrDefault(hotelDetail.getHotelId(),
-                    0.0);
-            searchResult.setAvgRating(avgRating);
-            searchResult.setNight(query.getNight());
-            searchResults.add(searchResult);
         }
 
-        Integer totalElement = searchResults.size();
-        // 排序
-        sortResults(searchResults, query.getSortBy(), query.getSortOrder());
-        searchResults = paginateResults(searchResults, query.getPage(), query.getSize());
-
         Map<String, Object> result = new HashMap<>();
         result.put("totalElement", totalElement);
         result.put("searchResults", searchResults);
         return result;
     }
 
-    // 排序
-    private void sortResults(List<SearchResultDto> results, String sortBy, String sortOrder) {
-        Comparator<SearchResultDto> comparator = null;
+    // 每間飯店最便宜的房型
+    private Map<Integer, RoomPriceDto> findCheapestRooms(List<Integer> hotelIds, HotelQueryDto query) {
+        Map<Integer, RoomPriceDto> cheapestRooms = new HashMap<>();
+        if (hotelIds.isEmpty()) {
+            return cheapestRooms;
+        }
+        for (RoomPriceDto roomPrice : inventoryRepository.findRoomPriceByHotels(hotelIds, query)) {
+            RoomPriceDto current = cheapestRooms.get(roomPrice.getHotelId());
+            if (current == null || roomPrice.getPartPrice() < current.getPartPrice()) {
+                cheapestRooms.put(roomPrice.getHotelId(), roomPrice);
+            }
+        }
+        return cheapestRooms;
+    }
+
+    // 索引只有價格與入住人數，當頁飯店再查一次房型明細，取索引選出的房型
+    // 索引與資料庫短暫不一致時改用資料庫中最便宜的房型；資料庫已沒有可訂房型的飯店不列出
+    private Map<Integer, RoomPriceDto> findPageRooms(List<Integer> pageIds, HotelQueryDto query,
+            Map<Integer, RoomPriceDto> cheapestRooms) {
+        Map<Integer, RoomPriceDto> pageRooms = new HashMap<>();
+        for (RoomPriceDto roomPrice : inventoryRepository.findRoomPriceByHotels(pageIds, query)) {
+            Integer hotelId = roomPrice.getHotelId();
+            Integer indexedRoomId = cheapestRooms.get(hotelId).getRoomId();
+            RoomPriceDto current = pageRooms.get(hotelId);
+            if (current == null || roomPrice.getRoomId().equals(indexedRoomId)) {
+                pageRooms.put(hotelId, roomPrice);
+            } else if (!current.getRoomId().equals(indexedRoomId)
+                    && roomPrice.getPartPrice() < current.getPartPrice()) {
+                pageRooms.put(hotelId, roomPrice);
+            }
+        }
+        return pageRooms;
+    }
+
+    // 平均分數直接讀評分彙總表
+    private Map<Integer, Double> findAvgRatings(List<Integer> hotelIds) {
+        return hotelRatingService.getAvgRatings(hotelIds);
+    }
+
+    // 排序：只比較排序鍵，不需要先組好搜尋結果
+    private void sortResults(List<Integer> hotelIds, HotelQueryDto query,
+            Map<Integer, RoomPriceDto> cheapestRooms, Map<Integer, Double> hotelAvgRating) {
+        String sortBy = query.getSortBy() != null ? query.getSortBy() : "";
+        Comparator<Integer> comparator = null;
         switch (sortBy.toLowerCase()) {
             case "price":
-                comparator = (a, b) -> Long.compare(
-                        a.getPartPrice() != null ? a.getPartPrice() : 0L,
-                        b.getPartPrice() != null ? b.getPartPrice() : 0L);
+                comparator = Comparator.comparingLong(hotelId -> {
+                    Long partPrice = cheapestRooms.get(hotelId).getPartPrice();
+                    return partPrice != null ? partPrice : 0L;
+                });
                 break;
             case "rating":
-                comparator = (a, b) -> Double.compare(
-                        a.getAvgRating() != null ? a.getAvgRating() : 0.0,
-                        b.getAvgRating() != null ? b.getAvgRating() : 0.0);
+                comparator = Comparator.comparingDouble(hotelId -> hotelAvgRating.getOrDefault(hotelId, 0.0));
                 break;
             case "starrating":
-                comparator = (a, b) -> Integer.compare(
-                        a.getStarRating() != null ? a.getStarRating() : 0,
-                        b.getStarRating() != null ? b.getStarRating() : 0);
+                Map<Integer, Integer> starRatings = new HashMap<>();
+                for (HotelStarRatingProjection hotel : hotelRepository.findStarRatings(hotelIds)) {
+                    starRatings.put(hotel.getHotelId(), hotel.getStarRating() != null ? hotel.getStarRating() : 0);
+                }
+                comparator = Comparator.comparingInt(hotelId -> starRatings.getOrDefault(hotelId, 0));
                 break;
             case "maxoccupancy":
-                comparator = (a, b) -> Integer.compare(
-                        a.getMaxOccupancy() != null ? a.getMaxOccupancy() : 0,
-                        b.getMaxOccupancy() != null ? b.getMaxOccupancy() : 0);
+                comparator = Comparator.comparingInt(hotelId -> {
+                    Integer maxOccupancy = cheapestRooms.get(hotelId).getMaxOccupancy();
+                    return maxOccupancy != null ? maxOccupancy : 0;
+                });
                 break;
             default:
                 return;
         }
 
         // 處理排序方向
-        if ("desc".equalsIgnoreCase(sortOrder)) {
+        if ("desc".equalsIgnoreCase(query.getSortOrder())) {
             comparator = comparator.reversed();
         }
 
-        results.sort(comparator);
+        hotelIds.sort(comparator);
     }
 
     // 分頁
-    private List<SearchResultDto> paginateResults(List<SearchResultDto> allResults, Integer page, Integer size) {
+    private <T> List<T> paginateResults(List<T> allResults, Integer page, Integer size) {
         int totalElements = allResults.size();
         int fromIndex = page * size;
         int toIndex = Math.min(fromIndex + size, totalElements);
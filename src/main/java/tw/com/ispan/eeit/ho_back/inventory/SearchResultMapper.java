@@ -0,0 +1,40 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import org.springframework.stereotype.Component;
+
+import tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.SearchResultDto;
+
+/**
+ * 搜尋結果 DTO 轉換
+ * 搜尋每次要轉換整頁結果，直接手寫欄位對應，不透過 ModelMapper 反射
+ */
+@Component
+public class SearchResultMapper {
+
+    public SearchResultDto toSearchResult(HotelDetailDto hotel, RoomPriceDto cheapestRoom, String photoUrl,
+            Double avgRating, Integer night) {
+        SearchResultDto result = new SearchResultDto();
+        // 飯店資訊
+        result.setHotelId(hotel.getHotelId());
+        result.setHotelName(hotel.getHotelName());
+        result.setCity(hotel.getCity());
+        result.setDistrict(hotel.getDistrict());
+        result.setAddress(hotel.getAddress());
+        result.setStarRating(hotel.getStarRating());
+        result.setLatitude(hotel.getLatitude());
+        result.setLongitude(hotel.getLongitude());
+        result.setPhotoUrl(photoUrl);
+        // 最便宜的房型
+        result.setRoomType(cheapestRoom.getRoomType());
+        result.setBedType(cheapestRoom.getBedType());
+        result.setBedNumber(cheapestRoom.getBedNumber());
+        result.setPartPrice(cheapestRoom.getPartPrice());
+        result.setMaxOccupancy(cheapestRoom.getMaxOccupancy());
+
+        result.setAvgRating(avgRating);
+        result.setNight(night);
+        return result;
+    }
+}
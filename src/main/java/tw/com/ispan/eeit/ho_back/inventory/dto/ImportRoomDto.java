@@ -0,0 +1,16 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 庫存匯入用：房型所屬飯店與業主
+ */
+@Data
+@AllArgsConstructor
+public class ImportRoomDto {
+    private Integer roomId;
+    private Integer hotelId;
+    private Integer ownerId;
+    private Integer maxOccupancy;
+}
@@ -0,0 +1,32 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 庫存日曆規則套用結果
+ */
+@Data
+public class InventoryCalendarResult {
+    private int updated;
+    private int inserted;
+    private List<RuleResult> rules = new ArrayList<>();
+
+    public void add(int updated, int inserted) {
+        this.updated += updated;
+        this.inserted += inserted;
+        rules.add(new RuleResult(rules.size() + 1, updated, inserted));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RuleResult {
+        // 第幾條規則（從 1 開始）
+        private int rule;
+        private int updated;
+        private int inserted;
+    }
+}
@@ -0,0 +1,30 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 庫存日曆規則：一組房型在日期區間內符合條件的每一晚套用同樣的價格 / 庫存
+ *
+ * 例：七月週末 price=4200、stock=5 → startDate=07-01, endDate=07-31, daysOfWeek=[6,7]
+ * 例：連假 +10% → dates=[...], pricePercent=10
+ */
+@Data
+public class InventoryCalendarRule {
+    private List<Integer> roomIds;
+    // 日期區間（含頭尾），只給 dates 時可省略
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // 星期幾（1=週一 ... 7=週日），未指定表示每天
+    private List<Integer> daysOfWeek;
+    // 指定日期（例如國定假日），未指定表示區間內每天
+    private List<LocalDate> dates;
+    // 價格：直接指定，或依目前價格調整百分比（10 = 加價 10%，-20 = 打八折），二擇一
+    private Integer price;
+    private Double pricePercent;
+    private Integer stock;
+    // 沒有庫存資料的日期是否新增（需同時指定 price 與 stock）
+    private boolean createMissing;
+}
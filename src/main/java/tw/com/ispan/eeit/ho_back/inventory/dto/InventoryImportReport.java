@@ -0,0 +1,55 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 庫存匯入結果：總數與每一列的處理結果
+ */
+@Data
+public class InventoryImportReport {
+
+    public static final String INSERTED = "INSERTED";
+    public static final String UPDATED = "UPDATED";
+    public static final String FAILED = "FAILED";
+
+    private int total;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void add(int rowNumber, Integer roomId, LocalDate date, String status, String message) {
+        total++;
+        switch (status) {
+            case INSERTED -> inserted++;
+            case UPDATED -> updated++;
+            default -> failed++;
+        }
+        rows.add(new RowResult(rowNumber, roomId, date, status, message));
+    }
+
+    // 第一筆失敗的原因
+    public String firstError() {
+        for (RowResult row : rows) {
+            if (FAILED.equals(row.getStatus())) {
+                return "第 " + row.getRowNumber() + " 列：" + row.getMessage();
+            }
+        }
+        return null;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowResult {
+        private int rowNumber;
+        private Integer roomId;
+        private LocalDate date;
+        private String status;
+        private String message;
+    }
+}
@@ -0,0 +1,21 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+/**
+ * 庫存匯入的一列資料
+ * 解析失敗時 error 有值，其餘欄位可能為 null
+ */
+@Data
+public class InventoryImportRow {
+    // 檔案中的列號（從 1 開始，含標題列）
+    private int rowNumber;
+    private Integer roomId;
+    private LocalDate date;
+    private Integer price;
+    private Integer stock;
+    private LocalDate startDate;
+    private String error;
+}
@@ -0,0 +1,18 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 訂單占用的房晚：某一筆庫存被訂走的房間數
+ */
+@Data
+@AllArgsConstructor
+public class ReservedRoomNightDto {
+    private Integer inventoryId;
+    private Integer roomId;
+    private LocalDate date;
+    private Long quantity;
+}
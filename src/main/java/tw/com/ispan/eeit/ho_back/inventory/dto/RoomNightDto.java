@@ -0,0 +1,20 @@
+package tw.com.ispan.eeit.ho_back.inventory.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 可訂房索引載入用：單一房型單一日期的庫存與價格
+ */
+@Data
+@AllArgsConstructor
+public class RoomNightDto {
+    private Integer roomId;
+    private Integer hotelId;
+    private Integer maxOccupancy;
+    private LocalDate date;
+    private Integer stock;
+    private Integer price;
+}
@@ -9,12 +9,15 @@ import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters;
 import tw.com.ispan.eeit.ho_back.audit_logs.RequestContext;
 import tw.com.ispan.eeit.ho_back.common.PageResponse;
 import tw.com.ispan.eeit.ho_back.util.OwnerAuthHelper;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +33,8 @@ public class ModerationActionController {
     private final EntityManager entityManager;
     private final RequestContext requestContext;
     private final OwnerAuthHelper ownerAuthHelper;
+    private final AnalyticsTodayCounters todayCounters;
+    private final ReviewSchemaResolver schemaResolver;
 
     /**
      * 將 ModerationAction 轉換為 DTO 並設置 reasonDescription
@@ -70,6 +75,51 @@ public class ModerationActionController {
         return ResponseEntity.ok(PageResponse.of(dtoPage));
     }
 
+    /**
+     * 審核佇列（伺服器端篩選 + 游標分頁）
+     * GET /api/moderation-actions/queue?status=PENDING&reason=SPAM&actionTaken=NONE&moderatorId=1
+     * &from=2025-11-01&to=2025-11-30&size=20&cursor={nextCursor}
+     * 日期區間包含 to 當天
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<?> queue(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) String actionTaken,
+            @RequestParam(required = false) Long moderatorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            ModerationQueueQuery query = new ModerationQueueQuery();
+            query.setStatus(parseEnum(Status.class, status, "審核狀態"));
+            query.setReason(parseEnum(Reason.class, reason, "舉報原因"));
+            query.setActionTaken(parseEnum(ActionTaken.class, actionTaken, "處理方式"));
+            query.setModeratorId(moderatorId);
+            query.setFrom(from != null ? from.atStartOfDay() : null);
+            query.setTo(to != null ? to.plusDays(1).atStartOfDay() : null);
+            return ResponseEntity.ok(service.queue(query, cursor, size).map(this::toDTO));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // 篩選值只接受 enum 名稱（不分大小寫），未指定時回傳 null
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支援的" + label + ": " + value);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ModerationActionDTO> get(@PathVariable Long id) {
         ModerationAction data = service.get(id);
@@ -192,104 +242,43 @@ public class ModerationActionController {
      * 
      * 實現說明：
      * - 此方法用於後台查看詳情，即使 is_visible = 0（隱藏的評論），後台仍能查詢到內容
-     * - 會嘗試多個可能的表名和欄位名稱以確保兼容性
-     * - 支援多種可能的評論內容欄位名稱（comment, content, text, message 等）
+     * - 表名與評論內容欄位由 ReviewSchemaResolver 啟動時解析，這裡只執行一次查詢
      * - 如果查詢失敗，會返回錯誤信息
      */
     @GetMapping("/review/{reviewId}")
     public ResponseEntity<Map<String, Object>> getReviewContent(@PathVariable Long reviewId) {
-        // 嘗試多個可能的表名（SQL Server 可能需要方括號）
-        String[] possibleTableNames = { "[review]", "review", "[reviews]", "reviews" };
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "無法獲取評論內容");
+        try {
+            ReviewSchemaResolver.ReviewStatements review = schemaResolver.review();
+            if (!review.tableFound()) {
+                error.put("message", "找不到 review 表，請確認資料庫表名是否正確");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            }
 
-        Exception lastException = null;
+            Query query = entityManager.createNativeQuery(review.selectContentSql());
+            query.setParameter("reviewId", reviewId);
 
-        for (String tableName : possibleTableNames) {
-            try {
-                // 方法1: 先查詢 INFORMATION_SCHEMA 找出實際存在的欄位
-                String cleanTableName = tableName.replace("[", "").replace("]", "");
-                String checkColumnsSql = "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS " +
-                        "WHERE TABLE_NAME = :tableName AND " +
-                        "COLUMN_NAME IN ('comment', 'content', 'text', 'message', 'review_text', 'review_content', 'comment_text', 'description', 'body')";
-
-                Query checkQuery = entityManager.createNativeQuery(checkColumnsSql);
-                checkQuery.setParameter("tableName", cleanTableName);
-
-                @SuppressWarnings("unchecked")
-                List<String> availableColumns = checkQuery.getResultList();
-
-                if (!availableColumns.isEmpty()) {
-                    // 使用第一個找到的欄位
-                    String columnName = availableColumns.get(0);
-                    String sql = "SELECT id, [" + columnName + "] FROM " + tableName + " WHERE id = :reviewId";
-
-                    Query query = entityManager.createNativeQuery(sql);
-                    query.setParameter("reviewId", reviewId);
-
-                    @SuppressWarnings("unchecked")
-                    List<Object[]> results = query.getResultList();
-
-                    if (results != null && !results.isEmpty()) {
-                        Object[] result = results.get(0);
-                        String comment = result[1] != null ? result[1].toString().trim() : "";
-
-                        // 查詢到記錄就返回，即使內容為空（前端會顯示 "(無)"）
-                        Map<String, Object> reviewData = new HashMap<>();
-                        reviewData.put("id", result[0]);
-                        reviewData.put("comment", comment);
-                        reviewData.put("content", comment);
-                        reviewData.put("text", comment);
-                        reviewData.put("message", comment);
-                        return ResponseEntity.ok(reviewData);
-                    }
-                }
+            @SuppressWarnings("unchecked")
+            List<Object[]> results = query.getResultList();
 
-                // 方法2: 如果找不到欄位，嘗試直接查詢所有可能的欄位（使用 COALESCE）
-                String sql = "SELECT TOP 1 id, " +
-                        "COALESCE([comment], [content], [text], [message], [review_text], [review_content], [comment_text], [description], [body], '') AS comment_text "
-                        +
-                        "FROM " + tableName + " WHERE id = :reviewId";
-
-                Query query = entityManager.createNativeQuery(sql);
-                query.setParameter("reviewId", reviewId);
-
-                @SuppressWarnings("unchecked")
-                List<Object[]> results = query.getResultList();
-
-                if (results != null && !results.isEmpty()) {
-                    Object[] result = results.get(0);
-                    String comment = result[1] != null ? result[1].toString().trim() : "";
-
-                    // 查詢到記錄就返回，即使內容為空（前端會顯示 "(無)"）
-                    Map<String, Object> reviewData = new HashMap<>();
-                    reviewData.put("id", result[0]);
-                    reviewData.put("comment", comment);
-                    reviewData.put("content", comment);
-                    reviewData.put("text", comment);
-                    reviewData.put("message", comment);
-                    return ResponseEntity.ok(reviewData);
-                }
+            if (!results.isEmpty()) {
+                Object[] result = results.get(0);
+                String comment = result[1] != null ? result[1].toString().trim() : "";
 
-            } catch (Exception e) {
-                lastException = e;
-                // 繼續嘗試下一個表名
-                continue;
+                // 查詢到記錄就返回，即使內容為空（前端會顯示 "(無)"）
+                Map<String, Object> reviewData = new HashMap<>();
+                reviewData.put("id", result[0]);
+                reviewData.put("comment", comment);
+                reviewData.put("content", comment);
+                reviewData.put("text", comment);
+                reviewData.put("message", comment);
+                return ResponseEntity.ok(reviewData);
             }
-        }
-
-        // 所有嘗試都失敗了
-        Map<String, Object> error = new HashMap<>();
-        error.put("error", "無法獲取評論內容");
-        if (lastException != null) {
-            String errorMsg = lastException.getMessage();
-            // 如果錯誤信息包含表名相關的錯誤，提供更友好的提示
-            if (errorMsg != null && (errorMsg.contains("Invalid object name") || errorMsg.contains("找不到"))) {
-                error.put("message", "找不到 review 表，請確認資料庫表名是否正確");
-            } else {
-                error.put("message", "查詢失敗: " + errorMsg);
-            }
-            lastException.printStackTrace();
-        } else {
             error.put("message", "找不到評論 ID " + reviewId);
+        } catch (Exception e) {
+            error.put("message", "查詢失敗: " + e.getMessage());
+            e.printStackTrace();
         }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
@@ -298,9 +287,8 @@ public class ModerationActionController {
      * 獲取本月總評論數（從 review 表查詢 created_date 為本月的評論總數）
      * 
      * 實現說明：
-     * - 此方法會嘗試多個可能的表名（review, reviews）和日期欄位名稱以確保兼容性
-     * - 支援多種日期欄位名稱（created_date, created_at, create_date 等）
-     * - 會先檢查欄位是否存在，再執行查詢
+     * - 優先使用記憶體計數（AnalyticsTodayCounters）
+     * - 尚未對齊時以 ReviewSchemaResolver 解析出的表名與日期欄位執行一次 COUNT 查詢
      * - 如果查詢失敗，會返回錯誤信息
      */
     @GetMapping("/stats/month-total-reviews")
@@ -318,62 +306,55 @@ public class ModerationActionController {
         cal.add(java.util.Calendar.MONTH, 1);
         java.util.Date monthEnd = cal.getTime();
 
-        // 嘗試多個可能的表名和日期欄位名
-        String[] possibleTableNames = { "[review]", "review", "[reviews]", "reviews" };
-        String[] possibleDateColumns = { "created_date", "created_at", "create_date", "create_at", "date_created",
-                "createdDate", "createdAt" };
+        Map<String, Object> response = new HashMap<>();
+        response.put("monthStart", monthStart);
+        response.put("monthEnd", monthEnd);
 
-        Exception lastException = null;
-
-        for (String tableName : possibleTableNames) {
-            for (String dateColumn : possibleDateColumns) {
-                try {
-                    String cleanTableName = tableName.replace("[", "").replace("]", "");
-
-                    // 先檢查欄位是否存在
-                    String checkColumnSql = "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS " +
-                            "WHERE TABLE_NAME = :tableName AND COLUMN_NAME = :dateColumn";
-                    Query checkQuery = entityManager.createNativeQuery(checkColumnSql);
-                    checkQuery.setParameter("tableName", cleanTableName);
-                    checkQuery.setParameter("dateColumn", dateColumn);
-
-                    @SuppressWarnings("unchecked")
-                    List<String> columns = checkQuery.getResultList();
-
-                    if (!columns.isEmpty()) {
-                        // 欄位存在，執行查詢
-                        String sql = "SELECT COUNT(*) FROM " + tableName +
-                                " WHERE [" + dateColumn + "] >= :monthStart AND [" + dateColumn + "] < :monthEnd";
-
-                        Query query = entityManager.createNativeQuery(sql);
-                        query.setParameter("monthStart", new java.sql.Timestamp(monthStart.getTime()));
-                        query.setParameter("monthEnd", new java.sql.Timestamp(monthEnd.getTime()));
-
-                        Object result = query.getSingleResult();
-                        Long count = result != null ? ((Number) result).longValue() : 0L;
-
-                        Map<String, Object> response = new HashMap<>();
-                        response.put("count", count);
-                        response.put("monthStart", monthStart);
-                        response.put("monthEnd", monthEnd);
-                        return ResponseEntity.ok(response);
-                    }
-                } catch (Exception e) {
-                    lastException = e;
-                    continue;
-                }
-            }
+        // 優先讀記憶體計數，尚未與資料庫對齊時才查詢
+        Long counted = todayCounters.monthReviews();
+        if (counted != null) {
+            response.put("count", counted);
+            return ResponseEntity.ok(response);
         }
 
-        // 所有嘗試都失敗了
         Map<String, Object> error = new HashMap<>();
         error.put("error", "無法獲取本月總評論數");
-        if (lastException != null) {
-            error.put("message", "查詢失敗: " + lastException.getMessage());
-            lastException.printStackTrace();
-        } else {
-            error.put("message", "找不到 review 表或日期欄位");
+        try {
+            ReviewSchemaResolver.ReviewStatements review = schemaResolver.review();
+            if (review.countBetweenSql() == null) {
+                error.put("message", "找不到 review 表或日期欄位");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            }
+
+            Query query = entityManager.createNativeQuery(review.countBetweenSql());
+            query.setParameter("start", new java.sql.Timestamp(monthStart.getTime()));
+            query.setParameter("end", new java.sql.Timestamp(monthEnd.getTime()));
+
+            Object result = query.getSingleResult();
+            response.put("count", result != null ? ((Number) result).longValue() : 0L);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            error.put("message", "查詢失敗: " + e.getMessage());
+            e.printStackTrace();
         }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+
+    /**
+     * 重新解析 review 表結構（資料表結構變更後呼叫）
+     */
+    @PostMapping("/schema/refresh")
+    public ResponseEntity<Map<String, Object>> refreshReviewSchema() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            schemaResolver.refresh();
+            response.put("success", true);
+            response.put("message", "review 表結構已重新解析");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "重新解析失敗: " + e.getMessage());
+        }
+        response.put("schema", schemaResolver.status());
+        return ResponseEntity.ok(response);
+    }
 }
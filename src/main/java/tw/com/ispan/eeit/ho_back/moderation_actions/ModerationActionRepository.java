@@ -1,7 +1,9 @@
 package tw.com.ispan.eeit.ho_back.moderation_actions;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface ModerationActionRepository extends JpaRepository<ModerationAction, Long> {
+public interface ModerationActionRepository extends JpaRepository<ModerationAction, Long>,
+        JpaSpecificationExecutor<ModerationAction> {
 
 }
@@ -12,6 +12,8 @@ public interface ModerationActionService {
 
     ModerationAction get(Long id);
 
+    ModerationQueuePageDto<ModerationAction> queue(ModerationQueueQuery query, String cursor, Integer size);
+
     ModerationAction create(ModerationAction ma);
 
     ModerationAction update(Long id, ModerationAction ma);
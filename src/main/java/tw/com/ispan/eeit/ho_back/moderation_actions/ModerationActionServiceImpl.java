@@ -2,6 +2,10 @@ package tw.com.ispan.eeit.ho_back.moderation_actions;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +13,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+
+import tw.com.ispan.eeit.ho_back.review.HotelRatingService;
 
 @Service
 /*
@@ -21,8 +29,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ModerationActionServiceImpl implements ModerationActionService {
 
+    private static final int DEFAULT_QUEUE_PAGE_SIZE = 20;
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+
     private final ModerationActionRepository repo;
     private final EntityManager entityManager;
+    private final HotelRatingService hotelRatingService;
+    private final ReviewSchemaResolver schemaResolver;
 
     @Override
     @Transactional(readOnly = true)
@@ -42,6 +55,63 @@ public class ModerationActionServiceImpl implements ModerationActionService {
         return repo.findById(id).orElse(null);
     }
 
+    /**
+     * 審核佇列（游標分頁）
+     * 依 (createdAt, id) 由新到舊排序，沒有游標時為第一頁，第一頁會一併回傳各狀態筆數
+     *
+     * @param cursor 上一頁回傳的 nextCursor
+     * @param size   每頁筆數，預設 20，最多 100
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ModerationQueuePageDto<ModerationAction> queue(ModerationQueueQuery query, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_QUEUE_PAGE_SIZE : Math.min(size, MAX_QUEUE_PAGE_SIZE);
+        ModerationQueueCursor after = ModerationQueueCursor.parse(cursor);
+
+        // 多查一筆判斷是否還有下一頁，不執行 COUNT 查詢
+        List<ModerationAction> actions = repo.findBy(
+                ModerationActionSpecs.byQuery(query, true).and(ModerationActionSpecs.after(after)),
+                q -> q.sortBy(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")))
+                        .limit(pageSize + 1)
+                        .all());
+
+        ModerationQueuePageDto<ModerationAction> page = new ModerationQueuePageDto<>();
+        page.setSize(pageSize);
+        page.setHasNext(actions.size() > pageSize);
+        if (page.isHasNext()) {
+            actions = actions.subList(0, pageSize);
+            page.setNextCursor(ModerationQueueCursor.of(actions.get(pageSize - 1)).encode());
+        }
+        page.setItems(actions);
+        if (after == null) {
+            page.setStatusCounts(countByStatus(query));
+        }
+        return page;
+    }
+
+    /**
+     * 各狀態筆數（一次 GROUP BY 查詢），套用狀態以外的篩選條件，沒有資料的狀態為 0
+     */
+    private Map<Status, Long> countByStatus(ModerationQueueQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<ModerationAction> root = cq.from(ModerationAction.class);
+        cq.multiselect(root.get("status"), cb.count(root))
+                .where(ModerationActionSpecs.byQuery(query, false).toPredicate(root, cq, cb))
+                .groupBy(root.get("status"));
+
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            counts.put(status, 0L);
+        }
+        for (Tuple row : entityManager.createQuery(cq).getResultList()) {
+            // 舊資料值（例如「待審查」）與空值經轉換器後可能對應到同一個狀態，需要合併
+            Status status = row.get(0, Status.class);
+            counts.merge(status != null ? status : Status.PENDING, row.get(1, Long.class), Long::sum);
+        }
+        return counts;
+    }
+
     @Override
     @Transactional
     public ModerationAction create(ModerationAction action) {
@@ -85,14 +155,19 @@ public class ModerationActionServiceImpl implements ModerationActionService {
         Long reviewId = existing.getReviewId();
 
         // 如果 actionTaken 變更為 HIDE，需要更新 review 表的 is_visible、reply_is_visible 和 comment
+        // 評分彙總只在 is_visible 確實有更新時調整，隱藏的評論不列入平均
         if (updatedAction.getActionTaken() == ActionTaken.HIDE && reviewId != null) {
-            updateReviewVisibility(reviewId, false);
+            if (updateReviewVisibility(reviewId, false)) {
+                hotelRatingService.onVisibilityChanged(reviewId.intValue(), false);
+            }
             updateReviewContent(reviewId, "此評論因違規已被隱藏");
         }
         // 如果從 HIDE 變更為其他狀態（如 KEEP），恢復可見性（但評論內容無法恢復，因為原始內容已被替換）
         else if (oldActionTaken == ActionTaken.HIDE && updatedAction.getActionTaken() != ActionTaken.HIDE
                 && reviewId != null) {
-            updateReviewVisibility(reviewId, true);
+            if (updateReviewVisibility(reviewId, true)) {
+                hotelRatingService.onVisibilityChanged(reviewId.intValue(), true);
+            }
             // 注意：評論內容已經被替換，無法恢復原始內容
         }
 
@@ -105,48 +180,35 @@ public class ModerationActionServiceImpl implements ModerationActionService {
      * 
      * @param reviewId 評論ID
      * @param visible  true 表示顯示（設為1），false 表示隱藏（設為0）
+     * @return 是否確實更新了一列（可見性原本就相同、沒有 is_visible 欄位或更新失敗時為 false）
      * 
      *                 實現說明：
-     *                 - 此方法會嘗試多個可能的表名（review, reviews）以確保兼容性
-     *                 - 欄位名稱假設為 is_visible 和 reply_is_visible（INT 類型，0/1 表示隱藏/顯示）
-     *                 - 如果表結構不同，需要調整 SQL 語句
+     *                 - 表名與欄位由 ReviewSchemaResolver 解析，兩個欄位在同一條 UPDATE 中更新
+     *                 - 只在 is_visible 與目標值不同時更新，呼叫端依回傳值決定是否調整評分彙總
      *                 - 如果更新失敗，會記錄錯誤但不拋出異常（避免影響主流程）
      * 
      *                 注意：此方法使用原生 SQL 查詢，因為 review 表可能不在同一個模組中
      */
-    private void updateReviewVisibility(Long reviewId, boolean visible) {
-        int visibilityValue = visible ? 1 : 0;
-
-        // 嘗試多個可能的表名
-        String[] possibleTableNames = { "[review]", "review", "[reviews]", "reviews" };
-
-        for (String tableName : possibleTableNames) {
-            try {
-                // 更新 is_visible 欄位
-                String updateSql = "UPDATE " + tableName + " SET is_visible = :visibility WHERE id = :reviewId";
+    private boolean updateReviewVisibility(Long reviewId, boolean visible) {
+        try {
+            String updateSql = schemaResolver.review().updateVisibilitySql();
+            if (updateSql != null) {
                 Query updateQuery = entityManager.createNativeQuery(updateSql);
-                updateQuery.setParameter("visibility", visibilityValue);
+                updateQuery.setParameter("visibility", visible ? 1 : 0);
                 updateQuery.setParameter("reviewId", reviewId);
-                int updatedRows = updateQuery.executeUpdate();
-
-                // 如果更新成功，也更新 reply_is_visible
-                if (updatedRows > 0) {
-                    String updateReplySql = "UPDATE " + tableName
-                            + " SET reply_is_visible = :visibility WHERE id = :reviewId";
-                    Query updateReplyQuery = entityManager.createNativeQuery(updateReplySql);
-                    updateReplyQuery.setParameter("visibility", visibilityValue);
-                    updateReplyQuery.setParameter("reviewId", reviewId);
-                    updateReplyQuery.executeUpdate();
-                    return; // 成功後退出
+                if (updateQuery.executeUpdate() > 0) {
+                    return true;
                 }
-            } catch (Exception e) {
-                // 繼續嘗試下一個表名
-                continue;
+                // 評論不存在或可見性原本就相同
+                return false;
             }
+        } catch (Exception e) {
+            System.err.println("更新評論可見性失敗: " + e.getMessage());
         }
 
-        // 如果所有嘗試都失敗，記錄錯誤但不拋出異常（避免影響主流程）
+        // 如果更新失敗，記錄錯誤但不拋出異常（避免影響主流程）
         System.err.println("警告：無法更新 review 表的可見性，reviewId: " + reviewId);
+        return false;
     }
 
     /**
@@ -156,38 +218,28 @@ public class ModerationActionServiceImpl implements ModerationActionService {
      * @param replacementText 替代文字
      * 
      *                 實現說明：
-     *                 - 此方法會嘗試多個可能的表名（review, reviews）以確保兼容性
-     *                 - 欄位名稱假設為 comment（VARCHAR/NVARCHAR 類型）
-     *                 - 如果表結構不同，需要調整 SQL 語句
+     *                 - 表名由 ReviewSchemaResolver 解析，只執行一次 UPDATE
      *                 - 如果更新失敗，會記錄錯誤但不拋出異常（避免影響主流程）
      * 
      *                 注意：此方法使用原生 SQL 查詢，因為 review 表可能不在同一個模組中
      */
     private void updateReviewContent(Long reviewId, String replacementText) {
-        // 嘗試多個可能的表名
-        String[] possibleTableNames = { "[review]", "review", "[reviews]", "reviews" };
-
-        for (String tableName : possibleTableNames) {
-            try {
-                // 更新 comment 欄位
-                String updateSql = "UPDATE " + tableName + " SET comment = :replacementText WHERE id = :reviewId";
+        try {
+            String updateSql = schemaResolver.review().updateContentSql();
+            if (updateSql != null) {
                 Query updateQuery = entityManager.createNativeQuery(updateSql);
                 updateQuery.setParameter("replacementText", replacementText);
                 updateQuery.setParameter("reviewId", reviewId);
-                int updatedRows = updateQuery.executeUpdate();
-
-                if (updatedRows > 0) {
+                if (updateQuery.executeUpdate() > 0) {
                     System.out.println("✓ 已將評論內容替換為替代文字，reviewId: " + reviewId);
-                    return; // 成功後退出
+                    return;
                 }
-            } catch (Exception e) {
-                System.err.println("嘗試更新評論內容失敗（表名: " + tableName + "）: " + e.getMessage());
-                // 繼續嘗試下一個表名
-                continue;
             }
+        } catch (Exception e) {
+            System.err.println("更新評論內容失敗: " + e.getMessage());
         }
 
-        // 如果所有嘗試都失敗，記錄錯誤但不拋出異常（避免影響主流程）
+        // 如果更新失敗，記錄錯誤但不拋出異常（避免影響主流程）
         System.err.println("警告：無法更新 review 表的評論內容，reviewId: " + reviewId);
     }
 
@@ -0,0 +1,69 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class ModerationActionSpecs {
+
+    /**
+     * 審核佇列篩選條件，只加入有值的條件，方便資料庫選用對應的索引
+     *
+     * @param includeStatus false 時略過狀態條件（各狀態筆數統計用）
+     */
+    public static Specification<ModerationAction> byQuery(ModerationQueueQuery q, boolean includeStatus) {
+        return (root, cq, cb) -> {
+            if (q == null) {
+                return cb.conjunction();
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (includeStatus && q.getStatus() != null) {
+                predicates.add(hasStatus(root, cb, q.getStatus()));
+            }
+            if (q.getReason() != null) {
+                predicates.add(cb.equal(root.get("reason"), q.getReason()));
+            }
+            if (q.getActionTaken() != null) {
+                predicates.add(cb.equal(root.get("actionTaken"), q.getActionTaken()));
+            }
+            if (q.getModeratorId() != null) {
+                predicates.add(cb.equal(root.get("moderatorId"), q.getModeratorId()));
+            }
+            if (q.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), q.getFrom()));
+            }
+            if (q.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), q.getTo()));
+            }
+            return predicates.isEmpty() ? cb.conjunction() : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * 狀態條件，直接比對原始欄位才能使用 ix_moderation_actions_status_created_at_id
+     * 欄位定序不分大小寫、= 比對會忽略結尾空白；空值與無法辨識的舊資料已由 db/moderation_status_normalize.sql 改為 PENDING
+     */
+    static Predicate hasStatus(Root<ModerationAction> root, CriteriaBuilder cb, Status status) {
+        return root.get("status").as(String.class).in(status.storedValues());
+    }
+
+    /**
+     * 游標之後的資料：createdAt 較舊，或 createdAt 相同且 id 較小
+     */
+    public static Specification<ModerationAction> after(ModerationQueueCursor cursor) {
+        return (root, cq, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            return cb.or(
+                    cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                    cb.and(cb.equal(root.get("createdAt"), cursor.createdAt()),
+                            cb.lessThan(root.get("id"), cursor.id())));
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 審核佇列分頁游標，排序為 (createdAt, id) 由新到舊
+ *
+ * 字串格式："2025-11-20T10:15:30_123"
+ */
+public record ModerationQueueCursor(LocalDateTime createdAt, Long id) {
+
+    // 第一頁沒有游標，回傳 null
+    public static ModerationQueueCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.trim().split("_");
+        if (parts.length == 2) {
+            try {
+                return new ModerationQueueCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                // 交給下方統一處理
+            }
+        }
+        throw new IllegalArgumentException("審核佇列分頁游標格式錯誤: " + cursor);
+    }
+
+    public static ModerationQueueCursor of(ModerationAction action) {
+        return new ModerationQueueCursor(action.getCreatedAt(), action.getId());
+    }
+
+    public String encode() {
+        return createdAt + "_" + id;
+    }
+}
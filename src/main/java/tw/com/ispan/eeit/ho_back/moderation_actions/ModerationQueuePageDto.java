@@ -0,0 +1,29 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.Data;
+
+//審核佇列分頁結果
+@Data
+public class ModerationQueuePageDto<T> {
+    private List<T> items;
+    private Integer size;
+    // 下一頁的游標，沒有下一頁時為 null
+    private String nextCursor;
+    private boolean hasNext;
+    // 各狀態筆數（套用狀態以外的篩選條件），只在第一頁回傳
+    private Map<Status, Long> statusCounts;
+
+    public <R> ModerationQueuePageDto<R> map(Function<? super T, ? extends R> mapper) {
+        ModerationQueuePageDto<R> page = new ModerationQueuePageDto<>();
+        page.setItems(items.stream().<R>map(mapper).toList());
+        page.setSize(size);
+        page.setNextCursor(nextCursor);
+        page.setHasNext(hasNext);
+        page.setStatusCounts(statusCounts);
+        return page;
+    }
+}
@@ -0,0 +1,19 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * 審核佇列篩選條件，欄位為 null 時不篩選
+ * 日期區間為 [from, to)
+ */
+@Data
+public class ModerationQueueQuery {
+    private Status status;
+    private Reason reason;
+    private ActionTaken actionTaken;
+    private Long moderatorId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
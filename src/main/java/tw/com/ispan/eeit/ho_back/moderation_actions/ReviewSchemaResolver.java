@@ -0,0 +1,187 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 審核功能使用的 review 表結構解析
+ *
+ * 啟動時以一次 INFORMATION_SCHEMA 查詢找出實際的表名、評論內容欄位與日期欄位，
+ * 之後各審核路徑直接使用組好的 SQL，每次只執行一條查詢。
+ * 資料表結構變更後呼叫 refresh()（POST /api/moderation-actions/schema/refresh）重新解析
+ */
+@Component
+public class ReviewSchemaResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSchemaResolver.class);
+
+    // 候選名稱依優先順序排列，與原本逐一嘗試的順序相同
+    static final List<String> TABLE_CANDIDATES = List.of("review", "reviews");
+    static final List<String> CONTENT_COLUMN_CANDIDATES = List.of("comment", "content", "text", "message",
+            "review_text", "review_content", "comment_text", "description", "body");
+    static final List<String> DATE_COLUMN_CANDIDATES = List.of("created_date", "created_at", "create_date",
+            "create_at", "date_created", "createdDate", "createdAt");
+
+    private static final String PROBE_SQL = "SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS "
+            + "WHERE TABLE_NAME IN ('review', 'reviews')";
+
+    /**
+     * 解析結果與對應的 SQL，欄位不存在時該 SQL 為 null
+     */
+    public record ReviewStatements(
+            String table,
+            String contentColumn,
+            String dateColumn,
+            String selectContentSql,
+            String countBetweenSql,
+            String updateVisibilitySql,
+            String updateContentSql,
+            LocalDateTime resolvedAt) {
+
+        public boolean tableFound() {
+            return table != null;
+        }
+    }
+
+    private final EntityManager entityManager;
+
+    private volatile ReviewStatements review;
+    private volatile String lastError;
+
+    public ReviewSchemaResolver(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resolveOnStartup() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // 啟動時失敗不影響服務，第一次使用時再解析
+            logger.error("❌ review 表結構解析失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取得解析結果，尚未解析成功時先解析一次
+     */
+    public ReviewStatements review() {
+        ReviewStatements current = review;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * 重新查詢 INFORMATION_SCHEMA 並更新快取
+     */
+    public synchronized ReviewStatements refresh() {
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = entityManager.createNativeQuery(PROBE_SQL).getResultList();
+            ReviewStatements resolved = resolve(rows, LocalDateTime.now());
+            review = resolved;
+            lastError = null;
+            if (resolved.tableFound()) {
+                logger.info("✅ review 表結構：{}（內容欄位 {}，日期欄位 {}）", resolved.table(),
+                        resolved.contentColumn(), resolved.dateColumn());
+            } else {
+                logger.warn("找不到 review 表，審核相關的評論查詢將無法使用");
+            }
+            return resolved;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * 依 INFORMATION_SCHEMA 的 (TABLE_NAME, COLUMN_NAME) 選出表名與欄位並組出 SQL
+     */
+    static ReviewStatements resolve(List<Object[]> rows, LocalDateTime resolvedAt) {
+        Map<String, Set<String>> columnsByTable = new HashMap<>();
+        for (Object[] row : rows) {
+            columnsByTable.computeIfAbsent(String.valueOf(row[0]).toLowerCase(), t -> new HashSet<>())
+                    .add(String.valueOf(row[1]));
+        }
+
+        String table = null;
+        Set<String> columns = Set.of();
+        for (String candidate : TABLE_CANDIDATES) {
+            if (columnsByTable.containsKey(candidate)) {
+                table = candidate;
+                columns = columnsByTable.get(candidate);
+                break;
+            }
+        }
+        if (table == null) {
+            return new ReviewStatements(null, null, null, null, null, null, null, resolvedAt);
+        }
+
+        String contentColumn = firstPresent(CONTENT_COLUMN_CANDIDATES, columns);
+        String dateColumn = firstPresent(DATE_COLUMN_CANDIDATES, columns);
+        String quotedTable = "[" + table + "]";
+
+        String selectContentSql = "SELECT id, " + (contentColumn != null ? "[" + contentColumn + "]" : "''")
+                + " FROM " + quotedTable + " WHERE id = :reviewId";
+        String countBetweenSql = dateColumn != null
+                ? "SELECT COUNT(*) FROM " + quotedTable + " WHERE [" + dateColumn + "] >= :start AND ["
+                        + dateColumn + "] < :end"
+                : null;
+
+        // 只在 is_visible 實際變動時更新，影響筆數即代表可見性是否有變（評分彙總依此調整）
+        String updateVisibilitySql = null;
+        if (columns.contains("is_visible")) {
+            List<String> assignments = new ArrayList<>();
+            assignments.add("is_visible = :visibility");
+            if (columns.contains("reply_is_visible")) {
+                assignments.add("reply_is_visible = :visibility");
+            }
+            updateVisibilitySql = "UPDATE " + quotedTable + " SET " + String.join(", ", assignments)
+                    + " WHERE id = :reviewId AND is_visible <> :visibility";
+        }
+        String updateContentSql = columns.contains("comment")
+                ? "UPDATE " + quotedTable + " SET comment = :replacementText WHERE id = :reviewId"
+                : null;
+
+        return new ReviewStatements(table, contentColumn, dateColumn, selectContentSql, countBetweenSql,
+                updateVisibilitySql, updateContentSql, resolvedAt);
+    }
+
+    private static String firstPresent(List<String> candidates, Set<String> columns) {
+        for (String candidate : candidates) {
+            if (columns.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> status() {
+        ReviewStatements current = review;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resolved", current != null);
+        if (current != null) {
+            result.put("table", current.table());
+            result.put("contentColumn", current.contentColumn());
+            result.put("dateColumn", current.dateColumn());
+            result.put("visibilityUpdatable", current.updateVisibilitySql() != null);
+            result.put("contentUpdatable", current.updateContentSql() != null);
+            result.put("resolvedAt", current.resolvedAt());
+        }
+        result.put("lastError", lastError);
+        return result;
+    }
+}
@@ -1,5 +1,9 @@
 package tw.com.ispan.eeit.ho_back.moderation_actions;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 public enum Status {
     PENDING("待處理"),
     RESOLVED("已完成");
@@ -14,45 +18,34 @@ public enum Status {
         return description;
     }
 
+    // 資料庫中對應到各狀態的值（enum 名稱、描述與舊資料值），比對時不分大小寫、去掉前後空白
+    private static final Map<Status, List<String>> STORED_VALUES = Map.of(
+            PENDING, List.of("PENDING", "待處理", "待審查", "待審核"),
+            RESOLVED, List.of("RESOLVED", "已完成", "已審查", "已處理", "已解決"));
+
+    /**
+     * 資料庫中已知會轉換成此狀態的值，供查詢條件使用
+     * 讀取時空值與無法辨識的值也視為 PENDING（見 fromString），既有資料已由 db/moderation_status_normalize.sql 統一
+     */
+    public List<String> storedValues() {
+        return STORED_VALUES.get(this);
+    }
+
     /**
      * 從字串轉換為 Status enum，支援舊的資料值
      * 如果無法識別，返回 PENDING 作為預設值
      */
     public static Status fromString(String value) {
-        if (value == null || value.isBlank() || "NULL".equalsIgnoreCase(value)) {
+        if (value == null || value.isBlank()) {
             return PENDING;
         }
-
-        String trimmed = value.trim();
-
-        // 先嘗試直接匹配 enum 名稱（不區分大小寫）
-        try {
-            return Status.valueOf(trimmed.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            // 如果直接匹配失敗，嘗試匹配描述或舊的資料值
-        }
-
-        // 匹配描述（中文）
+        String trimmed = value.trim().toUpperCase(Locale.ROOT);
         for (Status status : Status.values()) {
-            if (status.getDescription().equals(trimmed)) {
+            if (status.storedValues().contains(trimmed)) {
                 return status;
             }
         }
-
-        // 處理舊的資料值映射
-        switch (trimmed) {
-            case "待審查":
-            case "待處理":
-            case "待審核":
-                return PENDING;
-            case "已審查":
-            case "已處理":
-            case "已完成":
-            case "已解決":
-                return RESOLVED;
-            default:
-                // 如果都無法匹配，返回 PENDING
-                return PENDING;
-        }
+        // 如果都無法匹配（包含 "NULL"），返回 PENDING
+        return PENDING;
     }
-}
\ No newline at end of file
+}
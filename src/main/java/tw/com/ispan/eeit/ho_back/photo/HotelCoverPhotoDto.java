@@ -0,0 +1,14 @@
+package tw.com.ispan.eeit.ho_back.photo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 批次查詢飯店封面照片用
+ */
+@Data
+@AllArgsConstructor
+public class HotelCoverPhotoDto {
+    private Integer hotelId;
+    private String url;
+}
@@ -33,4 +33,14 @@ public interface PhotoRepository extends JpaRepository<Photo, Integer> {
 
     public Photo findFirstByHotelIdAndIsCoverTrue(Integer hotelId);
 
+    /**
+     * 批量查詢多個飯店的封面照片（只取網址）
+     * 
+     * @param hotelIds 飯店 ID 列表
+     * @return 飯店 ID 與封面網址
+     */
+    @Query("SELECT new tw.com.ispan.eeit.ho_back.photo.HotelCoverPhotoDto(p.hotel.id, p.url) " +
+            "FROM Photo p WHERE p.hotel.id IN :hotelIds AND p.isCover = true")
+    List<HotelCoverPhotoDto> findCoverPhotosByHotelIds(@Param("hotelIds") List<Integer> hotelIds);
+
 }
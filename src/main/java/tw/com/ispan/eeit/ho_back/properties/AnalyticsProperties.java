@@ -0,0 +1,45 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 營運分析（analytics_daily）設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics")
+public class AnalyticsProperties {
+
+    private Rollup rollup = new Rollup();
+    private Backfill backfill = new Backfill();
+    private TodayCounters todayCounters = new TodayCounters();
+
+    @Data
+    public static class Rollup {
+        // 已結束的期間（日/週/月/季/年）彙總結果是否快取在記憶體
+        private boolean cacheEnabled = true;
+        // 快取超過此筆數時整個清空重建
+        private int maxCacheEntries = 5000;
+        // 單次查詢最多幾個期間（避免以 DAY 查好幾年）
+        private int maxPeriods = 1000;
+    }
+
+    @Data
+    public static class Backfill {
+        // 同時計算幾個區段（每個區段佔用一條資料庫連線）
+        private int parallelism = 4;
+        // 每個區段幾天，一個區段只需兩次查詢
+        private int chunkDays = 31;
+        // 單次補資料最多幾天
+        private int maxDays = 3660;
+    }
+
+    @Data
+    public static class TodayCounters {
+        // false 時後台今日數字直接查資料庫
+        private boolean enabled = true;
+        // 多久與資料庫對齊一次
+        private long reconcileIntervalMs = 300000;
+    }
+}
@@ -0,0 +1,26 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 審計日誌保留與歸檔設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.retention")
+public class AuditRetentionProperties {
+
+    // false 時不歸檔，資料全部留在 audit_logs
+    private boolean enabled = true;
+    // audit_logs 只保留最近幾天，更早的移到歸檔檔案
+    private int hotDays = 180;
+    // 歸檔目錄，每月一個子目錄（yyyy-MM），每個區塊一個 gzip 壓縮的 NDJSON 檔
+    private String archiveDir = "archive/audit";
+    // 每個區塊（一個交易）歸檔幾筆，刪除時以 IN 清單傳入，不可超過 2000
+    private int chunkSize = 1000;
+    // 每次排程最多處理幾個區塊，沒處理完的下次繼續
+    private int maxChunksPerRun = 200;
+    // 歸檔排程（AuditLogArchiver 以 ${audit.retention.cron} 讀取）
+    private String cron = "0 30 2 * * ?";
+}
@@ -0,0 +1,24 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 審計日誌關鍵字索引與搜尋設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.search")
+public class AuditSearchProperties {
+
+    // false 時不更新 audit_log_token，關鍵字只比對尚未索引的資料
+    private boolean indexEnabled = true;
+    // 背景索引多久檢查一次新寫入的審計日誌
+    private long indexIntervalMs = 2000;
+    // 每個交易索引幾筆
+    private int indexBatchSize = 1000;
+    // 單筆審計日誌最多索引幾個詞
+    private int maxTokensPerLog = 500;
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+}
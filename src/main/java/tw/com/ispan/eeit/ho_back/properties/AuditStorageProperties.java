@@ -0,0 +1,30 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 審計日誌儲存格式設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.storage")
+public class AuditStorageProperties {
+
+    // true 時只保存變更的欄位（changes / changes_gz），不再保存完整的 old_value / new_value
+    private boolean compact = true;
+    // 精簡後超過這個位元組數時以 gzip 壓縮，0 表示不壓縮
+    private int compressMinBytes = 4096;
+    private Migration migration = new Migration();
+
+    // 舊資料轉換成精簡格式的背景作業
+    @Data
+    public static class Migration {
+        private boolean enabled = true;
+        // 每個交易轉換幾筆
+        private int chunkSize = 500;
+        // 每輪最多轉換幾個區塊，避免長時間佔用資料庫
+        private int maxChunksPerRun = 20;
+        private long intervalMs = 60000;
+    }
+}
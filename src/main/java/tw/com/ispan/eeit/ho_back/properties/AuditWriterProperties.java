@@ -0,0 +1,35 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 審計日誌背景批次寫入設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "audit.writer")
+public class AuditWriterProperties {
+
+    // 佇列滿時的處理方式
+    public enum OverflowPolicy {
+        // 等待 blockTimeoutMs，仍然滿則寫到溢出檔
+        BLOCK,
+        // 直接丟棄並計數
+        DROP,
+        // 直接寫到溢出檔，佇列有空間時再補寫
+        SPILL
+    }
+
+    // false 時維持原本每筆一個 REQUIRES_NEW 交易同步寫入
+    private boolean async = true;
+    private int queueCapacity = 10000;
+    // 每個 JDBC batch 最多幾筆
+    private int batchSize = 200;
+    // 佇列沒有資料時，最多等待多久再檢查一次
+    private long flushIntervalMs = 500;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private long blockTimeoutMs = 1000;
+    // 溢出檔（NDJSON，一行一筆），寫入失敗的批次也會寫到這裡
+    private String spillFile = "logs/audit-spill.ndjson";
+}
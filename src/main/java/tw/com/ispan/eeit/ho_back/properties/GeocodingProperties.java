@@ -0,0 +1,56 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 地理編碼服務與快取設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "geocoding")
+public class GeocodingProperties {
+
+    // google / nominatim / stub（離線），未設定時不建立 GeocodingService（前端已使用 Google Maps API）
+    private String provider;
+
+    private Cache cache = new Cache();
+    private Client client = new Client();
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        // 記憶體 LRU 最多幾筆
+        private int maxEntries = 10000;
+        // 記憶體中的結果保留多久
+        private long ttlMinutes = 1440;
+        // false 時不讀寫 geocode_cache 資料表
+        private boolean persistentEnabled = true;
+        // geocode_cache 的結果超過幾天視為過期，重新查詢
+        private int persistentTtlDays = 180;
+    }
+
+    @Data
+    public static class Client {
+        // 各服務每秒最多幾個請求（Nominatim 規定每秒 1 個），未列出的服務為 1
+        private Map<String, Double> permitsPerSecond = new HashMap<>(Map.of(
+                "google", 50.0,
+                "nominatim", 1.0,
+                "stub", 1000.0));
+        // 權杖桶最多累積幾個（瞬間可連續送出的請求數）
+        private int burst = 1;
+        // 等待中的地址上限，超過時直接回傳失敗
+        private int queueCapacity = 1000;
+        // 每次從佇列取出幾筆處理
+        private int batchSize = 20;
+        // 同時進行中的外部請求上限
+        private int maxConcurrency = 4;
+        private long connectTimeoutMs = 5000;
+        private long readTimeoutMs = 10000;
+        // 同步呼叫 geocode 最多等待多久（包含排隊時間）
+        private long requestTimeoutMs = 30000;
+    }
+}
@@ -0,0 +1,19 @@
+package tw.com.ispan.eeit.ho_back.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+// 建立訂單遇到死結或鎖等待逾時時的重試設定
+@Data
+@Component
+@ConfigurationProperties(prefix = "booking.reservation.retry")
+public class ReservationRetryProperties {
+    // 含第一次，共嘗試幾次
+    private int maxAttempts = 3;
+    // 第一次重試前等待毫秒數，之後每次乘上 multiplier
+    private long initialBackoffMs = 50;
+    private double multiplier = 2.0;
+    private long maxBackoffMs = 500;
+}
@@ -0,0 +1,140 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 飯店評分彙總
+ * 搜尋、推薦、飯店頁面只讀 hotel_rating_summary 一列，不再載入所有評論計算平均
+ *
+ * - 評論新增、修改、被隱藏或恢復顯示時，在同一個交易內增量更新
+ * - 每天凌晨 3:00 從 review 表整份重建，修正任何遺漏
+ */
+@Service
+public class HotelRatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelRatingService.class);
+
+    private final HotelRatingSummaryRepository summaryRepository;
+    private final ReviewRepository reviewRepository;
+
+    public HotelRatingService(HotelRatingSummaryRepository summaryRepository,
+            ReviewRepository reviewRepository) {
+        this.summaryRepository = summaryRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    /**
+     * 多間飯店的平均分數，沒有評論的飯店不會出現在結果中
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Double> getAvgRatings(List<Integer> hotelIds) {
+        Map<Integer, Double> result = new HashMap<>();
+        if (hotelIds == null || hotelIds.isEmpty()) {
+            return result;
+        }
+        for (HotelRatingSummary summary : summaryRepository.findByHotelIdIn(hotelIds)) {
+            result.put(summary.getHotelId(), summary.getAvgRating());
+        }
+        return result;
+    }
+
+    /**
+     * 單一飯店的評分彙總，沒有評論時回傳全為 0 的彙總
+     */
+    @Transactional(readOnly = true)
+    public HotelRatingSummary getSummary(Integer hotelId) {
+        return summaryRepository.findById(hotelId).orElseGet(() -> {
+            HotelRatingSummary empty = new HotelRatingSummary();
+            empty.setHotelId(hotelId);
+            return empty;
+        });
+    }
+
+    // 新增一則可見評論
+    @Transactional
+    public void onReviewAdded(Integer bookingId, Integer rating) {
+        applyToBookingHotels(bookingId, null, rating);
+    }
+
+    // 評論的分數改變
+    @Transactional
+    public void onRatingChanged(Integer bookingId, Integer oldRating, Integer newRating) {
+        if (oldRating != null && oldRating.equals(newRating)) {
+            return;
+        }
+        applyToBookingHotels(bookingId, oldRating, newRating);
+    }
+
+    /**
+     * 評論被隱藏或恢復顯示
+     * 只在 review.is_visible 確實已更新（UPDATE 影響一列）後呼叫，這裡不再比對目前的可見性
+     */
+    @Transactional
+    public void onVisibilityChanged(Integer reviewId, boolean visible) {
+        Review review = reviewRepository.findById(reviewId).orElse(null);
+        if (review == null || review.getBooking() == null) {
+            return;
+        }
+        if (visible) {
+            applyToBookingHotels(review.getBooking().getId(), null, review.getRating());
+        } else {
+            applyToBookingHotels(review.getBooking().getId(), review.getRating(), null);
+        }
+    }
+
+    /**
+     * 從 review 表重建所有飯店的彙總
+     */
+    @Transactional
+    public int rebuildAll() {
+        summaryRepository.deleteAllSummaries();
+        int hotels = summaryRepository.insertSummariesFromReviews();
+        logger.info("✅ 飯店評分彙總重建完成，共 {} 間飯店", hotels);
+        return hotels;
+    }
+
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void scheduledRebuild() {
+        try {
+            rebuildAll();
+        } catch (Exception e) {
+            logger.error("❌ 重建飯店評分彙總失敗: {}", e.getMessage(), e);
+        }
+    }
+
+    // 移除舊分數、加入新分數（null 代表沒有）
+    // 與 insertSummariesFromReviews 相同：沒有分數的評論不計，1~5 以外的分數計入筆數與總分但不計入任何星等
+    private void applyToBookingHotels(Integer bookingId, Integer removedRating, Integer addedRating) {
+        int[] starDelta = new int[6];
+        int countDelta = 0;
+        long sumDelta = 0;
+        if (removedRating != null) {
+            countDelta--;
+            sumDelta -= removedRating;
+            addStar(starDelta, removedRating, -1);
+        }
+        if (addedRating != null) {
+            countDelta++;
+            sumDelta += addedRating;
+            addStar(starDelta, addedRating, 1);
+        }
+        for (Integer hotelId : summaryRepository.findHotelIdsByBookingId(bookingId)) {
+            summaryRepository.applyDelta(hotelId, countDelta, sumDelta,
+                    starDelta[1], starDelta[2], starDelta[3], starDelta[4], starDelta[5]);
+        }
+    }
+
+    private static void addStar(int[] starDelta, int rating, int delta) {
+        if (rating >= 1 && rating <= 5) {
+            starDelta[rating] += delta;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * 每間飯店的評分彙總（只計算可見的評論）
+ * 由 HotelRatingService 在評論新增、修改、隱藏時增量更新，建表語法見 db/hotel_rating_summary.sql
+ */
+@Data
+@Entity
+@Table(name = "hotel_rating_summary")
+public class HotelRatingSummary {
+
+    @Id
+    @Column(name = "hotel_id")
+    private Integer hotelId;
+
+    @Column(name = "review_count", nullable = false)
+    private Integer reviewCount = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    // 各星數的評論數
+    @Column(name = "star1_count", nullable = false)
+    private Integer star1Count = 0;
+
+    @Column(name = "star2_count", nullable = false)
+    private Integer star2Count = 0;
+
+    @Column(name = "star3_count", nullable = false)
+    private Integer star3Count = 0;
+
+    @Column(name = "star4_count", nullable = false)
+    private Integer star4Count = 0;
+
+    @Column(name = "star5_count", nullable = false)
+    private Integer star5Count = 0;
+
+    @Column(name = "updated_time", nullable = false)
+    private LocalDateTime updatedTime;
+
+    public Double getAvgRating() {
+        if (reviewCount == null || reviewCount == 0) {
+            return 0.0;
+        }
+        return (double) ratingSum / reviewCount;
+    }
+}
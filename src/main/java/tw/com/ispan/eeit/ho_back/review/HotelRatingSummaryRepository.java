@@ -0,0 +1,75 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HotelRatingSummaryRepository extends JpaRepository<HotelRatingSummary, Integer> {
+
+        List<HotelRatingSummary> findByHotelIdIn(List<Integer> hotelIds);
+
+        // 訂單所屬的飯店
+        @Query("SELECT DISTINCT r.hotel.id FROM BookingInventory bi " +
+                        "JOIN bi.inventory i " +
+                        "JOIN i.room r " +
+                        "WHERE bi.bookingId = :bookingId")
+        List<Integer> findHotelIdsByBookingId(@Param("bookingId") Integer bookingId);
+
+        // 原子性地加減彙總，沒有資料列時新增
+        @Modifying
+        @Query(value = "MERGE hotel_rating_summary WITH (HOLDLOCK) AS t " +
+                        "USING (SELECT :hotelId AS hotel_id) AS s ON t.hotel_id = s.hotel_id " +
+                        "WHEN MATCHED THEN UPDATE SET " +
+                        "  review_count = t.review_count + :countDelta, " +
+                        "  rating_sum = t.rating_sum + :sumDelta, " +
+                        "  star1_count = t.star1_count + :star1Delta, " +
+                        "  star2_count = t.star2_count + :star2Delta, " +
+                        "  star3_count = t.star3_count + :star3Delta, " +
+                        "  star4_count = t.star4_count + :star4Delta, " +
+                        "  star5_count = t.star5_count + :star5Delta, " +
+                        "  updated_time = SYSDATETIME() " +
+                        "WHEN NOT MATCHED THEN INSERT " +
+                        "  (hotel_id, review_count, rating_sum, star1_count, star2_count, star3_count, star4_count, star5_count, updated_time) "
+                        +
+                        "  VALUES (:hotelId, :countDelta, :sumDelta, :star1Delta, :star2Delta, :star3Delta, :star4Delta, :star5Delta, SYSDATETIME());", nativeQuery = true)
+        int applyDelta(@Param("hotelId") Integer hotelId,
+                        @Param("countDelta") int countDelta,
+                        @Param("sumDelta") long sumDelta,
+                        @Param("star1Delta") int star1Delta,
+                        @Param("star2Delta") int star2Delta,
+                        @Param("star3Delta") int star3Delta,
+                        @Param("star4Delta") int star4Delta,
+                        @Param("star5Delta") int star5Delta);
+
+        // 重建用：清空彙總
+        @Modifying
+        @Query(value = "DELETE FROM hotel_rating_summary", nativeQuery = true)
+        int deleteAllSummaries();
+
+        // 重建用：從 review 表重新計算（同一則評論經過多筆 booking_inventory 只算一次）
+        // 沒有分數的評論不計，與 HotelRatingService 的增量更新一致
+        @Modifying
+        @Query(value = "INSERT INTO hotel_rating_summary " +
+                        "  (hotel_id, review_count, rating_sum, star1_count, star2_count, star3_count, star4_count, star5_count, updated_time) "
+                        +
+                        "SELECT x.hotel_id, COUNT(*), SUM(CAST(x.rating AS BIGINT)), " +
+                        "  SUM(CASE WHEN x.rating = 1 THEN 1 ELSE 0 END), " +
+                        "  SUM(CASE WHEN x.rating = 2 THEN 1 ELSE 0 END), " +
+                        "  SUM(CASE WHEN x.rating = 3 THEN 1 ELSE 0 END), " +
+                        "  SUM(CASE WHEN x.rating = 4 THEN 1 ELSE 0 END), " +
+                        "  SUM(CASE WHEN x.rating = 5 THEN 1 ELSE 0 END), " +
+                        "  SYSDATETIME() " +
+                        "FROM (SELECT DISTINCT re.id, r.hotel_id, re.rating " +
+                        "      FROM review re " +
+                        "      JOIN booking_inventory bi ON bi.booking_id = re.booking_id " +
+                        "      JOIN inventory i ON i.id = bi.inventory_id " +
+                        "      JOIN room r ON r.id = i.room_id " +
+                        "      WHERE re.is_visible = 1 AND re.rating IS NOT NULL) x " +
+                        "GROUP BY x.hotel_id", nativeQuery = true)
+        int insertSummariesFromReviews();
+}
@@ -0,0 +1,64 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 飯店評論分頁游標
+ * 最新排序為 (createdDate, id)，評分排序在前面多加 rating
+ *
+ * 字串格式：newest → "2025-11-20_123"，highest / lowest → "5_2025-11-20_123"
+ * 沒有評分的評論以 0 分編碼（查詢端用 COALESCE(re.rating, 0) 排序）
+ */
+public record HotelReviewCursor(Integer rating, LocalDate createdDate, Integer id) {
+
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_HIGHEST = "highest";
+    public static final String SORT_LOWEST = "lowest";
+    // 評分排序時沒有評分視為 0，和查詢的 COALESCE(re.rating, 0) 一致
+    public static final int NO_RATING = 0;
+
+    // 排序方式不分大小寫，未指定時為最新
+    public static String normalizeSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return SORT_NEWEST;
+        }
+        String value = sort.trim().toLowerCase();
+        if (!value.equals(SORT_NEWEST) && !value.equals(SORT_HIGHEST) && !value.equals(SORT_LOWEST)) {
+            throw new IllegalArgumentException("不支援的評論排序方式: " + sort);
+        }
+        return value;
+    }
+
+    // 第一頁沒有游標，回傳 null
+    public static HotelReviewCursor parse(String sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.trim().split("_");
+        boolean byRating = !SORT_NEWEST.equals(sort);
+        try {
+            if (byRating && parts.length == 3) {
+                return new HotelReviewCursor(Integer.valueOf(parts[0]), LocalDate.parse(parts[1]),
+                        Integer.valueOf(parts[2]));
+            }
+            if (!byRating && parts.length == 2) {
+                return new HotelReviewCursor(null, LocalDate.parse(parts[0]), Integer.valueOf(parts[1]));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            // 交給下方統一處理
+        }
+        throw new IllegalArgumentException("評論分頁游標格式錯誤: " + cursor);
+    }
+
+    public static HotelReviewCursor of(String sort, HotelReviewDto review) {
+        Integer rating = SORT_NEWEST.equals(sort) ? null
+                : review.getRating() == null ? Integer.valueOf(NO_RATING) : review.getRating();
+        return new HotelReviewCursor(rating, review.getCreatedDate(), review.getReviewId());
+    }
+
+    public String encode() {
+        String key = createdDate + "_" + id;
+        return rating == null ? key : rating + "_" + key;
+    }
+}
@@ -0,0 +1,18 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import java.util.List;
+
+import lombok.Data;
+
+//飯店評論分頁結果
+@Data
+public class HotelReviewPageDto {
+    private List<HotelReviewDto> reviews;
+    private String sort;
+    private Integer size;
+    // 下一頁的游標，沒有下一頁時為 null
+    private String nextCursor;
+    private boolean hasNext;
+    // 評分彙總只在第一頁回傳
+    private HotelRatingSummary ratingSummary;
+}
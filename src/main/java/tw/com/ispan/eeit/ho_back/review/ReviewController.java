@@ -231,6 +231,33 @@ public class ReviewController {
         }
     }
 
+    /**
+     * 飯店評論分頁（游標分頁）
+     * GET /api/reviews/hotel/{hotelId}?sort=newest&size=10&cursor={nextCursor}
+     */
+    @GetMapping("/hotel/{hotelId}")
+    public ResponseEntity<?> getHotelReviews(
+            @PathVariable Integer hotelId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            HotelReviewPageDto page = reviewService.getHotelReviews(hotelId, sort, size, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "查詢飯店評論失敗：" + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * 依使用者ID查詢評論列表
      * GET /api/reviews/user/{userId}
@@ -1,7 +1,10 @@
 package tw.com.ispan.eeit.ho_back.review;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDate;
 import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -39,6 +42,49 @@ public interface ReviewRepository extends JpaRepository<Review, Integer> {
                         "ORDER BY re.createdDate DESC")
         List<HotelReviewDto> findReviewsByHotelId(Integer hotelId);
 
+        // 飯店評論分頁（游標分頁）
+        // 以 EXISTS 判斷訂單是否屬於該飯店，不 JOIN booking_inventory，也就不需要 DISTINCT
+        String HOTEL_REVIEW_PAGE_SELECT = "SELECT new tw.com.ispan.eeit.ho_back.review.HotelReviewDto(" +
+                        "re.id, h.id, re.rating, re.comment, re.reply, re.createdDate, " +
+                        "u.firstName, u.lastName, u.image, u.id) " +
+                        "FROM Review re " +
+                        "JOIN re.user u " +
+                        "JOIN Hotel h ON h.id = :hotelId " +
+                        "WHERE EXISTS (SELECT 1 FROM BookingInventory bi " +
+                        "              JOIN bi.inventory i " +
+                        "              WHERE bi.booking = re.booking " +
+                        "              AND i.room.hotel.id = :hotelId) ";
+
+        // 最新：(createdDate, id) 由新到舊
+        @Query(HOTEL_REVIEW_PAGE_SELECT +
+                        "AND (:cursorId IS NULL " +
+                        "     OR re.createdDate < :cursorDate " +
+                        "     OR (re.createdDate = :cursorDate AND re.id < :cursorId)) " +
+                        "ORDER BY re.createdDate DESC, re.id DESC")
+        List<HotelReviewDto> findHotelReviewsNewest(Integer hotelId, LocalDate cursorDate, Integer cursorId,
+                        Pageable pageable);
+
+        // 評分最高：(rating, createdDate, id)，同分時較新的在前
+        // 沒有評分的評論視為 0 分（與 HotelReviewCursor.of 一致），排序與游標條件都用 COALESCE
+        @Query(HOTEL_REVIEW_PAGE_SELECT +
+                        "AND (:cursorId IS NULL " +
+                        "     OR COALESCE(re.rating, 0) < :cursorRating " +
+                        "     OR (COALESCE(re.rating, 0) = :cursorRating AND re.createdDate < :cursorDate) " +
+                        "     OR (COALESCE(re.rating, 0) = :cursorRating AND re.createdDate = :cursorDate AND re.id < :cursorId)) " +
+                        "ORDER BY COALESCE(re.rating, 0) DESC, re.createdDate DESC, re.id DESC")
+        List<HotelReviewDto> findHotelReviewsHighest(Integer hotelId, Integer cursorRating, LocalDate cursorDate,
+                        Integer cursorId, Pageable pageable);
+
+        // 評分最低：(rating, createdDate, id)，同分時較新的在前
+        @Query(HOTEL_REVIEW_PAGE_SELECT +
+                        "AND (:cursorId IS NULL " +
+                        "     OR COALESCE(re.rating, 0) > :cursorRating " +
+                        "     OR (COALESCE(re.rating, 0) = :cursorRating AND re.createdDate < :cursorDate) " +
+                        "     OR (COALESCE(re.rating, 0) = :cursorRating AND re.createdDate = :cursorDate AND re.id < :cursorId)) " +
+                        "ORDER BY COALESCE(re.rating, 0) ASC, re.createdDate DESC, re.id DESC")
+        List<HotelReviewDto> findHotelReviewsLowest(Integer hotelId, Integer cursorRating, LocalDate cursorDate,
+                        Integer cursorId, Pageable pageable);
+
         // 依訂單ID查詢評論（使用 JOIN FETCH 立即載入關聯實體，避免序列化問題）
         @Query("SELECT r FROM Review r LEFT JOIN FETCH r.user LEFT JOIN FETCH r.booking WHERE r.booking.id = :bookingId")
         Review findByBookingId(Integer bookingId);
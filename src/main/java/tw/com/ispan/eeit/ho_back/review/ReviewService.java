@@ -7,9 +7,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters;
 import tw.com.ispan.eeit.ho_back.booking.Booking;
 import tw.com.ispan.eeit.ho_back.booking.BookingRepository;
 import tw.com.ispan.eeit.ho_back.hotel.Hotel;
@@ -19,6 +22,10 @@ import tw.com.ispan.eeit.ho_back.user.UserRepository;
 
 @Service
 public class ReviewService {
+    // 飯店評論分頁每頁筆數
+    public static final int DEFAULT_REVIEW_PAGE_SIZE = 10;
+    public static final int MAX_REVIEW_PAGE_SIZE = 50;
+
     @Autowired
     private ReviewRepository reviewRepository;
     @Autowired
@@ -27,6 +34,10 @@ public class ReviewService {
     private BookingRepository bookingRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private HotelRatingService hotelRatingService;
+    @Autowired
+    private AnalyticsTodayCounters todayCounters;
 
     public List<Hotel> getHotelsByOwner(Integer userId) {
         return hotelRepository.findByUserId(userId); // ✅ 已存在的查詢
@@ -129,6 +140,9 @@ public class ReviewService {
                 }
 
                 // 更新空評論
+                if (!Boolean.FALSE.equals(existingReview.getIsVisible())) {
+                    hotelRatingService.onRatingChanged(bookingId, existingReview.getRating(), rating);
+                }
                 existingReview.setRating(rating);
                 existingReview.setComment(comment.trim());
                 existingReview.setIsEdited(true);
@@ -149,7 +163,10 @@ public class ReviewService {
         review.setCreatedDate(LocalDate.now());
         review.setUpdatedDate(LocalDate.now());
 
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        hotelRatingService.onReviewAdded(bookingId, rating);
+        todayCounters.increment(AnalyticsTodayCounters.Metric.NEW_REVIEWS);
+        return saved;
     }
 
     /**
@@ -183,6 +200,9 @@ public class ReviewService {
             throw new RuntimeException("評論內容不可為空");
         }
 
+        if (!Boolean.FALSE.equals(review.getIsVisible()) && review.getBooking() != null) {
+            hotelRatingService.onRatingChanged(review.getBooking().getId(), review.getRating(), rating);
+        }
         review.setRating(rating);
         review.setComment(comment.trim());
         review.setIsEdited(true);
@@ -191,6 +211,49 @@ public class ReviewService {
         return reviewRepository.save(review);
     }
 
+    /**
+     * 飯店評論分頁（游標分頁）
+     * 沒有游標時為第一頁，第一頁會一併回傳評分彙總
+     *
+     * @param sort   newest(預設) / highest / lowest
+     * @param size   每頁筆數，預設 10，最多 50
+     * @param cursor 上一頁回傳的 nextCursor
+     */
+    @Transactional(readOnly = true)
+    public HotelReviewPageDto getHotelReviews(Integer hotelId, String sort, Integer size, String cursor) {
+        String sortKey = HotelReviewCursor.normalizeSort(sort);
+        int pageSize = size == null || size <= 0 ? DEFAULT_REVIEW_PAGE_SIZE
+                : Math.min(size, MAX_REVIEW_PAGE_SIZE);
+        HotelReviewCursor after = HotelReviewCursor.parse(sortKey, cursor);
+        Integer cursorRating = after == null ? null : after.rating();
+        LocalDate cursorDate = after == null ? null : after.createdDate();
+        Integer cursorId = after == null ? null : after.id();
+
+        // 多查一筆判斷是否還有下一頁
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<HotelReviewDto> reviews = switch (sortKey) {
+            case HotelReviewCursor.SORT_HIGHEST -> reviewRepository.findHotelReviewsHighest(hotelId, cursorRating,
+                    cursorDate, cursorId, limit);
+            case HotelReviewCursor.SORT_LOWEST -> reviewRepository.findHotelReviewsLowest(hotelId, cursorRating,
+                    cursorDate, cursorId, limit);
+            default -> reviewRepository.findHotelReviewsNewest(hotelId, cursorDate, cursorId, limit);
+        };
+
+        HotelReviewPageDto page = new HotelReviewPageDto();
+        page.setSort(sortKey);
+        page.setSize(pageSize);
+        page.setHasNext(reviews.size() > pageSize);
+        if (page.isHasNext()) {
+            reviews = reviews.subList(0, pageSize);
+            page.setNextCursor(HotelReviewCursor.of(sortKey, reviews.get(pageSize - 1)).encode());
+        }
+        page.setReviews(reviews);
+        if (after == null) {
+            page.setRatingSummary(hotelRatingService.getSummary(hotelId));
+        }
+        return page;
+    }
+
     /**
      * 依使用者ID查詢評論列表
      */
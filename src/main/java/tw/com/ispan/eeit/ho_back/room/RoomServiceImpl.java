@@ -12,6 +12,7 @@ import tw.com.ispan.eeit.ho_back.bedtype.BedType;
 import tw.com.ispan.eeit.ho_back.bedtype.BedTypeRepository;
 import tw.com.ispan.eeit.ho_back.hotel.Hotel;
 import tw.com.ispan.eeit.ho_back.hotel.HotelRepository;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryAvailabilityIndex;
 import tw.com.ispan.eeit.ho_back.inventory.InventoryRepository;
 import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
 import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
@@ -30,6 +31,8 @@ public class RoomServiceImpl implements RoomService {
     InventoryRepository inventoryRepository;
     @Autowired
     PhotoRepository photoRepository;
+    @Autowired
+    InventoryAvailabilityIndex availabilityIndex;
 
     @Autowired
     private RoomRepository roomRepository;
@@ -190,6 +193,7 @@ public class RoomServiceImpl implements RoomService {
         }
 
         Room savedRoom = roomRepository.save(room);
+        availabilityIndex.onRoomChanged(savedRoom);
         return toDto(savedRoom);
     }
 
@@ -199,6 +203,7 @@ public class RoomServiceImpl implements RoomService {
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new RuntimeException("Room not found: " + roomId));
         roomRepository.delete(room);
+        availabilityIndex.onRoomRemoved(roomId);
     }
 
     @Override
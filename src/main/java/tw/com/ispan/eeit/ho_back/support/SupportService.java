@@ -10,6 +10,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters;
 import tw.com.ispan.eeit.ho_back.reason.ReasonBean;
 import tw.com.ispan.eeit.ho_back.reason.ReasonRepository;
 import tw.com.ispan.eeit.ho_back.scategory.SCategoryBean;
@@ -31,14 +32,17 @@ public class SupportService {
     private final ReasonRepository reasonRepository;
     private final UserRepository userRepository;
     private final SCategoryRepository sCategoryRepository;
+    private final AnalyticsTodayCounters todayCounters;
 
     public SupportService(SupportRepository supportRepository,
             ReasonRepository reasonRepository,
-            UserRepository userRepository, SCategoryRepository sCategoryRepository) {
+            UserRepository userRepository, SCategoryRepository sCategoryRepository,
+            AnalyticsTodayCounters todayCounters) {
         this.supportRepository = supportRepository;
         this.reasonRepository = reasonRepository;
         this.userRepository = userRepository;
         this.sCategoryRepository = sCategoryRepository;
+        this.todayCounters = todayCounters;
     }
 
     private synchronized String generateNextCaseCode() {
@@ -123,6 +127,7 @@ public class SupportService {
 
         // 先存 support 主資料
         SupportBean saved = supportRepository.save(supportBean);
+        todayCounters.increment(AnalyticsTodayCounters.Metric.SUPPORT_CASES);
 
         // 若無圖片就直接回傳
         if (files == null || files.isEmpty()) {
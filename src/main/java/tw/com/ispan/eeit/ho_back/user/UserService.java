@@ -22,6 +22,7 @@ import org.springframework.validation.FieldError;
 
 import jakarta.transaction.Transactional;
 import tw.com.ispan.eeit.ho_back.common.exception.LoginException;
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters;
 import tw.com.ispan.eeit.ho_back.common.exception.TokenVerifyException;
 import tw.com.ispan.eeit.ho_back.properties.UserStatusProperties;
 import tw.com.ispan.eeit.ho_back.role.Role;
@@ -42,6 +43,8 @@ public class UserService {
     UserStatusProperties userStatusProperties;
     @Autowired
     RoleRepository roleRepository;
+    @Autowired
+    AnalyticsTodayCounters todayCounters;
     @Value("${back.path}")
     private String backPath;
 
@@ -119,6 +122,7 @@ public class UserService {
             user.addRole(role);
             user.setRoles(roles);
             userRepository.save(user);
+            todayCounters.increment(AnalyticsTodayCounters.Metric.NEW_USERS);
             String token = userDto.getToken();
             String sendTo = userDto.getEmail();
             String subject = "帳號驗證信";
@@ -290,6 +294,7 @@ public class UserService {
     public void create(User user) {
         if (user != null && user.getEmail() != null && user.getEmail().length() != 0) {
             userRepository.save(user);
+            todayCounters.increment(AnalyticsTodayCounters.Metric.NEW_USERS);
         }
     }
 
@@ -0,0 +1,19 @@
+-- 每日營運數據統計用索引（AnalyticsDailyRawQueryRepository，日期條件皆為 >= 當日 AND < 隔天）
+CREATE INDEX ix_user_created_time
+    ON [user] (created_time);
+
+CREATE INDEX ix_hotel_created_time
+    ON hotel (created_time) INCLUDE (business_status);
+
+CREATE INDEX ix_booking_status_updated_time
+    ON booking (status, updated_time) INCLUDE (total_price);
+
+CREATE INDEX ix_review_created_date
+    ON review (created_date);
+
+CREATE INDEX ix_support_created_time
+    ON support (created_time);
+
+-- 前一日快照與依期間彙總（AnalyticsDailyRepository.findByDate / sumByPeriod）
+CREATE INDEX ix_analytics_daily_dt
+    ON analytics_daily (dt, id DESC);
@@ -0,0 +1,5 @@
+-- 審計日誌精簡格式（AuditDelta）：只保存變更的欄位，較大的以 gzip 壓縮
+-- 舊資料由 AuditLogCompactionJob 分批轉換，轉換後 old_value / new_value 為 NULL
+ALTER TABLE audit_logs ADD
+    changes NVARCHAR(MAX) NULL,
+    changes_gz VARBINARY(MAX) NULL;
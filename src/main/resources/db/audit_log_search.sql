@@ -0,0 +1,30 @@
+-- 審計日誌關鍵字索引（AuditLogTokenIndexer / AuditLogSearchService）
+-- indexed = 0 的資料由背景斷詞寫入 audit_log_token，舊資料加上欄位後會自動補建
+ALTER TABLE audit_logs ADD indexed BIT NOT NULL CONSTRAINT df_audit_logs_indexed DEFAULT 0;
+
+CREATE INDEX ix_audit_logs_unindexed
+    ON audit_logs (id)
+    WHERE indexed = 0;
+
+CREATE TABLE audit_log_token (
+    token NVARCHAR(64) NOT NULL,
+    audit_log_id BIGINT NOT NULL,
+    CONSTRAINT pk_audit_log_token PRIMARY KEY (token, audit_log_id)
+);
+
+-- 多個關鍵字時以 EXISTS 檢查同一筆日誌的其他詞
+CREATE INDEX ix_audit_log_token_log
+    ON audit_log_token (audit_log_id, token);
+
+-- 篩選條件 + 依 id 由新到舊的游標分頁
+CREATE INDEX ix_audit_logs_table_id
+    ON audit_logs (target_table, target_id, id DESC);
+
+CREATE INDEX ix_audit_logs_actor_id
+    ON audit_logs (actor_user_id, id DESC);
+
+CREATE INDEX ix_audit_logs_action_id
+    ON audit_logs (action_type, id DESC);
+
+CREATE INDEX ix_audit_logs_created_at
+    ON audit_logs (created_at, id);
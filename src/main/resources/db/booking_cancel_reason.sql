@@ -0,0 +1,5 @@
+-- 訂單取消原因（BookingHoldService / BookingService.cancelBooking）
+-- HOLD_EXPIRED：逾期未付款由排程取消，付款時可重新扣庫存恢復訂單
+-- USER：使用者自行取消，不可再付款
+-- 既有的取消訂單為 NULL，視為不可恢復
+ALTER TABLE booking ADD cancel_reason VARCHAR(20) NULL;
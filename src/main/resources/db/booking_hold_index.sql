@@ -0,0 +1,3 @@
+-- 逾期未付款訂單清理用索引（BookingRepository.lockExpiredHolds）
+CREATE INDEX ix_booking_status_booking_date
+    ON booking (status, booking_date);
@@ -0,0 +1,9 @@
+-- 地理編碼結果快取（GeocodingCacheStore）
+-- address_key 為 GeocodingAddresses.cacheKey 正規化後的地址，超過 400 字的地址只放在記憶體
+CREATE TABLE geocode_cache (
+    address_key NVARCHAR(400) NOT NULL,
+    latitude DECIMAL(10, 7) NOT NULL,
+    longitude DECIMAL(10, 7) NOT NULL,
+    updated_at DATETIME2 NOT NULL,
+    CONSTRAINT pk_geocode_cache PRIMARY KEY (address_key)
+);
@@ -0,0 +1,3 @@
+-- 業者飯店分頁用索引（HotelSpecs.ownedWithFilters，預設依建立時間由新到舊）
+CREATE INDEX ix_hotel_user_id_created_time
+    ON hotel (user_id, created_time DESC, id DESC);
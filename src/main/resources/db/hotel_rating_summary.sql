@@ -0,0 +1,14 @@
+-- 飯店評分彙總表（HotelRatingSummary）
+-- 建表後呼叫 HotelRatingService.rebuildAll()（或等每日排程）由 review 表回填
+CREATE TABLE hotel_rating_summary (
+    hotel_id      INT       NOT NULL PRIMARY KEY,
+    review_count  INT       NOT NULL DEFAULT 0,
+    rating_sum    BIGINT    NOT NULL DEFAULT 0,
+    star1_count   INT       NOT NULL DEFAULT 0,
+    star2_count   INT       NOT NULL DEFAULT 0,
+    star3_count   INT       NOT NULL DEFAULT 0,
+    star4_count   INT       NOT NULL DEFAULT 0,
+    star5_count   INT       NOT NULL DEFAULT 0,
+    updated_time  DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+    CONSTRAINT fk_hotel_rating_summary_hotel FOREIGN KEY (hotel_id) REFERENCES hotel (id)
+);
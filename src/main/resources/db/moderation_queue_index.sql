@@ -0,0 +1,15 @@
+-- 審核佇列游標分頁用索引（ModerationActionServiceImpl.queue）
+-- 依 (created_at, id) 由新到舊，INCLUDE 篩選欄位讓各狀態筆數的 GROUP BY 不需回表
+CREATE INDEX ix_moderation_actions_created_at_id
+    ON moderation_actions (created_at DESC, id DESC)
+    INCLUDE (status, reason, action_taken, moderator_id);
+
+-- 依狀態篩選（最常用：待處理）
+CREATE INDEX ix_moderation_actions_status_created_at_id
+    ON moderation_actions (status, created_at DESC, id DESC)
+    INCLUDE (reason, action_taken, moderator_id);
+
+-- 依審核人員篩選
+CREATE INDEX ix_moderation_actions_moderator_created_at_id
+    ON moderation_actions (moderator_id, created_at DESC, id DESC)
+    INCLUDE (status, reason, action_taken);
@@ -0,0 +1,13 @@
+-- 審核狀態資料整理（ModerationActionSpecs.hasStatus 直接比對原始欄位）
+-- 舊資料值、空值統一改為 enum 名稱，之後依狀態篩選不需再對欄位做 UPPER/TRIM，
+-- 可以使用 ix_moderation_actions_status_created_at_id
+-- 對應規則與 Status.fromString 一致：已知的完成值改為 RESOLVED，其餘（含 NULL、'NULL'、空字串）改為 PENDING
+UPDATE moderation_actions
+SET status = 'RESOLVED'
+WHERE LTRIM(status) IN (N'RESOLVED', N'已完成', N'已審查', N'已處理', N'已解決')
+  AND status <> 'RESOLVED';
+
+UPDATE moderation_actions
+SET status = 'PENDING'
+WHERE status IS NULL
+   OR status NOT IN ('PENDING', 'RESOLVED');
@@ -0,0 +1,9 @@
+-- 飯店評論游標分頁用索引（ReviewRepository.findHotelReviewsNewest / Highest / Lowest）
+-- booking_inventory 的主鍵為 (booking_id, inventory_id)，EXISTS 子查詢可直接走主鍵
+CREATE INDEX ix_review_created_date_id
+    ON review (created_date DESC, id DESC)
+    INCLUDE (booking_id, user_id, rating);
+
+CREATE INDEX ix_review_rating_created_date_id
+    ON review (rating, created_date DESC, id DESC)
+    INCLUDE (booking_id, user_id);
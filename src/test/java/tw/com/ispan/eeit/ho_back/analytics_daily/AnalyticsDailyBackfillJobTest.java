@@ -0,0 +1,109 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsDailyBackfillJob.Chunk;
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+public class AnalyticsDailyBackfillJobTest {
+
+    private AnalyticsDailyRepository dailyRepository;
+    private AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private JdbcTemplate jdbcTemplate;
+    private AnalyticsDailyBackfillJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dailyRepository = mock(AnalyticsDailyRepository.class);
+        rawQueryRepository = mock(AnalyticsDailyRawQueryRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        AnalyticsProperties properties = new AnalyticsProperties();
+        job = new AnalyticsDailyBackfillJob(dailyRepository, rawQueryRepository, jdbcTemplate, transactionTemplate,
+                new AnalyticsRollupCache(properties), properties);
+    }
+
+    @Test
+    void plansContiguousChunksAroundExistingDates() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        Set<LocalDate> existing = Set.of(LocalDate.of(2025, 1, 4), LocalDate.of(2025, 1, 5));
+
+        List<Chunk> plan = AnalyticsDailyBackfillJob.plan(from, LocalDate.of(2025, 1, 10), existing, 3);
+
+        assertEquals(List.of(
+                new Chunk(from, LocalDate.of(2025, 1, 4)),
+                new Chunk(LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 9)),
+                new Chunk(LocalDate.of(2025, 1, 9), LocalDate.of(2025, 1, 11))), plan);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fillsChunkWithRunningTotals() {
+        LocalDate start = LocalDate.of(2025, 3, 1);
+        List<Object[]> base = new ArrayList<>();
+        base.add(new Object[] { 100, 10 });
+        when(rawQueryRepository.countCumulativeBefore(start.atStartOfDay())).thenReturn(base);
+        List<Object[]> deltas = new ArrayList<>();
+        deltas.add(new Object[] { Date.valueOf("2025-03-01"), 2, 1, 3, new BigDecimal("900.00") });
+        deltas.add(new Object[] { Date.valueOf("2025-03-03"), 5, 0, 1, new BigDecimal("300.00") });
+        when(rawQueryRepository.collectDailyDeltasBetween(start.atStartOfDay(), start.plusDays(3).atStartOfDay()))
+                .thenReturn(deltas);
+
+        assertEquals(3, job.fill(new Chunk(start, start.plusDays(3))));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AnalyticsDailyBackfillJob.INSERT_SQL), rows.capture());
+        List<Object[]> inserted = rows.getValue();
+        assertEquals(List.of(Date.valueOf("2025-03-01"), 102L, 11L, 3L, new BigDecimal("900.00")),
+                List.of(inserted.get(0)));
+        assertEquals(List.of(Date.valueOf("2025-03-02"), 102L, 11L, 0L, BigDecimal.ZERO), List.of(inserted.get(1)));
+        assertEquals(List.of(Date.valueOf("2025-03-03"), 107L, 11L, 1L, new BigDecimal("300.00")),
+                List.of(inserted.get(2)));
+    }
+
+    @Test
+    void runsOnlyMissingDatesAndReportsProgress() throws Exception {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        List<Object> existing = new ArrayList<>();
+        existing.add(Date.valueOf("2024-01-02"));
+        when(dailyRepository.findExistingDates(from, from.plusDays(3))).thenReturn(existing);
+        when(rawQueryRepository.countCumulativeBefore(any())).thenReturn(new ArrayList<>());
+        when(rawQueryRepository.collectDailyDeltasBetween(any(), any())).thenReturn(new ArrayList<>());
+
+        assertEquals(2, job.run(from, from.plusDays(2)));
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(AnalyticsDailyBackfillJob.INSERT_SQL), anyList());
+        assertEquals(2, job.status().get("missingDays"));
+        assertEquals(100.0, job.status().get("progress"));
+
+        assertThrows(IllegalArgumentException.class, () -> job.start(from, LocalDate.now().plusDays(1)));
+    }
+}
@@ -0,0 +1,67 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AnalyticsDailyCollectorServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 11, 20);
+
+    private AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private AnalyticsDailyRepository dailyRepository;
+    private AnalyticsDailyCollectorService collector;
+
+    @BeforeEach
+    void setUp() {
+        rawQueryRepository = mock(AnalyticsDailyRawQueryRepository.class);
+        dailyRepository = mock(AnalyticsDailyRepository.class);
+        collector = new AnalyticsDailyCollectorService(rawQueryRepository, dailyRepository);
+
+        List<Object[]> delta = new ArrayList<>();
+        delta.add(new Object[] { 3, 1, 5, new BigDecimal("12000.00") });
+        when(rawQueryRepository.collectDailyDelta(DATE.atStartOfDay(), DATE.plusDays(1).atStartOfDay()))
+                .thenReturn(delta);
+    }
+
+    @Test
+    void addsTodaysDeltaToYesterdaysSnapshot() {
+        AnalyticsDaily yesterday = AnalyticsDaily.builder().date(DATE.minusDays(1))
+                .totalUsers(100).totalHotels(20).build();
+        when(dailyRepository.findByDate(DATE.minusDays(1))).thenReturn(Optional.of(yesterday));
+
+        AnalyticsDaily result = collector.collectDataForDate(DATE);
+
+        assertEquals(103, result.getTotalUsers());
+        assertEquals(21, result.getTotalHotels());
+        assertEquals(5, result.getTotalOrders());
+        assertEquals(new BigDecimal("12000.00"), result.getGmvAmount());
+        verify(rawQueryRepository, never()).countCumulativeBefore(any());
+    }
+
+    @Test
+    void countsCumulativeTotalsWithoutSnapshot() {
+        when(dailyRepository.findByDate(DATE.minusDays(1))).thenReturn(Optional.empty());
+        List<Object[]> cumulative = new ArrayList<>();
+        cumulative.add(new Object[] { 250L, 40L });
+        when(rawQueryRepository.countCumulativeBefore(DATE.plusDays(1).atStartOfDay())).thenReturn(cumulative);
+
+        AnalyticsDaily result = collector.collectDataForDate(DATE);
+
+        assertEquals(250, result.getTotalUsers());
+        assertEquals(40, result.getTotalHotels());
+        assertEquals(5, result.getTotalOrders());
+    }
+}
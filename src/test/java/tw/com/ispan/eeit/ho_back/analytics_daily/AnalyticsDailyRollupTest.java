@@ -0,0 +1,102 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+public class AnalyticsDailyRollupTest {
+
+    private AnalyticsDailyRepository repository;
+    private AnalyticsRollupCache cache;
+    private AnalyticsDailyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AnalyticsDailyRepository.class);
+        AnalyticsProperties properties = new AnalyticsProperties();
+        cache = new AnalyticsRollupCache(properties);
+        service = new AnalyticsDailyServiceImpl(repository, mock(AnalyticsDailyCollectorService.class), cache,
+                properties);
+    }
+
+    @Test
+    void periodsAlignToCalendar() {
+        LocalDate date = LocalDate.of(2025, 11, 13); // 星期四
+        assertEquals(LocalDate.of(2025, 11, 10), AnalyticsPeriod.WEEK.start(date));
+        assertEquals(LocalDate.of(2025, 11, 1), AnalyticsPeriod.MONTH.start(date));
+        assertEquals(LocalDate.of(2025, 10, 1), AnalyticsPeriod.QUARTER.start(date));
+        assertEquals(LocalDate.of(2025, 1, 1), AnalyticsPeriod.YEAR.start(date));
+        assertEquals(LocalDate.of(2026, 1, 1), AnalyticsPeriod.QUARTER.next(LocalDate.of(2025, 10, 1)));
+        assertEquals(AnalyticsPeriod.MONTH, AnalyticsPeriod.parse("month"));
+        assertThrows(IllegalArgumentException.class, () -> AnalyticsPeriod.parse("decade"));
+    }
+
+    @Test
+    void aggregatesQuarterInOneQueryAndCachesClosedMonths() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { Date.valueOf("2024-10-01"), 31, 3100L, 310L, 62L, new BigDecimal("3100.00") });
+        rows.add(new Object[] { Date.valueOf("2024-12-01"), 2, 200L, 20L, 4L, new BigDecimal("400.00") });
+        when(repository.sumByPeriod("MONTH", LocalDate.of(2024, 10, 1), LocalDate.of(2025, 1, 1))).thenReturn(rows);
+
+        List<AnalyticsDailyRollup> months = service.getRollups(AnalyticsPeriod.MONTH,
+                LocalDate.of(2024, 10, 15), LocalDate.of(2024, 12, 31));
+
+        assertEquals(3, months.size());
+        assertEquals(LocalDate.of(2024, 10, 31), months.get(0).periodEnd());
+        assertEquals(100, months.get(0).toDailyAverage().getTotalUsers());
+        assertEquals(new BigDecimal("100.00"), months.get(0).toDailyAverage().getGmvAmount());
+        assertTrue(months.get(1).isEmpty());
+        assertEquals(2, months.get(2).days());
+
+        // 已結束的月份第二次直接取快取
+        service.getRollups(AnalyticsPeriod.MONTH, LocalDate.of(2024, 10, 1), LocalDate.of(2024, 12, 31));
+        verify(repository, times(1)).sumByPeriod(anyString(), any(), any());
+        assertEquals(3L, cache.status().get("hits"));
+    }
+
+    @Test
+    void writesEvictAffectedPeriods() {
+        when(repository.sumByPeriod(anyString(), any(), any())).thenReturn(new ArrayList<>());
+        service.getRollups(AnalyticsPeriod.YEAR, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+        AnalyticsDaily existing = AnalyticsDaily.builder().id(5L).date(LocalDate.of(2023, 6, 1)).build();
+        when(repository.findById(5L)).thenReturn(Optional.of(existing));
+        service.delete(5L);
+
+        service.getRollups(AnalyticsPeriod.YEAR, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        verify(repository, times(2)).sumByPeriod(anyString(), any(), any());
+    }
+
+    @Test
+    void openPeriodIsNotCached() {
+        LocalDate today = LocalDate.now();
+        when(repository.sumByPeriod(anyString(), any(), any())).thenReturn(new ArrayList<>());
+
+        service.getRollups(AnalyticsPeriod.DAY, today, today);
+        service.getRollups(AnalyticsPeriod.DAY, today, today);
+
+        verify(repository, times(2)).sumByPeriod(anyString(), any(), any());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getRollups(AnalyticsPeriod.DAY, today, today.minusDays(1)));
+        verify(repository, never()).findByDate(any());
+    }
+}
@@ -0,0 +1,139 @@
+package tw.com.ispan.eeit.ho_back.analytics_daily;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.analytics_daily.AnalyticsTodayCounters.Metric;
+import tw.com.ispan.eeit.ho_back.properties.AnalyticsProperties;
+
+public class AnalyticsTodayCountersTest {
+
+    // 可以往後撥的時鐘
+    static class MutableClock extends Clock {
+        Instant now;
+
+        MutableClock(LocalDate date) {
+            set(date);
+        }
+
+        void set(LocalDate date) {
+            now = date.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 20);
+
+    private AnalyticsDailyRawQueryRepository rawQueryRepository;
+    private MutableClock clock;
+    private AnalyticsTodayCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        rawQueryRepository = mock(AnalyticsDailyRawQueryRepository.class);
+        when(rawQueryRepository.countNewUsersByDate(DAY)).thenReturn(5);
+        when(rawQueryRepository.countNewReviewsByDate(DAY)).thenReturn(2);
+        when(rawQueryRepository.countNewHotelsByDate(DAY)).thenReturn(1);
+        when(rawQueryRepository.countSupportCasesByDate(DAY)).thenReturn(0);
+        when(rawQueryRepository.countReviewsBetween(LocalDate.of(2025, 11, 1), LocalDate.of(2025, 12, 1)))
+                .thenReturn(10);
+        clock = new MutableClock(DAY);
+        counters = new AnalyticsTodayCounters(rawQueryRepository, new AnalyticsProperties(), clock);
+    }
+
+    @Test
+    void readsNullUntilSeededThenCountsEvents() {
+        assertNull(counters.today(Metric.NEW_USERS));
+        assertNull(counters.monthReviews());
+
+        counters.reconcile();
+        counters.increment(Metric.NEW_USERS);
+        counters.increment(Metric.NEW_REVIEWS);
+
+        assertEquals(6L, counters.today(Metric.NEW_USERS));
+        assertEquals(3L, counters.today(Metric.NEW_REVIEWS));
+        assertEquals(1L, counters.today(Metric.NEW_HOTELS));
+        assertEquals(11L, counters.monthReviews());
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        counters.reconcile();
+        counters.increment(Metric.NEW_HOTELS);
+        counters.increment(Metric.NEW_HOTELS);
+        // 其中一家飯店之後停業，資料庫只剩 2 家
+        when(rawQueryRepository.countNewHotelsByDate(DAY)).thenReturn(2);
+
+        counters.reconcile();
+
+        assertEquals(2L, counters.today(Metric.NEW_HOTELS));
+        assertEquals(1L, counters.status().get("lastDrift"));
+    }
+
+    @Test
+    void commitDuringReconcileQueryIsNotCountedTwice() {
+        counters.reconcile();
+        // 查詢期間有一位新用戶提交：計數已加 1，查詢結果也包含這一筆
+        when(rawQueryRepository.countNewUsersByDate(DAY)).thenAnswer(invocation -> {
+            counters.increment(Metric.NEW_USERS);
+            return 6;
+        });
+
+        counters.reconcile();
+
+        assertEquals(6L, counters.today(Metric.NEW_USERS));
+        assertEquals(0L, counters.status().get("lastDrift"));
+    }
+
+    @Test
+    void rollsOverDayAndMonth() {
+        counters.reconcile();
+        counters.increment(Metric.NEW_REVIEWS);
+
+        clock.set(DAY.plusDays(1));
+        assertEquals(0L, counters.today(Metric.NEW_REVIEWS));
+        assertEquals(11L, counters.monthReviews());
+
+        clock.set(LocalDate.of(2025, 12, 1));
+        counters.increment(Metric.SUPPORT_CASES);
+        assertEquals(1L, counters.today(Metric.SUPPORT_CASES));
+        assertEquals(0L, counters.monthReviews());
+    }
+
+    @Test
+    void staysUnseededWhenStartupSeedFails() {
+        when(rawQueryRepository.countNewUsersByDate(any())).thenThrow(new IllegalStateException("db down"));
+
+        counters.seedOnStartup();
+        counters.increment(Metric.NEW_USERS);
+
+        assertNull(counters.today(Metric.NEW_USERS));
+        assertEquals("db down", counters.status().get("lastError"));
+    }
+}
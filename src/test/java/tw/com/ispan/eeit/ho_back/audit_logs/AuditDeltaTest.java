@@ -0,0 +1,93 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class AuditDeltaTest {
+
+    private static final String OLD_JSON = "{\"id\":7,\"name\":\"Alpha\",\"price\":1200,\"tags\":[\"a\"],\"memo\":null}";
+    private static final String NEW_JSON = "{\"id\":7,\"name\":\"Beta\",\"price\":1200,\"tags\":[\"a\",\"b\"],\"memo\":\"x\"}";
+
+    @Test
+    void compactUpdateRendersSameFieldChangesAsFullJson() {
+        AuditLog full = log("update", OLD_JSON, NEW_JSON);
+        AuditLog compact = log("update", OLD_JSON, NEW_JSON);
+
+        assertTrue(AuditDelta.compact(compact, 0));
+        assertNull(compact.getOldValue());
+        assertNull(compact.getNewValue());
+        assertNotNull(compact.getChanges());
+
+        assertEquals(render(full), render(compact));
+        assertEquals(3, render(compact).size());
+    }
+
+    @Test
+    void compactInsertAndDeleteKeepEveryField() {
+        for (String action : List.of("insert", "delete")) {
+            AuditLog full = "insert".equals(action) ? log(action, null, NEW_JSON) : log(action, OLD_JSON, null);
+            AuditLog compact = "insert".equals(action) ? log(action, null, NEW_JSON) : log(action, OLD_JSON, null);
+
+            assertTrue(AuditDelta.compact(compact, 0));
+            assertEquals(render(full), render(compact));
+            assertEquals(5, render(compact).size());
+        }
+    }
+
+    @Test
+    void largeChangesAreGzipped() {
+        String big = "x".repeat(5000);
+        AuditLog compact = log("update", "{\"memo\":\"a\"}", "{\"memo\":\"" + big + "\"}");
+
+        assertTrue(AuditDelta.compact(compact, 1024));
+        assertNull(compact.getChanges());
+        assertTrue(compact.getChangesGz().length < 1024);
+        assertEquals(big, AuditLogDiffUtil.extractFieldChanges(compact).get(0).getNewValue());
+    }
+
+    @Test
+    void reconstructsChangedFieldsForFullResponse() {
+        AuditLog compact = log("update", OLD_JSON, NEW_JSON);
+        AuditDelta.compact(compact, 0);
+
+        AuditLogResponse response = AuditLogResponse.from(compact);
+
+        assertEquals("{\"name\":\"Alpha\",\"tags\":[\"a\"],\"memo\":null}", response.getOldValue());
+        assertEquals("{\"name\":\"Beta\",\"tags\":[\"a\",\"b\"],\"memo\":\"x\"}", response.getNewValue());
+    }
+
+    @Test
+    void unparsableJsonIsKeptAsIs() {
+        AuditLog log = log("update", "not json", "{\"a\":1}");
+
+        assertFalse(AuditDelta.compact(log, 0));
+        assertEquals("not json", log.getOldValue());
+        assertNull(log.getChanges());
+    }
+
+    private static AuditLog log(String action, String oldJson, String newJson) {
+        AuditLog log = new AuditLog();
+        log.setId(1L);
+        log.setActionType(action);
+        log.setTargetTable("hotel");
+        log.setTargetId(7L);
+        log.setOldValue(oldJson);
+        log.setNewValue(newJson);
+        return log;
+    }
+
+    private static List<String> render(AuditLog log) {
+        return AuditLogDiffUtil.extractFieldChanges(log).stream()
+                .sorted(Comparator.comparing(AuditLogFieldChangeResponse::getFieldName))
+                .map(c -> c.getFieldName() + "|" + c.getOldValue() + "|" + c.getNewValue())
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import java.lang.reflect.Field;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import tw.com.ispan.eeit.ho_back.user.User;
+
+/**
+ * 審計取得主鍵與表名的量測，預設不執行
+ * mvn test -Dtest=AuditEntityMetadataBenchmarkTest -Dbenchmark=true
+ *
+ * reflection：原本每次呼叫 getDeclaredFields / setAccessible / getAnnotation 的做法
+ * cached：AuditEntityMetadata 的 MethodHandle 與快取的表名
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class AuditEntityMetadataBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 200_000;
+    private static final int MEASURE_ROUNDS = 2_000_000;
+
+    @Test
+    void benchmark() {
+        User user = new User();
+        user.setId(42);
+
+        System.out.printf("%-12s %12s %10s%n", "path", "ops/sec", "ns/op");
+        run("reflection", user, u -> reflectionTableName(u.getClass()).length()
+                + ((Integer) reflectionId(u).orElse(0)));
+        run("cached", user, u -> AuditSupport.resolveTableName(u.getClass()).length()
+                + ((Integer) AuditSupport.extractId(u).orElse(0)));
+    }
+
+    private void run(String path, User user, ToIntFunction<User> op) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += op.applyAsInt(user);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += op.applyAsInt(user);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-12s %12.0f %10.1f   (sink %d)%n", path,
+                MEASURE_ROUNDS * 1e9 / elapsed, (double) elapsed / MEASURE_ROUNDS, sink);
+    }
+
+    // 原本 AuditSupport 的實作
+    private static Optional<Object> reflectionId(Object entity) {
+        for (Field f : entity.getClass().getDeclaredFields()) {
+            if (f.isAnnotationPresent(Id.class) || f.isAnnotationPresent(EmbeddedId.class)) {
+                f.setAccessible(true);
+                try {
+                    return Optional.ofNullable(f.get(entity));
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String reflectionTableName(Class<?> entityClass) {
+        Table t = entityClass.getAnnotation(Table.class);
+        return (t != null && !t.name().isBlank()) ? t.name() : entityClass.getSimpleName();
+    }
+}
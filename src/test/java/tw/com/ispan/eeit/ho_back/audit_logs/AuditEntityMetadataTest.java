@@ -0,0 +1,74 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventory;
+import tw.com.ispan.eeit.ho_back.role.Role;
+import tw.com.ispan.eeit.ho_back.user.User;
+
+public class AuditEntityMetadataTest {
+
+    // 模擬 Hibernate 產生的代理子類別
+    static class UserSubclass extends User {
+    }
+
+    @Test
+    void readsIdAndTableName() {
+        User user = new User();
+        user.setId(42);
+
+        AuditEntityMetadata metadata = AuditEntityMetadata.of(User.class);
+
+        assertEquals("[user]", metadata.tableName());
+        assertEquals(Optional.of(42), metadata.id(user));
+        assertEquals(Optional.empty(), metadata.id(new User()));
+        assertEquals(Optional.of(42), AuditSupport.extractId(user));
+        assertEquals("[user]", AuditSupport.resolveTableName(User.class));
+    }
+
+    @Test
+    void subclassSharesEntityMetadata() {
+        UserSubclass user = new UserSubclass();
+        user.setId(7);
+
+        assertSame(AuditEntityMetadata.of(User.class), AuditEntityMetadata.of(UserSubclass.class));
+        assertEquals("[user]", AuditSupport.resolveTableName(UserSubclass.class));
+        assertEquals(Optional.of(7), AuditSupport.extractId(user));
+    }
+
+    @Test
+    void separatesAssociationsFromAuditedFields() {
+        Role role = new Role();
+        role.setId(3);
+        User user = new User();
+        user.setRoles(List.of(role));
+
+        AuditEntityMetadata metadata = AuditEntityMetadata.of(User.class);
+
+        assertTrue(metadata.associationFields().containsAll(List.of("roles", "hotels", "wishList")));
+        assertTrue(metadata.auditedFields().containsAll(List.of("email", "status")));
+        assertFalse(metadata.auditedFields().contains("id"));
+        assertFalse(metadata.auditedFields().contains("roles"));
+        assertEquals(List.of(role), metadata.association(user, "roles"));
+        assertNull(metadata.association(user, "email"));
+    }
+
+    @Test
+    void compositeKeyKeepsFirstIdField() {
+        BookingInventory bi = new BookingInventory();
+        bi.setBookingId(5);
+        bi.setInventoryId(9);
+
+        assertEquals("booking_inventory", AuditSupport.resolveTableName(BookingInventory.class));
+        assertEquals(Optional.of(5), AuditSupport.extractId(bi));
+    }
+}
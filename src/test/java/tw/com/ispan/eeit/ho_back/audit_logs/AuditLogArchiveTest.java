@@ -0,0 +1,157 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditRetentionProperties;
+
+public class AuditLogArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AuditLogArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        AuditRetentionProperties properties = new AuditRetentionProperties();
+        properties.setArchiveDir(tempDir.toString());
+        archive = new AuditLogArchive(properties);
+    }
+
+    @Test
+    void writesMonthlyChunksAndReadsThemBackNewestFirst() throws Exception {
+        archive.write(List.of(
+                log(1L, "hotel", LocalDateTime.of(2024, 1, 20, 10, 0), "[[\"name\",\"Alpha\",\"Beta\"]]"),
+                log(2L, "users", LocalDateTime.of(2024, 1, 31, 23, 0), "[[\"email\",null,\"a@b.c\"]]"),
+                log(3L, "hotel", LocalDateTime.of(2024, 2, 1, 0, 0), "[[\"price\",100,200]]")));
+
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)), archive.months());
+        assertTrue(Files.exists(tempDir.resolve("2024-01").resolve("chunk-1-2.ndjson.gz")));
+
+        AuditLogQuery query = new AuditLogQuery();
+        query.setFrom(LocalDateTime.of(2024, 1, 1, 0, 0));
+        List<AuditLog> all = archive.search(query, 0, 100).logs();
+        assertEquals(List.of(3L, 2L, 1L), all.stream().map(AuditLog::getId).toList());
+        assertEquals("price", AuditLogDiffUtil.extractFieldChanges(all.get(0)).get(0).getFieldName());
+
+        query.setTargetTable("HOTEL");
+        query.setKeyword("beta");
+        assertEquals(List.of(1L), archive.search(query, 0, 100).logs().stream().map(AuditLog::getId).toList());
+    }
+
+    @Test
+    void rearchivedRowsAreReadOnce() throws Exception {
+        AuditLog first = log(5L, "hotel", LocalDateTime.of(2024, 3, 1, 8, 0), "[]");
+        archive.write(List.of(first));
+        // 刪除資料庫資料前中斷，下次同一筆與新資料一起再歸檔一次
+        archive.write(List.of(first, log(6L, "hotel", LocalDateTime.of(2024, 3, 2, 8, 0), "[]")));
+
+        AuditLogQuery query = new AuditLogQuery();
+        query.setFrom(LocalDateTime.of(2024, 3, 1, 0, 0));
+        assertEquals(List.of(6L, 5L), archive.search(query, 0, 100).logs().stream().map(AuditLog::getId).toList());
+    }
+
+    @Test
+    void archiveIsOnlyReadWhenRangeReachesArchivedMonths() throws Exception {
+        archive.write(List.of(log(1L, "hotel", LocalDateTime.of(2024, 1, 20, 10, 0), "[]")));
+
+        AuditLogQuery noRange = new AuditLogQuery();
+        assertFalse(archive.covers(noRange));
+
+        // 只有 to 也要讀歸檔
+        AuditLogQuery onlyTo = new AuditLogQuery();
+        onlyTo.setTo(LocalDateTime.of(2024, 2, 1, 0, 0));
+        assertTrue(archive.covers(onlyTo));
+        assertEquals(List.of(1L), archive.search(onlyTo, 0, 10).logs().stream().map(AuditLog::getId).toList());
+
+        AuditLogQuery recent = new AuditLogQuery();
+        recent.setFrom(LocalDateTime.of(2024, 2, 1, 0, 0));
+        assertFalse(archive.covers(recent));
+
+        AuditLogQuery endsAtMonthStart = new AuditLogQuery();
+        endsAtMonthStart.setFrom(LocalDateTime.of(2023, 12, 1, 0, 0));
+        endsAtMonthStart.setTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+        assertFalse(archive.covers(endsAtMonthStart));
+
+        AuditLogQuery old = new AuditLogQuery();
+        old.setFrom(LocalDateTime.of(2023, 12, 1, 0, 0));
+        assertTrue(archive.covers(old));
+    }
+
+    @Test
+    void searchStopsOnceThePageIsFilled() throws Exception {
+        // 兩個月、每月兩個檔案
+        archive.write(List.of(log(1L, "a", LocalDateTime.of(2024, 1, 1, 0, 0), "[]"),
+                log(2L, "a", LocalDateTime.of(2024, 1, 2, 0, 0), "[]")));
+        archive.write(List.of(log(3L, "a", LocalDateTime.of(2024, 1, 3, 0, 0), "[]"),
+                log(4L, "a", LocalDateTime.of(2024, 1, 4, 0, 0), "[]")));
+        archive.write(List.of(log(5L, "a", LocalDateTime.of(2024, 2, 1, 0, 0), "[]"),
+                log(6L, "a", LocalDateTime.of(2024, 2, 2, 0, 0), "[]")));
+        AuditLogQuery query = new AuditLogQuery();
+        query.setFrom(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        AuditLogArchive.Slice first = archive.search(query, 0, 2);
+        assertEquals(List.of(6L, 5L), first.logs().stream().map(AuditLog::getId).toList());
+        assertTrue(first.hasMore());
+
+        AuditLogArchive.Slice second = archive.search(query, 2, 3);
+        assertEquals(List.of(4L, 3L, 2L), second.logs().stream().map(AuditLog::getId).toList());
+        assertEquals(2, second.skipped());
+        assertTrue(second.hasMore());
+
+        AuditLogArchive.Slice last = archive.search(query, 5, 3);
+        assertEquals(List.of(1L), last.logs().stream().map(AuditLog::getId).toList());
+        assertFalse(last.hasMore());
+
+        // 1 月的舊檔案壞掉也不影響只需要 2 月資料的頁面
+        Files.write(tempDir.resolve("2024-01").resolve("chunk-1-2.ndjson.gz"), new byte[] { 1, 2, 3 });
+        assertEquals(List.of(6L), archive.search(query, 0, 1).logs().stream().map(AuditLog::getId).toList());
+    }
+
+    @Test
+    void archivedRowsFollowDatabaseRowsAcrossPages() {
+        // 資料庫共 3 筆，第 1 頁（size 2）剩 1 筆，由歸檔補 1 筆，歸檔還有更多
+        PageRequest second = PageRequest.of(1, 2);
+        Page<AuditLog> hot = new PageImpl<>(List.of(log(10L, "a", null, "[]")), second, 3);
+        Page<AuditLog> page = AuditLogServiceImpl.appendArchived(hot,
+                new AuditLogArchive.Slice(List.of(log(3L, "a", null, "[]")), 0, true), second);
+        assertEquals(List.of(10L, 3L), page.getContent().stream().map(AuditLog::getId).toList());
+        assertTrue(page.hasNext());
+
+        // 第 2 頁完全來自歸檔，略過 1 筆，最後一頁
+        PageRequest third = PageRequest.of(2, 2);
+        page = AuditLogServiceImpl.appendArchived(new PageImpl<>(List.of(), third, 3),
+                new AuditLogArchive.Slice(List.of(log(2L, "a", null, "[]"), log(1L, "a", null, "[]")), 1, false),
+                third);
+        assertEquals(List.of(2L, 1L), page.getContent().stream().map(AuditLog::getId).toList());
+        assertEquals(6, page.getTotalElements());
+        assertFalse(page.hasNext());
+    }
+
+    private static AuditLog log(Long id, String table, LocalDateTime createdAt, String changes) {
+        AuditLog log = new AuditLog();
+        log.setId(id);
+        log.setActorUserId(1L);
+        log.setActionType("update");
+        log.setTargetTable(table);
+        log.setChanges(changes);
+        log.setIpAddress("127.0.0.1");
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+}
@@ -0,0 +1,89 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditStorageProperties;
+
+public class AuditLogCompactionJobTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditLogCompactionJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        AuditStorageProperties properties = new AuditStorageProperties();
+        properties.getMigration().setChunkSize(2);
+        job = new AuditLogCompactionJob(jdbcTemplate, transactionTemplate, properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void convertsChunksUntilShortChunkAndSkipsInvalidJson() {
+        when(jdbcTemplate.query(eq(AuditLogCompactionJob.SELECT_SQL), any(RowMapper.class), eq(2), eq(0L)))
+                .thenReturn(List.of(row(1L, "update", "{\"a\":1}", "{\"a\":2}"), row(2L, "update", "bad", "{}")));
+        when(jdbcTemplate.query(eq(AuditLogCompactionJob.SELECT_SQL), any(RowMapper.class), eq(2), eq(2L)))
+                .thenReturn(List.of(row(3L, "insert", null, "{\"b\":true}")));
+
+        assertEquals(2, job.run(10));
+
+        ArgumentCaptor<List<AuditLog>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(AuditLogCompactionJob.UPDATE_SQL),
+                batches.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals("[[\"a\",1,2]]", batches.getAllValues().get(0).get(0).getChanges());
+        assertEquals("[[\"b\",null,true]]", batches.getAllValues().get(1).get(0).getChanges());
+
+        assertEquals(true, job.status().get("finished"));
+        assertEquals(3L, job.status().get("lastId"));
+        assertEquals(1L, job.status().get("skipped"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void restartScansFromBeginning() {
+        when(jdbcTemplate.query(eq(AuditLogCompactionJob.SELECT_SQL), any(RowMapper.class), anyInt(), any()))
+                .thenReturn(List.of());
+
+        job.run(1);
+        assertEquals(true, job.status().get("finished"));
+
+        job.restart();
+        assertEquals(false, job.status().get("finished"));
+        assertEquals(0L, job.status().get("lastId"));
+        verify(jdbcTemplate, never()).batchUpdate(eq(AuditLogCompactionJob.UPDATE_SQL),
+                anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private static AuditLog row(Long id, String action, String oldJson, String newJson) {
+        AuditLog log = new AuditLog();
+        log.setId(id);
+        log.setActionType(action);
+        log.setOldValue(oldJson);
+        log.setNewValue(newJson);
+        return log;
+    }
+}
@@ -0,0 +1,150 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditSearchProperties;
+
+public class AuditLogSearchServiceTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private AuditLogSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        service = new AuditLogSearchService(jdbcTemplate, new AuditSearchProperties());
+    }
+
+    @Test
+    void tokenizerSplitsWordsAndCjkBigrams() {
+        assertEquals(Set.of("hotel", "台北", "北市", "市", "101", "room"),
+                AuditLogTokenizer.tokenize("Hotel 台北市-101 a room"));
+        assertEquals(List.of("台", "alph"), AuditLogTokenizer.queryTokens("台 Alph"));
+    }
+
+    @Test
+    void tokenizesCompactChanges() {
+        AuditLog log = new AuditLog();
+        log.setActionType("update");
+        log.setTargetTable("hotel");
+        log.setOldValue("{\"name\":\"Grand Inn\"}");
+        log.setNewValue("{\"name\":\"晴空旅店\"}");
+        AuditDelta.compact(log, 0);
+
+        Set<String> tokens = AuditLogTokenizer.tokenize(log, 100);
+
+        assertTrue(tokens.containsAll(List.of("hotel", "name", "grand", "inn", "晴空", "旅店", "店")));
+        assertEquals(3, AuditLogTokenizer.tokenize(log, 3).size());
+    }
+
+    @Test
+    void buildsSargableKeysetQuery() {
+        AuditLogQuery query = new AuditLogQuery();
+        query.setKeyword("grand 台北");
+        query.setActionType("INSERT");
+        query.setTargetTable("hotel");
+        query.setFrom(LocalDateTime.of(2025, 1, 1, 0, 0));
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        String sql = service.buildSql(query, 500L, params);
+
+        assertFalse(sql.contains("LOWER"));
+        assertTrue(sql.contains("t0.token LIKE :token0"));
+        assertTrue(sql.contains("t2.token LIKE :token2"));
+        assertTrue(sql.contains("u.indexed = 0"));
+        assertTrue(sql.contains("a.id < :cursorId"));
+        assertTrue(sql.endsWith("ORDER BY a.id DESC"));
+        assertEquals("grand%", params.getValue("token0"));
+        assertEquals("台北%", params.getValue("token1"));
+        assertEquals(List.of("insert", "create"), params.getValue("actionTypes"));
+        assertEquals("%grand%", params.getValue("like0"));
+        assertEquals("%台北%", params.getValue("like1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void returnsNextCursorWhenMoreRowsThanPageSize() {
+        List<AuditLogSearchService.Row> rows = new ArrayList<>();
+        for (long id = 10; id > 7; id--) {
+            AuditLog log = new AuditLog();
+            log.setId(id);
+            log.setActionType("update");
+            log.setChanges("[[\"price\",100,200]]");
+            rows.add(new AuditLogSearchService.Row(log, true));
+        }
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(rows);
+
+        AuditLogSearchPage page = service.search(new AuditLogQuery(), null, 2);
+
+        assertEquals(2, page.getCount());
+        assertTrue(page.isHasNext());
+        assertEquals("9", page.getNextCursor());
+        assertEquals("price", page.getChanges().get(0).getFieldName());
+
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(rows.subList(0, 1));
+        AuditLogSearchPage last = service.search(new AuditLogQuery(), "9", 2);
+        assertFalse(last.isHasNext());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unindexedRowsUseTheSamePrefixRuleAsTheIndex() {
+        // id 9 的 "alphabet" 以前綴符合 "alph"；id 8 的 "ralph" 只是子字串，與索引後的結果一致應排除
+        List<AuditLogSearchService.Row> firstScan = List.of(
+                unindexed(10L, "ralph"), unindexed(9L, "alphabet"), unindexed(8L, "ralph"));
+        List<AuditLogSearchService.Row> secondScan = List.of(unindexed(7L, "Alpha"));
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(firstScan).thenReturn(secondScan);
+        AuditLogQuery query = new AuditLogQuery();
+        query.setKeyword("alph");
+
+        AuditLogSearchPage page = service.search(query, null, 2);
+
+        // 第一次讀到的 3 筆只有 1 筆符合，繼續往下讀補滿一頁
+        assertEquals(2, page.getCount());
+        assertFalse(page.isHasNext());
+        assertTrue(AuditLogTokenizer.matches(firstScan.get(1).log(), List.of("alph"), 100));
+        assertFalse(AuditLogTokenizer.matches(firstScan.get(0).log(), List.of("alph"), 100));
+    }
+
+    private static AuditLogSearchService.Row unindexed(long id, String name) {
+        AuditLog log = new AuditLog();
+        log.setId(id);
+        log.setActionType("update");
+        log.setTargetTable("hotel");
+        log.setOldValue("{\"name\":\"x\"}");
+        log.setNewValue("{\"name\":\"" + name + "\"}");
+        return new AuditLogSearchService.Row(log, false);
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        AuditLogQuery query = new AuditLogQuery();
+        query.setKeyword("%%");
+        assertThrows(IllegalArgumentException.class, () -> service.search(query, null, 20));
+        assertThrows(IllegalArgumentException.class, () -> service.search(new AuditLogQuery(), "abc", 20));
+    }
+}
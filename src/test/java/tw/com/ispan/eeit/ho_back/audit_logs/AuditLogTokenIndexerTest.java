@@ -0,0 +1,94 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditSearchProperties;
+
+public class AuditLogTokenIndexerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditLogTokenIndexer indexer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        AuditSearchProperties properties = new AuditSearchProperties();
+        properties.setIndexBatchSize(2);
+        indexer = new AuditLogTokenIndexer(jdbcTemplate, transactionTemplate, properties);
+    }
+
+    @Test
+    void claimsRowsWithLocksAndInsertsTokensIdempotently() {
+        assertTrue(AuditLogTokenIndexer.SELECT_SQL.contains("UPDLOCK, READPAST"));
+        assertTrue(AuditLogTokenIndexer.INSERT_TOKEN_SQL.contains("NOT EXISTS"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchFallsBackToSingleRowsAndSkipsThePoisonRow() {
+        when(jdbcTemplate.query(eq(AuditLogTokenIndexer.SELECT_SQL), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(log(1L, "Alpha"), log(2L, "beta")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(eq(AuditLogTokenIndexer.SELECT_ONE_SQL), any(RowMapper.class), eq(1L)))
+                .thenReturn(List.of(log(1L, "Alpha")));
+        when(jdbcTemplate.query(eq(AuditLogTokenIndexer.SELECT_ONE_SQL), any(RowMapper.class), eq(2L)))
+                .thenReturn(List.of(log(2L, "beta")));
+        // 含 id 1 的寫入都失敗（整批與逐筆）
+        when(jdbcTemplate.batchUpdate(eq(AuditLogTokenIndexer.INSERT_TOKEN_SQL), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row[1].equals(1L))) {
+                throw new DuplicateKeyException("pk_audit_log_token");
+            }
+            return new int[rows.size()];
+        });
+
+        assertEquals(2, indexer.indexPending());
+
+        verify(jdbcTemplate).update(AuditLogTokenIndexer.MARK_SQL, 1L);
+        verify(jdbcTemplate).batchUpdate(eq(AuditLogTokenIndexer.MARK_SQL), argThat((List<AuditLog> logs) -> logs.size() == 1 && logs.get(0).getId() == 2L), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1L, indexer.status().get("failedBatches"));
+        assertEquals(1L, indexer.status().get("skippedLogs"));
+        assertEquals(1L, indexer.status().get("indexedLogs"));
+    }
+
+    private AuditLog log(long id, String name) {
+        AuditLog log = new AuditLog();
+        log.setId(id);
+        log.setActionType("update");
+        log.setTargetTable("hotel");
+        log.setNewValue("{\"name\":\"" + name + "\"}");
+        return log;
+    }
+}
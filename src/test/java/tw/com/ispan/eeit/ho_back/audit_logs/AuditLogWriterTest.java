@@ -0,0 +1,176 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import tw.com.ispan.eeit.ho_back.properties.AuditWriterProperties;
+import tw.com.ispan.eeit.ho_back.properties.AuditWriterProperties.OverflowPolicy;
+
+public class AuditLogWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditWriterProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        properties = new AuditWriterProperties();
+        properties.setQueueCapacity(2);
+        properties.setBatchSize(2);
+        properties.setSpillFile(tempDir.resolve("audit-spill.ndjson").toString());
+    }
+
+    // 具型別的 matcher，避免 raw type 的 unchecked 警告
+    private static ParameterizedPreparedStatementSetter<AuditLog> anySetter() {
+        return ArgumentMatchers.any();
+    }
+
+    @Test
+    void drainWritesQueuedLogsInBatches() {
+        properties.setQueueCapacity(10);
+        AuditLogWriter writer = writer();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writer.enqueue(log(i)));
+        }
+
+        writer.drain();
+
+        // 5 筆、每批 2 筆 → 3 個 batch
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(AuditLogWriter.INSERT_SQL), anyList(), anyInt(),
+                anySetter());
+        assertEquals(5L, writer.metrics().get("written"));
+        assertEquals(0, writer.metrics().get("queueDepth"));
+    }
+
+    @Test
+    void dropPolicyCountsOverflow() {
+        properties.setOverflowPolicy(OverflowPolicy.DROP);
+        AuditLogWriter writer = writer();
+
+        writer.enqueue(log(1));
+        writer.enqueue(log(2));
+        assertFalse(writer.enqueue(log(3)));
+
+        assertEquals(1L, writer.metrics().get("dropped"));
+        assertEquals(2, writer.metrics().get("queueDepth"));
+    }
+
+    @Test
+    void spilledLogsAreReplayed() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        AuditLogWriter writer = writer();
+        writer.enqueue(log(1));
+        writer.enqueue(log(2));
+        writer.enqueue(log(3));
+
+        Path spill = tempDir.resolve("audit-spill.ndjson");
+        assertEquals(1, Files.readAllLines(spill).size());
+
+        writer.replaySpill();
+
+        assertFalse(Files.exists(spill));
+        assertEquals(1L, writer.metrics().get("replayed"));
+        assertEquals(1L, writer.metrics().get("written"));
+    }
+
+    @Test
+    void unfinishedReplayIsNotOverwrittenAndBadLinesAreQuarantined() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        AuditLogWriter writer = writer();
+        writer.enqueue(log(1));
+        writer.enqueue(log(2));
+        writer.enqueue(log(3));
+
+        // 上次補寫中斷留下的 .replay，其中一行壞掉
+        Path spill = tempDir.resolve("audit-spill.ndjson");
+        Path replay = tempDir.resolve("audit-spill.ndjson.replay");
+        String previous = Files.readAllLines(spill).get(0);
+        Files.write(replay, List.of(previous, "{not json", previous));
+
+        writer.replaySpill();
+
+        // 先補寫舊的 .replay，新的溢出檔留到下一次
+        assertFalse(Files.exists(replay));
+        assertTrue(Files.exists(spill));
+        assertEquals(List.of("{not json"), Files.readAllLines(tempDir.resolve("audit-spill.ndjson.bad")));
+        assertEquals(1L, writer.metrics().get("quarantined"));
+        assertEquals(2L, writer.metrics().get("replayed"));
+
+        writer.replaySpill();
+
+        assertFalse(Files.exists(spill));
+        assertEquals(3L, writer.metrics().get("replayed"));
+    }
+
+    @Test
+    void replayedCountsOnlyWrittenRows() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        AuditLogWriter writer = writer();
+        writer.enqueue(log(1));
+        writer.enqueue(log(2));
+        writer.enqueue(log(3));
+        when(jdbcTemplate.batchUpdate(eq(AuditLogWriter.INSERT_SQL), anyList(), anyInt(),
+                anySetter()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        writer.replaySpill();
+
+        // 寫入失敗的資料回到溢出檔，不計入 replayed
+        assertEquals(0L, writer.metrics().get("replayed"));
+        assertEquals(1, Files.readAllLines(tempDir.resolve("audit-spill.ndjson")).size());
+    }
+
+    @Test
+    void failedBatchGoesToSpillFile() throws Exception {
+        when(jdbcTemplate.batchUpdate(eq(AuditLogWriter.INSERT_SQL), anyList(), anyInt(),
+                anySetter()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        AuditLogWriter writer = writer();
+
+        writer.flush(List.of(log(1), log(2)));
+
+        assertEquals(1L, writer.metrics().get("failedBatches"));
+        assertEquals(2, Files.readAllLines(tempDir.resolve("audit-spill.ndjson")).size());
+    }
+
+    private AuditLogWriter writer() {
+        return new AuditLogWriter(jdbcTemplate, mock(PlatformTransactionManager.class), properties);
+    }
+
+    private AuditLog log(long targetId) {
+        return AuditLog.builder()
+                .actionType("update")
+                .targetTable("hotel")
+                .targetId(targetId)
+                .newValue("{\"name\":\"Hotel\"}")
+                .actorUserId(1L)
+                .ipAddress("127.0.0.1")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package tw.com.ispan.eeit.ho_back.audit_logs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.EntityManagerFactory;
+
+public class AuditSnapshotListenerTest {
+
+    private static final String[] NAMES = { "name", "price", "openDate", "secret", "displayName", "rooms" };
+
+    private AuditSnapshotListener listener;
+    private EntityPersister persister;
+
+    @BeforeEach
+    void setUp() {
+        listener = new AuditSnapshotListener(mock(EntityManagerFactory.class), mock(AuditLogService.class),
+                "SNAPSHOT");
+        Type basic = mock(Type.class);
+        Type collection = mock(Type.class);
+        when(collection.isCollectionType()).thenReturn(true);
+        persister = mock(EntityPersister.class);
+        when(persister.getPropertyNames()).thenReturn(NAMES);
+        when(persister.getPropertyTypes()).thenReturn(new Type[] { basic, basic, basic, basic, basic, collection });
+    }
+
+    @Test
+    void diffMatchesQueryModeFieldChanges() {
+        Sample before = new Sample("Alpha", 1200, LocalDate.of(2024, 1, 1), "s1", "A", List.of(1));
+        Sample after = new Sample("Alpha", 1500, LocalDate.of(2024, 2, 1), "s2", "B", List.of(1, 2));
+
+        String[] json = listener.diff(Sample.class, persister, before.state(), after.state(),
+                new int[] { 1, 2, 3, 4, 5 });
+
+        // 原本 QUERY 模式：整個實體序列化後再比較
+        String[] query = AuditDiffHelper.extractChangedFields(AuditSupport.toJson(before), AuditSupport.toJson(after));
+
+        assertEquals(fieldChanges(query), fieldChanges(json));
+        assertEquals(List.of("display_name", "openDate", "price"),
+                fieldChanges(json).stream().map(AuditLogFieldChangeResponse::getFieldName).sorted().toList());
+    }
+
+    @Test
+    void onlyCollectionOrIgnoredChangesReturnNull() {
+        Sample before = new Sample("Alpha", 1200, null, "s1", "A", List.of(1));
+        Sample after = new Sample("Alpha", 1200, null, "s2", "A", List.of(1, 2));
+
+        assertNull(listener.diff(Sample.class, persister, before.state(), after.state(), new int[] { 3, 5 }));
+    }
+
+    @Test
+    void propertiesNotMarkedDirtyAreSkipped() {
+        Sample before = new Sample("Alpha", 1200, null, "s1", "A", List.of());
+        Sample after = new Sample("Beta", 1300, null, "s1", "A", List.of());
+
+        String[] json = listener.diff(Sample.class, persister, before.state(), after.state(), new int[] { 0 });
+
+        assertEquals("{\"name\":\"Alpha\"}", json[0]);
+        assertEquals("{\"name\":\"Beta\"}", json[1]);
+    }
+
+    private static List<AuditLogFieldChangeResponse> fieldChanges(String[] json) {
+        AuditLog log = new AuditLog();
+        log.setActionType("update");
+        log.setTargetTable("sample");
+        log.setOldValue(json[0]);
+        log.setNewValue(json[1]);
+        return AuditLogDiffUtil.extractFieldChanges(log).stream()
+                .sorted((a, b) -> a.getFieldName().compareTo(b.getFieldName()))
+                .toList();
+    }
+
+    static class Sample {
+        public String name;
+        public Integer price;
+        public LocalDate openDate;
+        @JsonIgnore
+        public String secret;
+        @JsonProperty("display_name")
+        public String displayName;
+        @JsonIgnore
+        public List<Integer> rooms;
+
+        Sample(String name, Integer price, LocalDate openDate, String secret, String displayName,
+                List<Integer> rooms) {
+            this.name = name;
+            this.price = price;
+            this.openDate = openDate;
+            this.secret = secret;
+            this.displayName = displayName;
+            this.rooms = rooms;
+        }
+
+        Object[] state() {
+            return new Object[] { name, price, openDate, secret, displayName, rooms };
+        }
+    }
+}
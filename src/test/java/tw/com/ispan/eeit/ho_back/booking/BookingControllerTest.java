@@ -0,0 +1,40 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventoryDto;
+
+public class BookingControllerTest {
+
+    @Test
+    void createBookingRejectsMissingInventoryIdBeforeLocking() {
+        BookingController controller = new BookingController();
+        RoomNightLocks roomNightLocks = mock(RoomNightLocks.class);
+        BookingService bookingService = mock(BookingService.class);
+        ReflectionTestUtils.setField(controller, "roomNightLocks", roomNightLocks);
+        ReflectionTestUtils.setField(controller, "bookingService", bookingService);
+
+        BookingInventoryDto valid = new BookingInventoryDto();
+        valid.setInventoryId(10);
+        valid.setNumber(1);
+        BookingInventoryDto missing = new BookingInventoryDto();
+        missing.setNumber(1);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setBookingInventoriesDto(List.of(valid, missing));
+
+        ResponseEntity<?> response = controller.createBooking(bookingDto);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("error: 訂房項目缺少 inventoryId", response.getBody());
+        verifyNoInteractions(roomNightLocks, bookingService);
+    }
+}
@@ -0,0 +1,76 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tw.com.ispan.eeit.ho_back.inventory.InventoryReservationEngine;
+import tw.com.ispan.eeit.ho_back.properties.BookingStatusProperties;
+
+public class BookingHoldServiceTest {
+
+    private BookingRepository bookingRepository;
+    private InventoryReservationEngine reservationEngine;
+    private BookingHoldService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        reservationEngine = mock(InventoryReservationEngine.class);
+        BookingStatusProperties status = new BookingStatusProperties();
+        status.setUnpaid(1);
+        status.setPaid(2);
+        status.setCancel(3);
+        status.setComplete(4);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        service = new BookingHoldService(bookingRepository, reservationEngine, status, new BookingHoldMetrics(),
+                transactionTemplate, 30, 2);
+    }
+
+    @Test
+    void sweepExpiresInBatches() {
+        // 第一批滿 2 筆，第二批 1 筆後結束
+        when(bookingRepository.lockExpiredHolds(eq(1), any(), eq(2)))
+                .thenReturn(List.of(11, 12))
+                .thenReturn(List.of(13));
+        when(reservationEngine.release(List.of(11, 12))).thenReturn(4);
+        when(reservationEngine.release(List.of(13))).thenReturn(1);
+        when(bookingRepository.countByStatus(1)).thenReturn(0L);
+        when(bookingRepository.sumRoomNightsByStatus(1)).thenReturn(0L);
+
+        assertEquals(3, service.sweepExpiredHolds());
+
+        verify(bookingRepository, times(2)).lockExpiredHolds(eq(1), any(), anyInt());
+        verify(bookingRepository).cancel(eq(List.of(11, 12)), eq(List.of(1)), eq(3),
+                eq(Booking.CANCEL_REASON_HOLD_EXPIRED), any());
+        Map<String, Object> metrics = service.getMetrics();
+        assertEquals(3L, metrics.get("expiredBookings"));
+        assertEquals(5L, metrics.get("restoredRoomNights"));
+    }
+
+    @Test
+    void sweepWithNothingExpired() {
+        when(bookingRepository.lockExpiredHolds(eq(1), any(), eq(2))).thenReturn(List.of());
+
+        assertEquals(0, service.sweepExpiredHolds());
+
+        verify(reservationEngine, times(0)).release(anyList());
+    }
+}
@@ -0,0 +1,106 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.bookingInventory.BookingInventory;
+import tw.com.ispan.eeit.ho_back.inventory.Inventory;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryAvailabilityIndex;
+import tw.com.ispan.eeit.ho_back.inventory.InventoryReservationEngine;
+import tw.com.ispan.eeit.ho_back.properties.BookingStatusProperties;
+
+public class BookingPaymentStatusTest {
+
+    private BookingRepository bookingRepository;
+    private InventoryReservationEngine reservationEngine;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        reservationEngine = mock(InventoryReservationEngine.class);
+        BookingStatusProperties statuses = new BookingStatusProperties();
+        statuses.setUnpaid(1);
+        statuses.setPaid(2);
+        statuses.setCancel(3);
+        statuses.setComplete(4);
+
+        bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bookingService, "reservationEngine", reservationEngine);
+        ReflectionTestUtils.setField(bookingService, "availabilityIndex", mock(InventoryAvailabilityIndex.class));
+        ReflectionTestUtils.setField(bookingService, "holdMetrics", mock(BookingHoldMetrics.class));
+        ReflectionTestUtils.setField(bookingService, "bookingStatusProperties", statuses);
+    }
+
+    private Booking booking(Integer status, String cancelReason) {
+        Booking booking = new Booking();
+        booking.setId(7);
+        booking.setStatus(status);
+        booking.setCancelReason(cancelReason);
+        BookingInventory bookingInventory = new BookingInventory();
+        bookingInventory.setInventoryId(100);
+        bookingInventory.setNumber(1);
+        bookingInventory.setInventory(new Inventory());
+        booking.setBookingInventories(List.of(bookingInventory));
+        when(bookingRepository.findById(7)).thenReturn(Optional.of(booking));
+        return booking;
+    }
+
+    @Test
+    void paymentRevivesHoldCancelledBySweep() {
+        booking(3, Booking.CANCEL_REASON_HOLD_EXPIRED);
+        when(bookingRepository.reviveExpiredHold(eq(7), eq(3), eq(2), any())).thenReturn(1);
+
+        Booking paid = bookingService.updateBookingStatusAfterPay(7, 2);
+
+        assertEquals(2, paid.getStatus());
+        assertEquals(null, paid.getCancelReason());
+        verify(reservationEngine).reserve(anyMap());
+    }
+
+    @Test
+    void paymentRejectsBookingCancelledByUser() {
+        booking(3, Booking.CANCEL_REASON_USER);
+        when(bookingRepository.reviveExpiredHold(eq(7), eq(3), eq(2), any())).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> bookingService.updateBookingStatusAfterPay(7, 2));
+        verify(reservationEngine, never()).reserve(anyMap());
+    }
+
+    @Test
+    void paymentOfUnpaidBookingKeepsItsStock() {
+        booking(1, null);
+        when(bookingRepository.transitionStatus(eq(List.of(7)), eq(List.of(1)), eq(2), any())).thenReturn(1);
+
+        assertEquals(2, bookingService.updateBookingStatusAfterPay(7, 2).getStatus());
+        verify(reservationEngine, never()).reserve(anyMap());
+        verify(bookingRepository, never()).reviveExpiredHold(any(), any(), any(), any());
+    }
+
+    @Test
+    void userCancelIsGuardedAndRecordsReason() {
+        Booking booking = booking(1, null);
+        when(bookingRepository.findByIdAndUser_Id(7, 5)).thenReturn(Optional.of(booking));
+        when(bookingRepository.cancel(eq(List.of(7)), eq(List.of(1, 2)), eq(3), eq(Booking.CANCEL_REASON_USER),
+                any())).thenReturn(0);
+
+        // 狀態已被其他請求變更時不歸還庫存
+        assertThrows(RuntimeException.class, () -> bookingService.cancelBooking(7, 5));
+        verify(reservationEngine, never()).release(any());
+    }
+}
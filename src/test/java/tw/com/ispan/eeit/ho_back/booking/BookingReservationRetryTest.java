@@ -0,0 +1,60 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import tw.com.ispan.eeit.ho_back.common.exception.InsufficientStockException;
+import tw.com.ispan.eeit.ho_back.properties.ReservationRetryProperties;
+
+public class BookingReservationRetryTest {
+
+    private BookingReservationRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        ReservationRetryProperties properties = new ReservationRetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoffMs(1);
+        properties.setMaxBackoffMs(2);
+        retry = new BookingReservationRetry(properties);
+    }
+
+    @Test
+    void retriesLockFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("deadlock");
+            }
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(CannotAcquireLockException.class, () -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("deadlock");
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetrySoldOut() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(InsufficientStockException.class, () -> retry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new InsufficientStockException();
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
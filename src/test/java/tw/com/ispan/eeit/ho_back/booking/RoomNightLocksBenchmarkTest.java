@@ -0,0 +1,83 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import tw.com.ispan.eeit.ho_back.common.exception.RoomNightBusyException;
+
+/**
+ * RoomNightLocks 併發量測，預設不執行
+ * mvn test -Dtest=RoomNightLocksBenchmarkTest -Dbenchmark=true
+ *
+ * 每筆訂房以 parkNanos 模擬一次扣庫存交易（約 200µs），比較 1 / 8 / 64 個同時訂房者
+ * 搶同一個熱門房晚與各訂不同房晚時的每秒完成筆數、逾時筆數
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RoomNightLocksBenchmarkTest {
+
+    private static final long TRANSACTION_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long WARMUP_MILLIS = 500;
+    private static final long MEASURE_MILLIS = 2000;
+
+    @Test
+    void benchmark() throws Exception {
+        System.out.printf("%-10s %8s %14s %10s%n", "scenario", "bookers", "bookings/sec", "timeouts");
+        for (int bookers : new int[] { 1, 8, 64 }) {
+            run("hot-room", bookers, true);
+        }
+        for (int bookers : new int[] { 1, 8, 64 }) {
+            run("disjoint", bookers, false);
+        }
+    }
+
+    private void run(String scenario, int bookers, boolean hotRoom) throws Exception {
+        RoomNightLocks locks = new RoomNightLocks(true, 1024, 3000);
+        LongAdder completed = new LongAdder();
+        LongAdder timeouts = new LongAdder();
+        AtomicInteger phase = new AtomicInteger(0); // 0 暖身、1 量測、2 結束
+        CountDownLatch done = new CountDownLatch(bookers);
+        ExecutorService executor = Executors.newFixedThreadPool(bookers);
+        for (int i = 0; i < bookers; i++) {
+            // 熱門房晚：大家訂同一筆庫存的連續兩晚；否則每人各自的房型
+            int base = hotRoom ? 1 : (i + 1) * 10_000;
+            List<Integer> nights = new ArrayList<>(List.of(base, base + 1));
+            executor.submit(() -> {
+                try {
+                    while (phase.get() < 2) {
+                        try {
+                            locks.callWithLocks(nights, () -> {
+                                LockSupport.parkNanos(TRANSACTION_NANOS);
+                                return null;
+                            });
+                            if (phase.get() == 1) {
+                                completed.increment();
+                            }
+                        } catch (RoomNightBusyException e) {
+                            timeouts.increment();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        Thread.sleep(WARMUP_MILLIS);
+        phase.set(1);
+        Thread.sleep(MEASURE_MILLIS);
+        phase.set(2);
+        done.await();
+        executor.shutdown();
+        double perSecond = completed.sum() * 1000.0 / MEASURE_MILLIS;
+        System.out.printf("%-10s %8d %14.0f %10d%n", scenario, bookers, perSecond, timeouts.sum());
+    }
+}
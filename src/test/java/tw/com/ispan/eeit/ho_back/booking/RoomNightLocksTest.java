@@ -0,0 +1,87 @@
+package tw.com.ispan.eeit.ho_back.booking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.common.exception.RoomNightBusyException;
+
+public class RoomNightLocksTest {
+
+    @Test
+    void sameRoomNightTimesOut() throws Exception {
+        RoomNightLocks locks = new RoomNightLocks(true, 64, 50);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> locks.callWithLocks(List.of(1, 2), () -> {
+                holding.countDown();
+                await(release);
+                return null;
+            }));
+            holding.await();
+
+            // 其中一晚被占用，等待逾時
+            assertThrows(RoomNightBusyException.class, () -> locks.callWithLocks(List.of(2, 3), () -> null));
+            release.countDown();
+            holder.get(1, TimeUnit.SECONDS);
+
+            // 釋放後可以取得
+            assertEquals("ok", locks.callWithLocks(List.of(2, 3), () -> "ok"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disjointRoomNightsRunInParallel() throws Exception {
+        RoomNightLocks locks = new RoomNightLocks(true, 1024, 1000);
+        CountDownLatch bothInside = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // 兩個請求都要等對方進入臨界區才會結束，若被串行化就會逾時
+            Future<Boolean> first = executor.submit(() -> locks.callWithLocks(List.of(100),
+                    () -> countDownAndAwait(bothInside)));
+            Future<Boolean> second = executor.submit(() -> locks.callWithLocks(List.of(200),
+                    () -> countDownAndAwait(bothInside)));
+            assertTrue(first.get(2, TimeUnit.SECONDS));
+            assertTrue(second.get(2, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledRunsDirectly() {
+        RoomNightLocks locks = new RoomNightLocks(false, 16, 0);
+        assertEquals("ok", locks.callWithLocks(List.of(1), () -> "ok"));
+    }
+
+    private static boolean countDownAndAwait(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+public class GeocodingCacheTest {
+
+    // 可以往後撥的時鐘
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2025-11-20T04:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final BigDecimal[] TAIPEI_101 = { new BigDecimal("25.0339640"), new BigDecimal("121.5644720") };
+
+    private GeocodingCacheStore store;
+    private MutableClock clock;
+    private GeocodingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(GeocodingCacheStore.class);
+        clock = new MutableClock();
+        GeocodingProperties properties = new GeocodingProperties();
+        properties.getCache().setTtlMinutes(60);
+        cache = new GeocodingCache(store, properties, clock);
+    }
+
+    @Test
+    void cacheKeyNormalizesCommonVariants() {
+        String key = GeocodingAddresses.cacheKey("台北市信義區信義路五段7號", null, null);
+        assertEquals(key, GeocodingAddresses.cacheKey(" 110 臺北市信義區 信義路五段７號 ", null, null));
+        assertEquals(key, GeocodingAddresses.cacheKey("台灣台北市信義區信義路五段7號", null, null));
+        assertEquals(key, GeocodingAddresses.cacheKey("台北市信義區信義路五段7號, Taiwan", null, null));
+        assertEquals("台北市信義區信義路五段7號|台北市|信義區",
+                GeocodingAddresses.cacheKey("台北市信義區信義路五段7號", "臺北市", "信義區"));
+    }
+
+    @Test
+    void loadsOnceThenServesFromMemoryUntilTtl() {
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("k", () -> { calls.incrementAndGet(); return TAIPEI_101; });
+        BigDecimal[] second = cache.get("k", () -> { calls.incrementAndGet(); return TAIPEI_101; });
+
+        assertEquals(1, calls.get());
+        assertArrayEquals(TAIPEI_101, second);
+        verify(store).save(eq("k"), any(), any());
+        assertEquals(1L, cache.status().get("memoryHits"));
+
+        // 記憶體過期後改由資料表取得
+        clock.now = clock.now.plusSeconds(61 * 60);
+        when(store.find(eq("k"), any())).thenReturn(TAIPEI_101.clone());
+        cache.get("k", () -> { calls.incrementAndGet(); return TAIPEI_101; });
+        assertEquals(1, calls.get());
+        assertEquals(1L, cache.status().get("persistentHits"));
+    }
+
+    @Test
+    void doesNotCacheFailuresOrZeroCoordinates() {
+        BigDecimal[] zero = { BigDecimal.ZERO, BigDecimal.ZERO };
+        cache.get("zero", () -> zero);
+        assertThrows(IllegalStateException.class, () -> cache.get("err", () -> {
+            throw new IllegalStateException("quota");
+        }));
+
+        verify(store, never()).save(anyString(), any(), any());
+        assertEquals(0, cache.status().get("memorySize"));
+        assertEquals(1L, cache.status().get("loadErrors"));
+    }
+
+    @Test
+    void storeFailureFallsBackToLoader() {
+        when(store.find(anyString(), any())).thenThrow(new IllegalStateException("Invalid object name"));
+
+        assertArrayEquals(TAIPEI_101, cache.get("k", () -> TAIPEI_101));
+        assertEquals(1L, cache.status().get("persistentErrors"));
+    }
+
+    @Test
+    void coalescesConcurrentLookups() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<BigDecimal[]> first = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return TAIPEI_101;
+        }));
+        assertEquals(true, loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BigDecimal[]> second = CompletableFuture.supplyAsync(() -> cache.get("k", () -> {
+            calls.incrementAndGet();
+            return TAIPEI_101;
+        }));
+        // 等第二個請求進入等待後再放行
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((long) cache.status().get("coalesced") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertArrayEquals(TAIPEI_101, first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(TAIPEI_101, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1L, cache.status().get("coalesced"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+public class GeocodingClientTest {
+
+    private GeocodingClient client;
+
+    private StubGeocodingService start(long latencyMs, double permitsPerSecond) {
+        return start(latencyMs, permitsPerSecond, 4);
+    }
+
+    // 和 GeocodingConfig 一樣，服務與 client 共用同一個權杖桶
+    private StubGeocodingService start(long latencyMs, double permitsPerSecond, int maxConcurrency) {
+        GeocodingProperties properties = new GeocodingProperties();
+        properties.getCache().setPersistentEnabled(false);
+        properties.getClient().getPermitsPerSecond().put("stub", permitsPerSecond);
+        properties.getClient().setMaxConcurrency(maxConcurrency);
+        TokenBucket rateLimiter = TokenBucket.forProvider("stub", properties.getClient());
+        StubGeocodingService stub = new StubGeocodingService(latencyMs, rateLimiter);
+        GeocodingCache cache = new GeocodingCache(mock(GeocodingCacheStore.class), properties);
+        client = new GeocodingClient("stub", stub, cache, properties.getClient(), rateLimiter);
+        client.start();
+        return stub;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.stop();
+        }
+    }
+
+    @Test
+    void deduplicatesIdenticalAddressesInFlight() throws Exception {
+        StubGeocodingService stub = start(200, 1000);
+
+        CompletableFuture<BigDecimal[]> first = client.geocodeAsync("台北市信義區信義路五段7號");
+        CompletableFuture<BigDecimal[]> second = client.geocodeAsync("臺北市信義區信義路五段７號");
+        CompletableFuture<BigDecimal[]> third = client.geocodeAsync("110 台北市信義區信義路五段7號");
+
+        BigDecimal[] coordinates = first.get(5, TimeUnit.SECONDS);
+        assertArrayEquals(coordinates, second.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(coordinates, third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stub.calls());
+        assertEquals(2L, client.status().get("deduplicated"));
+
+        // 之後的查詢直接由記憶體快取回傳
+        assertArrayEquals(coordinates, client.geocode("台北市信義區信義路五段7號"));
+        assertEquals(1, stub.calls());
+        assertEquals(1L, client.status().get("cacheHits"));
+    }
+
+    @Test
+    void rateLimitsDistinctAddresses() throws Exception {
+        StubGeocodingService stub = start(0, 10);
+
+        long startedAt = System.nanoTime();
+        CompletableFuture.allOf(
+                client.geocodeAsync("台中市西屯區台灣大道三段99號"),
+                client.geocodeAsync("高雄市前鎮區成功二路39號"),
+                client.geocodeAsync("台南市中西區民生路二段1號")).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        // 每秒 10 個、burst 1：第三個請求至少要等 200ms
+        assertEquals(3, stub.calls());
+        assertTrue(elapsedMs >= 150, "elapsed " + elapsedMs + "ms");
+        assertEquals(2L, client.status().get("rateLimited"));
+    }
+
+    @Test
+    void failsFastWhenNotRunningAndPassesBlankAddressThrough() {
+        start(0, 1000);
+        client.stop();
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> client.geocodeAsync("新北市板橋區縣民大道二段7號").get(1, TimeUnit.SECONDS));
+        assertEquals("地理編碼服務未啟動", error.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> client.geocode("新北市板橋區縣民大道二段7號"));
+
+        assertArrayEquals(new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO }, client.geocode(" "));
+    }
+
+    @Test
+    void stopFailsRequestsStillWaitingInTheDispatcherBatch() throws Exception {
+        start(500, 1000, 1);
+
+        CompletableFuture<BigDecimal[]> first = client.geocodeAsync("台中市西屯區台灣大道三段99號");
+        CompletableFuture<BigDecimal[]> second = client.geocodeAsync("高雄市前鎮區成功二路39號");
+        CompletableFuture<BigDecimal[]> third = client.geocodeAsync("台南市中西區民生路二段1號");
+        // 等 dispatcher 取出整批並卡在 concurrency.acquire()
+        Thread.sleep(100);
+        assertEquals(0, client.status().get("queued"));
+        client.stop();
+
+        for (CompletableFuture<BigDecimal[]> future : List.of(second, third)) {
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> future.get(1, TimeUnit.SECONDS));
+            assertEquals("地理編碼服務已停止", error.getCause().getMessage());
+        }
+        first.handle((coordinates, error) -> null).get(5, TimeUnit.SECONDS);
+        assertEquals(0, client.status().get("pending"));
+
+        // 停止後相同地址不會合併到已失效的請求
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> client.geocodeAsync("高雄市前鎮區成功二路39號").get(1, TimeUnit.SECONDS));
+        assertEquals("地理編碼服務未啟動", error.getCause().getMessage());
+        assertEquals(0L, client.status().get("deduplicated"));
+    }
+}
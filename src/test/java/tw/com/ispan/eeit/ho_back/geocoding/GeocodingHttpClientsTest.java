@@ -0,0 +1,58 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import tw.com.ispan.eeit.ho_back.properties.GeocodingProperties;
+
+public class GeocodingHttpClientsTest {
+
+    private static final String ADDRESS = "台北市信義區信義路五段7號";
+
+    @Test
+    void everyHttpRequestTakesATokenNotEveryLookup() throws Exception {
+        GeocodingProperties properties = new GeocodingProperties();
+        properties.getCache().setPersistentEnabled(false);
+        // 時間停住：第一個請求用掉 burst，第二個請求要等一秒
+        TokenBucket rateLimiter = new TokenBucket(1.0, 1, () -> 0L);
+        RestTemplate restTemplate = GeocodingHttpClients.restTemplate(1000, 1000, rateLimiter);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo(Matchers.startsWith("https://nominatim.openstreetmap.org/search")))
+                .andRespond(withSuccess("[{\"lat\":\"25.0330\",\"lon\":\"121.5654\","
+                        + "\"display_name\":\"" + ADDRESS + ", 臺灣\"}]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(Matchers.startsWith("https://nominatim.openstreetmap.org/reverse")))
+                .andRespond(withSuccess("{\"display_name\":\"" + ADDRESS + "\","
+                        + "\"address\":{\"city\":\"臺北市\",\"suburb\":\"信義區\"}}", MediaType.APPLICATION_JSON));
+
+        GeocodingClient client = new GeocodingClient("nominatim", new GeocodingServiceImpl(restTemplate),
+                new GeocodingCache(mock(GeocodingCacheStore.class), properties), properties.getClient(),
+                rateLimiter);
+        client.start();
+        try {
+            long startedAt = System.nanoTime();
+            BigDecimal[] coordinates = client.geocode(ADDRESS, "台北市", "信義區");
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+            // 一次查詢送出搜尋與反向查詢兩個請求，兩個都要取得權杖
+            server.verify();
+            assertEquals(0, new BigDecimal("25.0330").compareTo(coordinates[0]));
+            assertEquals(2L, rateLimiter.acquiredCount());
+            assertEquals(1L, client.status().get("rateLimited"));
+            assertTrue(elapsedMs >= 900, "elapsed " + elapsedMs + "ms");
+        } finally {
+            client.stop();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package tw.com.ispan.eeit.ho_back.geocoding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void spacesReservationsAtTheConfiguredRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1.0, 1, now::get);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(SECOND, bucket.reserve());
+        assertEquals(2 * SECOND, bucket.reserve());
+        assertEquals(2, bucket.throttledCount());
+
+        // 預約的權杖用完後再過一秒才有新的
+        now.addAndGet(3 * SECOND);
+        assertEquals(0, bucket.reserve());
+    }
+
+    @Test
+    void burstAllowsImmediatePermitsButNeverMore() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10.0, 3, now::get);
+
+        // 閒置很久也只累積 burst 個
+        now.addAndGet(60 * SECOND);
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(SECOND / 10, bucket.reserve());
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+    }
+}
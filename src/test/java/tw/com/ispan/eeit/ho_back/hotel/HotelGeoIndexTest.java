@@ -0,0 +1,137 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HotelGeoIndexTest {
+
+    private List<Object[]> rows;
+    private HotelRepository hotelRepository;
+    private HotelGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // 台北附近隨機 2000 間飯店
+        rows = new ArrayList<>();
+        Random random = new Random(42);
+        for (int id = 1; id <= 2000; id++) {
+            rows.add(row(id, 24.9 + random.nextDouble() * 0.3, 121.4 + random.nextDouble() * 0.3));
+        }
+        hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findOpenHotelLocations()).thenAnswer(invocation -> rows);
+        index = new HotelGeoIndex(hotelRepository, true, 0.05, 3, 50, 500);
+        index.rebuild();
+    }
+
+    private static Object[] row(int id, double latitude, double longitude) {
+        return new Object[] { id, "飯店" + id, BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude) };
+    }
+
+    // 逐一計算距離的結果，用來比對索引
+    private List<Integer> bruteForce(double latitude, double longitude, double radiusKm) {
+        return rows.stream()
+                .filter(r -> distance(latitude, longitude, r) <= radiusKm)
+                .sorted(Comparator.comparingDouble((Object[] r) -> distance(latitude, longitude, r))
+                        .thenComparingInt(r -> (Integer) r[0]))
+                .map(r -> (Integer) r[0])
+                .toList();
+    }
+
+    private static double distance(double latitude, double longitude, Object[] row) {
+        return HotelGeoIndex.distanceKm(latitude, longitude, ((BigDecimal) row[2]).doubleValue(),
+                ((BigDecimal) row[3]).doubleValue());
+    }
+
+    private static List<Integer> ids(List<HotelGeoIndex.Hit> hits) {
+        return hits.stream().map(HotelGeoIndex.Hit::hotelId).toList();
+    }
+
+    @Test
+    void radiusAndNearestMatchBruteForce() {
+        double latitude = 25.0478;
+        double longitude = 121.5319;
+        for (double radius : new double[] { 0.5, 3, 10 }) {
+            assertEquals(bruteForce(latitude, longitude, radius),
+                    ids(index.withinRadius(latitude, longitude, radius, Integer.MAX_VALUE, null)));
+        }
+        assertEquals(bruteForce(latitude, longitude, 50).subList(0, 25),
+                ids(index.nearest(latitude, longitude, 25, 50, null)));
+    }
+
+    @Test
+    void boundsAndFilter() {
+        List<HotelGeoIndex.Hit> hits = index.withinBounds(25.0, 121.5, 25.05, 121.55, Integer.MAX_VALUE,
+                id -> id % 2 == 0);
+        long expected = rows.stream().filter(r -> (Integer) r[0] % 2 == 0).filter(r -> {
+            double lat = ((BigDecimal) r[2]).doubleValue();
+            double lng = ((BigDecimal) r[3]).doubleValue();
+            return lat >= 25.0 && lat <= 25.05 && lng >= 121.5 && lng <= 121.55;
+        }).count();
+        assertEquals(expected, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> hit.hotelId() % 2 == 0));
+        assertEquals(10, index.withinBounds(20, 118, 27, 124, 10, null).size());
+    }
+
+    @Test
+    void incrementalUpdates() {
+        Hotel hotel = new Hotel();
+        hotel.setId(5000);
+        hotel.setName("新飯店");
+        hotel.setLatitude(new BigDecimal("22.62"));
+        hotel.setLongitude(new BigDecimal("120.30"));
+        hotel.setBusinessStatus(true);
+        index.onHotelSaved(hotel);
+        assertEquals(List.of(5000), ids(index.nearest(22.62, 120.30, 1, 5, null)));
+
+        // 搬家後舊位置查不到
+        hotel.setLatitude(new BigDecimal("24.15"));
+        hotel.setLongitude(new BigDecimal("120.68"));
+        index.onHotelSaved(hotel);
+        assertTrue(index.withinRadius(22.62, 120.30, 5, 10, null).isEmpty());
+        assertEquals(List.of(5000), ids(index.withinRadius(24.15, 120.68, 1, 10, null)));
+
+        // 停業後移除
+        hotel.setBusinessStatus(false);
+        index.onHotelSaved(hotel);
+        assertTrue(index.withinRadius(24.15, 120.68, 1, 10, null).isEmpty());
+
+        index.onHotelRemoved(1);
+        assertFalse(ids(index.withinRadius(25.05, 121.55, 50, Integer.MAX_VALUE, null)).contains(1));
+        assertEquals(1999, index.status().get("hotels"));
+    }
+
+    @Test
+    void changesCommittedDuringRebuildSurviveTheSwap() {
+        Hotel hotel = new Hotel();
+        hotel.setId(5000);
+        hotel.setName("新飯店");
+        hotel.setLatitude(new BigDecimal("22.62"));
+        hotel.setLongitude(new BigDecimal("120.30"));
+        hotel.setBusinessStatus(true);
+        // 查詢結果是異動前的快照：不含新飯店、仍含已刪除的 1 號
+        when(hotelRepository.findOpenHotelLocations()).thenAnswer(invocation -> {
+            List<Object[]> snapshot = new ArrayList<>(rows);
+            index.onHotelSaved(hotel);
+            index.onHotelRemoved(1);
+            return snapshot;
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(5000), ids(index.nearest(22.62, 120.30, 1, 5, null)));
+        assertFalse(ids(index.withinRadius(25.05, 121.55, 50, Integer.MAX_VALUE, null)).contains(1));
+        assertEquals(2000, index.status().get("hotels"));
+    }
+}
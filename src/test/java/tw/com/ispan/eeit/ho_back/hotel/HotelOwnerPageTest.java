@@ -0,0 +1,75 @@
+package tw.com.ispan.eeit.ho_back.hotel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.hotelfacility.HotelFacilityRepository;
+import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
+
+public class HotelOwnerPageTest {
+
+    private HotelRepository hotelRepository;
+    private PhotoRepository photoRepository;
+    private HotelFacilityRepository hotelFacilityRepository;
+    private HotelServiceImpl hotelService;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository = mock(HotelRepository.class);
+        photoRepository = mock(PhotoRepository.class);
+        hotelFacilityRepository = mock(HotelFacilityRepository.class);
+        hotelService = new HotelServiceImpl();
+        ReflectionTestUtils.setField(hotelService, "hotelRepository", hotelRepository);
+        ReflectionTestUtils.setField(hotelService, "photoRepository", photoRepository);
+        ReflectionTestUtils.setField(hotelService, "hotelFacilityRepository", hotelFacilityRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pageIsQueriedInDatabaseAndPhotosLoadedOnlyForPage() {
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        when(hotelRepository.findAll(any(Specification.class), pageable.capture())).thenAnswer(
+                invocation -> new PageImpl<>(List.of(hotel(21), hotel(22)), invocation.getArgument(1), 42));
+
+        Map<String, Object> result = hotelService.getHotelsByOwner(7, 3, 10, null, null, null, null, "name", "desc");
+
+        // 第 3 頁 → offset 20
+        assertEquals(2, pageable.getValue().getPageNumber());
+        assertEquals(Sort.by(Sort.Order.desc("name"), Sort.Order.desc("id")), pageable.getValue().getSort());
+        assertEquals(42, result.get("totalElements"));
+        assertEquals(5, result.get("totalPages"));
+        assertEquals(2, ((List<?>) result.get("content")).size());
+        verify(photoRepository).findByHotelIdIn(List.of(21, 22));
+        verify(hotelFacilityRepository).findByHotelIdIn(List.of(21, 22));
+    }
+
+    @Test
+    void defaultSortIsNewestFirst() {
+        assertEquals(Sort.by(Sort.Order.desc("createdTime"), Sort.Order.desc("id")), HotelSpecs.ownerSort(null, null));
+        // 營業狀態升冪：營業中在前
+        assertEquals(Sort.by(Sort.Order.desc("businessStatus"), Sort.Order.asc("name"), Sort.Order.asc("id")),
+                HotelSpecs.ownerSort("business_status", "asc"));
+    }
+
+    private Hotel hotel(int id) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName("Hotel " + id);
+        return hotel;
+    }
+}
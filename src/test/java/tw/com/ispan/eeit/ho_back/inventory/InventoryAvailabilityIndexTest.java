@@ -0,0 +1,125 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.hotel.Hotel;
+import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto;
+import tw.com.ispan.eeit.ho_back.room.Room;
+
+public class InventoryAvailabilityIndexTest {
+
+    private final LocalDate today = LocalDate.now();
+    private InventoryRepository inventoryRepository;
+    private InventoryAvailabilityIndex index;
+    private List<RoomNightDto> rows;
+
+    @BeforeEach
+    void setUp() {
+        rows = new ArrayList<>();
+        // 飯店 1：房型 10 (2人) 連續三晚有房，第二晚價格較高
+        rows.add(new RoomNightDto(10, 1, 2, today, 3, 2000));
+        rows.add(new RoomNightDto(10, 1, 2, today.plusDays(1), 1, 3000));
+        rows.add(new RoomNightDto(10, 1, 2, today.plusDays(2), 2, 2000));
+        // 飯店 2：房型 20 (4人) 第二晚售完
+        rows.add(new RoomNightDto(20, 2, 4, today, 5, 1500));
+        rows.add(new RoomNightDto(20, 2, 4, today.plusDays(1), 0, 1500));
+
+        inventoryRepository = mock(InventoryRepository.class);
+        when(inventoryRepository.findRoomNightsBetween(any(), any())).thenAnswer(invocation -> rows);
+        index = new InventoryAvailabilityIndex(inventoryRepository, true, 30);
+        index.rebuild();
+    }
+
+    private HotelQueryDto query(int fromDay, int toDay, int guests) {
+        HotelQueryDto query = new HotelQueryDto();
+        query.setKeyword("臺北");
+        query.setCheckInDate(today.plusDays(fromDay));
+        query.setCheckOutDate(today.plusDays(toDay));
+        query.setGuestNumber(guests);
+        return query;
+    }
+
+    @Test
+    void findAvailableHotelIds() {
+        assertEquals(List.of(1, 2), index.findAvailableHotelIds(List.of(1, 2), query(0, 1, 2)));
+        assertEquals(List.of(1), index.findAvailableHotelIds(List.of(1, 2), query(0, 2, 2)));
+        assertEquals(List.of(), index.findAvailableHotelIds(List.of(1, 2), query(0, 2, 3)));
+    }
+
+    @Test
+    void priceFilter() {
+        HotelQueryDto query = query(0, 3, 1);
+        query.setMaxPrice(2500);
+        assertEquals(List.of(), index.findAvailableHotelIds(List.of(1, 2), query));
+        query.setMaxPrice(3000);
+        assertEquals(List.of(1), index.findAvailableHotelIds(List.of(1, 2), query));
+    }
+
+    @Test
+    void lowestTotalPrice() {
+        // 飯店 1 再加一個較便宜的房型 11
+        rows.add(new RoomNightDto(11, 1, 2, today, 1, 1200));
+        rows.add(new RoomNightDto(11, 1, 2, today.plusDays(1), 1, 1300));
+        index.rebuild();
+
+        assertEquals(2500, index.lowestTotalPrice(1, query(0, 2, 2)));
+        assertEquals(5000, index.lowestTotalPrice(1, query(1, 3, 2)));
+        assertEquals(-1, index.lowestTotalPrice(2, query(0, 2, 1)));
+        assertEquals(-1, index.lowestTotalPrice(99, query(0, 1, 1)));
+    }
+
+    @Test
+    void canServeOnlyInsideHorizon() {
+        assertTrue(index.canServe(query(0, 2, 1)));
+        assertFalse(index.canServe(query(-1, 2, 1)));
+        assertFalse(index.canServe(query(29, 31, 1)));
+    }
+
+    @Test
+    void incrementalUpdates() {
+        Hotel hotel = new Hotel();
+        hotel.setId(1);
+        Room room = new Room();
+        room.setId(10);
+        room.setHotel(hotel);
+        room.setMaxOccupancy(2);
+        Inventory inventory = new Inventory();
+        inventory.setRoom(room);
+        inventory.setDate(today.plusDays(1));
+        inventory.setStock(1);
+        inventory.setPrice(3000);
+
+        // 沒有交易時直接套用
+        index.onStockDecremented(inventory, 1);
+        assertEquals(List.of(), index.findAvailableHotelIds(List.of(1), query(0, 2, 2)));
+
+        inventory.setStock(4);
+        index.onInventorySaved(inventory);
+        assertEquals(List.of(1), index.findAvailableHotelIds(List.of(1), query(0, 2, 2)));
+
+        index.onInventoryRemoved(inventory);
+        assertEquals(List.of(), index.findAvailableHotelIds(List.of(1), query(0, 2, 2)));
+    }
+
+    @Test
+    void verifyAgainstDatabase() {
+        assertEquals(0, index.verifyAgainstDatabase());
+
+        rows.set(1, new RoomNightDto(10, 1, 2, today.plusDays(1), 0, 3000));
+        assertEquals(1, index.verifyAgainstDatabase());
+        assertEquals(List.of(), index.findAvailableHotelIds(List.of(1), query(0, 2, 2)));
+    }
+}
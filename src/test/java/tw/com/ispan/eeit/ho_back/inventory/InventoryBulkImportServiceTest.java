@@ -0,0 +1,114 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportReport;
+
+public class InventoryBulkImportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 12, 1);
+
+    private InventoryRepository inventoryRepository;
+    private JdbcTemplate jdbcTemplate;
+    private InventoryAvailabilityIndex availabilityIndex;
+    private InventoryBulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        availabilityIndex = mock(InventoryAvailabilityIndex.class);
+        service = new InventoryBulkImportService();
+        ReflectionTestUtils.setField(service, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "availabilityIndex", availabilityIndex);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+
+        when(inventoryRepository.findImportRooms(anyCollection())).thenAnswer(invocation -> {
+            List<ImportRoomDto> rooms = new ArrayList<>();
+            for (Integer roomId : (Collection<Integer>) invocation.getArgument(0)) {
+                if (roomId < 100) {
+                    rooms.add(new ImportRoomDto(roomId, 1, 10, 2));
+                }
+            }
+            return rooms;
+        });
+    }
+
+    @Test
+    void reportsInsertedUpdatedAndFailedRows() {
+        List<Object[]> existing = new ArrayList<>();
+        existing.add(new Object[] { 1, DAY });
+        when(inventoryRepository.findExistingRoomDates(anyCollection(), any(), any())).thenReturn(existing);
+
+        InventoryImportReport report = service.importRequests(10, List.of(
+                request(1, DAY, 5),
+                request(1, DAY.plusDays(1), 5),
+                request(1, DAY, 3), // 同一房型同一日期重複
+                request(404, DAY, 5), // 房型不存在
+                request(2, DAY, -1)));
+
+        assertEquals(5, report.getTotal());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getInserted());
+        assertEquals(3, report.getFailed());
+        assertEquals("第 3 列：同一房型同一日期重複", report.firstError());
+    }
+
+    @Test
+    void roomsAreResolvedOncePerNewRoomAndWrittenPerChunk() {
+        when(inventoryRepository.findExistingRoomDates(anyCollection(), any(), any())).thenReturn(List.of());
+
+        InventoryImportReport report = service.importRequests(null, List.of(
+                request(1, DAY, 1),
+                request(1, DAY.plusDays(1), 1),
+                request(1, DAY.plusDays(2), 1),
+                request(1, DAY.plusDays(3), 1)));
+
+        assertEquals(4, report.getInserted());
+        // 第二個區塊的房型已經查過，不再查詢
+        verify(inventoryRepository, times(1)).findImportRooms(Set.of(1));
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(InventoryBulkImportService.UPSERT_SQL), any(List.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(availabilityIndex, times(2)).onRoomNightsSaved(any());
+    }
+
+    @Test
+    void otherOwnersRoomsAreRejected() {
+        InventoryImportReport report = service.importRequests(99, List.of(request(1, DAY, 1)));
+
+        assertEquals(1, report.getFailed());
+        verify(jdbcTemplate, times(0)).batchUpdate(any(String.class), any(List.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private InventoryRequest request(Integer roomId, LocalDate date, Integer stock) {
+        InventoryRequest request = new InventoryRequest();
+        request.setRoomId(roomId);
+        request.setDate(date);
+        request.setStock(stock);
+        request.setPrice(2000);
+        return request;
+    }
+}
@@ -0,0 +1,117 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.inventory.dto.ImportRoomDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarResult;
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryCalendarRule;
+
+public class InventoryCalendarServiceTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private InventoryRepository inventoryRepository;
+    private InventoryAvailabilityIndex availabilityIndex;
+    private InventoryCalendarService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        inventoryRepository = mock(InventoryRepository.class);
+        availabilityIndex = mock(InventoryAvailabilityIndex.class);
+        service = new InventoryCalendarService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(service, "availabilityIndex", availabilityIndex);
+        when(inventoryRepository.findImportRooms(anyCollection()))
+                .thenReturn(List.of(new ImportRoomDto(1, 1, 10, 2), new ImportRoomDto(2, 1, 10, 2)));
+    }
+
+    @Test
+    void weekendRuleCompilesToOneUpdate() {
+        InventoryCalendarRule rule = rule();
+        rule.setDaysOfWeek(List.of(6, 7));
+        rule.setPrice(4200);
+        rule.setStock(5);
+
+        String sql = service.updateSql(rule);
+
+        assertTrue(sql.startsWith("UPDATE inventory SET price = :price, stock = :stock "));
+        assertTrue(sql.contains("(DATEDIFF(day, '19000101', date) % 7) + 1 IN (:daysOfWeek)"));
+        assertEquals(31L, service.params(rule).getValue("dayCount"));
+    }
+
+    @Test
+    void percentRuleAdjustsCurrentPrice() {
+        InventoryCalendarRule rule = new InventoryCalendarRule();
+        rule.setRoomIds(List.of(1));
+        rule.setDates(List.of(LocalDate.of(2025, 10, 10), LocalDate.of(2025, 10, 9)));
+        rule.setPricePercent(10.0);
+
+        String sql = service.updateSql(rule);
+
+        assertTrue(sql.contains("price = CAST(ROUND(price * :priceFactor, 0) AS int)"));
+        assertTrue(sql.contains("date IN (:dates)"));
+        SqlParameterSource params = service.params(rule);
+        assertEquals(1.1, (Double) params.getValue("priceFactor"), 1e-9);
+        assertEquals(java.sql.Date.valueOf("2025-10-09"), params.getValue("from"));
+    }
+
+    @Test
+    void indexIsNotifiedOncePerBatch() {
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(8, 3, 4);
+        InventoryCalendarRule first = rule();
+        first.setStock(5);
+        InventoryCalendarRule second = rule();
+        second.setRoomIds(List.of(2));
+        second.setPrice(3000);
+        second.setStock(2);
+        second.setCreateMissing(true);
+
+        InventoryCalendarResult result = service.apply(10, List.of(first, second));
+
+        assertEquals(11, result.getUpdated());
+        assertEquals(4, result.getInserted());
+        verify(jdbcTemplate, times(3)).update(anyString(), any(SqlParameterSource.class));
+        verify(inventoryRepository).findRoomNightsForRooms(anyCollection(), any(), any());
+        verify(availabilityIndex, times(1)).onRoomNightsSaved(any());
+    }
+
+    @Test
+    void invalidRulesAreRejectedBeforeWriting() {
+        InventoryCalendarRule noChange = rule();
+        assertThrows(IllegalArgumentException.class, () -> service.apply(10, List.of(noChange)));
+
+        InventoryCalendarRule otherOwner = rule();
+        otherOwner.setStock(1);
+        assertThrows(IllegalArgumentException.class, () -> service.apply(99, List.of(otherOwner)));
+
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    private InventoryCalendarRule rule() {
+        InventoryCalendarRule rule = new InventoryCalendarRule();
+        rule.setRoomIds(List.of(1));
+        rule.setStartDate(LocalDate.of(2025, 7, 1));
+        rule.setEndDate(LocalDate.of(2025, 7, 31));
+        return rule;
+    }
+}
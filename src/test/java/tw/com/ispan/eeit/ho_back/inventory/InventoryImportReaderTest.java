@@ -0,0 +1,120 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.inventory.dto.InventoryImportRow;
+
+public class InventoryImportReaderTest {
+
+    private final InventoryImportReader reader = new InventoryImportReader();
+
+    @Test
+    void csvWithHeaderMapsColumnsByName() throws Exception {
+        String csv = "\uFEFFstock,date,room_id,price\n"
+                + "5,2025-12-01,7,2500\n"
+                + "\n"
+                + "3,2025/12/02,7,\"2,800\"\n";
+        List<InventoryImportRow> rows = new ArrayList<>();
+
+        reader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), rows::add);
+
+        assertEquals(2, rows.size());
+        InventoryImportRow first = rows.get(0);
+        assertEquals(2, first.getRowNumber());
+        assertEquals(7, first.getRoomId());
+        assertEquals(LocalDate.of(2025, 12, 1), first.getDate());
+        assertEquals(2500, first.getPrice());
+        assertEquals(5, first.getStock());
+        assertNull(first.getError());
+        // 空白列略過，列號仍依檔案計算
+        assertEquals(4, rows.get(1).getRowNumber());
+        assertEquals(LocalDate.of(2025, 12, 2), rows.get(1).getDate());
+        assertEquals(2800, rows.get(1).getPrice());
+        assertNull(rows.get(1).getError());
+    }
+
+    @Test
+    void csvQuotedCellsFollowRfc4180() throws Exception {
+        String csv = "\"room_id\",\"備註, 說明\",date,price,stock\n"
+                + "7,\"含逗號, 以及 \"\"引號\"\"\",2025-12-01,\"1,200\",3\n"
+                + "8,\"第一行\n第二行\",2025-12-02, \"900\" ,4\n"
+                + "9,,2025-12-03,1000,5\n";
+        List<InventoryImportRow> rows = new ArrayList<>();
+
+        reader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), rows::add);
+
+        assertEquals(3, rows.size());
+        assertEquals(1200, rows.get(0).getPrice());
+        assertEquals(3, rows.get(0).getStock());
+        // 引號內換行仍是同一列，列號為開始的那一行，後面的列號依實際行數
+        assertEquals(3, rows.get(1).getRowNumber());
+        assertEquals(900, rows.get(1).getPrice());
+        assertEquals(LocalDate.of(2025, 12, 2), rows.get(1).getDate());
+        assertEquals(5, rows.get(2).getRowNumber());
+        assertNull(rows.get(2).getError());
+
+        assertEquals(List.of("a", "b \"c\"", " d ", ""), InventoryImportReader.splitCsv("a ,\"b \"\"c\"\"\",\" d \","));
+        assertNull(InventoryImportReader.splitCsv("1,\"未結束"));
+    }
+
+    @Test
+    void csvWithoutHeaderUsesDefaultOrderAndKeepsBadRows() throws Exception {
+        String csv = "7,2025-12-01,2500,5\n7,not-a-date,2500,5\n";
+        List<InventoryImportRow> rows = new ArrayList<>();
+
+        reader.readCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), rows::add);
+
+        assertEquals(2, rows.size());
+        assertEquals(5, rows.get(0).getStock());
+        assertNotNull(rows.get(1).getError());
+    }
+
+    @Test
+    void xlsxIsReadWithStreamingParser() throws Exception {
+        File file = Files.createTempFile("inventory-import-test-", ".xlsx").toFile();
+        try {
+            try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(file)) {
+                XSSFSheet sheet = workbook.createSheet();
+                XSSFRow header = sheet.createRow(0);
+                header.createCell(0).setCellValue("房型ID");
+                header.createCell(1).setCellValue("日期");
+                header.createCell(2).setCellValue("價格");
+                header.createCell(3).setCellValue("庫存");
+                XSSFRow row = sheet.createRow(1);
+                row.createCell(0).setCellValue(9);
+                row.createCell(1).setCellValue("2025-12-24");
+                row.createCell(2).setCellValue(4200);
+                row.createCell(3).setCellValue(2);
+                workbook.write(out);
+            }
+            List<InventoryImportRow> rows = new ArrayList<>();
+
+            reader.readXlsx(file, rows::add);
+
+            assertEquals(1, rows.size());
+            assertEquals(2, rows.get(0).getRowNumber());
+            assertEquals(9, rows.get(0).getRoomId());
+            assertEquals(LocalDate.of(2025, 12, 24), rows.get(0).getDate());
+            assertEquals(4200, rows.get(0).getPrice());
+            assertEquals(2, rows.get(0).getStock());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
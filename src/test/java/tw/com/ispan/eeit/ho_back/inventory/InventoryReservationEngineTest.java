@@ -0,0 +1,75 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.common.exception.InsufficientStockException;
+import tw.com.ispan.eeit.ho_back.inventory.dto.ReservedRoomNightDto;
+
+public class InventoryReservationEngineTest {
+
+    private InventoryRepository inventoryRepository;
+    private InventoryAvailabilityIndex availabilityIndex;
+    private InventoryReservationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        availabilityIndex = mock(InventoryAvailabilityIndex.class);
+        engine = new InventoryReservationEngine(inventoryRepository, availabilityIndex);
+    }
+
+    @Test
+    void reserveGroupsNightsByQuantity() {
+        when(inventoryRepository.reserveStock(anyList(), anyInt()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(12, 1);
+        quantities.put(11, 1);
+        quantities.put(21, 2);
+
+        engine.reserve(quantities);
+
+        // 同數量合併成一個 UPDATE，id 依序排列
+        verify(inventoryRepository).reserveStock(List.of(11, 12), 1);
+        verify(inventoryRepository).reserveStock(List.of(21), 2);
+    }
+
+    @Test
+    void shortfallThrows() {
+        // 三晚只扣到兩晚
+        when(inventoryRepository.reserveStock(anyList(), anyInt())).thenReturn(2);
+
+        assertThrows(InsufficientStockException.class, () -> engine.reserve(Map.of(1, 1, 2, 1, 3, 1)));
+    }
+
+    @Test
+    void releaseRestoresAndNotifiesIndex() {
+        when(inventoryRepository.findReservedRoomNights(List.of(5, 6))).thenReturn(List.of(
+                new ReservedRoomNightDto(11, 1, LocalDate.of(2025, 11, 20), 2L),
+                new ReservedRoomNightDto(12, 1, LocalDate.of(2025, 11, 21), 1L)));
+
+        assertEquals(3, engine.release(List.of(5, 6)));
+
+        verify(inventoryRepository).restoreStockForBookings(List.of(5, 6));
+        verify(availabilityIndex).onStockRestored(1, LocalDate.of(2025, 11, 20), 2);
+    }
+
+    @Test
+    void invalidQuantity() {
+        assertThrows(IllegalArgumentException.class, () -> engine.reserve(Map.of(1, 0)));
+    }
+}
@@ -0,0 +1,215 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto;
+import tw.com.ispan.eeit.ho_back.hotel.HotelRepository;
+import tw.com.ispan.eeit.ho_back.hotel.HotelStarRatingProjection;
+import tw.com.ispan.eeit.ho_back.inventory.dto.HotelQueryDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomNightDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.SearchResultDto;
+import tw.com.ispan.eeit.ho_back.photo.HotelCoverPhotoDto;
+import tw.com.ispan.eeit.ho_back.photo.PhotoRepository;
+import tw.com.ispan.eeit.ho_back.review.HotelRatingService;
+
+public class InventoryServiceSearchTest {
+
+    private InventoryRepository inventoryRepository;
+    private HotelRepository hotelRepository;
+    private PhotoRepository photoRepository;
+    private HotelRatingService hotelRatingService;
+    private InventoryService service;
+
+    @BeforeEach
+    void setUp() {
+        inventoryRepository = mock(InventoryRepository.class);
+        hotelRepository = mock(HotelRepository.class);
+        photoRepository = mock(PhotoRepository.class);
+        hotelRatingService = mock(HotelRatingService.class);
+        service = new InventoryService();
+        ReflectionTestUtils.setField(service, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(service, "hotelRepository", hotelRepository);
+        ReflectionTestUtils.setField(service, "photoRepository", photoRepository);
+        ReflectionTestUtils.setField(service, "hotelRatingService", hotelRatingService);
+        ReflectionTestUtils.setField(service, "searchResultMapper", new SearchResultMapper());
+        ReflectionTestUtils.setField(service, "availabilityIndex", mock(InventoryAvailabilityIndex.class));
+
+        // 飯店 1~5 有空房，飯店 6 沒有單一房型住滿全程
+        when(inventoryRepository.findAvailableHotelIds(any())).thenReturn(new ArrayList<>(List.of(1, 2, 3, 4, 5, 6)));
+        when(inventoryRepository.findRoomPriceByHotels(anyList(), any())).thenReturn(List.of(
+                room(1, 5200L, 2), room(1, 3100L, 4),
+                room(2, 2500L, 3),
+                room(3, 4000L, 2),
+                room(4, 1800L, 6),
+                room(5, 2900L, 1)));
+        when(hotelRepository.findHotelDetail(anyList())).thenAnswer(invocation -> invocation.<List<Integer>>getArgument(0)
+                .stream().map(InventoryServiceSearchTest::hotel).toList());
+        // 飯店 2 沒有封面照片，飯店 4 有兩張時取第一張
+        when(photoRepository.findCoverPhotosByHotelIds(anyList())).thenReturn(List.of(
+                new HotelCoverPhotoDto(1, "h1.jpg"), new HotelCoverPhotoDto(3, "h3.jpg"),
+                new HotelCoverPhotoDto(4, "h4-cover.jpg"), new HotelCoverPhotoDto(4, "h4-other.jpg"),
+                new HotelCoverPhotoDto(5, "h5.jpg")));
+        when(hotelRatingService.getAvgRatings(anyList())).thenReturn(Map.of(1, 4.5, 3, 3.0, 4, 4.8, 5, 2.0));
+    }
+
+    private static RoomPriceDto room(int hotelId, long partPrice, int maxOccupancy) {
+        return new RoomPriceDto(hotelId, hotelId * 100 + maxOccupancy, partPrice, "雙人房", "雙人床", 1,
+                "房型" + hotelId, maxOccupancy, BigDecimal.TEN);
+    }
+
+    private static HotelDetailDto hotel(int hotelId) {
+        return new HotelDetailDto(hotelId, "飯店" + hotelId, 3, "信義區", "台北市", "地址" + hotelId,
+                BigDecimal.ONE, BigDecimal.TEN, "描述");
+    }
+
+    private static HotelQueryDto query(String sortBy, String sortOrder, int page, int size) {
+        HotelQueryDto query = new HotelQueryDto();
+        query.setKeyword("台北");
+        query.setCheckInDate(LocalDate.of(2025, 12, 1));
+        query.setCheckOutDate(LocalDate.of(2025, 12, 3));
+        query.setGuestNumber(2);
+        query.setSortBy(sortBy);
+        query.setSortOrder(sortOrder);
+        query.setPage(page);
+        query.setSize(size);
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SearchResultDto> results(Map<String, Object> result) {
+        return (List<SearchResultDto>) result.get("searchResults");
+    }
+
+    private static List<Integer> ids(Map<String, Object> result) {
+        return results(result).stream().map(SearchResultDto::getHotelId).toList();
+    }
+
+    @Test
+    void sortsByCheapestRoomPriceAndPages() {
+        // 價格由低到高：4(1800) 2(2500) 5(2900) 1(3100，較便宜的房型) 3(4000)
+        Map<String, Object> first = service.searchHotel(query("price", "asc", 0, 2));
+        assertEquals(5, first.get("totalElement"));
+        assertEquals(List.of(4, 2), ids(first));
+        assertEquals(List.of(5, 1), ids(service.searchHotel(query("price", "asc", 1, 2))));
+        // 最後一頁不足一頁
+        assertEquals(List.of(3), ids(service.searchHotel(query("price", "asc", 2, 2))));
+
+        Map<String, Object> desc = service.searchHotel(query("price", "desc", 0, 10));
+        assertEquals(List.of(3, 1, 5, 2, 4), ids(desc));
+        assertEquals(3100L, results(desc).get(1).getPartPrice());
+        assertEquals(2, results(desc).get(1).getNight());
+    }
+
+    @Test
+    void pageBeyondLastSkipsHotelLookups() {
+        Map<String, Object> result = service.searchHotel(query("price", "asc", 3, 2));
+
+        assertEquals(5, result.get("totalElement"));
+        assertTrue(results(result).isEmpty());
+        verify(hotelRepository, never()).findHotelDetail(anyList());
+        verify(photoRepository, never()).findCoverPhotosByHotelIds(anyList());
+    }
+
+    @Test
+    void sortsByRatingOverAllResultsAndStarRating() {
+        // 評分由高到低，沒有評分的飯店 2 視為 0 排最後
+        Map<String, Object> byRating = service.searchHotel(query("rating", "desc", 0, 3));
+        assertEquals(List.of(4, 1, 3), ids(byRating));
+        assertEquals(4.8, results(byRating).get(0).getAvgRating());
+
+        when(hotelRepository.findStarRatings(anyList())).thenReturn(List.of(
+                star(1, 5), star(2, 3), star(3, null), star(4, 4), star(5, 2)));
+        assertEquals(List.of(3, 5, 2, 4, 1), ids(service.searchHotel(query("starRating", "asc", 0, 10))));
+
+        // 預設依最便宜房型的人數
+        assertEquals(List.of(5, 3, 2, 1, 4), ids(service.searchHotel(query("maxOccupancy", "asc", 0, 10))));
+    }
+
+    @Test
+    void hotelWithoutCoverPhotoUsesPlaceholder() {
+        List<SearchResultDto> results = results(service.searchHotel(query("price", "asc", 0, 10)));
+
+        SearchResultDto noPhoto = results.stream().filter(r -> r.getHotelId() == 2).findFirst().orElseThrow();
+        assertEquals("no-image.jpg", noPhoto.getPhotoUrl());
+        assertEquals(0.0, noPhoto.getAvgRating());
+        SearchResultDto twoPhotos = results.stream().filter(r -> r.getHotelId() == 4).findFirst().orElseThrow();
+        assertEquals("h4-cover.jpg", twoPhotos.getPhotoUrl());
+    }
+
+    @Test
+    void noAvailableHotelReturnsNull() {
+        when(inventoryRepository.findAvailableHotelIds(any())).thenReturn(new ArrayList<>());
+
+        assertNull(service.searchHotel(query("price", "asc", 0, 10)));
+    }
+
+    @Test
+    void indexServesPriceAndSortKeyAndOnlyPageIsHydrated() {
+        LocalDate today = LocalDate.now();
+        InventoryRepository indexRepository = mock(InventoryRepository.class);
+        when(indexRepository.findRoomNightsBetween(any(), any())).thenReturn(List.of(
+                // 飯店 1：房型 11 兩晚共 2000，房型 12 兩晚共 3000
+                new RoomNightDto(11, 1, 2, today, 3, 1000), new RoomNightDto(11, 1, 2, today.plusDays(1), 3, 1000),
+                new RoomNightDto(12, 1, 4, today, 3, 1500), new RoomNightDto(12, 1, 4, today.plusDays(1), 3, 1500),
+                // 飯店 2：房型 21 兩晚共 1700
+                new RoomNightDto(21, 2, 2, today, 1, 800), new RoomNightDto(21, 2, 2, today.plusDays(1), 1, 900),
+                // 飯店 3：第二晚售完
+                new RoomNightDto(31, 3, 2, today, 1, 500), new RoomNightDto(31, 3, 2, today.plusDays(1), 0, 500)));
+        InventoryAvailabilityIndex index = new InventoryAvailabilityIndex(indexRepository, true, 30);
+        index.rebuild();
+        ReflectionTestUtils.setField(service, "availabilityIndex", index);
+        when(inventoryRepository.findCandidateHotelIds(any())).thenReturn(List.of(1, 2, 3));
+        // 資料庫的房型明細，飯店 1 較貴的房型排在前面
+        when(inventoryRepository.findRoomPriceByHotels(anyList(), any())).thenReturn(List.of(
+                new RoomPriceDto(1, 12, 3000L, "四人房", "雙人床", 2, "家庭房", 4, BigDecimal.TEN),
+                new RoomPriceDto(1, 11, 2000L, "雙人房", "雙人床", 1, "標準房", 2, BigDecimal.TEN)));
+
+        HotelQueryDto query = query("price", "desc", 0, 1);
+        query.setCheckInDate(today);
+        query.setCheckOutDate(today.plusDays(2));
+        Map<String, Object> result = service.searchHotel(query);
+
+        // 排序鍵來自索引：1(2000) 2(1700)，飯店 3 不可訂
+        assertEquals(2, result.get("totalElement"));
+        assertEquals(List.of(1), ids(result));
+        assertEquals(2000L, results(result).get(0).getPartPrice());
+        assertEquals("雙人房", results(result).get(0).getRoomType());
+        // 只對當頁飯店查房型明細
+        verify(inventoryRepository).findRoomPriceByHotels(eq(List.of(1)), any());
+        verify(inventoryRepository, never()).findAvailableHotelIds(any());
+    }
+
+    private static HotelStarRatingProjection star(int hotelId, Integer starRating) {
+        return new HotelStarRatingProjection() {
+            @Override
+            public Integer getHotelId() {
+                return hotelId;
+            }
+
+            @Override
+            public Integer getStarRating() {
+                return starRating;
+            }
+        };
+    }
+}
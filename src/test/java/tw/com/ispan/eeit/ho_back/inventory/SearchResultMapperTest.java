@@ -0,0 +1,41 @@
+package tw.com.ispan.eeit.ho_back.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.hotel.HotelDetailDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.RoomPriceDto;
+import tw.com.ispan.eeit.ho_back.inventory.dto.SearchResultDto;
+
+public class SearchResultMapperTest {
+
+    @Test
+    void mapsHotelAndCheapestRoom() {
+        HotelDetailDto hotel = new HotelDetailDto(7, "晶華酒店", 5, "中山區", "台北市", "中山北路二段39巷3號",
+                new BigDecimal("25.0540"), new BigDecimal("121.5240"), "描述");
+        RoomPriceDto room = new RoomPriceDto(7, 71, 12800L, "豪華客房", "雙人床", 1, "豪華雙人房", 2,
+                new BigDecimal("40"));
+
+        SearchResultDto result = new SearchResultMapper().toSearchResult(hotel, room, "cover.jpg", 4.6, 2);
+
+        assertEquals(7, result.getHotelId());
+        assertEquals("晶華酒店", result.getHotelName());
+        assertEquals("台北市", result.getCity());
+        assertEquals("中山區", result.getDistrict());
+        assertEquals("中山北路二段39巷3號", result.getAddress());
+        assertEquals(5, result.getStarRating());
+        assertEquals(new BigDecimal("25.0540"), result.getLatitude());
+        assertEquals(new BigDecimal("121.5240"), result.getLongitude());
+        assertEquals("cover.jpg", result.getPhotoUrl());
+        assertEquals("豪華客房", result.getRoomType());
+        assertEquals("雙人床", result.getBedType());
+        assertEquals(1, result.getBedNumber());
+        assertEquals(12800L, result.getPartPrice());
+        assertEquals(2, result.getMaxOccupancy());
+        assertEquals(4.6, result.getAvgRating());
+        assertEquals(2, result.getNight());
+    }
+}
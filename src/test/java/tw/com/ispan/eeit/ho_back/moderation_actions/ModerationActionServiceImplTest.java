@@ -0,0 +1,107 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import tw.com.ispan.eeit.ho_back.review.HotelRatingService;
+
+public class ModerationActionServiceImplTest {
+
+    private ModerationActionRepository repo;
+    private EntityManager entityManager;
+    private HotelRatingService hotelRatingService;
+    private ReviewSchemaResolver schemaResolver;
+    private Query visibilityQuery;
+    private ModerationActionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(ModerationActionRepository.class);
+        entityManager = mock(EntityManager.class);
+        hotelRatingService = mock(HotelRatingService.class);
+        schemaResolver = mock(ReviewSchemaResolver.class);
+        visibilityQuery = mock(Query.class);
+        when(schemaResolver.review()).thenReturn(ReviewSchemaResolver.resolve(List.<Object[]>of(
+                new Object[] { "review", "comment" }, new Object[] { "review", "is_visible" }),
+                LocalDateTime.now()));
+        when(entityManager.createNativeQuery(anyString())).thenReturn(visibilityQuery);
+        when(repo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new ModerationActionServiceImpl(repo, entityManager, hotelRatingService, schemaResolver);
+    }
+
+    private void existing() {
+        ModerationAction action = new ModerationAction();
+        action.setId(1L);
+        action.setReviewId(7L);
+        when(repo.findById(1L)).thenReturn(Optional.of(action));
+    }
+
+    private static ModerationAction hide() {
+        ModerationAction action = new ModerationAction();
+        action.setReviewId(7L);
+        action.setActionTaken(ActionTaken.HIDE);
+        return action;
+    }
+
+    @Test
+    void ratingIsAdjustedAfterVisibilityRowIsUpdated() {
+        existing();
+        when(visibilityQuery.executeUpdate()).thenReturn(1);
+
+        service.update(1L, hide());
+
+        InOrder order = inOrder(visibilityQuery, hotelRatingService);
+        order.verify(visibilityQuery).executeUpdate();
+        order.verify(hotelRatingService).onVisibilityChanged(7, false);
+    }
+
+    @Test
+    void alreadyHiddenReviewLeavesRatingUntouched() {
+        existing();
+        // is_visible 原本就是 0，UPDATE 沒有影響任何一列
+        when(visibilityQuery.executeUpdate()).thenReturn(0);
+
+        service.update(1L, hide());
+
+        verify(hotelRatingService, never()).onVisibilityChanged(anyInt(), anyBoolean());
+    }
+
+    @Test
+    void missingVisibilityColumnLeavesRatingUntouched() {
+        existing();
+        when(schemaResolver.review()).thenReturn(ReviewSchemaResolver.resolve(
+                List.<Object[]>of(new Object[] { "review", "comment" }), LocalDateTime.now()));
+        when(visibilityQuery.executeUpdate()).thenReturn(1);
+
+        service.update(1L, hide());
+
+        verify(hotelRatingService, never()).onVisibilityChanged(anyInt(), anyBoolean());
+    }
+
+    @Test
+    void failedVisibilityUpdateLeavesRatingUntouched() {
+        existing();
+        when(visibilityQuery.executeUpdate()).thenThrow(new IllegalStateException("deadlock"));
+
+        service.update(1L, hide());
+
+        verify(hotelRatingService, never()).onVisibilityChanged(anyInt(), anyBoolean());
+    }
+}
@@ -0,0 +1,143 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor.SpecificationFluentQuery;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+public class ModerationActionSpecsTest {
+
+    // 不連線資料庫，只用 SQL Server 方言產生 SQL；statement inspector 取得 SQL 後中斷執行
+    private static final class RenderedSql extends RuntimeException {
+        RenderedSql(String sql) {
+            super(sql, null, false, false);
+        }
+    }
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void buildSessionFactory() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", "org.hibernate.dialect.SQLServerDialect")
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .applySetting("hibernate.session_factory.statement_inspector",
+                        (StatementInspector) sql -> {
+                            throw new RenderedSql(sql);
+                        })
+                .build())
+                .addAnnotatedClass(ModerationAction.class)
+                .buildMetadata()
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    private static String whereClause(Specification<ModerationAction> spec) {
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<ModerationAction> cq = cb.createQuery(ModerationAction.class);
+            Root<ModerationAction> root = cq.from(ModerationAction.class);
+            cq.where(spec.toPredicate(root, cq, cb));
+            session.createQuery(cq).getResultList();
+        } catch (RenderedSql e) {
+            String sql = e.getMessage();
+            return sql.substring(sql.indexOf(" where ") + 7);
+        }
+        throw new AssertionError("SQL 沒有產生");
+    }
+
+    private static ModerationQueueQuery status(Status status) {
+        ModerationQueueQuery query = new ModerationQueueQuery();
+        query.setStatus(status);
+        return query;
+    }
+
+    @Test
+    void statusComparesRawColumn() {
+        // 不對欄位套函數，才能使用 (status, created_at, id) 索引
+        assertEquals("ma1_0.status in (?,?,?,?)",
+                whereClause(ModerationActionSpecs.byQuery(status(Status.PENDING), true)));
+        assertEquals("ma1_0.status in (?,?,?,?,?)",
+                whereClause(ModerationActionSpecs.byQuery(status(Status.RESOLVED), true)));
+
+        for (String value : Status.RESOLVED.storedValues()) {
+            assertEquals(Status.RESOLVED, Status.fromString(value));
+            assertEquals(Status.RESOLVED, Status.fromString(" " + value.toLowerCase() + " "));
+        }
+        for (String value : List.of("PENDING", "待審查", "待審核", "NULL", "", "不明狀態")) {
+            assertEquals(Status.PENDING, Status.fromString(value));
+            assertFalse(Status.RESOLVED.storedValues().contains(value));
+        }
+    }
+
+    @Test
+    void statusIsSkippedForCounts() {
+        assertTrue(whereClause(ModerationActionSpecs.byQuery(status(Status.PENDING), false)).startsWith("1=1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void pagingBreaksCreatedAtTieById() {
+        LocalDateTime tie = LocalDateTime.of(2025, 11, 20, 10, 15, 30);
+        List<ModerationAction> rows = List.of(action(9L, tie.plusMinutes(1)), action(8L, tie), action(7L, tie));
+        ModerationActionRepository repo = mock(ModerationActionRepository.class);
+        SpecificationFluentQuery<ModerationAction> fluent = mock(SpecificationFluentQuery.class, RETURNS_SELF);
+        when(fluent.all()).thenReturn(rows);
+        List<Specification<ModerationAction>> specs = new ArrayList<>();
+        when(repo.findBy(any(Specification.class), any(Function.class))).thenAnswer(invocation -> {
+            specs.add(invocation.getArgument(0));
+            return ((Function<SpecificationFluentQuery<ModerationAction>, Object>) invocation.getArgument(1))
+                    .apply(fluent);
+        });
+        ModerationActionServiceImpl service = new ModerationActionServiceImpl(repo, null, null, null);
+
+        // 第二頁：上一頁最後一筆與下一筆 createdAt 相同，游標要帶 id
+        ModerationQueuePageDto<ModerationAction> page = service.queue(status(Status.PENDING),
+                new ModerationQueueCursor(tie.plusMinutes(2), 10L).encode(), 2);
+
+        assertTrue(page.isHasNext());
+        assertEquals(List.of(9L, 8L), page.getItems().stream().map(ModerationAction::getId).toList());
+        assertEquals(new ModerationQueueCursor(tie, 8L), ModerationQueueCursor.parse(page.getNextCursor()));
+        verify(fluent).sortBy(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        verify(fluent).limit(3);
+        assertEquals("ma1_0.status in (?,?,?,?) "
+                + "and (ma1_0.created_at<? or ma1_0.created_at=? and ma1_0.id<?)",
+                whereClause(specs.get(0)));
+    }
+
+    private static ModerationAction action(Long id, LocalDateTime createdAt) {
+        ModerationAction action = new ModerationAction();
+        action.setId(id);
+        action.setCreatedAt(createdAt);
+        return action;
+    }
+}
@@ -0,0 +1,36 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class ModerationQueueCursorTest {
+
+    @Test
+    void encodeAndParse() {
+        ModerationAction action = new ModerationAction();
+        action.setId(123L);
+        action.setCreatedAt(LocalDateTime.of(2025, 11, 20, 10, 15, 30, 123_000_000));
+
+        String cursor = ModerationQueueCursor.of(action).encode();
+        assertEquals("2025-11-20T10:15:30.123_123", cursor);
+        assertEquals(new ModerationQueueCursor(action.getCreatedAt(), 123L), ModerationQueueCursor.parse(cursor));
+
+        // 秒數為 0 時 LocalDateTime.toString 會省略秒數
+        LocalDateTime onTheMinute = LocalDateTime.of(2025, 11, 20, 10, 15);
+        assertEquals(onTheMinute, ModerationQueueCursor.parse(new ModerationQueueCursor(onTheMinute, 1L).encode())
+                .createdAt());
+    }
+
+    @Test
+    void parseFirstPageAndInvalid() {
+        assertNull(ModerationQueueCursor.parse(null));
+        assertNull(ModerationQueueCursor.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> ModerationQueueCursor.parse("2025-11-20_123"));
+        assertThrows(IllegalArgumentException.class, () -> ModerationQueueCursor.parse("2025-11-20T10:15:30_abc"));
+    }
+}
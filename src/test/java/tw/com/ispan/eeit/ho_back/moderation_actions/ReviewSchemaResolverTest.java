@@ -0,0 +1,81 @@
+package tw.com.ispan.eeit.ho_back.moderation_actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+public class ReviewSchemaResolverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 20, 12, 0);
+
+    private static Object[] column(String table, String column) {
+        return new Object[] { table, column };
+    }
+
+    @Test
+    void resolvesPreferredTableAndColumns() {
+        List<Object[]> rows = List.of(
+                column("reviews", "text"),
+                column("review", "id"),
+                column("review", "comment"),
+                column("review", "created_date"),
+                column("review", "is_visible"),
+                column("review", "reply_is_visible"));
+
+        ReviewSchemaResolver.ReviewStatements review = ReviewSchemaResolver.resolve(rows, NOW);
+
+        assertEquals("review", review.table());
+        assertEquals("SELECT id, [comment] FROM [review] WHERE id = :reviewId", review.selectContentSql());
+        assertEquals("SELECT COUNT(*) FROM [review] WHERE [created_date] >= :start AND [created_date] < :end",
+                review.countBetweenSql());
+        assertEquals("UPDATE [review] SET is_visible = :visibility, reply_is_visible = :visibility "
+                + "WHERE id = :reviewId AND is_visible <> :visibility", review.updateVisibilitySql());
+        assertEquals("UPDATE [review] SET comment = :replacementText WHERE id = :reviewId",
+                review.updateContentSql());
+    }
+
+    @Test
+    void leavesStatementsNullWhenColumnsAreMissing() {
+        ReviewSchemaResolver.ReviewStatements review = ReviewSchemaResolver.resolve(
+                List.<Object[]>of(column("reviews", "id"), column("reviews", "content")), NOW);
+
+        assertEquals("reviews", review.table());
+        assertEquals("SELECT id, [content] FROM [reviews] WHERE id = :reviewId", review.selectContentSql());
+        assertNull(review.countBetweenSql());
+        assertNull(review.updateVisibilitySql());
+        assertNull(review.updateContentSql());
+
+        assertFalse(ReviewSchemaResolver.resolve(List.of(), NOW).tableFound());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void probesOnceUntilRefreshed() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Query query = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.<Object[]>of(column("review", "comment")));
+        ReviewSchemaResolver resolver = new ReviewSchemaResolver(entityManager);
+
+        ReviewSchemaResolver.ReviewStatements first = resolver.review();
+        assertSame(first, resolver.review());
+        verify(query, times(1)).getResultList();
+
+        resolver.refresh();
+        verify(query, times(2)).getResultList();
+    }
+}
@@ -0,0 +1,143 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tw.com.ispan.eeit.ho_back.booking.Booking;
+
+public class HotelRatingServiceTest {
+
+    // 訂單 → 飯店：訂單 1、2 在飯店 10，訂單 3 在飯店 20
+    private static final Map<Integer, Integer> BOOKING_HOTEL = Map.of(1, 10, 2, 10, 3, 20);
+
+    private HotelRatingSummaryRepository summaryRepository;
+    private ReviewRepository reviewRepository;
+    private HotelRatingService service;
+
+    // 增量更新累積的結果：{ count, sum, star1..star5 }
+    private final Map<Integer, long[]> summaries = new HashMap<>();
+    private final List<Review> reviews = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        summaryRepository = mock(HotelRatingSummaryRepository.class);
+        reviewRepository = mock(ReviewRepository.class);
+        when(summaryRepository.findHotelIdsByBookingId(anyInt()))
+                .thenAnswer(invocation -> List.of(BOOKING_HOTEL.get(invocation.<Integer>getArgument(0))));
+        when(summaryRepository.applyDelta(anyInt(), anyInt(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(),
+                anyInt())).thenAnswer(invocation -> {
+                    long[] summary = summaries.computeIfAbsent(invocation.getArgument(0), k -> new long[7]);
+                    summary[0] += invocation.<Integer>getArgument(1);
+                    summary[1] += invocation.<Long>getArgument(2);
+                    for (int star = 1; star <= 5; star++) {
+                        summary[star + 1] += invocation.<Integer>getArgument(star + 2);
+                    }
+                    return 1;
+                });
+        service = new HotelRatingService(summaryRepository, reviewRepository);
+    }
+
+    private Review add(int id, int bookingId, Integer rating) {
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        Review review = new Review();
+        review.setId(id);
+        review.setBooking(booking);
+        review.setRating(rating);
+        reviews.add(review);
+        when(reviewRepository.findById(id)).thenReturn(Optional.of(review));
+        service.onReviewAdded(bookingId, rating);
+        return review;
+    }
+
+    private void changeRating(Review review, Integer rating) {
+        service.onRatingChanged(review.getBooking().getId(), review.getRating(), rating);
+        review.setRating(rating);
+    }
+
+    private void setVisible(Review review, boolean visible) {
+        // 與實際流程相同：UPDATE 只在 is_visible 不同時影響一列，更新成功後才通知
+        if (!Boolean.valueOf(visible).equals(review.getIsVisible())) {
+            review.setIsVisible(visible);
+            service.onVisibilityChanged(review.getId(), visible);
+        }
+    }
+
+    // 與 insertSummariesFromReviews 相同的規則：可見且有分數的評論，星等只看 rating = N
+    private Map<Integer, long[]> rebuilt() {
+        Map<Integer, long[]> result = new HashMap<>();
+        for (Review review : reviews) {
+            if (!Boolean.TRUE.equals(review.getIsVisible()) || review.getRating() == null) {
+                continue;
+            }
+            long[] summary = result.computeIfAbsent(BOOKING_HOTEL.get(review.getBooking().getId()),
+                    k -> new long[7]);
+            int rating = review.getRating();
+            summary[0]++;
+            summary[1] += rating;
+            for (int star = 1; star <= 5; star++) {
+                summary[star + 1] += rating == star ? 1 : 0;
+            }
+        }
+        return result;
+    }
+
+    private void assertMatchesRebuild() {
+        Map<Integer, long[]> expected = rebuilt();
+        for (Integer hotelId : BOOKING_HOTEL.values()) {
+            assertArrayEquals(expected.getOrDefault(hotelId, new long[7]),
+                    summaries.getOrDefault(hotelId, new long[7]), "hotel " + hotelId);
+        }
+    }
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        Review five = add(1, 1, 5);
+        Review three = add(2, 2, 3);
+        add(3, 3, 4);
+        add(4, 1, null);
+        assertMatchesRebuild();
+
+        changeRating(three, 4);
+        changeRating(five, 5); // 分數相同不更新
+        setVisible(five, false);
+        setVisible(five, false); // 已隱藏，不重複扣除
+        assertMatchesRebuild();
+
+        setVisible(five, true);
+        assertMatchesRebuild();
+        assertArrayEquals(new long[] { 2, 9, 0, 0, 0, 1, 1 }, summaries.get(10));
+    }
+
+    @Test
+    void outOfRangeRatingsCountTowardsSumButNoStar() {
+        // rebuild 只計 rating = 1..5 的星等，增量更新不能把 0 或 7 歸到 1 星或 5 星
+        Review seven = add(1, 1, 7);
+        Review zero = add(2, 1, 0);
+        assertMatchesRebuild();
+        assertArrayEquals(new long[] { 2, 7, 0, 0, 0, 0, 0 }, summaries.get(10));
+
+        changeRating(seven, 5);
+        changeRating(zero, 1);
+        assertMatchesRebuild();
+        assertArrayEquals(new long[] { 2, 6, 1, 0, 0, 0, 1 }, summaries.get(10));
+
+        setVisible(seven, false);
+        changeRating(zero, null);
+        assertMatchesRebuild();
+        assertEquals(0L, summaries.get(10)[0]);
+    }
+}
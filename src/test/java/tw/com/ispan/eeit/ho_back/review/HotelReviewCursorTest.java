@@ -0,0 +1,54 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class HotelReviewCursorTest {
+
+    @Test
+    void normalizeSort() {
+        assertEquals("newest", HotelReviewCursor.normalizeSort(null));
+        assertEquals("highest", HotelReviewCursor.normalizeSort(" Highest "));
+        assertThrows(IllegalArgumentException.class, () -> HotelReviewCursor.normalizeSort("price"));
+    }
+
+    @Test
+    void encodeAndParse() {
+        HotelReviewDto review = new HotelReviewDto(123, 1, 5, "很棒", null, LocalDate.of(2025, 11, 20));
+
+        String newest = HotelReviewCursor.of("newest", review).encode();
+        assertEquals("2025-11-20_123", newest);
+        assertEquals(new HotelReviewCursor(null, LocalDate.of(2025, 11, 20), 123),
+                HotelReviewCursor.parse("newest", newest));
+
+        String highest = HotelReviewCursor.of("highest", review).encode();
+        assertEquals("5_2025-11-20_123", highest);
+        assertEquals(new HotelReviewCursor(5, LocalDate.of(2025, 11, 20), 123),
+                HotelReviewCursor.parse("highest", highest));
+    }
+
+    @Test
+    void parseFirstPageAndInvalid() {
+        assertNull(HotelReviewCursor.parse("newest", null));
+        assertNull(HotelReviewCursor.parse("lowest", ""));
+        // 排序與游標格式不符
+        assertThrows(IllegalArgumentException.class, () -> HotelReviewCursor.parse("lowest", "2025-11-20_123"));
+        assertThrows(IllegalArgumentException.class, () -> HotelReviewCursor.parse("newest", "abc_1"));
+    }
+
+    @Test
+    void nullRatingEncodesAsZero() {
+        HotelReviewDto review = new HotelReviewDto(77, 1, null, "沒給分", null, LocalDate.of(2025, 11, 20));
+
+        String lowest = HotelReviewCursor.of("lowest", review).encode();
+        assertEquals("0_2025-11-20_77", lowest);
+        assertEquals(new HotelReviewCursor(0, LocalDate.of(2025, 11, 20), 77),
+                HotelReviewCursor.parse("lowest", lowest));
+        assertEquals("2025-11-20_77", HotelReviewCursor.of("newest", review).encode());
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -25,4 +26,10 @@ public class ReviewRepositoryTest {
         Integer hotelId = 1;
         System.out.println(reviewRepository.findReviewsByHotelId(hotelId));
     }
+
+    @Test
+    public void findHotelReviewsNewest() {
+        Integer hotelId = 1;
+        System.out.println(reviewRepository.findHotelReviewsNewest(hotelId, null, null, PageRequest.of(0, 5)));
+    }
 }
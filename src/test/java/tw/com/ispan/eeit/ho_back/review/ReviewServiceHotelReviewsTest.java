@@ -0,0 +1,74 @@
+package tw.com.ispan.eeit.ho_back.review;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReviewServiceHotelReviewsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 20);
+
+    private ReviewRepository reviewRepository;
+    private ReviewService service;
+
+    @BeforeEach
+    void setUp() {
+        reviewRepository = mock(ReviewRepository.class);
+        service = new ReviewService();
+        ReflectionTestUtils.setField(service, "reviewRepository", reviewRepository);
+        ReflectionTestUtils.setField(service, "hotelRatingService", mock(HotelRatingService.class));
+    }
+
+    private static HotelReviewDto review(int id, Integer rating) {
+        return new HotelReviewDto(id, 1, rating, "評論" + id, null, DAY);
+    }
+
+    @Test
+    void lowestPagesAcrossNullRatings() {
+        // 沒有評分的排在最前面（COALESCE 為 0），第一頁最後一筆沒有評分
+        when(reviewRepository.findHotelReviewsLowest(eq(1), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(review(9, null), review(8, null), review(7, null)));
+        HotelReviewPageDto first = service.getHotelReviews(1, "lowest", 2, null);
+
+        assertTrue(first.isHasNext());
+        assertEquals("0_2025-11-20_8", first.getNextCursor());
+
+        when(reviewRepository.findHotelReviewsLowest(eq(1), eq(0), eq(DAY), eq(8), any(Pageable.class)))
+                .thenReturn(List.of(review(7, null), review(6, 1)));
+        HotelReviewPageDto second = service.getHotelReviews(1, "lowest", 2, first.getNextCursor());
+
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        assertEquals(List.of(7, 6), second.getReviews().stream().map(HotelReviewDto::getReviewId).toList());
+    }
+
+    @Test
+    void highestEndsWithNullRatings() {
+        when(reviewRepository.findHotelReviewsHighest(eq(1), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(List.of(review(5, 5), review(4, null), review(3, null)));
+        HotelReviewPageDto first = service.getHotelReviews(1, "highest", 2, null);
+
+        assertEquals("0_2025-11-20_4", first.getNextCursor());
+
+        when(reviewRepository.findHotelReviewsHighest(eq(1), eq(0), eq(DAY), eq(4), any(Pageable.class)))
+                .thenReturn(List.of(review(3, null)));
+        HotelReviewPageDto second = service.getHotelReviews(1, "highest", 2, first.getNextCursor());
+
+        assertFalse(second.isHasNext());
+        assertEquals(List.of(3), second.getReviews().stream().map(HotelReviewDto::getReviewId).toList());
+    }
+}